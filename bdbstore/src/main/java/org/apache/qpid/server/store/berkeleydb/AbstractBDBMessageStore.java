@@ -62,7 +62,7 @@ import org.apache.qpid.server.store.TransactionLogResource;
 import org.apache.qpid.server.store.Xid;
 import org.apache.qpid.server.store.berkeleydb.entry.PreparedTransaction;
 import org.apache.qpid.server.store.berkeleydb.entry.QueueEntryKey;
-import org.apache.qpid.server.store.berkeleydb.tuple.ByteBufferBinding;
+import org.apache.qpid.server.store.berkeleydb.tuple.MessageContentKeyBinding;
 import org.apache.qpid.server.store.berkeleydb.tuple.MessageMetaDataBinding;
 import org.apache.qpid.server.store.berkeleydb.tuple.PreparedTransactionBinding;
 import org.apache.qpid.server.store.berkeleydb.tuple.QueueEntryBinding;
@@ -79,7 +79,7 @@ public abstract class AbstractBDBMessageStore implements MessageStore
 
     private static final String MESSAGE_META_DATA_DB_NAME = "MESSAGE_METADATA";
     private static final String MESSAGE_META_DATA_SEQ_DB_NAME = "MESSAGE_METADATA.SEQ";
-    private static final String MESSAGE_CONTENT_DB_NAME = "MESSAGE_CONTENT";
+    private static final String MESSAGE_CONTENT_DB_NAME = "MESSAGE_CONTENT_CHUNKS";
     private static final String DELIVERY_DB_NAME = "QUEUE_ENTRIES";
 
     //TODO: Add upgrader to remove BRIDGES and LINKS
@@ -244,9 +244,7 @@ public abstract class AbstractBDBMessageStore implements MessageStore
                     getLogger().debug("Deleted metadata for message {}", messageId);
 
                     //now remove the content data from the store if there is any.
-                    DatabaseEntry contentKeyEntry = new DatabaseEntry();
-                    LongBinding.longToEntry(messageId, contentKeyEntry);
-                    getMessageContentDb().delete(tx, contentKeyEntry);
+                    removeContent(tx, messageId);
 
                     getLogger().debug("Deleted content for message {}", messageId);
 
@@ -350,82 +348,115 @@ public abstract class AbstractBDBMessageStore implements MessageStore
      */
     int getContent(long messageId, int offset, ByteBuffer dst) throws StoreException
     {
-        DatabaseEntry contentKeyEntry = new DatabaseEntry();
-        LongBinding.longToEntry(messageId, contentKeyEntry);
-        DatabaseEntry value = new DatabaseEntry();
-        ByteBufferBinding contentTupleBinding = ByteBufferBinding.getInstance();
-
-
         getLogger().debug("Message Id: {} Getting content body from offset: {}", messageId, offset);
 
-
-        try
+        Collection<QpidByteBuffer> content = readContent(messageId, offset, dst.remaining());
+        int written = 0;
+        if (content != null)
         {
-
-            int written = 0;
-            OperationStatus status = getMessageContentDb().get(null, contentKeyEntry, value, LockMode.READ_UNCOMMITTED);
-            if (status == OperationStatus.SUCCESS)
+            for (QpidByteBuffer buf : content)
             {
-                QpidByteBuffer buffer = contentTupleBinding.entryToObject(value);
-                int size = buffer.remaining();
-                if (offset > size)
-                {
-                    throw new RuntimeException("Offset " + offset + " is greater than message size " + size
-                                               + " for message id " + messageId + "!");
-
-                }
-
-                written = size - offset;
-                if(written > dst.remaining())
-                {
-                    written = dst.remaining();
-                }
-                buffer = buffer.view(offset, written);
-                buffer.get(dst);
+                written += buf.remaining();
+                buf.get(dst);
+                buf.dispose();
             }
-            return written;
         }
-        catch (RuntimeException e)
+        return written;
+    }
+
+    Collection<QpidByteBuffer> getAllContent(long messageId) throws StoreException
+    {
+        getLogger().debug("Message Id: {} Getting content body", messageId);
+
+        return getContent(messageId, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads part of the content of a message, fetching only the chunks which hold the requested range.
+     *
+     * @param messageId The message to get the data for.
+     * @param offset    The offset of the data within the message.
+     * @param length    The maximum number of bytes to read.
+     *
+     * @return buffers holding the content read, which may be less than the length requested if the message ends
+     *
+     * @throws org.apache.qpid.server.store.StoreException If the operation fails for any reason, or if the specified message does not exist.
+     */
+    Collection<QpidByteBuffer> getContent(long messageId, int offset, int length) throws StoreException
+    {
+        Collection<QpidByteBuffer> content = readContent(messageId, offset, length);
+        if (content == null)
         {
-            throw getEnvironmentFacade().handleDatabaseException("Error getting AMQMessage with id "
-                                                                 + messageId
-                                                                 + " to database: "
-                                                                 + e.getMessage(), e);
+            throw new StoreException("Unable to find message with id " + messageId);
         }
+        return content;
     }
 
-    Collection<QpidByteBuffer> getAllContent(long messageId) throws StoreException
+    /**
+     * @return the content read, or null if the message has no content in the store
+     */
+    private Collection<QpidByteBuffer> readContent(long messageId, int offset, int length) throws StoreException
     {
-        DatabaseEntry contentKeyEntry = new DatabaseEntry();
-        LongBinding.longToEntry(messageId, contentKeyEntry);
-        DatabaseEntry value = new DatabaseEntry();
+        MessageContentKeyBinding keyBinding = MessageContentKeyBinding.getInstance();
+        int chunk = offset / MessageContentKeyBinding.CHUNK_SIZE;
+        int offsetInChunk = offset % MessageContentKeyBinding.CHUNK_SIZE;
 
-        getLogger().debug("Message Id: {} Getting content body", messageId);
+        DatabaseEntry key = new DatabaseEntry();
+        keyBinding.objectToEntry(messageId, chunk, key);
+        DatabaseEntry value = new DatabaseEntry();
 
+        Cursor cursor = null;
         try
         {
-            OperationStatus status = getMessageContentDb().get(null, contentKeyEntry, value, LockMode.READ_UNCOMMITTED);
-
-            if (status == OperationStatus.SUCCESS)
+            cursor = getMessageContentDb().openCursor(null, null);
+            OperationStatus status = cursor.getSearchKey(key, value, LockMode.READ_UNCOMMITTED);
+            if (status != OperationStatus.SUCCESS)
             {
-                byte[] data = value.getData();
-                int offset = value.getOffset();
-                int length = value.getSize();
-                Collection<QpidByteBuffer> buffers = QpidByteBuffer.allocateDirectCollection(length);
-                for(QpidByteBuffer buf : buffers)
+                long size = getContentSize(cursor, messageId);
+                if (size < 0)
                 {
-                    int bufSize = buf.remaining();
-                    buf.put(data, offset, bufSize);
-                    buf.flip();
-                    offset+=bufSize;
+                    return null;
                 }
-                return buffers;
+                else if (offset == size)
+                {
+                    return Collections.emptyList();
+                }
+                throw new RuntimeException("Offset " + offset + " is greater than message size " + size
+                                           + " for message id " + messageId + "!");
             }
-            else
+            else if (offsetInChunk > value.getSize())
             {
-                throw new StoreException("Unable to find message with id " + messageId);
+                long size = (long) chunk * MessageContentKeyBinding.CHUNK_SIZE + value.getSize();
+                throw new RuntimeException("Offset " + offset + " is greater than message size " + size
+                                           + " for message id " + messageId + "!");
             }
 
+            List<QpidByteBuffer> buffers = new ArrayList<>();
+            int remaining = length;
+            while (status == OperationStatus.SUCCESS
+                   && keyBinding.getMessageId(key) == messageId
+                   && remaining > 0)
+            {
+                int size = Math.min(value.getSize() - offsetInChunk, remaining);
+                if (size > 0)
+                {
+                    for (QpidByteBuffer buf : QpidByteBuffer.allocateDirectCollection(size))
+                    {
+                        int bufSize = buf.remaining();
+                        buf.put(value.getData(), value.getOffset() + offsetInChunk, bufSize);
+                        buf.flip();
+                        offsetInChunk += bufSize;
+                        buffers.add(buf);
+                    }
+                    remaining -= size;
+                }
+                offsetInChunk = 0;
+                if (remaining > 0)
+                {
+                    status = cursor.getNext(key, value, LockMode.READ_UNCOMMITTED);
+                }
+            }
+            return buffers;
         }
         catch (RuntimeException e)
         {
@@ -434,6 +465,38 @@ public abstract class AbstractBDBMessageStore implements MessageStore
                                                                  + " to database: "
                                                                  + e.getMessage(), e);
         }
+        finally
+        {
+            closeCursorSafely(cursor, getEnvironmentFacade());
+        }
+    }
+
+    /**
+     * @return the size of the content of the message, found from its last chunk, or -1 if it has no content
+     */
+    private long getContentSize(final Cursor cursor, final long messageId)
+    {
+        MessageContentKeyBinding keyBinding = MessageContentKeyBinding.getInstance();
+        DatabaseEntry key = new DatabaseEntry();
+        keyBinding.objectToEntry(messageId, Integer.MAX_VALUE, key);
+        DatabaseEntry value = new DatabaseEntry();
+
+        OperationStatus status = cursor.getSearchKeyRange(key, value, LockMode.READ_UNCOMMITTED);
+        if (status == OperationStatus.SUCCESS)
+        {
+            status = cursor.getPrev(key, value, LockMode.READ_UNCOMMITTED);
+        }
+        else
+        {
+            status = cursor.getLast(key, value, LockMode.READ_UNCOMMITTED);
+        }
+
+        if (status == OperationStatus.SUCCESS && keyBinding.getMessageId(key) == messageId)
+        {
+            int lastChunk = keyBinding.entryToObject(key).getChunk();
+            return (long) lastChunk * MessageContentKeyBinding.CHUNK_SIZE + value.getSize();
+        }
+        return -1L;
     }
 
     private void visitMessagesInternal(MessageHandler handler, EnvironmentFacade environmentFacade)
@@ -506,40 +569,59 @@ public abstract class AbstractBDBMessageStore implements MessageStore
     }
 
     /**
-     * Stores a chunk of message data.
+     * Stores the content of a message as a sequence of fixed size chunks, each copied directly from the buffers
+     * holding the content.  Empty content is stored as a single empty chunk, so that the message can still be found.
      *
      * @param tx         The transaction for the operation.
      * @param messageId       The message to store the data for.
-     * @param contentBody     The content of the data chunk.
+     * @param contentBody     The content of the message.
      *
      * @throws org.apache.qpid.server.store.StoreException If the operation fails for any reason, or if the specified message does not exist.
      */
     private void addContent(final Transaction tx, long messageId,
                             Collection<QpidByteBuffer> contentBody) throws StoreException
     {
-        DatabaseEntry key = new DatabaseEntry();
-        LongBinding.longToEntry(messageId, key);
-        DatabaseEntry value = new DatabaseEntry();
-
         int size = 0;
-
         for(QpidByteBuffer buf : contentBody)
         {
             size += buf.remaining();
         }
-        byte[] data = new byte[size];
-        ByteBuffer dst = ByteBuffer.wrap(data);
-        for(QpidByteBuffer buf : contentBody)
-        {
-            buf.copyTo(dst);
-        }
-        value.setData(data);
+
+        MessageContentKeyBinding keyBinding = MessageContentKeyBinding.getInstance();
+        DatabaseEntry key = new DatabaseEntry();
+        DatabaseEntry value = new DatabaseEntry();
         try
         {
-            OperationStatus status = getMessageContentDb().put(tx, key, value);
-            if (status != OperationStatus.SUCCESS)
+            int chunk = 0;
+            byte[] data = new byte[Math.min(size, MessageContentKeyBinding.CHUNK_SIZE)];
+            int dataPosition = 0;
+            for(QpidByteBuffer buf : contentBody)
             {
-                throw new StoreException("Error adding content for message id " + messageId + ": " + status);
+                QpidByteBuffer src = buf.duplicate();
+                try
+                {
+                    while (src.remaining() > 0)
+                    {
+                        int length = Math.min(src.remaining(), data.length - dataPosition);
+                        src.get(data, dataPosition, length);
+                        dataPosition += length;
+                        if (dataPosition == data.length)
+                        {
+                            putContentChunk(tx, messageId, chunk++, data, key, value);
+                            size -= dataPosition;
+                            data = new byte[Math.min(size, MessageContentKeyBinding.CHUNK_SIZE)];
+                            dataPosition = 0;
+                        }
+                    }
+                }
+                finally
+                {
+                    src.dispose();
+                }
+            }
+            if (chunk == 0)
+            {
+                putContentChunk(tx, messageId, chunk, data, key, value);
             }
 
             getLogger().debug("Storing content for message {} in transaction {}", messageId, tx);
@@ -554,6 +636,43 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         }
     }
 
+    private void putContentChunk(final Transaction tx, final long messageId, final int chunk, final byte[] data,
+                                 final DatabaseEntry key, final DatabaseEntry value)
+    {
+        MessageContentKeyBinding.getInstance().objectToEntry(messageId, chunk, key);
+        value.setData(data);
+        OperationStatus status = getMessageContentDb().put(tx, key, value);
+        if (status != OperationStatus.SUCCESS)
+        {
+            throw new StoreException("Error adding content for message id " + messageId + ": " + status);
+        }
+    }
+
+    private void removeContent(final Transaction tx, final long messageId)
+    {
+        MessageContentKeyBinding keyBinding = MessageContentKeyBinding.getInstance();
+        DatabaseEntry key = new DatabaseEntry();
+        keyBinding.objectToEntry(messageId, 0, key);
+        DatabaseEntry value = new DatabaseEntry();
+        value.setPartial(0, 0, true);
+
+        Cursor cursor = null;
+        try
+        {
+            cursor = getMessageContentDb().openCursor(tx, null);
+            OperationStatus status = cursor.getSearchKey(key, value, LockMode.RMW);
+            while (status == OperationStatus.SUCCESS && keyBinding.getMessageId(key) == messageId)
+            {
+                cursor.delete();
+                status = cursor.getNext(key, value, LockMode.RMW);
+            }
+        }
+        finally
+        {
+            closeCursorSafely(cursor, getEnvironmentFacade());
+        }
+    }
+
     /**
      * Stores message meta-data.
      *
@@ -1121,6 +1240,13 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         @Override
         public synchronized Collection<QpidByteBuffer> getContent(final int offsetInMessage, final int size)
         {
+            if (isPartialRead(offsetInMessage, size))
+            {
+                // fetch only the chunks holding the range, rather than reading the whole message into memory
+                checkMessageStoreOpen();
+                return AbstractBDBMessageStore.this.getContent(_messageId, offsetInMessage, size);
+            }
+
             int pos = 0;
             int added = 0;
 
@@ -1160,6 +1286,18 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             return content;
         }
 
+        private boolean isPartialRead(final int offsetInMessage, final int size)
+        {
+            if (_messageDataRef == null || _messageDataRef.getData() != null || !stored())
+            {
+                return false;
+            }
+            T metaData = _messageDataRef.getMetaData();
+            return metaData != null
+                   && offsetInMessage < metaData.getContentSize()
+                   && (offsetInMessage > 0 || size < metaData.getContentSize());
+        }
+
         synchronized void store(Transaction txn)
         {
             if (!stored())
@@ -20,6 +20,8 @@
  */
 package org.apache.qpid.server.store.berkeleydb;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
@@ -27,25 +29,79 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.Transaction;
-import org.apache.qpid.server.store.StoreException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.qpid.server.stats.LatencyHistogram;
 import org.apache.qpid.server.store.StoreException;
 
+/**
+ * Commits transactions by flushing the log on a dedicated thread, so that a single flush covers every transaction
+ * submitted since the last.
+ * <p>
+ * By default the thread flushes as soon as it finds a commit waiting.  In the adaptive group-commit mode, enabled by
+ * setting a maximum batch wait time, the thread instead waits up to the current batch wait time from the submission of
+ * the oldest waiting commit, or until the maximum batch size is reached, before flushing.  If a target commit latency is
+ * also set, the batch wait time is adjusted periodically so that the 99th percentile commit latency approaches the
+ * target: it grows while latency is within the target, and is halved whenever the target is exceeded.
+ */
 public class CoalescingCommiter implements Committer
 {
+    public static final String MAX_BATCH_WAIT_MICROS_PROPERTY_NAME = "qpid.bdb.commit.max_batch_wait_micros";
+    public static final String MAX_BATCH_SIZE_PROPERTY_NAME = "qpid.bdb.commit.max_batch_size";
+    public static final String TARGET_LATENCY_MICROS_PROPERTY_NAME = "qpid.bdb.commit.target_latency_micros";
+
+    private static final int DEFAULT_MAX_BATCH_WAIT_MICROS = 0;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final int DEFAULT_TARGET_LATENCY_MICROS = 0;
+
     private final CommitThread _commitThread;
 
     public CoalescingCommiter(String name, EnvironmentFacade environmentFacade)
     {
-        _commitThread = new CommitThread("Commit-Thread-" + name, environmentFacade);
+        this(name, environmentFacade, DEFAULT_MAX_BATCH_WAIT_MICROS, DEFAULT_MAX_BATCH_SIZE,
+             DEFAULT_TARGET_LATENCY_MICROS, new CommitStatistics());
+    }
+
+    public CoalescingCommiter(String name,
+                              EnvironmentFacade environmentFacade,
+                              StandardEnvironmentConfiguration configuration,
+                              CommitStatistics statistics)
+    {
+        this(name,
+             environmentFacade,
+             configuration.getFacadeParameter(MAX_BATCH_WAIT_MICROS_PROPERTY_NAME, DEFAULT_MAX_BATCH_WAIT_MICROS),
+             configuration.getFacadeParameter(MAX_BATCH_SIZE_PROPERTY_NAME, DEFAULT_MAX_BATCH_SIZE),
+             configuration.getFacadeParameter(TARGET_LATENCY_MICROS_PROPERTY_NAME, DEFAULT_TARGET_LATENCY_MICROS),
+             statistics);
+    }
+
+    /**
+     * @param maxBatchWaitMicros the longest time to wait for a batch to accumulate, or zero to flush immediately
+     * @param maxBatchSize the number of waiting commits at which the log is flushed without further waiting, or zero
+     *                     for no limit
+     * @param targetLatencyMicros the 99th percentile commit latency to aim for by adjusting the batch wait time, or
+     *                            zero to always wait for the maximum batch wait time
+     */
+    public CoalescingCommiter(String name,
+                              EnvironmentFacade environmentFacade,
+                              int maxBatchWaitMicros,
+                              int maxBatchSize,
+                              int targetLatencyMicros,
+                              CommitStatistics statistics)
+    {
+        _commitThread = new CommitThread("Commit-Thread-" + name, environmentFacade,
+                                         TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxBatchWaitMicros)),
+                                         maxBatchSize > 0 ? maxBatchSize : Integer.MAX_VALUE,
+                                         TimeUnit.MICROSECONDS.toNanos(Math.max(0, targetLatencyMicros)),
+                                         statistics);
     }
 
     @Override
@@ -89,6 +145,7 @@ public class CoalescingCommiter implements Committer
         private final Transaction _tx;
         private final boolean _syncCommit;
         private final ThreadNotifyingSettableFuture _future;
+        private final long _submissionTime = System.nanoTime();
 
         public BDBCommitFutureResult(CommitThread commitThread,
                                      Transaction tx,
@@ -110,6 +167,11 @@ public class CoalescingCommiter implements Committer
             _future.set(null);
         }
 
+        public long getSubmissionTime()
+        {
+            return _submissionTime;
+        }
+
         public void abort(RuntimeException databaseException)
         {
             _future.setException(databaseException);
@@ -179,15 +241,43 @@ public class CoalescingCommiter implements Committer
     {
         private static final Logger LOGGER = LoggerFactory.getLogger(CommitThread.class);
 
+        /** How often the batch wait time is adjusted towards the target latency */
+        private static final long ADJUSTMENT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+        /** The fewest commits on which to base an adjustment, so that the 99th percentile is meaningful */
+        private static final int MINIMUM_ADJUSTMENT_SAMPLE = 100;
+        /** The batch wait time grows by this fraction of the maximum at each adjustment within the target */
+        private static final int WAIT_TIME_INCREMENT_DIVISOR = 16;
+
         private final AtomicBoolean _stopped = new AtomicBoolean(false);
         private final Queue<BDBCommitFutureResult> _jobQueue = new ConcurrentLinkedQueue<BDBCommitFutureResult>();
+        /** The number of jobs queued, maintained separately as the size of the queue is expensive to compute */
+        private final AtomicInteger _queuedJobs = new AtomicInteger();
         private final Object _lock = new Object();
         private final EnvironmentFacade _environmentFacade;
-
-        public CommitThread(String name, EnvironmentFacade environmentFacade)
+        private final long _maxBatchWaitNanos;
+        private final int _maxBatchSize;
+        private final long _targetLatencyNanos;
+        private final CommitStatistics _statistics;
+
+        private long _batchWaitNanos;
+        private LatencyHistogram _adjustmentLatencies = new LatencyHistogram();
+        private long _lastAdjustmentTime = System.nanoTime();
+
+        public CommitThread(String name,
+                            EnvironmentFacade environmentFacade,
+                            long maxBatchWaitNanos,
+                            int maxBatchSize,
+                            long targetLatencyNanos,
+                            CommitStatistics statistics)
         {
             super(name);
             _environmentFacade = environmentFacade;
+            _maxBatchWaitNanos = maxBatchWaitNanos;
+            _maxBatchSize = maxBatchSize;
+            _targetLatencyNanos = targetLatencyNanos;
+            _statistics = statistics;
+            _batchWaitNanos = targetLatencyNanos > 0 ? 0L : maxBatchWaitNanos;
+            _statistics.setBatchWaitTime(_batchWaitNanos);
         }
 
         public void explicitNotify()
@@ -216,14 +306,47 @@ public class CoalescingCommiter implements Committer
                         {
                         }
                     }
+                    awaitBatch();
                 }
                 processJobs();
             }
         }
 
+        /**
+         * Waits, with the lock held, until the batch wait time has passed since the oldest waiting commit was
+         * submitted, or the batch is full.
+         */
+        private void awaitBatch()
+        {
+            if (_maxBatchWaitNanos == 0L)
+            {
+                return;
+            }
+
+            BDBCommitFutureResult oldest = _jobQueue.peek();
+            if (oldest == null)
+            {
+                return;
+            }
+            long deadline = oldest.getSubmissionTime() + _batchWaitNanos;
+            long remaining;
+            while (!_stopped.get()
+                   && _queuedJobs.get() < _maxBatchSize
+                   && (remaining = deadline - System.nanoTime()) > 0L)
+            {
+                try
+                {
+                    _lock.wait(TimeUnit.NANOSECONDS.toMillis(remaining), (int) (remaining % 1000000L));
+                }
+                catch (InterruptedException e)
+                {
+                }
+            }
+        }
+
         private void processJobs()
         {
-            int size = _jobQueue.size();
+            int size = _queuedJobs.get();
 
             try
             {
@@ -241,6 +364,9 @@ public class CoalescingCommiter implements Committer
                     LOGGER.debug("flushLog completed in " + duration  + " ms");
                 }
 
+                // statistics are recorded before the commits are completed, so that they reflect every completed commit
+                List<BDBCommitFutureResult> batch = new ArrayList<>(size);
+                long completionTime = System.nanoTime();
                 for(int i = 0; i < size; i++)
                 {
                     BDBCommitFutureResult commit = _jobQueue.poll();
@@ -248,6 +374,21 @@ public class CoalescingCommiter implements Committer
                     {
                         break;
                     }
+                    _queuedJobs.decrementAndGet();
+                    batch.add(commit);
+
+                    long latency = completionTime - commit.getSubmissionTime();
+                    _statistics.registerCommitLatency(latency);
+                    _adjustmentLatencies.registerLatency(latency);
+                }
+                if (!batch.isEmpty())
+                {
+                    _statistics.registerBatch(batch.size());
+                }
+                adjustBatchWaitTime(completionTime);
+
+                for (BDBCommitFutureResult commit : batch)
+                {
                     commit.complete();
                 }
 
@@ -265,6 +406,7 @@ public class CoalescingCommiter implements Committer
                         {
                             break;
                         }
+                        _queuedJobs.decrementAndGet();
                         commit.abort(e);
                     }
                 }
@@ -284,6 +426,45 @@ public class CoalescingCommiter implements Committer
             }
         }
 
+        /**
+         * Adjusts the batch wait time so that the 99th percentile commit latency approaches the target, increasing it
+         * additively while latency is within the target and halving it whenever the target is exceeded.
+         */
+        private void adjustBatchWaitTime(long now)
+        {
+            if (_targetLatencyNanos == 0L || _maxBatchWaitNanos == 0L
+                || now - _lastAdjustmentTime < ADJUSTMENT_INTERVAL_NANOS
+                || _adjustmentLatencies.getCount() < MINIMUM_ADJUSTMENT_SAMPLE)
+            {
+                return;
+            }
+
+            long latency = _adjustmentLatencies.getPercentile(99d);
+            long batchWaitNanos;
+            if (latency > _targetLatencyNanos)
+            {
+                batchWaitNanos = _batchWaitNanos / 2;
+            }
+            else
+            {
+                batchWaitNanos = Math.min(_maxBatchWaitNanos,
+                                          _batchWaitNanos + Math.max(1L, _maxBatchWaitNanos / WAIT_TIME_INCREMENT_DIVISOR));
+            }
+
+            if (batchWaitNanos != _batchWaitNanos)
+            {
+                if (LOGGER.isDebugEnabled())
+                {
+                    LOGGER.debug("99th percentile commit latency " + latency + "ns against target " + _targetLatencyNanos
+                                 + "ns, batch wait time changed from " + _batchWaitNanos + "ns to " + batchWaitNanos + "ns");
+                }
+                _batchWaitNanos = batchWaitNanos;
+                _statistics.setBatchWaitTime(batchWaitNanos);
+            }
+            _adjustmentLatencies = new LatencyHistogram();
+            _lastAdjustmentTime = now;
+        }
+
         private boolean hasJobs()
         {
             return !_jobQueue.isEmpty();
@@ -296,7 +477,9 @@ public class CoalescingCommiter implements Committer
                 throw new IllegalStateException("Commit thread is stopped");
             }
             _jobQueue.add(commit);
-            if(sync)
+            int queuedJobs = _queuedJobs.incrementAndGet();
+            // a full batch must be flushed at once, even if no committer is waiting for it
+            if(sync || (_maxBatchWaitNanos > 0L && queuedJobs == _maxBatchSize))
             {
                 synchronized (_lock)
                 {
@@ -317,6 +500,7 @@ public class CoalescingCommiter implements Committer
                     _environmentFacade.flushLog();
                     while ((commit = _jobQueue.poll()) != null)
                     {
+                        _queuedJobs.decrementAndGet();
                         commit.complete();
                     }
                 }
@@ -326,6 +510,7 @@ public class CoalescingCommiter implements Committer
                     int abortedCommits = 0;
                     while ((commit = _jobQueue.poll()) != null)
                     {
+                        _queuedJobs.decrementAndGet();
                         abortedCommits++;
                         commit.abort(e);
                     }
@@ -0,0 +1,113 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.qpid.server.stats.LatencyHistogram;
+
+/**
+ * Statistics recorded by a {@link CoalescingCommiter}: the number of transactions covered by each log flush, the
+ * latency of each commit from its submission to its completion, and the time the committer currently waits for a
+ * batch to accumulate.  An environment facade holds a single instance for its lifetime, so the statistics survive
+ * the committer being replaced when, for instance, a replicated node changes role.
+ */
+public class CommitStatistics
+{
+    /** Statistics with nothing recorded, reported while no environment is open */
+    private static final CommitStatistics NONE = new CommitStatistics();
+
+    private final LatencyHistogram _batchSizes = new LatencyHistogram(0);
+    private final LatencyHistogram _commitLatencies = new LatencyHistogram();
+    private final AtomicLong _batchWaitTime = new AtomicLong();
+
+    /**
+     * @return the statistics of the given environment, or statistics with nothing recorded if there is no environment
+     */
+    public static CommitStatistics of(EnvironmentFacade environmentFacade)
+    {
+        CommitStatistics statistics = environmentFacade == null ? null : environmentFacade.getCommitStatistics();
+        return statistics == null ? NONE : statistics;
+    }
+
+    void registerBatch(int size)
+    {
+        _batchSizes.registerLatency(size);
+    }
+
+    void registerCommitLatency(long nanos)
+    {
+        _commitLatencies.registerLatency(nanos);
+    }
+
+    void setBatchWaitTime(long nanos)
+    {
+        _batchWaitTime.set(nanos);
+    }
+
+    public long getBatchCount()
+    {
+        return _batchSizes.getCount();
+    }
+
+    public long getCommitCount()
+    {
+        return _commitLatencies.getCount();
+    }
+
+    public long getBatchSizeMedian()
+    {
+        return _batchSizes.getPercentile(50d);
+    }
+
+    public long getBatchSize99thPercentile()
+    {
+        return _batchSizes.getPercentile(99d);
+    }
+
+    public long getBatchSizeMaximum()
+    {
+        return _batchSizes.getMaximum();
+    }
+
+    public long getCommitLatencyMedian()
+    {
+        return _commitLatencies.getPercentile(50d);
+    }
+
+    public long getCommitLatency99thPercentile()
+    {
+        return _commitLatencies.getPercentile(99d);
+    }
+
+    public long getCommitLatencyMaximum()
+    {
+        return _commitLatencies.getMaximum();
+    }
+
+    /**
+     * @return the time, in nanoseconds, the committer currently waits for further commits before flushing the log
+     */
+    public long getBatchWaitTime()
+    {
+        return _batchWaitTime.get();
+    }
+}
@@ -69,4 +69,6 @@ public interface EnvironmentFacade
     void flushLog();
 
     void setCacheSize(long cacheSize);
+
+    CommitStatistics getCommitStatistics();
 }
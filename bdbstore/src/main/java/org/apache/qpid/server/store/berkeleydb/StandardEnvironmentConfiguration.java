@@ -26,4 +26,5 @@ public interface StandardEnvironmentConfiguration
     String getName();
     String getStorePath();
     Map<String, String> getParameters();
+    int getFacadeParameter(String parameterName, int defaultValue);
 }
@@ -64,6 +64,19 @@ public class StandardEnvironmentFacadeFactory implements EnvironmentFacadeFactor
             {
                 return BDBUtils.getEnvironmentConfigurationParameters(parent);
             }
+
+            @Override
+            public int getFacadeParameter(final String parameterName, final int defaultValue)
+            {
+                if (parent.getContextKeys(false).contains(parameterName))
+                {
+                    return parent.getContextValue(Integer.class, parameterName);
+                }
+                else
+                {
+                    return defaultValue;
+                }
+            }
         };
 
         return new StandardEnvironmentFacade(sec);
@@ -35,5 +35,4 @@ public interface ReplicatedEnvironmentConfiguration extends StandardEnvironmentC
     int getQuorumOverride();
     Map<String, String> getReplicationParameters();
     String getHelperNodeName();
-    int getFacadeParameter(String parameterName, int defaultValue);
 }
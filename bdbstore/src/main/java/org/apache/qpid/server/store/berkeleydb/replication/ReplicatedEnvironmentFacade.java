@@ -82,6 +82,7 @@ import org.apache.qpid.server.configuration.IllegalConfigurationException;
 import org.apache.qpid.server.store.StoreException;
 import org.apache.qpid.server.store.berkeleydb.BDBUtils;
 import org.apache.qpid.server.store.berkeleydb.CoalescingCommiter;
+import org.apache.qpid.server.store.berkeleydb.CommitStatistics;
 import org.apache.qpid.server.store.berkeleydb.EnvHomeRegistry;
 import org.apache.qpid.server.store.berkeleydb.EnvironmentFacade;
 import org.apache.qpid.server.store.berkeleydb.logging.Slf4jLoggingHandler;
@@ -202,6 +203,7 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
     private volatile Durability _realMessageStoreDurability = null;
     private volatile Durability _messageStoreDurability;
     private volatile CoalescingCommiter _coalescingCommiter = null;
+    private final CommitStatistics _commitStatistics = new CommitStatistics();
     private volatile long _joinTime;
     private volatile ReplicatedEnvironment.State _lastKnownEnvironmentState;
     private volatile long _envSetupTimeoutMillis;
@@ -654,6 +656,12 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
         }
     }
 
+    @Override
+    public CommitStatistics getCommitStatistics()
+    {
+        return _commitStatistics;
+    }
+
     @Override
     public void setCacheSize(final long cacheSize)
     {
@@ -1478,7 +1486,8 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
             if (localTransactionSynchronizationPolicy == LOCAL_TRANSACTION_SYNCHRONIZATION_POLICY)
             {
                 localTransactionSynchronizationPolicy = SyncPolicy.NO_SYNC;
-                _coalescingCommiter = new CoalescingCommiter(_configuration.getGroupName(), this);
+                _coalescingCommiter = new CoalescingCommiter(_configuration.getGroupName(), this, _configuration,
+                                                             _commitStatistics);
                 _coalescingCommiter.start();
             }
             _realMessageStoreDurability = new Durability(localTransactionSynchronizationPolicy, remoteTransactionSynchronizationPolicy, replicaAcknowledgmentPolicy);
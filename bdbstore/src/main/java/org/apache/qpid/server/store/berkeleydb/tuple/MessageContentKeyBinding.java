@@ -0,0 +1,121 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb.tuple;
+
+import com.sleepycat.bind.EntryBinding;
+import com.sleepycat.je.DatabaseEntry;
+
+import org.apache.qpid.server.store.berkeleydb.entry.MessageContentKey;
+
+/**
+ * Binds the key of a chunk of message content: the message id followed by the index of the chunk within the message.
+ * Both are written with their sign bits flipped, so that the keys of a message's chunks sort together, in order, and
+ * share the encoding of a {@link com.sleepycat.bind.tuple.LongBinding} message id as their prefix.
+ * <p>
+ * Every chunk but the last of a message holds exactly {@link #CHUNK_SIZE} bytes, so the chunk holding any offset
+ * within the message can be found from its key alone.
+ */
+public class MessageContentKeyBinding implements EntryBinding<MessageContentKey>
+{
+    /** The size of each chunk of message content; part of the store format, so must never change */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int KEY_SIZE = 12;
+
+    private static final MessageContentKeyBinding INSTANCE = new MessageContentKeyBinding();
+
+    public static MessageContentKeyBinding getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /** private constructor forces getInstance instead */
+    private MessageContentKeyBinding() { }
+
+    public MessageContentKey entryToObject(DatabaseEntry entry)
+    {
+        byte[] data = entry.getData();
+        int offset = entry.getOffset();
+
+        long messageId = readLong(data, offset) ^ 0x8000000000000000L;
+        int chunk = readInt(data, offset + 8) ^ 0x80000000;
+
+        return new MessageContentKey(messageId, chunk);
+    }
+
+    public void objectToEntry(MessageContentKey key, DatabaseEntry entry)
+    {
+        objectToEntry(key.getMessageId(), key.getChunk(), entry);
+    }
+
+    public void objectToEntry(long messageId, int chunk, DatabaseEntry entry)
+    {
+        byte[] output = new byte[KEY_SIZE];
+        writeLong(messageId ^ 0x8000000000000000L, output, 0);
+        writeInt(chunk ^ 0x80000000, output, 8);
+        entry.setData(output);
+    }
+
+    public long getMessageId(DatabaseEntry entry)
+    {
+        return readLong(entry.getData(), entry.getOffset()) ^ 0x8000000000000000L;
+    }
+
+    private void writeLong(long val, byte[] data, int offset)
+    {
+        data[offset++] = (byte) (val >>> 56);
+        data[offset++] = (byte) (val >>> 48);
+        data[offset++] = (byte) (val >>> 40);
+        data[offset++] = (byte) (val >>> 32);
+        data[offset++] = (byte) (val >>> 24);
+        data[offset++] = (byte) (val >>> 16);
+        data[offset++] = (byte) (val >>> 8);
+        data[offset] = (byte) val;
+    }
+
+    private void writeInt(int val, byte[] data, int offset)
+    {
+        data[offset++] = (byte) (val >>> 24);
+        data[offset++] = (byte) (val >>> 16);
+        data[offset++] = (byte) (val >>> 8);
+        data[offset] = (byte) val;
+    }
+
+    private long readLong(final byte[] data, int offset)
+    {
+        return (((long)data[offset++] & 0xffl) << 56)
+               | (((long)data[offset++] & 0xffl) << 48)
+               | (((long)data[offset++] & 0xffl) << 40)
+               | (((long)data[offset++] & 0xffl) << 32)
+               | (((long)data[offset++] & 0xffl) << 24)
+               | (((long)data[offset++] & 0xffl) << 16)
+               | (((long)data[offset++] & 0xffl) << 8)
+               | ((long)data[offset] & 0xffl) ;
+    }
+
+    private int readInt(final byte[] data, int offset)
+    {
+        return ((data[offset++] & 0xff) << 24)
+               | ((data[offset++] & 0xff) << 16)
+               | ((data[offset++] & 0xff) << 8)
+               | (data[offset] & 0xff);
+    }
+}
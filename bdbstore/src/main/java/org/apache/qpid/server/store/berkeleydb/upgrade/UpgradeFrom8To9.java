@@ -0,0 +1,117 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb.upgrade;
+
+import java.util.Arrays;
+
+import com.sleepycat.bind.tuple.LongBinding;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.store.StoreException;
+import org.apache.qpid.server.store.berkeleydb.tuple.MessageContentKeyBinding;
+
+/**
+ * Splits the content of each message, previously held in a single record of MESSAGE_CONTENT keyed by message id, into
+ * fixed size chunks held in MESSAGE_CONTENT_CHUNKS, keyed by message id and chunk index.
+ */
+public class UpgradeFrom8To9 extends AbstractStoreUpgrade
+{
+    private static final Logger _logger = LoggerFactory.getLogger(UpgradeFrom8To9.class);
+
+    static final String OLD_CONTENT_DB_NAME = "MESSAGE_CONTENT";
+    static final String NEW_CONTENT_DB_NAME = "MESSAGE_CONTENT_CHUNKS";
+
+    @Override
+    public void performUpgrade(Environment environment, UpgradeInteractionHandler handler, ConfiguredObject<?> parent)
+    {
+        reportStarting(environment, 8);
+
+        Transaction transaction = environment.beginTransaction(null, null);
+        try
+        {
+            upgradeMessageContent(environment, transaction);
+            transaction.commit();
+            transaction = null;
+        }
+        finally
+        {
+            if (transaction != null)
+            {
+                transaction.abort();
+            }
+        }
+
+        reportFinished(environment, 9);
+    }
+
+    private void upgradeMessageContent(final Environment environment, final Transaction transaction)
+    {
+        _logger.info("Message Contents");
+        if (environment.getDatabaseNames().contains(OLD_CONTENT_DB_NAME))
+        {
+            CursorOperation contentOperation = new CursorOperation()
+            {
+                @Override
+                public void processEntry(Database oldContentDatabase, Database newContentDatabase,
+                                         Transaction contentTransaction, DatabaseEntry key, DatabaseEntry value)
+                {
+                    long messageId = LongBinding.entryToLong(key);
+                    splitContent(messageId, value, newContentDatabase, contentTransaction);
+                }
+            };
+            new DatabaseTemplate(environment, OLD_CONTENT_DB_NAME, NEW_CONTENT_DB_NAME, transaction).run(contentOperation);
+            _logger.info(contentOperation.getRowCount() + " Message Content Entries");
+            environment.removeDatabase(transaction, OLD_CONTENT_DB_NAME);
+        }
+    }
+
+    private void splitContent(long messageId, DatabaseEntry value, Database newContentDatabase, Transaction txn)
+    {
+        byte[] data = value.getData();
+        int offset = value.getOffset();
+        int end = offset + value.getSize();
+        int chunk = 0;
+        do
+        {
+            int length = Math.min(MessageContentKeyBinding.CHUNK_SIZE, end - offset);
+            DatabaseEntry chunkKey = new DatabaseEntry();
+            MessageContentKeyBinding.getInstance().objectToEntry(messageId, chunk, chunkKey);
+            DatabaseEntry chunkValue = new DatabaseEntry(Arrays.copyOfRange(data, offset, offset + length));
+
+            OperationStatus status = newContentDatabase.put(txn, chunkKey, chunkValue);
+            if (status != OperationStatus.SUCCESS)
+            {
+                throw new StoreException("Unable to store chunk " + chunk + " of content for message " + messageId
+                                         + ": " + status);
+            }
+            offset += length;
+            chunk++;
+        }
+        while (offset < end);
+    }
+}
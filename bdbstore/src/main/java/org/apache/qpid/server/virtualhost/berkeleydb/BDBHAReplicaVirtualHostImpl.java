@@ -292,6 +292,30 @@ public class BDBHAReplicaVirtualHostImpl extends AbstractConfiguredObject<BDBHAR
         return 0;
     }
 
+    @Override
+    public long getRecoveredMessageInstances()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getQueuesRecovering()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getConvertedMessageCacheHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getConvertedMessageCacheMisses()
+    {
+        return 0;
+    }
+
     @Override
     public Collection<VirtualHostAlias> getAliases()
     {
@@ -473,6 +497,12 @@ public class BDBHAReplicaVirtualHostImpl extends AbstractConfiguredObject<BDBHAR
         throwUnsupportedForReplica();
     }
 
+    @Override
+    public void registerMessageConversion(final boolean cacheHit)
+    {
+        throwUnsupportedForReplica();
+    }
+
     @Override
     public StatisticsCounter getMessageDeliveryStatistics()
     {
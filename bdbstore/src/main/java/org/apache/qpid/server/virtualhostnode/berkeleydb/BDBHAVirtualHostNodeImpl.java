@@ -84,6 +84,7 @@ import org.apache.qpid.server.store.ConfiguredObjectRecordImpl;
 import org.apache.qpid.server.store.DurableConfigurationStore;
 import org.apache.qpid.server.store.VirtualHostStoreUpgraderAndRecoverer;
 import org.apache.qpid.server.store.berkeleydb.BDBConfigurationStore;
+import org.apache.qpid.server.store.berkeleydb.CommitStatistics;
 import org.apache.qpid.server.store.berkeleydb.EnvironmentFacade;
 import org.apache.qpid.server.store.berkeleydb.BDBCacheSizeSetter;
 import org.apache.qpid.server.store.berkeleydb.replication.ReplicatedEnvironmentFacade;
@@ -324,6 +325,59 @@ public class BDBHAVirtualHostNodeImpl extends AbstractVirtualHostNode<BDBHAVirtu
         return _environmentFacade.get();
     }
 
+    @Override
+    public long getCommitBatchCount()
+    {
+        return getCommitStatistics().getBatchCount();
+    }
+
+    @Override
+    public long getCommitBatchSizeMedian()
+    {
+        return getCommitStatistics().getBatchSizeMedian();
+    }
+
+    @Override
+    public long getCommitBatchSize99thPercentile()
+    {
+        return getCommitStatistics().getBatchSize99thPercentile();
+    }
+
+    @Override
+    public long getCommitBatchSizeMaximum()
+    {
+        return getCommitStatistics().getBatchSizeMaximum();
+    }
+
+    @Override
+    public long getCommitLatencyMedian()
+    {
+        return getCommitStatistics().getCommitLatencyMedian();
+    }
+
+    @Override
+    public long getCommitLatency99thPercentile()
+    {
+        return getCommitStatistics().getCommitLatency99thPercentile();
+    }
+
+    @Override
+    public long getCommitLatencyMaximum()
+    {
+        return getCommitStatistics().getCommitLatencyMaximum();
+    }
+
+    @Override
+    public long getCommitBatchWaitTime()
+    {
+        return getCommitStatistics().getBatchWaitTime();
+    }
+
+    private CommitStatistics getCommitStatistics()
+    {
+        return CommitStatistics.of(getReplicatedEnvironmentFacade());
+    }
+
     @Override
     protected DurableConfigurationStore createConfigurationStore()
     {
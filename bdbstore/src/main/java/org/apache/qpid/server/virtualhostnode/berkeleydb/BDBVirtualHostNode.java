@@ -21,6 +21,9 @@
 package org.apache.qpid.server.virtualhostnode.berkeleydb;
 
 import org.apache.qpid.server.model.ManagedAttribute;
+import org.apache.qpid.server.model.ManagedStatistic;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.server.model.StatisticUnit;
 import org.apache.qpid.server.store.berkeleydb.BDBEnvironmentContainer;
 
 public interface BDBVirtualHostNode<X extends BDBVirtualHostNode<X>> extends org.apache.qpid.server.model.VirtualHostNode<X>, org.apache.qpid.server.store.FileBasedSettings, BDBEnvironmentContainer
@@ -29,4 +32,36 @@ public interface BDBVirtualHostNode<X extends BDBVirtualHostNode<X>> extends org
 
     @ManagedAttribute(mandatory = true, defaultValue = "${qpid.work_dir}${file.separator}${this:name}${file.separator}config")
     String getStorePath();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Commit Batches",
+                      description = "Number of log flushes performed to complete batches of commits")
+    long getCommitBatchCount();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Median Commit Batch Size",
+                      description = "Estimated median number of commits completed by a log flush")
+    long getCommitBatchSizeMedian();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "99th Percentile Commit Batch Size",
+                      description = "Estimated number of commits which 99% of log flushes completed at most")
+    long getCommitBatchSize99thPercentile();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Maximum Commit Batch Size",
+                      description = "Largest number of commits completed by a log flush")
+    long getCommitBatchSizeMaximum();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Median Commit Latency",
+                      description = "Estimated median time in nanoseconds from the submission of a commit to its completion")
+    long getCommitLatencyMedian();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "99th Percentile Commit Latency",
+                      description = "Estimated time in nanoseconds within which 99% of commits completed")
+    long getCommitLatency99thPercentile();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Maximum Commit Latency",
+                      description = "Longest time in nanoseconds from the submission of a commit to its completion")
+    long getCommitLatencyMaximum();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Commit Batch Wait Time",
+                      description = "Time in nanoseconds the group committer currently waits for a batch of commits to accumulate")
+    long getCommitBatchWaitTime();
 }
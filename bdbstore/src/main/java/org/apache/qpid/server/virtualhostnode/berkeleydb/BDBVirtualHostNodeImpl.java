@@ -32,6 +32,7 @@ import org.apache.qpid.server.model.ManagedObjectFactoryConstructor;
 import org.apache.qpid.server.model.VirtualHost;
 import org.apache.qpid.server.store.DurableConfigurationStore;
 import org.apache.qpid.server.store.berkeleydb.BDBConfigurationStore;
+import org.apache.qpid.server.store.berkeleydb.CommitStatistics;
 import org.apache.qpid.server.store.berkeleydb.EnvironmentFacade;
 import org.apache.qpid.server.store.berkeleydb.BDBCacheSizeSetter;
 import org.apache.qpid.server.virtualhostnode.AbstractStandardVirtualHostNode;
@@ -94,4 +95,58 @@ public class BDBVirtualHostNodeImpl extends AbstractStandardVirtualHostNode<BDBV
             }
         }
     }
+
+    @Override
+    public long getCommitBatchCount()
+    {
+        return getCommitStatistics().getBatchCount();
+    }
+
+    @Override
+    public long getCommitBatchSizeMedian()
+    {
+        return getCommitStatistics().getBatchSizeMedian();
+    }
+
+    @Override
+    public long getCommitBatchSize99thPercentile()
+    {
+        return getCommitStatistics().getBatchSize99thPercentile();
+    }
+
+    @Override
+    public long getCommitBatchSizeMaximum()
+    {
+        return getCommitStatistics().getBatchSizeMaximum();
+    }
+
+    @Override
+    public long getCommitLatencyMedian()
+    {
+        return getCommitStatistics().getCommitLatencyMedian();
+    }
+
+    @Override
+    public long getCommitLatency99thPercentile()
+    {
+        return getCommitStatistics().getCommitLatency99thPercentile();
+    }
+
+    @Override
+    public long getCommitLatencyMaximum()
+    {
+        return getCommitStatistics().getCommitLatencyMaximum();
+    }
+
+    @Override
+    public long getCommitBatchWaitTime()
+    {
+        return getCommitStatistics().getBatchWaitTime();
+    }
+
+    private CommitStatistics getCommitStatistics()
+    {
+        BDBConfigurationStore bdbConfigurationStore = (BDBConfigurationStore) getConfigurationStore();
+        return CommitStatistics.of(bdbConfigurationStore == null ? null : bdbConfigurationStore.getEnvironmentFacade());
+    }
 }
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collection;
 
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.framing.AMQShortString;
@@ -43,6 +44,7 @@ import org.apache.qpid.server.store.MessageStoreTestCase;
 import org.apache.qpid.server.store.StorableMessageMetaData;
 import org.apache.qpid.server.store.StoreException;
 import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.berkeleydb.tuple.MessageContentKeyBinding;
 import org.apache.qpid.server.virtualhost.berkeleydb.BDBVirtualHost;
 import org.apache.qpid.transport.DeliveryProperties;
 import org.apache.qpid.transport.Header;
@@ -309,6 +311,56 @@ public class BDBMessageStoreTest extends MessageStoreTestCase
         assertTrue("Unexpected content", Arrays.equals(expected, array));
     }
 
+    public void testGetContentSpanningChunks() throws Exception
+    {
+        BDBMessageStore bdbStore = (BDBMessageStore) getStore();
+        byte[] content = new byte[2 * MessageContentKeyBinding.CHUNK_SIZE + 10];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) i;
+        }
+        StoredMessage<MessageMetaData> storedMessage = createAndStoreMultiChunkMessage_0_8(bdbStore, content, 3);
+        long messageId = storedMessage.getMessageNumber();
+
+        ByteBuffer dst = ByteBuffer.allocate(content.length);
+        assertEquals("Unexpected length", content.length, bdbStore.getContent(messageId, 0, dst));
+        assertTrue("Unexpected content", Arrays.equals(content, dst.array()));
+
+        int offset = MessageContentKeyBinding.CHUNK_SIZE - 5;
+        dst = ByteBuffer.allocate(MessageContentKeyBinding.CHUNK_SIZE + 10);
+        assertEquals("Unexpected length", dst.capacity(), bdbStore.getContent(messageId, offset, dst));
+        assertTrue("Unexpected content",
+                   Arrays.equals(Arrays.copyOfRange(content, offset, offset + dst.capacity()), dst.array()));
+
+        dst = ByteBuffer.allocate(20);
+        offset = 2 * MessageContentKeyBinding.CHUNK_SIZE + 5;
+        assertEquals("Unexpected length", 5, bdbStore.getContent(messageId, offset, dst));
+
+        dst = ByteBuffer.allocate(1);
+        assertEquals("Unexpected length at end of content", 0, bdbStore.getContent(messageId, content.length, dst));
+
+        Collection<QpidByteBuffer> range = bdbStore.getContent(messageId, MessageContentKeyBinding.CHUNK_SIZE, 100);
+        byte[] rangeBytes = new byte[100];
+        int position = 0;
+        for (QpidByteBuffer buf : range)
+        {
+            int remaining = buf.remaining();
+            buf.get(rangeBytes, position, remaining);
+            position += remaining;
+            buf.dispose();
+        }
+        assertEquals("Unexpected range length", 100, position);
+        assertTrue("Unexpected range content",
+                   Arrays.equals(Arrays.copyOfRange(content, MessageContentKeyBinding.CHUNK_SIZE,
+                                                    MessageContentKeyBinding.CHUNK_SIZE + 100), rangeBytes));
+
+        bdbStore.removeMessage(messageId, true);
+        dst = ByteBuffer.allocate(1);
+        assertEquals("Retrieved content when none was expected", 0, bdbStore.getContent(messageId, 0, dst));
+        assertEquals("Retrieved content when none was expected",
+                     0, bdbStore.getContent(messageId, MessageContentKeyBinding.CHUNK_SIZE, dst));
+    }
+
     /**
      * Tests that messages which are added to the store and then removed using the
      * public MessageStore interfaces are actually removed from the store by then
@@ -364,6 +416,26 @@ public class BDBMessageStoreTest extends MessageStoreTestCase
         return storedMessage_0_8.allContentAdded();
     }
 
+    private StoredMessage<MessageMetaData> createAndStoreMultiChunkMessage_0_8(MessageStore store, byte[] content,
+                                                                             int numberOfBuffers)
+    {
+        MessagePublishInfo pubInfoBody_0_8 = createPublishInfoBody_0_8();
+        BasicContentHeaderProperties props_0_8 = createContentHeaderProperties_0_8();
+        ContentHeaderBody chb_0_8 = createContentHeaderBody_0_8(props_0_8, content.length);
+
+        MessageMetaData messageMetaData_0_8 = new MessageMetaData(pubInfoBody_0_8, chb_0_8);
+        MessageHandle<MessageMetaData> storedMessage_0_8 = store.addMessage(messageMetaData_0_8);
+
+        int bufferSize = content.length / numberOfBuffers + 1;
+        for (int offset = 0; offset < content.length; offset += bufferSize)
+        {
+            storedMessage_0_8.addContent(QpidByteBuffer.wrap(content, offset, Math.min(bufferSize, content.length - offset)));
+        }
+        ((AbstractBDBMessageStore.StoredBDBMessage)storedMessage_0_8).flushToStore();
+
+        return storedMessage_0_8.allContentAdded();
+    }
+
     public void testOnDelete() throws Exception
     {
         String storeLocation = getStore().getStoreLocation();
@@ -0,0 +1,135 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sleepycat.je.Transaction;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class CoalescingCommiterTest extends QpidTestCase
+{
+    private EnvironmentFacade _environmentFacade;
+    private CommitStatistics _statistics;
+    private CoalescingCommiter _committer;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _environmentFacade = mock(EnvironmentFacade.class);
+        _statistics = new CommitStatistics();
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            if (_committer != null)
+            {
+                _committer.stop();
+            }
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testSyncCommitFlushesLog() throws Exception
+    {
+        _committer = new CoalescingCommiter(getTestName(), _environmentFacade, 0, 0, 0, _statistics);
+        _committer.start();
+
+        ListenableFuture<Void> future = _committer.commit(mock(Transaction.class), true);
+        assertTrue("Commit not complete", future.isDone());
+
+        verify(_environmentFacade).flushLog();
+        assertEquals("Unexpected number of batches", 1L, _statistics.getBatchCount());
+        assertEquals("Unexpected number of commits", 1L, _statistics.getCommitCount());
+        assertEquals("Unexpected batch wait time", 0L, _statistics.getBatchWaitTime());
+    }
+
+    public void testFullBatchFlushedWithoutWaiting() throws Exception
+    {
+        int batchSize = 5;
+        _committer = new CoalescingCommiter(getTestName(), _environmentFacade,
+                                            (int) TimeUnit.MINUTES.toMicros(1), batchSize, 0, _statistics);
+        _committer.start();
+
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++)
+        {
+            futures.add(_committer.commit(mock(Transaction.class), false));
+        }
+        for (ListenableFuture<Void> future : futures)
+        {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        verify(_environmentFacade, times(1)).flushLog();
+        assertEquals("Unexpected number of batches", 1L, _statistics.getBatchCount());
+        assertEquals("Unexpected maximum batch size", (long) batchSize, _statistics.getBatchSizeMaximum());
+        assertEquals("Unexpected batch wait time", TimeUnit.MINUTES.toNanos(1), _statistics.getBatchWaitTime());
+    }
+
+    public void testCommitWaitsForBatch() throws Exception
+    {
+        long maxWaitMillis = 200L;
+        _committer = new CoalescingCommiter(getTestName(), _environmentFacade,
+                                            (int) TimeUnit.MILLISECONDS.toMicros(maxWaitMillis), 100, 0, _statistics);
+        _committer.start();
+
+        long start = System.nanoTime();
+        _committer.commit(mock(Transaction.class), false).get(10, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue("Commit completed before the batch wait time elapsed: " + elapsed + "ns",
+                   elapsed >= TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+        assertTrue("Unexpected commit latency", _statistics.getCommitLatencyMaximum()
+                                                >= TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+    }
+
+    public void testBatchWaitTimeReducedWhenTargetLatencyExceeded() throws Exception
+    {
+        _committer = new CoalescingCommiter(getTestName(), _environmentFacade,
+                                            (int) TimeUnit.MILLISECONDS.toMicros(1), 0, 1, _statistics);
+        _committer.start();
+        assertEquals("Adaptive batch wait time should start at zero", 0L, _statistics.getBatchWaitTime());
+
+        // a one microsecond target cannot be met, so the wait time must never grow
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        while (System.nanoTime() < end)
+        {
+            _committer.commit(mock(Transaction.class), true);
+            assertEquals("Unexpected batch wait time", 0L, _statistics.getBatchWaitTime());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb.upgrade;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.qpid.server.store.berkeleydb.entry.MessageContentKey;
+import org.apache.qpid.server.store.berkeleydb.tuple.MessageContentKeyBinding;
+
+import com.sleepycat.bind.tuple.LongBinding;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Transaction;
+
+public class UpgradeFrom8To9Test extends AbstractUpgradeTestCase
+{
+    private static final long LARGE_MESSAGE_ID = 1000001L;
+    private static final long EXACT_MESSAGE_ID = 1000002L;
+    private static final long EMPTY_MESSAGE_ID = 1000003L;
+
+    @Override
+    protected String getStoreDirectoryName()
+    {
+        // the content layout of version 7 stores is unchanged in version 8
+        return "bdbstore-v7";
+    }
+
+    public void testPerformUpgrade() throws Exception
+    {
+        addContent(LARGE_MESSAGE_ID, createContent(2 * MessageContentKeyBinding.CHUNK_SIZE + 100));
+        addContent(EXACT_MESSAGE_ID, createContent(MessageContentKeyBinding.CHUNK_SIZE));
+        addContent(EMPTY_MESSAGE_ID, new byte[0]);
+        Map<Long, byte[]> expectedContent = loadOldContent();
+
+        UpgradeFrom8To9 upgrade = new UpgradeFrom8To9();
+        upgrade.performUpgrade(_environment, UpgradeInteractionHandler.DEFAULT_HANDLER, getVirtualHost());
+
+        assertFalse("Old content database should have been removed",
+                    _environment.getDatabaseNames().contains(UpgradeFrom8To9.OLD_CONTENT_DB_NAME));
+
+        Map<Long, byte[]> upgradedContent = loadChunkedContent();
+        assertEquals("Unexpected messages", expectedContent.keySet(), upgradedContent.keySet());
+        for (Map.Entry<Long, byte[]> entry : expectedContent.entrySet())
+        {
+            assertTrue("Unexpected content for message " + entry.getKey(),
+                       Arrays.equals(entry.getValue(), upgradedContent.get(entry.getKey())));
+        }
+
+        assertChunkCount(LARGE_MESSAGE_ID, 3);
+        assertChunkCount(EXACT_MESSAGE_ID, 1);
+        assertChunkCount(EMPTY_MESSAGE_ID, 1);
+    }
+
+    private byte[] createContent(int size)
+    {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++)
+        {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    private void addContent(final long messageId, final byte[] content)
+    {
+        DatabaseRunnable operation = new DatabaseRunnable()
+        {
+            @Override
+            public void run(Database sourceDatabase, Database targetDatabase, Transaction transaction)
+            {
+                DatabaseEntry key = new DatabaseEntry();
+                LongBinding.longToEntry(messageId, key);
+                sourceDatabase.put(null, key, new DatabaseEntry(content));
+            }
+        };
+        new DatabaseTemplate(_environment, UpgradeFrom8To9.OLD_CONTENT_DB_NAME, null).run(operation);
+    }
+
+    private Map<Long, byte[]> loadOldContent()
+    {
+        final Map<Long, byte[]> content = new HashMap<Long, byte[]>();
+        CursorOperation contentCursorOperation = new CursorOperation()
+        {
+            @Override
+            public void processEntry(Database sourceDatabase, Database targetDatabase, Transaction transaction,
+                                     DatabaseEntry key, DatabaseEntry value)
+            {
+                content.put(LongBinding.entryToLong(key),
+                            Arrays.copyOfRange(value.getData(), value.getOffset(), value.getOffset() + value.getSize()));
+            }
+        };
+        new DatabaseTemplate(_environment, UpgradeFrom8To9.OLD_CONTENT_DB_NAME, null).run(contentCursorOperation);
+        return content;
+    }
+
+    private Map<Long, byte[]> loadChunkedContent()
+    {
+        final Map<Long, ByteArrayOutputStream> content = new HashMap<Long, ByteArrayOutputStream>();
+        final Map<Long, Integer> nextChunks = new HashMap<Long, Integer>();
+        CursorOperation contentCursorOperation = new CursorOperation()
+        {
+            @Override
+            public void processEntry(Database sourceDatabase, Database targetDatabase, Transaction transaction,
+                                     DatabaseEntry key, DatabaseEntry value)
+            {
+                MessageContentKey contentKey = MessageContentKeyBinding.getInstance().entryToObject(key);
+                Integer nextChunk = nextChunks.get(contentKey.getMessageId());
+                assertEquals("Chunks out of order for message " + contentKey.getMessageId(),
+                             nextChunk == null ? 0 : nextChunk.intValue(), contentKey.getChunk());
+                nextChunks.put(contentKey.getMessageId(), contentKey.getChunk() + 1);
+
+                ByteArrayOutputStream messageContent = content.get(contentKey.getMessageId());
+                if (messageContent == null)
+                {
+                    messageContent = new ByteArrayOutputStream();
+                    content.put(contentKey.getMessageId(), messageContent);
+                }
+                else
+                {
+                    assertEquals("Only the last chunk of a message may be short",
+                                 0, messageContent.size() % MessageContentKeyBinding.CHUNK_SIZE);
+                }
+                messageContent.write(value.getData(), value.getOffset(), value.getSize());
+            }
+        };
+        new DatabaseTemplate(_environment, UpgradeFrom8To9.NEW_CONTENT_DB_NAME, null).run(contentCursorOperation);
+
+        Map<Long, byte[]> result = new HashMap<Long, byte[]>();
+        for (Map.Entry<Long, ByteArrayOutputStream> entry : content.entrySet())
+        {
+            result.put(entry.getKey(), entry.getValue().toByteArray());
+        }
+        return result;
+    }
+
+    private void assertChunkCount(final long messageId, final int expectedChunks)
+    {
+        final int[] chunks = new int[1];
+        CursorOperation contentCursorOperation = new CursorOperation()
+        {
+            @Override
+            public void processEntry(Database sourceDatabase, Database targetDatabase, Transaction transaction,
+                                     DatabaseEntry key, DatabaseEntry value)
+            {
+                if (MessageContentKeyBinding.getInstance().getMessageId(key) == messageId)
+                {
+                    chunks[0]++;
+                }
+            }
+        };
+        new DatabaseTemplate(_environment, UpgradeFrom8To9.NEW_CONTENT_DB_NAME, null).run(contentCursorOperation);
+        assertEquals("Unexpected number of chunks for message " + messageId, expectedChunks, chunks[0]);
+    }
+}
@@ -27,10 +27,11 @@ import java.util.List;
 
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.store.berkeleydb.BDBConfigurationStore;
+import org.apache.qpid.server.store.berkeleydb.entry.MessageContentKey;
 import org.apache.qpid.server.store.berkeleydb.tuple.ByteBufferBinding;
+import org.apache.qpid.server.store.berkeleydb.tuple.MessageContentKeyBinding;
 
 import com.sleepycat.bind.tuple.IntegerBinding;
-import com.sleepycat.bind.tuple.LongBinding;
 import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
@@ -137,13 +138,14 @@ public class UpgraderTest extends AbstractUpgradeTestCase
             public void processEntry(Database sourceDatabase, Database targetDatabase, Transaction transaction, DatabaseEntry key,
                     DatabaseEntry value)
             {
-                long id = LongBinding.entryToLong(key);
-                assertTrue("Unexpected id", id > 0);
+                MessageContentKey contentKey = MessageContentKeyBinding.getInstance().entryToObject(key);
+                assertTrue("Unexpected id", contentKey.getMessageId() > 0);
+                assertEquals("Unexpected chunk", 0, contentKey.getChunk());
                 QpidByteBuffer content = contentBinding.entryToObject(value);
                 assertNotNull("Unexpected content", content);
                 assertTrue("Expected content", content.hasRemaining());
             }
         };
-        new DatabaseTemplate(_environment, "MESSAGE_CONTENT", null).run(contentCursorOperation);
+        new DatabaseTemplate(_environment, UpgradeFrom8To9.NEW_CONTENT_DB_NAME, null).run(contentCursorOperation);
     }
 }
@@ -0,0 +1,123 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.apache.qpid.amqp_1_0.messaging.SectionEncoderImpl;
+import org.apache.qpid.amqp_1_0.type.AmqpErrorException;
+import org.apache.qpid.amqp_1_0.type.Binary;
+import org.apache.qpid.amqp_1_0.type.Symbol;
+import org.apache.qpid.amqp_1_0.type.UnsignedByte;
+import org.apache.qpid.amqp_1_0.type.codec.AMQPDescribedTypeRegistry;
+import org.apache.qpid.amqp_1_0.type.messaging.ApplicationProperties;
+import org.apache.qpid.amqp_1_0.type.messaging.Data;
+import org.apache.qpid.amqp_1_0.type.messaging.Header;
+import org.apache.qpid.amqp_1_0.type.messaging.Properties;
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+
+/**
+ * Measures the cost of decoding the sections of an AMQP 1.0 message: a header, properties, application properties
+ * and a data section of the given size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValueHandlerBenchmark
+{
+    @Param({"0", "16"})
+    public int applicationPropertyCount;
+
+    @Param({"1024"})
+    public int payloadSize;
+
+    private ValueHandler _valueHandler;
+    private byte[] _encoded;
+
+    @Setup
+    public void setUp()
+    {
+        AMQPDescribedTypeRegistry registry = AMQPDescribedTypeRegistry.newInstance()
+                                                                      .registerTransportLayer()
+                                                                      .registerMessagingLayer();
+        _valueHandler = new ValueHandler(registry);
+
+        Header header = new Header();
+        header.setDurable(true);
+        header.setPriority(UnsignedByte.valueOf((byte) 4));
+
+        Properties properties = new Properties();
+        properties.setMessageId("ID:7f3c0e2a-1f4b-4a4c-9a3e-0b5e8c6d2f11");
+        properties.setTo("queue");
+        properties.setSubject("benchmark");
+        properties.setContentType(Symbol.valueOf("application/octet-stream"));
+        properties.setCreationTime(new Date());
+
+        Map<String, Object> applicationProperties = new LinkedHashMap<>();
+        for (int i = 0; i < applicationPropertyCount; i++)
+        {
+            applicationProperties.put("property" + i, i % 2 == 0 ? "value-" + i : (Object) i);
+        }
+
+        SectionEncoderImpl encoder = new SectionEncoderImpl(registry);
+        encoder.encodeObject(header);
+        encoder.encodeObject(properties);
+        encoder.encodeObject(new ApplicationProperties(applicationProperties));
+        encoder.encodeObject(new Data(new Binary(new byte[payloadSize])));
+
+        ByteBuffer encoding = encoder.getEncoding().asByteBuffer();
+        _encoded = new byte[encoding.remaining()];
+        encoding.get(_encoded);
+    }
+
+    @Benchmark
+    public int decodeSections() throws AmqpErrorException
+    {
+        QpidByteBuffer buffer = QpidByteBuffer.wrap(_encoded);
+        try
+        {
+            int sections = 0;
+            while (buffer.hasRemaining())
+            {
+                _valueHandler.parse(buffer);
+                sections++;
+            }
+            return sections;
+        }
+        finally
+        {
+            buffer.dispose();
+        }
+    }
+}
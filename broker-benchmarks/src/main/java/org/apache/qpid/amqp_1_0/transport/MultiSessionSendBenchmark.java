@@ -0,0 +1,142 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.transport;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.apache.qpid.amqp_1_0.framing.AMQFrame;
+import org.apache.qpid.amqp_1_0.type.FrameBody;
+import org.apache.qpid.amqp_1_0.type.UnsignedInteger;
+import org.apache.qpid.amqp_1_0.type.transport.Begin;
+import org.apache.qpid.amqp_1_0.type.transport.Open;
+
+/**
+ * Measures the throughput of threads sending frames concurrently on the sessions of a single AMQP 1.0 connection.
+ * Each thread works on one of the sessions under the lock of that session, as the broker's links do; with as many
+ * sessions as threads the threads contend only to emit their frames, whereas with a single session they are
+ * serialised throughout.  Vary the number of threads with the <code>-t</code> option.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class MultiSessionSendBenchmark
+{
+    @Param({"1", "4"})
+    public int sessionCount;
+
+    private final List<SessionEndpoint> _sessions = new ArrayList<>();
+    private final AtomicInteger _nextSession = new AtomicInteger();
+
+    @Setup
+    public void setUp()
+    {
+        ConnectionEndpoint connection = new ConnectionEndpoint(new Container("benchmark"), null);
+        connection.setFrameOutputHandler(new DiscardingFrameOutputHandler());
+        connection.setConnectionEventListener(new ConnectionEventListener.DefaultConnectionEventListener()
+        {
+            @Override
+            public void remoteSessionCreation(final SessionEndpoint endpoint)
+            {
+                _sessions.add(endpoint);
+            }
+        });
+
+        Open open = new Open();
+        open.setContainerId("client");
+        connection.receiveOpen((short) 0, open);
+
+        for (int i = 0; i < sessionCount; i++)
+        {
+            Begin begin = new Begin();
+            begin.setNextOutgoingId(UnsignedInteger.ZERO);
+            begin.setIncomingWindow(UnsignedInteger.valueOf(2048));
+            begin.setOutgoingWindow(UnsignedInteger.valueOf(2048));
+            connection.receiveBegin((short) i, begin);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState
+    {
+        private SessionEndpoint _session;
+
+        @Setup
+        public void setUp(MultiSessionSendBenchmark benchmark)
+        {
+            int index = benchmark._nextSession.getAndIncrement();
+            _session = benchmark._sessions.get(index % benchmark._sessions.size());
+        }
+    }
+
+    @Benchmark
+    public void sendFlow(ThreadState state)
+    {
+        SessionEndpoint session = state._session;
+        synchronized (session.getLock())
+        {
+            session.sendFlow();
+        }
+    }
+
+    private static class DiscardingFrameOutputHandler implements FrameOutputHandler<FrameBody>
+    {
+        private final AtomicLong _frameCount = new AtomicLong();
+
+        @Override
+        public boolean canSend()
+        {
+            return true;
+        }
+
+        @Override
+        public void send(final AMQFrame<FrameBody> frame)
+        {
+            _frameCount.incrementAndGet();
+        }
+
+        @Override
+        public void send(final AMQFrame<FrameBody> frame, final ByteBuffer payload)
+        {
+            _frameCount.incrementAndGet();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
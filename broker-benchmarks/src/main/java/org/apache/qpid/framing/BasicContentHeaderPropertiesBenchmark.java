@@ -0,0 +1,102 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.framing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the cost of encoding and decoding the properties of a content header frame.  Decoding reads the
+ * application headers as well, as the broker does when a message is routed by a headers exchange or filtered by a
+ * selector.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BasicContentHeaderPropertiesBenchmark
+{
+    @Param({"0", "8"})
+    public int headerCount;
+
+    private BasicContentHeaderProperties _properties;
+    private ByteArrayOutputStream _bytes;
+    private DataOutputStream _output;
+    private byte[] _encoded;
+    private int _propertyFlags;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        _properties = new BasicContentHeaderProperties();
+        _properties.setContentType("text/plain");
+        _properties.setEncoding("UTF-8");
+        _properties.setDeliveryMode(BasicContentHeaderProperties.PERSISTENT);
+        _properties.setPriority((byte) 4);
+        _properties.setCorrelationId("correlation-1234");
+        _properties.setReplyTo("reply.queue");
+        _properties.setMessageId("ID:7f3c0e2a-1f4b-4a4c-9a3e-0b5e8c6d2f11");
+        _properties.setTimestamp(System.currentTimeMillis());
+        if (headerCount > 0)
+        {
+            _properties.setHeaders(FieldTable.convertToFieldTable(FieldTableBenchmark.createHeaders(headerCount)));
+        }
+
+        _bytes = new ByteArrayOutputStream(_properties.getPropertyListSize());
+        _output = new DataOutputStream(_bytes);
+        _properties.writePropertyListPayload(_output);
+        _encoded = _bytes.toByteArray();
+        _propertyFlags = _properties.getPropertyFlags();
+    }
+
+    @Benchmark
+    public int encode() throws IOException
+    {
+        _bytes.reset();
+        _properties.writePropertyListPayload(_output);
+        return _bytes.size();
+    }
+
+    @Benchmark
+    public int decode() throws IOException, AMQFrameDecodingException
+    {
+        BasicContentHeaderProperties properties = new BasicContentHeaderProperties();
+        try
+        {
+            properties.populatePropertiesFromBuffer(new ByteArrayDataInput(_encoded), _propertyFlags, _encoded.length);
+            return properties.getHeaders().size();
+        }
+        finally
+        {
+            properties.dispose();
+        }
+    }
+}
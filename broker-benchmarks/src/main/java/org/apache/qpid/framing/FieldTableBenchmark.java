@@ -0,0 +1,106 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.framing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+
+/**
+ * Measures the cost of encoding a field table of application headers, and of decoding one back into a map, as
+ * happens when 0-8/0-9/0-9-1 messages are converted or their headers inspected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FieldTableBenchmark
+{
+    @Param({"4", "32"})
+    public int entryCount;
+
+    private FieldTable _table;
+    private byte[] _encoded;
+
+    @Setup
+    public void setUp()
+    {
+        Map<String, Object> map = createHeaders(entryCount);
+        _table = FieldTable.convertToFieldTable(map);
+        _encoded = _table.getDataAsBytes();
+    }
+
+    static Map<String, Object> createHeaders(final int entryCount)
+    {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < entryCount; i++)
+        {
+            switch (i % 4)
+            {
+                case 0:
+                    map.put("string" + i, "value-" + i);
+                    break;
+                case 1:
+                    map.put("int" + i, i);
+                    break;
+                case 2:
+                    map.put("long" + i, (long) i << 32);
+                    break;
+                default:
+                    map.put("boolean" + i, i % 8 == 3);
+                    break;
+            }
+        }
+        return map;
+    }
+
+    @Benchmark
+    public byte[] encode()
+    {
+        return _table.getDataAsBytes();
+    }
+
+    @Benchmark
+    public Map<String, Object> decode()
+    {
+        QpidByteBuffer buffer = QpidByteBuffer.wrap(_encoded);
+        FieldTable table = new FieldTable(buffer);
+        try
+        {
+            return FieldTable.convertToMap(table);
+        }
+        finally
+        {
+            table.dispose();
+            buffer.dispose();
+        }
+    }
+}
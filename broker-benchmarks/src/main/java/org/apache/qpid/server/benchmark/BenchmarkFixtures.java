@@ -0,0 +1,99 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.benchmark;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+
+import org.apache.qpid.server.configuration.updater.CurrentThreadTaskExecutor;
+import org.apache.qpid.server.configuration.updater.TaskExecutor;
+import org.apache.qpid.server.logging.EventLogger;
+import org.apache.qpid.server.model.Broker;
+import org.apache.qpid.server.model.BrokerModel;
+import org.apache.qpid.server.model.ConfiguredObjectFactoryImpl;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.model.VirtualHost;
+import org.apache.qpid.server.model.VirtualHostNode;
+import org.apache.qpid.server.queue.AMQQueue;
+import org.apache.qpid.server.security.SecurityManager;
+import org.apache.qpid.server.virtualhost.VirtualHostImpl;
+
+/**
+ * Creates the configured objects which exchanges and queues need as parents.  These are mocked, as in the unit
+ * tests, but are only consulted when the objects under test are created, not on the measured paths.
+ */
+public final class BenchmarkFixtures
+{
+    private BenchmarkFixtures()
+    {
+    }
+
+    public static VirtualHostImpl<?, ?, ?> createVirtualHost()
+    {
+        TaskExecutor taskExecutor = CurrentThreadTaskExecutor.newStartedInstance();
+        ConfiguredObjectFactoryImpl factory = new ConfiguredObjectFactoryImpl(BrokerModel.getInstance());
+
+        Broker<?> broker = mock(Broker.class);
+        SecurityManager securityManager = new SecurityManager(broker, false);
+        doReturn(Broker.class).when(broker).getCategoryClass();
+        when(broker.getModel()).thenReturn(BrokerModel.getInstance());
+        when(broker.getSecurityManager()).thenReturn(securityManager);
+
+        VirtualHostNode<?> virtualHostNode = mock(VirtualHostNode.class);
+        doReturn(VirtualHostNode.class).when(virtualHostNode).getCategoryClass();
+        when(virtualHostNode.getParent(Broker.class)).thenReturn(broker);
+        when(virtualHostNode.getModel()).thenReturn(BrokerModel.getInstance());
+
+        VirtualHostImpl<?, ?, ?> virtualHost = mock(VirtualHostImpl.class);
+        when(virtualHost.getSecurityManager()).thenReturn(securityManager);
+        when(virtualHost.getEventLogger()).thenReturn(new EventLogger());
+        doReturn(VirtualHost.class).when(virtualHost).getCategoryClass();
+        when(virtualHost.getTaskExecutor()).thenReturn(taskExecutor);
+        when(virtualHost.getChildExecutor()).thenReturn(taskExecutor);
+        when(virtualHost.getObjectFactory()).thenReturn(factory);
+        when(virtualHost.getModel()).thenReturn(factory.getModel());
+        when(virtualHost.getParent(VirtualHostNode.class)).thenReturn(virtualHostNode);
+        when(virtualHost.getPrincipal()).thenReturn(mock(Principal.class));
+        return virtualHost;
+    }
+
+    /**
+     * Creates a queue to be bound to an exchange.  The routing benchmarks only ask a matched queue whether it has
+     * been deleted, so the queue is a mock.
+     */
+    public static AMQQueue<?> createQueue(final VirtualHostImpl<?, ?, ?> virtualHost, final String name)
+    {
+        AMQQueue<?> queue = mock(AMQQueue.class);
+        when(queue.getName()).thenReturn(name);
+        when(queue.toString()).thenReturn(name);
+        when(queue.getVirtualHost()).thenReturn(virtualHost);
+        when(queue.getParent(VirtualHost.class)).thenReturn(virtualHost);
+        doReturn(Queue.class).when(queue).getCategoryClass();
+        when(queue.getObjectFactory()).thenReturn(virtualHost.getObjectFactory());
+        when(queue.getModel()).thenReturn(virtualHost.getModel());
+        when(queue.getTaskExecutor()).thenReturn(virtualHost.getTaskExecutor());
+        when(queue.getChildExecutor()).thenReturn(virtualHost.getTaskExecutor());
+        return queue;
+    }
+}
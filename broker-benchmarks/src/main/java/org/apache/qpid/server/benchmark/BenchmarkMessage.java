@@ -0,0 +1,165 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.MessageReference;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.store.StorableMessageMetaData;
+import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.TransactionLogResource;
+
+/**
+ * A transient message with no content, used in place of a mock so that the cost of the code under test is not
+ * swamped by that of the mocking framework.
+ */
+public class BenchmarkMessage implements ServerMessage<StorableMessageMetaData>
+{
+    private final long _messageNumber;
+    private final String _routingAddress;
+    private final AMQMessageHeader _header;
+    private final long _size;
+
+    public BenchmarkMessage(final long messageNumber, final String routingAddress, final AMQMessageHeader header)
+    {
+        this(messageNumber, routingAddress, header, 0L);
+    }
+
+    public BenchmarkMessage(final long messageNumber,
+                            final String routingAddress,
+                            final AMQMessageHeader header,
+                            final long size)
+    {
+        _messageNumber = messageNumber;
+        _routingAddress = routingAddress;
+        _header = header;
+        _size = size;
+    }
+
+    @Override
+    public String getInitialRoutingAddress()
+    {
+        return _routingAddress;
+    }
+
+    @Override
+    public AMQMessageHeader getMessageHeader()
+    {
+        return _header;
+    }
+
+    @Override
+    public StoredMessage<StorableMessageMetaData> getStoredMessage()
+    {
+        return null;
+    }
+
+    @Override
+    public boolean isPersistent()
+    {
+        return false;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return _size;
+    }
+
+    @Override
+    public long getExpiration()
+    {
+        return _header.getExpiration();
+    }
+
+    @Override
+    public MessageReference newReference()
+    {
+        return new Reference();
+    }
+
+    @Override
+    public MessageReference newReference(final TransactionLogResource object)
+    {
+        return new Reference();
+    }
+
+    @Override
+    public boolean isReferenced(final TransactionLogResource resource)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isReferenced()
+    {
+        return false;
+    }
+
+    @Override
+    public long getArrivalTime()
+    {
+        return 0L;
+    }
+
+    @Override
+    public Object getConnectionReference()
+    {
+        return null;
+    }
+
+    @Override
+    public long getMessageNumber()
+    {
+        return _messageNumber;
+    }
+
+    @Override
+    public int getContent(final ByteBuffer buf, final int offset)
+    {
+        return 0;
+    }
+
+    @Override
+    public Collection<QpidByteBuffer> getContent(final int offset, final int size)
+    {
+        return Collections.emptyList();
+    }
+
+    private class Reference implements MessageReference<BenchmarkMessage>
+    {
+        @Override
+        public BenchmarkMessage getMessage()
+        {
+            return BenchmarkMessage.this;
+        }
+
+        @Override
+        public void release()
+        {
+        }
+    }
+}
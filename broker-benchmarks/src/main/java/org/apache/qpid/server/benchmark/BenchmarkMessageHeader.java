@@ -0,0 +1,175 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.benchmark;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+
+/**
+ * A message header backed by a map of application headers, with setters for the fields consulted by exchanges,
+ * queues and selectors.
+ */
+public class BenchmarkMessageHeader implements AMQMessageHeader
+{
+    private final Map<String, Object> _headers = new HashMap<>();
+    private String _correlationId;
+    private String _messageId;
+    private String _type;
+    private byte _priority = 4;
+    private long _timestamp;
+    private long _expiration;
+
+    public BenchmarkMessageHeader setHeader(final String name, final Object value)
+    {
+        _headers.put(name, value);
+        return this;
+    }
+
+    public BenchmarkMessageHeader setHeaders(final Map<String, ?> headers)
+    {
+        _headers.putAll(headers);
+        return this;
+    }
+
+    public BenchmarkMessageHeader setCorrelationId(final String correlationId)
+    {
+        _correlationId = correlationId;
+        return this;
+    }
+
+    public BenchmarkMessageHeader setMessageId(final String messageId)
+    {
+        _messageId = messageId;
+        return this;
+    }
+
+    public BenchmarkMessageHeader setType(final String type)
+    {
+        _type = type;
+        return this;
+    }
+
+    public BenchmarkMessageHeader setPriority(final byte priority)
+    {
+        _priority = priority;
+        return this;
+    }
+
+    public BenchmarkMessageHeader setTimestamp(final long timestamp)
+    {
+        _timestamp = timestamp;
+        return this;
+    }
+
+    @Override
+    public String getCorrelationId()
+    {
+        return _correlationId;
+    }
+
+    @Override
+    public long getExpiration()
+    {
+        return _expiration;
+    }
+
+    @Override
+    public String getUserId()
+    {
+        return null;
+    }
+
+    @Override
+    public String getAppId()
+    {
+        return null;
+    }
+
+    @Override
+    public String getMessageId()
+    {
+        return _messageId;
+    }
+
+    @Override
+    public String getMimeType()
+    {
+        return null;
+    }
+
+    @Override
+    public String getEncoding()
+    {
+        return null;
+    }
+
+    @Override
+    public byte getPriority()
+    {
+        return _priority;
+    }
+
+    @Override
+    public long getTimestamp()
+    {
+        return _timestamp;
+    }
+
+    @Override
+    public String getType()
+    {
+        return _type;
+    }
+
+    @Override
+    public String getReplyTo()
+    {
+        return null;
+    }
+
+    @Override
+    public Object getHeader(final String name)
+    {
+        return _headers.get(name);
+    }
+
+    @Override
+    public boolean containsHeaders(final Set<String> names)
+    {
+        return _headers.keySet().containsAll(names);
+    }
+
+    @Override
+    public boolean containsHeader(final String name)
+    {
+        return _headers.containsKey(name);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames()
+    {
+        return _headers.keySet();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.exchange;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.apache.qpid.server.benchmark.BenchmarkFixtures;
+import org.apache.qpid.server.benchmark.BenchmarkMessage;
+import org.apache.qpid.server.benchmark.BenchmarkMessageHeader;
+import org.apache.qpid.server.message.InstanceProperties;
+import org.apache.qpid.server.model.Exchange;
+import org.apache.qpid.server.queue.BaseQueue;
+import org.apache.qpid.server.virtualhost.VirtualHostImpl;
+
+/**
+ * Measures the cost of routing a single message through an exchange with a given number of bindings, each to its
+ * own queue.  The message matches the binding in the middle of the range, so that exchanges which search their
+ * bindings linearly are not flattered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExchangeRoutingBenchmark
+{
+    @Param({"direct", "topic", "headers"})
+    public String exchangeType;
+
+    @Param({"10", "1000"})
+    public int bindingCount;
+
+    private AbstractExchange<?> _exchange;
+    private BenchmarkMessage _message;
+    private String _routingAddress;
+
+    @Setup
+    public void setUp()
+    {
+        VirtualHostImpl virtualHost = BenchmarkFixtures.createVirtualHost();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(Exchange.ID, UUID.randomUUID());
+        attributes.put(Exchange.NAME, "benchmark." + exchangeType);
+        attributes.put(Exchange.DURABLE, false);
+
+        int target = bindingCount / 2;
+        BenchmarkMessageHeader header = new BenchmarkMessageHeader();
+        switch (exchangeType)
+        {
+            case "direct":
+                _exchange = new DirectExchange(attributes, virtualHost);
+                for (int i = 0; i < bindingCount; i++)
+                {
+                    bind(virtualHost, i, "queue." + i, Collections.<String, Object>emptyMap());
+                }
+                _routingAddress = "queue." + target;
+                break;
+            case "topic":
+                _exchange = new TopicExchange(attributes, virtualHost);
+                for (int i = 0; i < bindingCount; i++)
+                {
+                    bind(virtualHost, i, topicBindingKey(i), Collections.<String, Object>emptyMap());
+                }
+                _routingAddress = "stock." + target + ".nyse";
+                break;
+            case "headers":
+                _exchange = new HeadersExchange(attributes, virtualHost);
+                for (int i = 0; i < bindingCount; i++)
+                {
+                    Map<String, Object> arguments = new HashMap<>();
+                    arguments.put("symbol", String.valueOf(i));
+                    if (i % 2 == 0)
+                    {
+                        arguments.put("x-match", "all");
+                        arguments.put("market", "nyse");
+                    }
+                    else
+                    {
+                        arguments.put("x-match", "any");
+                        arguments.put("region", "emea");
+                    }
+                    bind(virtualHost, i, "binding." + i, arguments);
+                }
+                header.setHeader("symbol", String.valueOf(target)).setHeader("market", "nyse");
+                _routingAddress = "";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown exchange type: " + exchangeType);
+        }
+        _message = new BenchmarkMessage(1L, _routingAddress, header, 1024L);
+    }
+
+    private void bind(final VirtualHostImpl virtualHost,
+                      final int index,
+                      final String bindingKey,
+                      final Map<String, Object> arguments)
+    {
+        _exchange.addBinding(bindingKey, BenchmarkFixtures.createQueue(virtualHost, "queue." + index), arguments);
+    }
+
+    private static String topicBindingKey(final int index)
+    {
+        switch (index % 3)
+        {
+            case 0:
+                return "stock." + index + ".*";
+            case 1:
+                return "stock.#." + index;
+            default:
+                return "stock." + index + ".nyse";
+        }
+    }
+
+    @Benchmark
+    public List<? extends BaseQueue> route()
+    {
+        return _exchange.route(_message, _routingAddress, InstanceProperties.EMPTY);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.filter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.apache.qpid.filter.SelectorParsingException;
+import org.apache.qpid.filter.selector.ParseException;
+import org.apache.qpid.server.benchmark.BenchmarkMessage;
+import org.apache.qpid.server.benchmark.BenchmarkMessageHeader;
+import org.apache.qpid.server.message.InstanceProperties;
+
+/**
+ * Measures the cost of evaluating a JMS selector against a message which it matches, and against one which it
+ * does not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JMSSelectorFilterBenchmark
+{
+    @Param({"color = 'red'",
+            "color = 'red' AND weight > 2500",
+            "color IN ('red', 'green', 'blue') AND size BETWEEN 10 AND 20",
+            "JMSPriority > 3 AND name LIKE 'order%' AND NOT (region = 'emea' OR region = 'apac')"})
+    public String selector;
+
+    private JMSSelectorFilter _filter;
+    private Filterable _matching;
+    private Filterable _nonMatching;
+
+    @Setup
+    public void setUp() throws ParseException, SelectorParsingException
+    {
+        _filter = new JMSSelectorFilter(selector);
+
+        BenchmarkMessageHeader matching = new BenchmarkMessageHeader();
+        matching.setHeader("color", "red")
+                .setHeader("weight", 3000)
+                .setHeader("size", 15)
+                .setHeader("name", "order.1234")
+                .setHeader("region", "amer")
+                .setPriority((byte) 7);
+        _matching = Filterable.Factory.newInstance(new BenchmarkMessage(1L, "", matching), InstanceProperties.EMPTY);
+
+        BenchmarkMessageHeader nonMatching = new BenchmarkMessageHeader();
+        nonMatching.setHeader("color", "yellow")
+                   .setHeader("weight", 1000)
+                   .setHeader("size", 25)
+                   .setHeader("name", "invoice.1234")
+                   .setHeader("region", "emea")
+                   .setPriority((byte) 1);
+        _nonMatching = Filterable.Factory.newInstance(new BenchmarkMessage(2L, "", nonMatching),
+                                                      InstanceProperties.EMPTY);
+    }
+
+    @Benchmark
+    public boolean matching()
+    {
+        return _filter.matches(_matching);
+    }
+
+    @Benchmark
+    public boolean nonMatching()
+    {
+        return _filter.matches(_nonMatching);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.apache.qpid.server.benchmark.BenchmarkFixtures;
+import org.apache.qpid.server.benchmark.BenchmarkMessage;
+import org.apache.qpid.server.benchmark.BenchmarkMessageHeader;
+import org.apache.qpid.server.model.LifetimePolicy;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.virtualhost.VirtualHostImpl;
+
+/**
+ * Measures the cost, per message, of adding a batch of messages to an empty queue entry list and then iterating
+ * over them.  Sort keys and priorities are drawn from a seeded random sequence so that every run, and every list,
+ * sees the same arrival order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueueEntryListBenchmark
+{
+    private static final int MESSAGE_COUNT = 1000;
+    private static final String SORT_KEY = "KEY";
+
+    @Param({"standard", "sorted", "concurrentSorted", "priority"})
+    public String listType;
+
+    private StandardQueueImpl _standardQueue;
+    private SortedQueueImpl _sortedQueue;
+    private PriorityQueueImpl _priorityQueue;
+    private BenchmarkMessage[] _messages;
+
+    @Setup
+    public void setUp()
+    {
+        VirtualHostImpl virtualHost = BenchmarkFixtures.createVirtualHost();
+
+        _standardQueue = new StandardQueueImpl(queueAttributes("standard"), virtualHost);
+        _standardQueue.open();
+
+        Map<String, Object> sortedAttributes = queueAttributes("sorted");
+        sortedAttributes.put(SortedQueue.SORT_KEY, SORT_KEY);
+        _sortedQueue = new SortedQueueImpl(sortedAttributes, virtualHost);
+        _sortedQueue.open();
+
+        Map<String, Object> priorityAttributes = queueAttributes("priority");
+        priorityAttributes.put(PriorityQueue.PRIORITIES, 10);
+        _priorityQueue = new PriorityQueueImpl(priorityAttributes, virtualHost);
+        _priorityQueue.open();
+
+        Random random = new Random(MESSAGE_COUNT);
+        _messages = new BenchmarkMessage[MESSAGE_COUNT];
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            BenchmarkMessageHeader header = new BenchmarkMessageHeader();
+            header.setHeader(SORT_KEY, "key." + random.nextInt(MESSAGE_COUNT));
+            header.setPriority((byte) random.nextInt(10));
+            _messages[i] = new BenchmarkMessage(i, "", header);
+        }
+    }
+
+    private Map<String, Object> queueAttributes(final String name)
+    {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(Queue.ID, UUID.randomUUID());
+        attributes.put(Queue.NAME, "benchmark." + name);
+        attributes.put(Queue.DURABLE, false);
+        attributes.put(Queue.LIFETIME_POLICY, LifetimePolicy.PERMANENT);
+        return attributes;
+    }
+
+    private QueueEntryList newList()
+    {
+        switch (listType)
+        {
+            case "standard":
+                return new StandardQueueEntryList(_standardQueue);
+            case "sorted":
+                return new SortedQueueEntryList(_sortedQueue);
+            case "concurrentSorted":
+                return new ConcurrentSortedQueueEntryList(_sortedQueue);
+            case "priority":
+                return PriorityQueueList.newInstance(_priorityQueue);
+            default:
+                throw new IllegalArgumentException("Unknown list type: " + listType);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGE_COUNT)
+    public long addAndIterate()
+    {
+        QueueEntryList list = newList();
+        for (BenchmarkMessage message : _messages)
+        {
+            list.add(message, null);
+        }
+
+        long total = 0L;
+        QueueEntryIterator iterator = list.iterator();
+        while (iterator.advance())
+        {
+            total += iterator.getNode().getMessage().getMessageNumber();
+        }
+        return total;
+    }
+}
@@ -66,6 +66,7 @@ import org.apache.qpid.server.model.State;
 import org.apache.qpid.server.model.StateTransition;
 import org.apache.qpid.server.queue.AMQQueue;
 import org.apache.qpid.server.queue.BaseQueue;
+import org.apache.qpid.server.stats.LatencyHistogram;
 import org.apache.qpid.server.store.MessageEnqueueRecord;
 import org.apache.qpid.server.store.StorableMessageMetaData;
 import org.apache.qpid.server.txn.ServerTransaction;
@@ -107,6 +108,7 @@ public abstract class AbstractExchange<T extends AbstractExchange<T>>
     private final AtomicLong _routedMessageSize = new AtomicLong();
     private final AtomicLong _droppedMessageCount = new AtomicLong();
     private final AtomicLong _droppedMessageSize = new AtomicLong();
+    private final LatencyHistogram _routingLatency = new LatencyHistogram();
 
     private final CopyOnWriteArrayList<ExchangeImpl.BindingListener> _listeners = new CopyOnWriteArrayList<ExchangeImpl.BindingListener>();
 
@@ -439,7 +441,9 @@ public abstract class AbstractExchange<T extends AbstractExchange<T>>
     {
         _receivedMessageCount.incrementAndGet();
         _receivedMessageSize.addAndGet(message.getSize());
+        long routingStart = System.nanoTime();
         List<? extends BaseQueue> queues = doRoute(message, routingAddress, instanceProperties);
+        _routingLatency.registerLatency(System.nanoTime() - routingStart);
         List<? extends BaseQueue> allQueues = queues;
 
         boolean deletedQueues = false;
@@ -584,6 +588,39 @@ public abstract class AbstractExchange<T extends AbstractExchange<T>>
         return _droppedMessageSize.get();
     }
 
+    @Override
+    public long getRoutingTime()
+    {
+        return _routingLatency.getTotal();
+    }
+
+    @Override
+    public long getRoutingTimeMedian()
+    {
+        return _routingLatency.getPercentile(50d);
+    }
+
+    @Override
+    public long getRoutingTime99thPercentile()
+    {
+        return _routingLatency.getPercentile(99d);
+    }
+
+    @Override
+    public long getRoutingTimeMaximum()
+    {
+        return _routingLatency.getMaximum();
+    }
+
+    /**
+     * @return a snapshot of the routing latencies recorded by this exchange, bucketed as described by
+     * {@link LatencyHistogram}
+     */
+    public long[] getRoutingLatencyHistogram()
+    {
+        return _routingLatency.getBucketCounts();
+    }
+
     public void addBindingListener(final BindingListener listener)
     {
         _listeners.add(listener);
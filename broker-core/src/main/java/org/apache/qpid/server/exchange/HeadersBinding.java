@@ -116,6 +116,27 @@ class HeadersBinding
         return _binding;
     }
 
+    /**
+     * @return the names of the headers which this binding requires to be present, whatever their value
+     */
+    Set<String> getRequiredHeaders()
+    {
+        return Collections.unmodifiableSet(required);
+    }
+
+    /**
+     * @return the header names and values which this binding requires to be matched
+     */
+    Map<String, Object> getMatchedHeaders()
+    {
+        return Collections.unmodifiableMap(matches);
+    }
+
+    boolean isMatchAny()
+    {
+        return matchAny;
+    }
+
     /**
      * Checks whether the supplied headers match the requirements of this binding
      * @param headers the headers to check
@@ -0,0 +1,394 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.exchange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.qpid.server.binding.BindingImpl;
+import org.apache.qpid.server.filter.Filterable;
+import org.apache.qpid.server.message.AMQMessageHeader;
+
+/**
+ * Inverted index of the header bindings of an exchange, keyed by header name and by header name and value, so that
+ * only those bindings which could possibly match a message need to be evaluated against it.
+ *
+ * A binding with x-match=all is indexed under a single one of its conditions (preferring a value match over a presence
+ * match), since a message can only match the binding if it satisfies every condition.  A binding with x-match=any is
+ * indexed under each of its conditions.  Bindings without conditions match every message carrying headers, and are
+ * always evaluated.  The bindings found through the index are then checked in full, so the index only needs to
+ * return a superset of the matching bindings.
+ *
+ * Updates are serialised, whereas lookups take no lock and may proceed concurrently with updates.
+ */
+class HeadersBindingIndex
+{
+    private final ConcurrentMap<BindingImpl, IndexedBinding> _indexedBindings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<IndexedBinding>> _byHeaderPresence = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<Object, Set<IndexedBinding>>> _byHeaderValue =
+            new ConcurrentHashMap<>();
+    private final Set<IndexedBinding> _unconditional = newBindingSet();
+
+    private long _nextSequence;
+
+    synchronized void add(final HeadersBinding binding)
+    {
+        IndexedBinding existing = _indexedBindings.get(binding.getBinding());
+        if (existing != null)
+        {
+            replace(existing, binding);
+        }
+        else
+        {
+            IndexedBinding indexedBinding = new IndexedBinding(_nextSequence++, binding);
+            List<Anchor> anchors = chooseAnchors(binding);
+            register(indexedBinding, anchors);
+            indexedBinding._anchors = anchors;
+            _indexedBindings.put(binding.getBinding(), indexedBinding);
+        }
+    }
+
+    /**
+     * Replaces the header binding for the same underlying binding, retaining its position in the routing order.
+     */
+    synchronized void update(final HeadersBinding binding)
+    {
+        IndexedBinding existing = _indexedBindings.get(binding.getBinding());
+        if (existing != null)
+        {
+            replace(existing, binding);
+        }
+    }
+
+    synchronized boolean remove(final HeadersBinding binding)
+    {
+        IndexedBinding indexedBinding = _indexedBindings.remove(binding.getBinding());
+        if (indexedBinding == null)
+        {
+            return false;
+        }
+        unregister(indexedBinding, indexedBinding._anchors);
+        return true;
+    }
+
+    int size()
+    {
+        return _indexedBindings.size();
+    }
+
+    /**
+     * Finds the bindings matching the given message.
+     *
+     * @param message the message to match
+     * @return the matching bindings, in the order in which they were added
+     */
+    List<HeadersBinding> getMatchingBindings(final Filterable message)
+    {
+        AMQMessageHeader headers = message.getMessageHeader();
+        Collection<IndexedBinding> candidates;
+        if (headers == null)
+        {
+            candidates = _unconditional;
+        }
+        else
+        {
+            Set<IndexedBinding> collected = new HashSet<>(_unconditional);
+            for (String name : headers.getHeaderNames())
+            {
+                Set<IndexedBinding> present = _byHeaderPresence.get(name);
+                if (present != null)
+                {
+                    collected.addAll(present);
+                }
+
+                Map<Object, Set<IndexedBinding>> valueMatches = _byHeaderValue.get(name);
+                if (valueMatches != null)
+                {
+                    Object value = headers.getHeader(name);
+                    Set<IndexedBinding> matched = value == null ? null : valueMatches.get(value);
+                    if (matched != null)
+                    {
+                        collected.addAll(matched);
+                    }
+                }
+            }
+            candidates = collected;
+        }
+
+        if (candidates.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        TreeMap<Long, HeadersBinding> matching = new TreeMap<>();
+        for (IndexedBinding candidate : candidates)
+        {
+            HeadersBinding binding = candidate._binding;
+            if (binding.matches(message))
+            {
+                matching.put(candidate._sequence, binding);
+            }
+        }
+        return new ArrayList<>(matching.values());
+    }
+
+    private void replace(final IndexedBinding existing, final HeadersBinding binding)
+    {
+        // the new anchors are registered before the binding is swapped, and the stale anchors only removed after, so
+        // that a concurrent lookup always finds the binding through either its old or its new conditions
+        List<Anchor> oldAnchors = existing._anchors;
+        List<Anchor> newAnchors = chooseAnchors(binding);
+        register(existing, newAnchors);
+        existing._binding = binding;
+        existing._anchors = newAnchors;
+
+        if (oldAnchors.isEmpty())
+        {
+            if (!newAnchors.isEmpty())
+            {
+                _unconditional.remove(existing);
+            }
+        }
+        else
+        {
+            List<Anchor> staleAnchors = new ArrayList<>(oldAnchors);
+            staleAnchors.removeAll(newAnchors);
+            if (!staleAnchors.isEmpty())
+            {
+                unregister(existing, staleAnchors);
+            }
+        }
+    }
+
+    private List<Anchor> chooseAnchors(final HeadersBinding binding)
+    {
+        Set<String> required = binding.getRequiredHeaders();
+        Map<String, Object> matched = binding.getMatchedHeaders();
+        List<Anchor> anchors = new ArrayList<>();
+        if (binding.isMatchAny())
+        {
+            for (String name : required)
+            {
+                anchors.add(new Anchor(name, null));
+            }
+            for (Map.Entry<String, Object> entry : matched.entrySet())
+            {
+                anchors.add(new Anchor(entry.getKey(), entry.getValue()));
+            }
+        }
+        else
+        {
+            // any single condition will do, so pick the one shared with the fewest other bindings
+            Anchor best = null;
+            int bestSize = Integer.MAX_VALUE;
+            for (Map.Entry<String, Object> entry : matched.entrySet())
+            {
+                Anchor anchor = new Anchor(entry.getKey(), entry.getValue());
+                int size = getAnchoredCount(anchor);
+                if (size < bestSize)
+                {
+                    best = anchor;
+                    bestSize = size;
+                }
+            }
+            if (best == null)
+            {
+                for (String name : required)
+                {
+                    Anchor anchor = new Anchor(name, null);
+                    int size = getAnchoredCount(anchor);
+                    if (size < bestSize)
+                    {
+                        best = anchor;
+                        bestSize = size;
+                    }
+                }
+            }
+            if (best != null)
+            {
+                anchors.add(best);
+            }
+        }
+        return anchors;
+    }
+
+    private int getAnchoredCount(final Anchor anchor)
+    {
+        Set<IndexedBinding> bindings = getAnchoredBindings(anchor, false);
+        return bindings == null ? 0 : bindings.size();
+    }
+
+    private void register(final IndexedBinding indexedBinding, final List<Anchor> anchors)
+    {
+        if (anchors.isEmpty())
+        {
+            _unconditional.add(indexedBinding);
+        }
+        else
+        {
+            for (Anchor anchor : anchors)
+            {
+                getAnchoredBindings(anchor, true).add(indexedBinding);
+            }
+        }
+    }
+
+    private void unregister(final IndexedBinding indexedBinding, final List<Anchor> anchors)
+    {
+        if (anchors.isEmpty())
+        {
+            _unconditional.remove(indexedBinding);
+        }
+        else
+        {
+            for (Anchor anchor : anchors)
+            {
+                Set<IndexedBinding> bindings = getAnchoredBindings(anchor, false);
+                if (bindings != null)
+                {
+                    bindings.remove(indexedBinding);
+                    if (bindings.isEmpty())
+                    {
+                        removeAnchor(anchor, bindings);
+                    }
+                }
+            }
+        }
+    }
+
+    private Set<IndexedBinding> getAnchoredBindings(final Anchor anchor, final boolean create)
+    {
+        if (anchor._value == null)
+        {
+            Set<IndexedBinding> bindings = _byHeaderPresence.get(anchor._name);
+            if (bindings == null && create)
+            {
+                bindings = newBindingSet();
+                _byHeaderPresence.put(anchor._name, bindings);
+            }
+            return bindings;
+        }
+        else
+        {
+            ConcurrentMap<Object, Set<IndexedBinding>> valueMatches = _byHeaderValue.get(anchor._name);
+            if (valueMatches == null)
+            {
+                if (!create)
+                {
+                    return null;
+                }
+                valueMatches = new ConcurrentHashMap<>();
+                _byHeaderValue.put(anchor._name, valueMatches);
+            }
+            Set<IndexedBinding> bindings = valueMatches.get(anchor._value);
+            if (bindings == null && create)
+            {
+                bindings = newBindingSet();
+                valueMatches.put(anchor._value, bindings);
+            }
+            return bindings;
+        }
+    }
+
+    private void removeAnchor(final Anchor anchor, final Set<IndexedBinding> bindings)
+    {
+        if (anchor._value == null)
+        {
+            _byHeaderPresence.remove(anchor._name, bindings);
+        }
+        else
+        {
+            ConcurrentMap<Object, Set<IndexedBinding>> valueMatches = _byHeaderValue.get(anchor._name);
+            if (valueMatches != null)
+            {
+                valueMatches.remove(anchor._value, bindings);
+                if (valueMatches.isEmpty())
+                {
+                    _byHeaderValue.remove(anchor._name, valueMatches);
+                }
+            }
+        }
+    }
+
+    private static Set<IndexedBinding> newBindingSet()
+    {
+        return Collections.newSetFromMap(new ConcurrentHashMap<IndexedBinding, Boolean>());
+    }
+
+    private static final class IndexedBinding
+    {
+        private final long _sequence;
+        private volatile HeadersBinding _binding;
+        private volatile List<Anchor> _anchors = Collections.emptyList();
+
+        private IndexedBinding(final long sequence, final HeadersBinding binding)
+        {
+            _sequence = sequence;
+            _binding = binding;
+        }
+    }
+
+    /**
+     * A condition under which a binding is indexed: the presence of a header if the value is null, otherwise the
+     * header having the given value.
+     */
+    private static final class Anchor
+    {
+        private final String _name;
+        private final Object _value;
+
+        private Anchor(final String name, final Object value)
+        {
+            _name = name;
+            _value = value;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+
+            final Anchor anchor = (Anchor) o;
+            return _name.equals(anchor._name) && (_value == null ? anchor._value == null : _value.equals(anchor._value));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * _name.hashCode() + (_value == null ? 0 : _value.hashCode());
+        }
+    }
+}
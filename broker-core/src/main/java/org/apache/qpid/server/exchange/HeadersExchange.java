@@ -22,11 +22,9 @@ package org.apache.qpid.server.exchange;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.slf4j.Logger;
@@ -79,8 +77,7 @@ public class HeadersExchange extends AbstractExchange<HeadersExchange>
     private final ConcurrentMap<String, CopyOnWriteArraySet<BindingImpl>> _bindingsByKey =
                             new ConcurrentHashMap<String, CopyOnWriteArraySet<BindingImpl>>();
 
-    private final CopyOnWriteArrayList<HeadersBinding> _bindingHeaderMatchers =
-                            new CopyOnWriteArrayList<HeadersBinding>();
+    private final HeadersBindingIndex _bindingIndex = new HeadersBindingIndex();
 
     @ManagedObjectFactoryConstructor
     public HeadersExchange(final Map<String, Object> attributes, final VirtualHostImpl vhost)
@@ -97,21 +94,19 @@ public class HeadersExchange extends AbstractExchange<HeadersExchange>
 
         LinkedHashSet<BaseQueue> queues = new LinkedHashSet<BaseQueue>();
 
-        for (HeadersBinding hb : _bindingHeaderMatchers)
+        Filterable message = Filterable.Factory.newInstance(payload, instanceProperties);
+        for (HeadersBinding hb : _bindingIndex.getMatchingBindings(message))
         {
-            if (hb.matches(Filterable.Factory.newInstance(payload,instanceProperties)))
-            {
-                BindingImpl b = hb.getBinding();
+            BindingImpl b = hb.getBinding();
 
-                b.incrementMatches();
+            b.incrementMatches();
 
-                if (_logger.isDebugEnabled())
-                {
-                    _logger.debug("Exchange " + getName() + ": delivering message with headers " +
-                                  payload.getMessageHeader() + " to " + b.getAMQQueue().getName());
-                }
-                queues.add(b.getAMQQueue());
+            if (_logger.isDebugEnabled())
+            {
+                _logger.debug("Exchange " + getName() + ": delivering message with headers " +
+                              payload.getMessageHeader() + " to " + b.getAMQQueue().getName());
             }
+            queues.add(b.getAMQQueue());
         }
 
         return new ArrayList<BaseQueue>(queues);
@@ -143,7 +138,7 @@ public class HeadersExchange extends AbstractExchange<HeadersExchange>
                           " with binding key '" +bindingKey + "' and args: " + binding.getArguments());
         }
 
-        _bindingHeaderMatchers.add(new HeadersBinding(binding));
+        _bindingIndex.add(new HeadersBinding(binding));
         bindings.add(binding);
 
     }
@@ -151,16 +146,7 @@ public class HeadersExchange extends AbstractExchange<HeadersExchange>
     @Override
     protected void onBindingUpdated(final BindingImpl binding, final Map<String, Object> oldArguments)
     {
-        HeadersBinding headersBinding = new HeadersBinding(binding);
-        ListIterator<HeadersBinding> iter = _bindingHeaderMatchers.listIterator();
-        while(iter.hasNext())
-        {
-            if(iter.next().equals(headersBinding))
-            {
-                iter.set(headersBinding);
-            }
-        }
-
+        _bindingIndex.update(new HeadersBinding(binding));
     }
 
     protected void onUnbind(final BindingImpl binding)
@@ -173,7 +159,7 @@ public class HeadersExchange extends AbstractExchange<HeadersExchange>
             bindings.remove(binding);
         }
 
-        boolean removedBinding = _bindingHeaderMatchers.remove(new HeadersBinding(binding));
+        boolean removedBinding = _bindingIndex.remove(new HeadersBinding(binding));
         _logger.debug("Removing Binding: {}", removedBinding);
 
     }
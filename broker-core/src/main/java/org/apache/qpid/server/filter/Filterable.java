@@ -41,11 +41,24 @@ public interface Filterable extends FilterableMessage
 
     class Factory
     {
-
+        /** The number of distinct headers whose values a filterable remembers */
+        private static final int MAX_MEMOISED_HEADERS = 16;
+        private static final Object NULL_HEADER = new Object();
+        private static final Object[] NO_HEADERS = new Object[0];
+
+        /**
+         * Creates a filterable view of a message instance.  The values of the headers looked up through the view are
+         * remembered, so that a message evaluated against many selectors decodes each header only once.
+         */
         public static Filterable newInstance(final ServerMessage message, final InstanceProperties properties)
         {
             return new Filterable()
             {
+                /**
+                 * Alternating header names and values; replaced rather than modified, so that the view can be shared
+                 * between threads without locking at the cost of an occasional repeated lookup.
+                 */
+                private volatile Object[] _headers = NO_HEADERS;
 
                 @Override
                 public AMQMessageHeader getMessageHeader()
@@ -128,7 +141,26 @@ public interface Filterable extends FilterableMessage
                 @Override
                 public Object getHeader(String name)
                 {
-                    return message.getMessageHeader().getHeader(name);
+                    Object[] headers = _headers;
+                    for (int i = 0; i < headers.length; i += 2)
+                    {
+                        if (name.equals(headers[i]))
+                        {
+                            Object value = headers[i + 1];
+                            return value == NULL_HEADER ? null : value;
+                        }
+                    }
+
+                    Object value = message.getMessageHeader().getHeader(name);
+                    if (headers.length < 2 * MAX_MEMOISED_HEADERS)
+                    {
+                        Object[] updated = new Object[headers.length + 2];
+                        System.arraycopy(headers, 0, updated, 0, headers.length);
+                        updated[headers.length] = name;
+                        updated[headers.length + 1] = value == null ? NULL_HEADER : value;
+                        _headers = updated;
+                    }
+                    return value;
                 }
 
                 @Override
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import org.apache.qpid.common.AMQPFilterTypes;
 import org.apache.qpid.filter.BooleanExpression;
+import org.apache.qpid.filter.SelectorCompiler;
 import org.apache.qpid.filter.SelectorParsingException;
 import org.apache.qpid.filter.selector.ParseException;
 import org.apache.qpid.filter.selector.SelectorParser;
@@ -43,7 +44,7 @@ public class JMSSelectorFilter implements MessageFilter
     public JMSSelectorFilter(String selector) throws ParseException, TokenMgrError, SelectorParsingException
     {
         _selector = selector;
-        _matcher = new SelectorParser().parse(selector);
+        _matcher = SelectorCompiler.compile(new SelectorParser().parse(selector));
     }
 
     @Override
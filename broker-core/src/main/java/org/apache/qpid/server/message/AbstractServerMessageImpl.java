@@ -20,6 +20,7 @@
  */
 package org.apache.qpid.server.message;
 
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -44,11 +45,18 @@ public abstract class AbstractServerMessageImpl<X extends AbstractServerMessageI
     private static final AtomicReferenceFieldUpdater<AbstractServerMessageImpl, Collection> _resourcesUpdater =
             AtomicReferenceFieldUpdater.newUpdater(AbstractServerMessageImpl.class, Collection.class,"_resources");
 
+    private static final AtomicReferenceFieldUpdater<AbstractServerMessageImpl, ConvertedMessage[]> _convertedMessagesUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractServerMessageImpl.class, ConvertedMessage[].class, "_convertedMessages");
+
+    /** There are only a handful of message classes, so this bounds the conversions held for each message */
+    static final int MAX_CONVERTED_MESSAGES = 4;
+
 
     private volatile int _referenceCount = 0;
     private final StoredMessage<T> _handle;
     private final Object _connectionReference;
     private volatile Collection<UUID> _resources;
+    private volatile ConvertedMessage[] _convertedMessages;
 
 
     public AbstractServerMessageImpl(StoredMessage<T> handle, Object connectionReference)
@@ -103,6 +111,7 @@ public abstract class AbstractServerMessageImpl<X extends AbstractServerMessageI
                 updated = _refCountUpdater.compareAndSet(this, count, -1);
                 if (updated)
                 {
+                    _convertedMessagesUpdater.set(this, null);
                     // must check if the handle is null since there may be cases where we decide to throw away a message
                     // and the handle has not yet been constructed
                     if (_handle != null)
@@ -120,6 +129,69 @@ public abstract class AbstractServerMessageImpl<X extends AbstractServerMessageI
         while (!updated);
     }
 
+    /**
+     * @return the message previously converted from this message to the given class, if it has not since been
+     * garbage collected or this message deleted, otherwise null
+     */
+    public <N extends ServerMessage> N getConvertedMessage(Class<N> convertedClass)
+    {
+        ConvertedMessage[] convertedMessages = _convertedMessages;
+        if (convertedMessages != null)
+        {
+            for (ConvertedMessage convertedMessage : convertedMessages)
+            {
+                if (convertedMessage._convertedClass == convertedClass)
+                {
+                    return convertedClass.cast(convertedMessage.get());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Holds the message converted from this message to the given class, so that it may be reused for subsequent
+     * deliveries to consumers of the same protocol.  The converted message is only weakly held, and is discarded
+     * when this message is deleted.
+     */
+    public <N extends ServerMessage> void setConvertedMessage(Class<N> convertedClass, N convertedMessage)
+    {
+        ConvertedMessage[] currentValue;
+        ConvertedMessage[] newValue;
+        do
+        {
+            currentValue = _convertedMessages;
+            if (_referenceCount < 0)
+            {
+                return;
+            }
+            if (currentValue == null)
+            {
+                newValue = new ConvertedMessage[] { new ConvertedMessage(convertedClass, convertedMessage) };
+            }
+            else
+            {
+                newValue = new ConvertedMessage[Math.min(currentValue.length + 1, MAX_CONVERTED_MESSAGES)];
+                int pos = 0;
+                newValue[pos++] = new ConvertedMessage(convertedClass, convertedMessage);
+                // retain the most recent conversions to other classes, discarding the oldest if full
+                for (int i = 0; i < currentValue.length && pos < newValue.length; i++)
+                {
+                    ConvertedMessage existing = currentValue[i];
+                    if (existing._convertedClass != convertedClass && existing.get() != null)
+                    {
+                        newValue[pos++] = existing;
+                    }
+                }
+                if (pos < newValue.length)
+                {
+                    newValue = Arrays.copyOf(newValue, pos);
+                }
+            }
+        }
+        while (!_convertedMessagesUpdater.compareAndSet(this, currentValue, newValue));
+    }
+
     public String debugIdentity()
     {
         return "(HC:" + System.identityHashCode(this) + " ID:" + getMessageNumber() + " Ref:" + getReferenceCount() + ")";
@@ -188,6 +260,17 @@ public abstract class AbstractServerMessageImpl<X extends AbstractServerMessageI
         return "Message[" + debugIdentity() + "]";
     }
 
+    private static final class ConvertedMessage extends WeakReference<ServerMessage>
+    {
+        private final Class<?> _convertedClass;
+
+        private ConvertedMessage(final Class<?> convertedClass, final ServerMessage convertedMessage)
+        {
+            super(convertedMessage);
+            _convertedClass = convertedClass;
+        }
+    }
+
     private static class Reference<X extends AbstractServerMessageImpl<X,T>, T extends StorableMessageMetaData>
             implements MessageReference<X>
     {
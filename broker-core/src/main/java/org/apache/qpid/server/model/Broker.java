@@ -145,6 +145,10 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     @ManagedContextDefault(name = BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE)
     int DEFAULT_BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE = 1024;
 
+    String BROKER_DIRECT_BYTE_BUFFER_LEAK_DETECTION = "broker.directByteBufferLeakDetection";
+    @ManagedContextDefault(name = BROKER_DIRECT_BYTE_BUFFER_LEAK_DETECTION)
+    boolean DEFAULT_BROKER_DIRECT_BYTE_BUFFER_LEAK_DETECTION = false;
+
     @ManagedAttribute(validValues = {"org.apache.qpid.server.model.adapter.BrokerAdapter#getAvailableConfigurationEncrypters()"})
     String getConfidentialConfigurationEncryptionProvider();
 
@@ -163,6 +167,22 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES, label = "Outbound")
     long getMessagesOut();
 
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Buffer Pool Hits",
+                      description = "Number of times a direct buffer was reused from the buffer pool")
+    long getDirectBufferPoolHits();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Buffer Pool Misses",
+                      description = "Number of times a direct buffer was newly allocated because the buffer pool was empty")
+    long getDirectBufferPoolMisses();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Pooled Buffers",
+                      description = "Number of direct buffers held in the shared buffer pool awaiting reuse")
+    int getDirectBufferPoolSize();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "Outstanding Direct Memory",
+                      description = "Size of the pooled direct buffers currently in use")
+    long getOutstandingDirectMemory();
+
 
     //children
     Collection<VirtualHostNode<?>> getVirtualHostNodes();
@@ -96,6 +96,10 @@ public interface Connection<X extends Connection<X>> extends ConfiguredObject<X>
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.BYTES, label = "Outbound")
     long getBytesOut();
 
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "Outbound Pending",
+                      description = "Number of bytes sent by the connection's sessions and not yet written to the network")
+    long getBytesPendingOut();
+
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES, label = "Inbound")
     long getMessagesIn();
 
@@ -62,6 +62,22 @@ public interface Exchange<X extends Exchange<X>> extends ConfiguredObject<X>, Me
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES, label = "Inbound")
     long getMessagesIn();
 
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.TIME_DURATION, label = "Routing Time",
+                      description = "Total time in nanoseconds spent routing messages")
+    long getRoutingTime();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Median Routing Time",
+                      description = "Estimated median time in nanoseconds taken to route a message")
+    long getRoutingTimeMedian();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "99th Percentile Routing Time",
+                      description = "Estimated time in nanoseconds within which 99% of messages were routed")
+    long getRoutingTime99thPercentile();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Maximum Routing Time",
+                      description = "Longest time in nanoseconds taken to route a message")
+    long getRoutingTimeMaximum();
+
 
     //operations
     Binding createBinding(String bindingKey,
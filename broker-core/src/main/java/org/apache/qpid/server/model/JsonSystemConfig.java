@@ -24,6 +24,10 @@ import org.apache.qpid.server.store.FileBasedSettings;
 
 public interface JsonSystemConfig<X extends JsonSystemConfig<X>> extends SystemConfig<X>, FileBasedSettings
 {
+    String JSON_STORE_JOURNAL_COMPACTION_THRESHOLD = "qpid.store.json.journalCompactionThreshold";
+    @ManagedContextDefault(name = JSON_STORE_JOURNAL_COMPACTION_THRESHOLD)
+    int DEFAULT_JSON_STORE_JOURNAL_COMPACTION_THRESHOLD = 0;
+
     @ManagedAttribute( mandatory = true )
     public String getStorePath();
 }
@@ -60,6 +60,7 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>
     String MINIMUM_MESSAGE_TTL = "minimumMessageTtl";
     String DEFAULT_FILTERS = "defaultFilters";
     String ENSURE_NONDESTRUCTIVE_CONSUMERS = "ensureNondestructiveConsumers";
+    String SELECTOR_INDEX_ENABLED = "selectorIndexEnabled";
 
     String QUEUE_MINIMUM_ESTIMATED_MEMORY_FOOTPRINT = "queue.minimumEstimatedMemoryFootprint";
     @ManagedContextDefault( name = QUEUE_MINIMUM_ESTIMATED_MEMORY_FOOTPRINT)
@@ -69,6 +70,14 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>
     @ManagedContextDefault( name = QUEUE_ESTIMATED_MESSAGE_MEMORY_OVERHEAD)
     long DEFAULT_ESTIMATED_MESSAGE_MEMORY_OVERHEAD = 1024l;
 
+    String QUEUE_EXPIRY_INDEX_GRANULARITY = "queue.expiryIndexGranularity";
+    @ManagedContextDefault( name = QUEUE_EXPIRY_INDEX_GRANULARITY)
+    long DEFAULT_EXPIRY_INDEX_GRANULARITY = 1000l;
+
+    String QUEUE_POSITION_INDEX_SEGMENT_SIZE = "queue.positionIndexSegmentSize";
+    @ManagedContextDefault( name = QUEUE_POSITION_INDEX_SEGMENT_SIZE)
+    long DEFAULT_POSITION_INDEX_SEGMENT_SIZE = 1024l;
+
     String MAX_ASYNCHRONOUS_DELIVERIES = "queue.maxAsynchronousDeliveries";
     @ManagedContextDefault(name = MAX_ASYNCHRONOUS_DELIVERIES )
     int DEFAULT_MAX_ASYNCHRONOUS_DELIVERIES = 80;
@@ -82,6 +91,12 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>
     @ManagedAttribute( defaultValue = "false" )
     boolean isEnsureNondestructiveConsumers();
 
+    @ManagedAttribute( defaultValue = "false",
+                       description = "If true, consumers whose filters are JMS selectors are grouped by selector, and "
+                                     + "each message is matched once against each distinct selector when enqueued, "
+                                     + "rather than once by each consumer. Has no effect on priority or sorted queues.")
+    boolean isSelectorIndexEnabled();
+
     @DerivedAttribute( persist = true )
     String getOwner();
 
@@ -235,6 +250,33 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>
     @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.ABSOLUTE_TIME, label = "Oldest Message")
     long getOldestMessageAge();
 
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.MESSAGES, label = "Pending Expiry")
+    long getQueueDepthMessagesPendingExpiry();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Median Delivery Schedule Latency",
+                      description = "Estimated median time in nanoseconds between asynchronous delivery being requested and it starting")
+    long getDeliveryScheduleLatencyMedian();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "99th Percentile Delivery Schedule Latency",
+                      description = "Estimated time in nanoseconds within which 99% of asynchronous deliveries started after being requested")
+    long getDeliveryScheduleLatency99thPercentile();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Maximum Delivery Schedule Latency",
+                      description = "Longest time in nanoseconds between asynchronous delivery being requested and it starting")
+    long getDeliveryScheduleLatencyMaximum();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.TIME_DURATION, label = "Delivery Run Time",
+                      description = "Total time in nanoseconds spent delivering messages asynchronously")
+    long getDeliveryRunTime();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Median Delivery Run Time",
+                      description = "Estimated median time in nanoseconds taken by a run of asynchronous delivery")
+    long getDeliveryRunTimeMedian();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Maximum Delivery Run Time",
+                      description = "Longest time in nanoseconds taken by a run of asynchronous delivery")
+    long getDeliveryRunTimeMaximum();
+
     @ManagedOperation
     List<Long> moveMessages(@Param(name = "destination") Queue<?> destination, @Param(name = "messageIds") List<Long> messageIds);
 
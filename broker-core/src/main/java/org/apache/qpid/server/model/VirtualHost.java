@@ -112,6 +112,11 @@ public interface VirtualHost<X extends VirtualHost<X, Q, E>, Q extends Queue<?>,
     @ManagedAttribute( defaultValue = "${virtualhost.housekeepingThreadCount}")
     int getHousekeepingThreadCount();
 
+    String VIRTUALHOST_DELIVERY_THREAD_COUNT = "virtualhost.deliveryThreadCount";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = VIRTUALHOST_DELIVERY_THREAD_COUNT)
+    int DEFAULT_VIRTUALHOST_DELIVERY_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
     String VIRTUALHOST_CONNECTION_THREAD_POOL_MAXIMUM = "virtualhost.connectionThreadPool.maximum";
     @SuppressWarnings("unused")
     @ManagedContextDefault( name = VIRTUALHOST_CONNECTION_THREAD_POOL_MAXIMUM)
@@ -128,6 +133,11 @@ public interface VirtualHost<X extends VirtualHost<X, Q, E>, Q extends Queue<?>,
     @ManagedAttribute( defaultValue = "${" + VIRTUALHOST_CONNECTION_THREAD_POOL_MINIMUM + "}")
     int getConnectionThreadPoolMinimum();
 
+    String VIRTUALHOST_RECOVERY_THREAD_COUNT = "virtualhost.recoveryThreadCount";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = VIRTUALHOST_RECOVERY_THREAD_COUNT)
+    int DEFAULT_VIRTUALHOST_RECOVERY_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
     @ManagedContextDefault( name = "virtualhost.awaitAttainmentTimeout")
     public static final int DEFAULT_AWAIT_ATTAINMENT_TIMEOUT = 5000;
 
@@ -172,6 +182,29 @@ public interface VirtualHost<X extends VirtualHost<X, Q, E>, Q extends Queue<?>,
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES, label = "Outbound")
     long getMessagesOut();
 
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES, label = "Recovered",
+                      description = "Number of message instances restored to queues from the message store since the"
+                                    + " virtual host was activated.")
+    long getRecoveredMessageInstances();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT,
+                      label = "Queues Recovering",
+                      description = "Number of queues whose messages are still being recovered from the message"
+                                    + " store.")
+    long getQueuesRecovering();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES,
+                      label = "Conversion Cache Hits",
+                      description = "Number of deliveries to consumers of another protocol which reused a previous"
+                                    + " conversion of the message.")
+    long getConvertedMessageCacheHits();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES,
+                      label = "Conversion Cache Misses",
+                      description = "Number of deliveries to consumers of another protocol which required the message"
+                                    + " to be converted.")
+    long getConvertedMessageCacheMisses();
+
     Broker<?> getBroker();
 
     //children
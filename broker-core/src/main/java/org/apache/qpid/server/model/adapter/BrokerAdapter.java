@@ -186,6 +186,7 @@ public class BrokerAdapter extends AbstractConfiguredObject<BrokerAdapter> imple
         int poolSize = getContextValue(Integer.class, BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE);
 
         QpidByteBuffer.initialisePool(_networkBufferSize, poolSize);
+        QpidByteBuffer.setLeakDetectionEnabled(getContextValue(Boolean.class, BROKER_DIRECT_BYTE_BUFFER_LEAK_DETECTION));
     }
 
     @Override
@@ -605,6 +606,30 @@ public class BrokerAdapter extends AbstractConfiguredObject<BrokerAdapter> imple
         return getMessageDeliveryStatistics().getTotal();
     }
 
+    @Override
+    public long getDirectBufferPoolHits()
+    {
+        return QpidByteBuffer.getPooledBufferHits();
+    }
+
+    @Override
+    public long getDirectBufferPoolMisses()
+    {
+        return QpidByteBuffer.getPooledBufferMisses();
+    }
+
+    @Override
+    public int getDirectBufferPoolSize()
+    {
+        return QpidByteBuffer.getPooledBufferCount();
+    }
+
+    @Override
+    public long getOutstandingDirectMemory()
+    {
+        return QpidByteBuffer.getOutstandingPooledMemory();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <C extends ConfiguredObject> ListenableFuture<C> addChildAsync(final Class<C> childClass, final Map<String, Object> attributes, final ConfiguredObject... otherParents)
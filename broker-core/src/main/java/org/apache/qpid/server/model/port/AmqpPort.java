@@ -55,6 +55,9 @@ public interface AmqpPort<X extends AmqpPort<X>> extends ClientAuthCapablePort<X
     String PORT_AMQP_THREAD_POOL_MAXIMUM = "port.amqp.threadPool.maximum";
     String PORT_AMQP_THREAD_POOL_MINIMUM = "port.amqp.threadPool.minimum";
     String PORT_AMQP_THREAD_POOL_KEEP_ALIVE_TIMEOUT = "port.amqp.threadPool.keep_alive_timeout";
+    String PORT_AMQP_NUMBER_OF_SELECTORS = "port.amqp.numberOfSelectors";
+
+    String NUMBER_OF_SELECTORS = "numberOfSelectors";
 
     @ManagedContextDefault(name = DEFAULT_AMQP_PROTOCOLS)
     String INSTALLED_PROTOCOLS = AmqpPortImpl.getInstalledProtocolsAsString();
@@ -76,6 +79,10 @@ public interface AmqpPort<X extends AmqpPort<X>> extends ClientAuthCapablePort<X
     @ManagedContextDefault(name = PORT_AMQP_THREAD_POOL_KEEP_ALIVE_TIMEOUT)
     long DEFAULT_PORT_AMQP_THREAD_POOL_KEEP_ALIVE_TIMEOUT = 60; // Minutes
 
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = PORT_AMQP_NUMBER_OF_SELECTORS)
+    long DEFAULT_PORT_AMQP_NUMBER_OF_SELECTORS = 1;
+
     String PORT_MAX_MESSAGE_SIZE = "qpid.port.max_message_size";
 
     @ManagedContextDefault(name = PORT_MAX_MESSAGE_SIZE)
@@ -86,6 +93,26 @@ public interface AmqpPort<X extends AmqpPort<X>> extends ClientAuthCapablePort<X
     @ManagedContextDefault(name = OPEN_CONNECTIONS_WARN_PERCENT)
     int DEFAULT_OPEN_CONNECTIONS_WARN_PERCENT = 80;
 
+    String PORT_AMQP_WRITE_SPIN_COUNT = "qpid.port.amqp.write_spin_count";
+
+    @ManagedContextDefault(name = PORT_AMQP_WRITE_SPIN_COUNT)
+    int DEFAULT_WRITE_SPIN_COUNT = 16;
+
+    String PORT_AMQP_GATHERING_WRITE_MAX_BUFFERS = "qpid.port.amqp.gathering_write_max_buffers";
+
+    @ManagedContextDefault(name = PORT_AMQP_GATHERING_WRITE_MAX_BUFFERS)
+    int DEFAULT_GATHERING_WRITE_MAX_BUFFERS = 1024; // IOV_MAX on most platforms
+
+    String PORT_AMQP_WRITE_BUFFER_HIGH_WATERMARK = "qpid.port.amqp.write_buffer_high_watermark";
+
+    @ManagedContextDefault(name = PORT_AMQP_WRITE_BUFFER_HIGH_WATERMARK)
+    int DEFAULT_WRITE_BUFFER_HIGH_WATERMARK = 256 * 1024;
+
+    String PORT_AMQP_WRITE_BUFFER_LOW_WATERMARK = "qpid.port.amqp.write_buffer_low_watermark";
+
+    @ManagedContextDefault(name = PORT_AMQP_WRITE_BUFFER_LOW_WATERMARK)
+    int DEFAULT_WRITE_BUFFER_LOW_WATERMARK = 64 * 1024;
+
 
     SSLContext getSSLContext();
 
@@ -103,6 +130,9 @@ public interface AmqpPort<X extends AmqpPort<X>> extends ClientAuthCapablePort<X
     @ManagedAttribute( defaultValue = "${" + PORT_AMQP_THREAD_POOL_MINIMUM + "}")
     int getThreadPoolMinimum();
 
+    @ManagedAttribute( defaultValue = "${" + PORT_AMQP_NUMBER_OF_SELECTORS + "}")
+    int getNumberOfSelectors();
+
     @ManagedAttribute( defaultValue = DEFAULT_AMQP_NEED_CLIENT_AUTH )
     boolean getNeedClientAuth();
 
@@ -129,6 +159,43 @@ public interface AmqpPort<X extends AmqpPort<X>> extends ClientAuthCapablePort<X
     @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Connections")
     int getConnectionCount();
 
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Selector Loops",
+                      description = "Number of times the port's selector threads woke from select() and processed ready keys")
+    long getSelectorLoopCount();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.TIME_DURATION, label = "Selector Loop Time",
+                      description = "Total time in nanoseconds the port's selector threads spent outside select()")
+    long getSelectorLoopTime();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Selector Ready Keys",
+                      description = "Total number of ready keys processed by the port's selector threads")
+    long getSelectorReadyKeyCount();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Busiest Selector Connections",
+                      description = "Number of connections assigned to the most heavily loaded selector thread")
+    int getBusiestSelectorConnectionCount();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "TLS Records Written",
+                      description = "Number of TLS records produced by the port's connections")
+    long getTlsRecordsWritten();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "Average TLS Record Size",
+                      description = "Mean size of the TLS records produced by the port's connections")
+    long getTlsAverageRecordSize();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.TIME_DURATION, label = "TLS Engine Time",
+                      description = "Total time in nanoseconds the port's connections spent encrypting and decrypting in the SSLEngine")
+    long getTlsEngineTime();
+
+    /**
+     * Records the work done by a connection's SSLEngine.
+     *
+     * @param records the number of TLS records written
+     * @param recordBytes the total size of those records
+     * @param engineTime the time in nanoseconds spent in the SSLEngine
+     */
+    void registerTlsStatistics(long records, long recordBytes, long engineTime);
+
     VirtualHostImpl getVirtualHost(String name);
 
     boolean canAcceptNewConnection(final SocketAddress remoteSocketAddress);
@@ -140,4 +207,25 @@ public interface AmqpPort<X extends AmqpPort<X>> extends ClientAuthCapablePort<X
     VirtualHostAlias createVirtualHostAlias(Map<String, Object> attributes);
 
     int getNetworkBufferSize();
+
+    /**
+     * @return the maximum number of consecutive writes attempted on behalf of a connection in one I/O cycle, whilst
+     * the socket continues to accept data
+     */
+    int getWriteSpinCount();
+
+    /**
+     * @return the maximum number of buffers passed to a single gathering write, or zero if unbounded
+     */
+    int getGatheringWriteMaxBuffers();
+
+    /**
+     * @return the number of bytes pending output above which a connection stops its sessions producing further data
+     */
+    int getWriteBufferHighWatermark();
+
+    /**
+     * @return the number of bytes pending output at or below which a connection allows its sessions to produce again
+     */
+    int getWriteBufferLowWatermark();
 }
@@ -68,7 +68,9 @@ import org.apache.qpid.server.model.VirtualHostNode;
 import org.apache.qpid.server.plugin.ProtocolEngineCreator;
 import org.apache.qpid.server.plugin.QpidServiceLoader;
 import org.apache.qpid.server.plugin.TransportProviderFactory;
+import org.apache.qpid.server.stats.StripedLongCounter;
 import org.apache.qpid.server.transport.AcceptingTransport;
+import org.apache.qpid.server.transport.NetworkConnectionScheduler;
 import org.apache.qpid.server.transport.TransportProvider;
 import org.apache.qpid.server.util.PortUtil;
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
@@ -120,11 +122,17 @@ public class AmqpPortImpl extends AbstractClientAuthCapablePortWithAuthProvider<
     @ManagedAttributeField
     private int _threadPoolMinimum;
 
+    @ManagedAttributeField
+    private int _numberOfSelectors;
+
     private final AtomicInteger _connectionCount = new AtomicInteger();
+    private final StripedLongCounter _tlsRecordsWritten = new StripedLongCounter();
+    private final StripedLongCounter _tlsRecordBytes = new StripedLongCounter();
+    private final StripedLongCounter _tlsEngineTime = new StripedLongCounter();
     private final AtomicBoolean _connectionCountWarningGiven = new AtomicBoolean();
 
     private final Broker<?> _broker;
-    private AcceptingTransport _transport;
+    private volatile AcceptingTransport _transport;
     private final AtomicBoolean _closing = new AtomicBoolean();
     private final SettableFuture _noConnectionsRemain = SettableFuture.create();
     private SSLContext _sslContext;
@@ -148,6 +156,12 @@ public class AmqpPortImpl extends AbstractClientAuthCapablePortWithAuthProvider<
         return _threadPoolMinimum;
     }
 
+    @Override
+    public int getNumberOfSelectors()
+    {
+        return _numberOfSelectors;
+    }
+
     @Override
     public SSLContext getSSLContext()
     {
@@ -309,6 +323,30 @@ public class AmqpPortImpl extends AbstractClientAuthCapablePortWithAuthProvider<
         return _broker.getNetworkBufferSize();
     }
 
+    @Override
+    public int getWriteSpinCount()
+    {
+        return getContextValue(Integer.class, PORT_AMQP_WRITE_SPIN_COUNT);
+    }
+
+    @Override
+    public int getGatheringWriteMaxBuffers()
+    {
+        return getContextValue(Integer.class, PORT_AMQP_GATHERING_WRITE_MAX_BUFFERS);
+    }
+
+    @Override
+    public int getWriteBufferHighWatermark()
+    {
+        return getContextValue(Integer.class, PORT_AMQP_WRITE_BUFFER_HIGH_WATERMARK);
+    }
+
+    @Override
+    public int getWriteBufferLowWatermark()
+    {
+        return getContextValue(Integer.class, PORT_AMQP_WRITE_BUFFER_LOW_WATERMARK);
+    }
+
     private VirtualHostAlias addVirtualHostAlias(Map<String,Object> attributes)
     {
         return getObjectFactory().create(VirtualHostAlias.class, attributes, this);
@@ -332,6 +370,7 @@ public class AmqpPortImpl extends AbstractClientAuthCapablePortWithAuthProvider<
     {
         super.onValidate();
         PortWithThreadPoolValidator.validate(this);
+        validateNumberOfSelectors(this);
     }
 
     @Override
@@ -343,6 +382,18 @@ public class AmqpPortImpl extends AbstractClientAuthCapablePortWithAuthProvider<
         {
             PortWithThreadPoolValidator.validate(changed);
         }
+        if (changedAttributes.contains(NUMBER_OF_SELECTORS))
+        {
+            validateNumberOfSelectors(changed);
+        }
+    }
+
+    private static void validateNumberOfSelectors(final AmqpPort<?> port)
+    {
+        if (port.getNumberOfSelectors() < 1)
+        {
+            throw new IllegalConfigurationException(String.format("Number of selectors %d is too small. Must be greater than zero.", port.getNumberOfSelectors()));
+        }
     }
 
     private SSLContext createSslContext()
@@ -594,4 +645,71 @@ public class AmqpPortImpl extends AbstractClientAuthCapablePortWithAuthProvider<
     {
         return _connectionCount.get();
     }
+
+    @Override
+    public long getSelectorLoopCount()
+    {
+        NetworkConnectionScheduler scheduler = getNetworkConnectionScheduler();
+        return scheduler == null ? 0L : scheduler.getSelectLoopCount();
+    }
+
+    @Override
+    public long getSelectorLoopTime()
+    {
+        NetworkConnectionScheduler scheduler = getNetworkConnectionScheduler();
+        return scheduler == null ? 0L : scheduler.getSelectLoopTime();
+    }
+
+    @Override
+    public long getSelectorReadyKeyCount()
+    {
+        NetworkConnectionScheduler scheduler = getNetworkConnectionScheduler();
+        return scheduler == null ? 0L : scheduler.getReadyKeyCount();
+    }
+
+    @Override
+    public int getBusiestSelectorConnectionCount()
+    {
+        NetworkConnectionScheduler scheduler = getNetworkConnectionScheduler();
+        return scheduler == null ? 0 : scheduler.getMaximumSelectorConnectionCount();
+    }
+
+    @Override
+    public long getTlsRecordsWritten()
+    {
+        return _tlsRecordsWritten.sum();
+    }
+
+    @Override
+    public long getTlsAverageRecordSize()
+    {
+        long records = _tlsRecordsWritten.sum();
+        return records == 0L ? 0L : _tlsRecordBytes.sum() / records;
+    }
+
+    @Override
+    public long getTlsEngineTime()
+    {
+        return _tlsEngineTime.sum();
+    }
+
+    @Override
+    public void registerTlsStatistics(final long records, final long recordBytes, final long engineTime)
+    {
+        if (records != 0L)
+        {
+            _tlsRecordsWritten.add(records);
+            _tlsRecordBytes.add(recordBytes);
+        }
+        if (engineTime != 0L)
+        {
+            _tlsEngineTime.add(engineTime);
+        }
+    }
+
+    private NetworkConnectionScheduler getNetworkConnectionScheduler()
+    {
+        AcceptingTransport transport = _transport;
+        return transport == null ? null : transport.getNetworkConnectionScheduler();
+    }
 }
@@ -23,9 +23,11 @@ package org.apache.qpid.server.protocol;
 
 import java.util.HashMap;
 import java.util.Map;
+import org.apache.qpid.server.message.AbstractServerMessageImpl;
 import org.apache.qpid.server.message.ServerMessage;
 import org.apache.qpid.server.plugin.MessageConverter;
 import org.apache.qpid.server.plugin.QpidServiceLoader;
+import org.apache.qpid.server.virtualhost.VirtualHostImpl;
 
 public class MessageConverterRegistry
 {
@@ -56,4 +58,32 @@ public class MessageConverterRegistry
         }
         return map == null ? null : map.get(to);
     }
+
+    /**
+     * Converts the message to the given class for delivery to a consumer, reusing the result of a previous
+     * conversion of the same message where it is still held by the message.
+     */
+    public static <N extends ServerMessage> N convert(ServerMessage message, Class<N> to, VirtualHostImpl vhost)
+    {
+        if(message instanceof AbstractServerMessageImpl)
+        {
+            AbstractServerMessageImpl<?,?> abstractMessage = (AbstractServerMessageImpl<?,?>) message;
+            N converted = abstractMessage.getConvertedMessage(to);
+            if(converted == null)
+            {
+                converted = getConverter((Class<ServerMessage>) message.getClass(), to).convert(message, vhost);
+                abstractMessage.setConvertedMessage(to, converted);
+                vhost.registerMessageConversion(false);
+            }
+            else
+            {
+                vhost.registerMessageConversion(true);
+            }
+            return converted;
+        }
+        else
+        {
+            return getConverter((Class<ServerMessage>) message.getClass(), to).convert(message, vhost);
+        }
+    }
 }
@@ -161,6 +161,10 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     private final AtomicLong _targetQueueSize = new AtomicLong(INITIAL_TARGET_QUEUE_SIZE);
 
+    private volatile QueueEntryExpiryIndex _expiryIndex;
+    private volatile QueueSelectorIndex _selectorIndex;
+    private volatile QueuePositionIndex _positionIndex;
+
     private final AtomicInteger _activeSubscriberCount = new AtomicInteger();
 
     private final AtomicLong _totalMessagesReceived = new AtomicLong();
@@ -267,6 +271,8 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     private long _maximumMessageTtl;
     @ManagedAttributeField
     private boolean _ensureNondestructiveConsumers;
+    @ManagedAttributeField
+    private boolean _selectorIndexEnabled;
 
     private static final int RECOVERING = 1;
     private static final int COMPLETING_RECOVERY = 2;
@@ -468,6 +474,12 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         }
 
         _maxAsyncDeliveries = getContextValue(Integer.class, Queue.MAX_ASYNCHRONOUS_DELIVERIES);
+        _expiryIndex = new QueueEntryExpiryIndex(getContextValue(Long.class, Queue.QUEUE_EXPIRY_INDEX_GRANULARITY));
+        _selectorIndex = new QueueSelectorIndex(this);
+        final long positionIndexSegmentSize = getContextValue(Long.class, Queue.QUEUE_POSITION_INDEX_SEGMENT_SIZE);
+        _positionIndex = isPositionIndexSupported() && positionIndexSegmentSize > 0l
+                ? new QueuePositionIndex(positionIndexSegmentSize)
+                : null;
 
         if(_defaultFilters != null)
         {
@@ -642,6 +654,35 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return _ensureNondestructiveConsumers;
     }
 
+    @Override
+    public boolean isSelectorIndexEnabled()
+    {
+        return _selectorIndexEnabled;
+    }
+
+    /**
+     * @return true if the entries of this queue are ordered consistently with {@link QueueEntry#compareTo}, so that
+     * consumers may walk the sub-lists of the selector index in place of the queue
+     */
+    protected boolean isSelectorIndexSupported()
+    {
+        return true;
+    }
+
+    /**
+     * @return true if the entries of this queue are ordered by entry id, so that the position index can be used to
+     * seek within the queue
+     */
+    protected boolean isPositionIndexSupported()
+    {
+        return true;
+    }
+
+    boolean hasPositionIndex()
+    {
+        return _positionIndex != null;
+    }
+
 
 
     @Override
@@ -881,14 +922,20 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         }
 
         consumer.setStateListener(this);
+        QueueSelectorIndex.SelectorClass selectorClass = null;
+        if(_selectorIndexEnabled && isSelectorIndexSupported() && QueueSelectorIndex.isIndexable(filters))
+        {
+            selectorClass = _selectorIndex.register(filters, consumer);
+        }
+
         QueueContext queueContext;
         if(filters == null || !filters.startAtTail())
         {
-            queueContext = new QueueContext(getEntries().getHead());
+            queueContext = new QueueContext(getEntries().getHead(), selectorClass);
         }
         else
         {
-            queueContext = new QueueContext(getEntries().getTail());
+            queueContext = new QueueContext(getEntries().getTail(), selectorClass);
         }
         consumer.setQueueContext(queueContext);
 
@@ -938,6 +985,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             // No longer can the queue have an exclusive consumer
             setExclusiveSubscriber(null);
 
+            QueueContext queueContext = consumer.getQueueContext();
+            if(queueContext != null && queueContext.getSelectorClass() != null)
+            {
+                _selectorIndex.unregister(queueContext.getSelectorClass(), consumer);
+            }
             consumer.setQueueContext(null);
 
             if(_exclusive == ExclusivityPolicy.LINK)
@@ -1153,6 +1205,18 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         final QueueConsumer<?> exclusiveSub = _exclusiveSubscriber;
         final QueueEntry entry = getEntries().add(message, enqueueRecord);
         updateExpiration(entry);
+        _expiryIndex.add(entry);
+        if(_positionIndex != null)
+        {
+            _positionIndex.add(entry);
+        }
+        if(!_selectorIndex.isEmpty())
+        {
+            for(QueueSelectorIndex.SelectorClass selectorClass : _selectorIndex.classify(entry))
+            {
+                checkIndexedConsumersNotAheadOf(selectorClass, entry);
+            }
+        }
 
         try
         {
@@ -1189,6 +1253,25 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     }
 
+    /**
+     * Entries enqueued concurrently may be classified out of order, so a consumer walking the sub-list of its
+     * selector class may already have passed an entry by the time it is added; such consumers are moved back.
+     */
+    private void checkIndexedConsumersNotAheadOf(final QueueSelectorIndex.SelectorClass selectorClass,
+                                                 final QueueEntry entry)
+    {
+        for (QueueConsumer<?> sub : selectorClass.getConsumers())
+        {
+            QueueContext context = sub.getQueueContext();
+            if (context != null
+                && context.getSelectorClass() == selectorClass
+                && context.getLastSeenEntry().compareTo(entry) > 0)
+            {
+                updateSubRequeueEntry(sub, entry);
+            }
+        }
+    }
+
     private void updateExpiration(final QueueEntry entry)
     {
         long expiration = entry.getMessage().getExpiration();
@@ -1466,6 +1549,13 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     @Override
     public void dequeue(QueueEntry entry)
     {
+        _expiryIndex.remove(entry);
+        if(_positionIndex != null)
+        {
+            _positionIndex.remove(entry);
+        }
+        // not conditional on the index being non-empty, as a selector class may be registered concurrently
+        _selectorIndex.remove(entry);
         decrementQueueCount();
         decrementQueueSize(entry);
         if (entry.acquiredByConsumer())
@@ -1731,6 +1821,10 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     public QueueEntry getMessageOnTheQueue(final long messageId)
     {
+        if(_positionIndex != null)
+        {
+            return _positionIndex.getEntryForMessage(messageId);
+        }
         List<QueueEntry> entries = getMessagesOnTheQueue(new QueueEntryFilter()
         {
             private boolean _complete;
@@ -1815,6 +1909,24 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
      */
     public List<QueueEntry> getMessagesRangeOnTheQueue(final long fromPosition, final long toPosition)
     {
+        if(_positionIndex != null)
+        {
+            final long firstPosition = Math.max(fromPosition, 1l);
+            final List<QueueEntry> entries = new ArrayList<QueueEntry>();
+            if(toPosition >= firstPosition)
+            {
+                visitFromPosition(firstPosition - 1, new QueueEntryVisitor()
+                {
+                    public boolean visit(final QueueEntry entry)
+                    {
+                        entries.add(entry);
+                        return entries.size() > toPosition - firstPosition;
+                    }
+                });
+            }
+            return entries;
+        }
+
         return getMessagesOnTheQueue(new QueueEntryFilter()
                                         {
                                             private long position = 0;
@@ -1833,6 +1945,67 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     }
 
+    /**
+     * Visits the entries of the queue starting from the given zero based position, seeking to it through the position
+     * index rather than walking from the head of the queue.
+     */
+    private void visitFromPosition(final long position, final QueueEntryVisitor visitor)
+    {
+        QueueEntry node = _positionIndex.getEntryAtPosition(position);
+        while(node != null)
+        {
+            MessageReference reference = node.newMessageReference();
+            if(reference != null)
+            {
+                try
+                {
+                    if(!node.isDeleted() && visitor.visit(node))
+                    {
+                        break;
+                    }
+                }
+                finally
+                {
+                    reference.release();
+                }
+            }
+            node = getEntries().next(node);
+        }
+    }
+
+    /**
+     * Visits the entry for the given message, found through the position index if the queue has one, or else visits
+     * every entry of the queue.
+     */
+    private void visitMessage(final long messageId, final QueueEntryVisitor visitor)
+    {
+        if(_positionIndex == null)
+        {
+            visit(visitor);
+            return;
+        }
+
+        QueueEntry node = _positionIndex.getEntryForMessage(messageId);
+        if(node != null)
+        {
+            MessageReference reference = node.newMessageReference();
+            if(reference != null)
+            {
+                try
+                {
+                    if(!node.isDeleted())
+                    {
+                        visitor.visit(node);
+                    }
+                }
+                finally
+                {
+                    reference.release();
+                }
+            }
+        }
+    }
+
     // ------ Management functions
 
     @Override
@@ -2220,7 +2393,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                 }
 
             }
-            atTail = (node == null) || (getEntries().next(node) == null);
+            atTail = (node == null) || (nextEntry(sub.getQueueContext(), node) == null);
         }
         return atTail || !subActive;
     }
@@ -2251,8 +2424,8 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             QueueEntry lastSeen = context.getLastSeenEntry();
             QueueEntry releasedNode = context.getReleasedEntry();
 
-            QueueEntry node = (releasedNode != null && lastSeen.compareTo(releasedNode)>=0) ? releasedNode : getEntries()
-                    .next(lastSeen);
+            QueueEntry node = (releasedNode != null && lastSeen.compareTo(releasedNode)>=0) ? releasedNode : nextEntry(
+                    context, lastSeen);
 
             boolean expired = false;
             while (node != null && (!node.isAvailable() || (expired = node.expired()) || !sub.hasInterest(node) ||
@@ -2274,8 +2447,8 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
                 lastSeen = context.getLastSeenEntry();
                 releasedNode = context.getReleasedEntry();
-                node = (releasedNode != null && lastSeen.compareTo(releasedNode)>=0) ? releasedNode : getEntries().next(
-                        lastSeen);
+                node = (releasedNode != null && lastSeen.compareTo(releasedNode)>=0) ? releasedNode : nextEntry(
+                        context, lastSeen);
             }
             return node;
         }
@@ -2285,6 +2458,16 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         }
     }
 
+    /**
+     * @return the entry following the given entry which the consumer with the given context should consider: the
+     * next entry of its selector class if it has one, or the next entry of the queue otherwise
+     */
+    private QueueEntry nextEntry(final QueueContext context, final QueueEntry node)
+    {
+        QueueSelectorIndex.SelectorClass selectorClass = context == null ? null : context.getSelectorClass();
+        return selectorClass == null ? getEntries().next(node) : selectorClass.next(node);
+    }
+
     public boolean isEntryAheadOfConsumer(QueueEntry entry, QueueConsumer<?> sub)
     {
         QueueContext context = sub.getQueueContext();
@@ -2442,18 +2625,58 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     public void checkMessageStatus()
     {
-        QueueEntryIterator queueListIterator = getEntries().iterator();
+        expireDueEntries();
 
         long totalSize = getContextValue(Long.class, QUEUE_ESTIMATED_MESSAGE_MEMORY_OVERHEAD) * getQueueDepthMessages();
         long targetSize = _targetQueueSize.get();
 
-        while (queueListIterator.advance())
+        // Expiry is driven by the expiry index, so the queue only needs to be walked if messages may need to flow
+        // to disk or if a notification check depends on the individual messages
+        if (totalSize + getQueueDepthBytes() > targetSize || hasMessageSpecificNotificationCheck())
+        {
+            QueueEntryIterator queueListIterator = getEntries().iterator();
+
+            while (queueListIterator.advance())
+            {
+                QueueEntry node = queueListIterator.getNode();
+                // Only process nodes that are not currently deleted and not dequeued
+                if (!node.isDeleted() && !node.expired())
+                {
+                    // There is a chance that the node could be deleted by
+                    // the time the check actually occurs. So verify we
+                    // can actually get the message to perform the check.
+                    ServerMessage msg = node.getMessage();
+
+                    if (msg != null)
+                    {
+                        totalSize += msg.getSize();
+                        StoredMessage storedMessage = msg.getStoredMessage();
+                        if(totalSize > targetSize && storedMessage.isInMemory())
+                        {
+                            storedMessage.flowToDisk();
+                        }
+                        checkForNotification(msg);
+                    }
+                }
+            }
+        }
+        else if (!getNotificationChecks().isEmpty())
+        {
+            QueueEntry oldestEntry = getEntries().getOldestEntry();
+            ServerMessage msg = oldestEntry == null ? null : oldestEntry.getMessage();
+            if (msg != null)
+            {
+                checkForNotification(msg);
+            }
+        }
+    }
+
+    private void expireDueEntries()
+    {
+        for (QueueEntry node : _expiryIndex.removeDueEntries(System.currentTimeMillis()))
         {
-            QueueEntry node = queueListIterator.getNode();
-            // Only process nodes that are not currently deleted and not dequeued
             if (!node.isDeleted())
             {
-                // If the node has expired then acquire it
                 if (node.expired())
                 {
                     boolean acquiredForDequeueing = node.acquire();
@@ -2473,28 +2696,75 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                         // Then dequeue it.
                         dequeueEntry(node);
                     }
+                    else
+                    {
+                        // the entry is held by someone else, so check it again on the next run
+                        _expiryIndex.add(node);
+                    }
                 }
                 else
                 {
-                    // There is a chance that the node could be deleted by
-                    // the time the check actually occurs. So verify we
-                    // can actually get the message to perform the check.
-                    ServerMessage msg = node.getMessage();
+                    _expiryIndex.add(node);
+                }
+            }
+        }
+    }
 
-                    if (msg != null)
-                    {
-                        totalSize += msg.getSize();
-                        StoredMessage storedMessage = msg.getStoredMessage();
-                        if(totalSize > targetSize && storedMessage.isInMemory())
-                        {
-                            storedMessage.flowToDisk();
-                        }
-                        checkForNotification(msg);
-                    }
+    private boolean hasMessageSpecificNotificationCheck()
+    {
+        synchronized (_notificationChecks)
+        {
+            for (NotificationCheck check : _notificationChecks)
+            {
+                if (check.isMessageSpecific())
+                {
+                    return true;
                 }
             }
         }
+        return false;
+    }
+
+    @Override
+    public long getQueueDepthMessagesPendingExpiry()
+    {
+        return _expiryIndex.size();
+    }
+
+    @Override
+    public long getDeliveryScheduleLatencyMedian()
+    {
+        return _queueRunner.getScheduleLatency().getPercentile(50d);
+    }
+
+    @Override
+    public long getDeliveryScheduleLatency99thPercentile()
+    {
+        return _queueRunner.getScheduleLatency().getPercentile(99d);
+    }
+
+    @Override
+    public long getDeliveryScheduleLatencyMaximum()
+    {
+        return _queueRunner.getScheduleLatency().getMaximum();
+    }
+
+    @Override
+    public long getDeliveryRunTime()
+    {
+        return _queueRunner.getRunDuration().getTotal();
+    }
 
+    @Override
+    public long getDeliveryRunTimeMedian()
+    {
+        return _queueRunner.getRunDuration().getPercentile(50d);
+    }
+
+    @Override
+    public long getDeliveryRunTimeMaximum()
+    {
+        return _queueRunner.getRunDuration().getMaximum();
     }
 
     @Override
@@ -2661,9 +2931,25 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return getMessagesOnTheQueue(num, 0);
     }
 
-    public List<Long> getMessagesOnTheQueue(int num, int offset)
+    public List<Long> getMessagesOnTheQueue(final int num, int offset)
     {
-        ArrayList<Long> ids = new ArrayList<Long>(num);
+        final ArrayList<Long> ids = new ArrayList<Long>(num);
+        if(_positionIndex != null)
+        {
+            if(num > 0)
+            {
+                visitFromPosition(offset, new QueueEntryVisitor()
+                {
+                    public boolean visit(final QueueEntry entry)
+                    {
+                        ids.add(entry.getMessage().getMessageNumber());
+                        return ids.size() >= num;
+                    }
+                });
+            }
+            return ids;
+        }
+
         QueueEntryIterator it = getEntries().iterator();
         for (int i = 0; i < offset; i++)
         {
@@ -3367,7 +3653,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     public Content getMessageContent(final long messageId)
     {
         final MessageContentFinder messageFinder = new MessageContentFinder(messageId);
-        visit(messageFinder);
+        visitMessage(messageId, messageFinder);
         if(messageFinder.isFound())
         {
             return new MessageContent(messageFinder.getContent(), messageFinder.getMimeType());
@@ -3382,7 +3668,15 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     public List<MessageInfo> getMessageInfo(int first, int last)
     {
         final MessageCollector messageCollector = new MessageCollector(first, last, false);
-        visit(messageCollector);
+        if(_positionIndex != null && first > 0)
+        {
+            messageCollector.skipTo(first);
+            visitFromPosition(first, messageCollector);
+        }
+        else
+        {
+            visit(messageCollector);
+        }
         return messageCollector.getMessages();
 
     }
@@ -3391,7 +3685,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     public MessageInfo getMessageInfoById(final long messageId)
     {
         final MessageFinder messageFinder = new MessageFinder(messageId);
-        visit(messageFinder);
+        visitMessage(messageId, messageFinder);
         return messageFinder.getMessageInfo();
     }
 
@@ -3531,6 +3825,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             _includeHeaders = includeHeaders;
         }
 
+        private void skipTo(int position)
+        {
+            _position = position - 1;
+        }
+
 
         public boolean visit(QueueEntry entry)
         {
@@ -0,0 +1,170 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+
+/**
+ * A sorted implementation of QueueEntryList backed by a concurrent skip list.
+ *
+ * Entries are ordered by sort key and then by arrival, so adds, deletes and iteration proceed without a list wide
+ * lock.  Because the successor of an entry is found by comparison, an iterator positioned on an entry which has since
+ * been deleted continues from the correct place in the sort order.
+ */
+public class ConcurrentSortedQueueEntryList implements QueueEntryList
+{
+    private final ConcurrentSortedQueueEntry _head;
+    private final ConcurrentSkipListSet<ConcurrentSortedQueueEntry> _entries = new ConcurrentSkipListSet<>();
+    private final AtomicLong _entryId = new AtomicLong(Long.MIN_VALUE);
+    private final SortedQueueImpl _queue;
+    private final String _propertyName;
+
+    public ConcurrentSortedQueueEntryList(final SortedQueueImpl queue)
+    {
+        _queue = queue;
+        _head = new ConcurrentSortedQueueEntry(this);
+        _propertyName = queue.getSortKey();
+    }
+
+    @Override
+    public SortedQueueImpl getQueue()
+    {
+        return _queue;
+    }
+
+    @Override
+    public ConcurrentSortedQueueEntry add(final ServerMessage message, final MessageEnqueueRecord enqueueRecord)
+    {
+        String key = null;
+        final Object val = message.getMessageHeader().getHeader(_propertyName);
+        if(val != null)
+        {
+            key = val.toString();
+        }
+
+        final ConcurrentSortedQueueEntry entry =
+                new ConcurrentSortedQueueEntry(this, message, _entryId.incrementAndGet(), enqueueRecord, key);
+        _entries.add(entry);
+        return entry;
+    }
+
+    @Override
+    public ConcurrentSortedQueueEntry next(final QueueEntry entry)
+    {
+        return _entries.higher((ConcurrentSortedQueueEntry) entry);
+    }
+
+    @Override
+    public QueueEntryIterator iterator()
+    {
+        return new QueueEntryIteratorImpl(_head);
+    }
+
+    @Override
+    public ConcurrentSortedQueueEntry getHead()
+    {
+        return _head;
+    }
+
+    @Override
+    public ConcurrentSortedQueueEntry getTail()
+    {
+        Iterator<ConcurrentSortedQueueEntry> iterator = _entries.descendingIterator();
+        return iterator.hasNext() ? iterator.next() : _head;
+    }
+
+    @Override
+    public QueueEntry getOldestEntry()
+    {
+        QueueEntry oldestEntry = null;
+        for (ConcurrentSortedQueueEntry node : _entries)
+        {
+            if (!node.isDeleted())
+            {
+                ServerMessage msg = node.getMessage();
+                if(msg != null && (oldestEntry == null || oldestEntry.getMessage().getMessageNumber() > msg.getMessageNumber()))
+                {
+                    oldestEntry = node;
+                }
+            }
+        }
+        return oldestEntry;
+    }
+
+    @Override
+    public void entryDeleted(final QueueEntry entry)
+    {
+        _entries.remove(entry);
+    }
+
+    @Override
+    public int getPriorities()
+    {
+        return 0;
+    }
+
+    public class QueueEntryIteratorImpl implements QueueEntryIterator
+    {
+        private ConcurrentSortedQueueEntry _lastNode;
+
+        public QueueEntryIteratorImpl(final ConcurrentSortedQueueEntry startNode)
+        {
+            _lastNode = startNode;
+        }
+
+        @Override
+        public boolean atTail()
+        {
+            return next(_lastNode) == null;
+        }
+
+        @Override
+        public ConcurrentSortedQueueEntry getNode()
+        {
+            return _lastNode;
+        }
+
+        @Override
+        public boolean advance()
+        {
+            ConcurrentSortedQueueEntry nextNode = next(_lastNode);
+            if(nextNode != null)
+            {
+                ConcurrentSortedQueueEntry following;
+                while(nextNode.isDeleted() && (following = next(nextNode)) != null)
+                {
+                    nextNode = following;
+                }
+                _lastNode = nextNode;
+                return true;
+            }
+            else
+            {
+                return false;
+            }
+        }
+    }
+}
@@ -29,25 +29,42 @@ import org.slf4j.LoggerFactory;
 import org.apache.qpid.server.message.AMQMessageHeader;
 import org.apache.qpid.server.message.ServerMessage;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Assigns each message group to a single consumer at a time, for queues whose groups are shared between consumers.
+ *
+ * The state of each group is guarded by one of a fixed set of locks, chosen by the group key, so that consumers
+ * working on different groups do not contend.  Each group remembers the entries other consumers skipped while it was
+ * assigned, and each consumer the groups assigned to it, so that when a consumer leaves the earliest entry it held up
+ * is found from its groups rather than by scanning the queue.
+ */
 public class DefinedGroupMessageGroupManager implements MessageGroupManager
 {
     private static final Logger _logger = LoggerFactory.getLogger(DefinedGroupMessageGroupManager.class);
 
+    private static final int LOCK_STRIPES = 64;
+
     private final String _groupId;
     private final String _defaultGroup;
-    private final Map<Object, Group> _groupMap = new HashMap<Object, Group>();
+    private final ConcurrentMap<Object, Group> _groupMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<QueueConsumer<?>, Set<Group>> _consumerGroups = new ConcurrentHashMap<>();
+    private final Object[] _locks = new Object[LOCK_STRIPES];
     private final ConsumerResetHelper _resetHelper;
 
+    /**
+     * The mutable state of a group is guarded by the lock of its key.
+     */
     private final class Group
     {
         private final Object _group;
         private final SortedSet<QueueEntry> _skippedEntries = new TreeSet<>();
-        private QueueConsumer<?> _consumer;
+        private volatile QueueConsumer<?> _consumer;
         private int _activeCount;
 
         private Group(final Object key, final QueueConsumer<?> consumer)
@@ -82,8 +99,9 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
                     _resetHelper.resetSubPointersForGroups(_skippedEntries.first());
                     _skippedEntries.clear();
                 }
+                removeConsumerGroup(_consumer, this);
                 _consumer = null;
-                _groupMap.remove(_group);
+                _groupMap.remove(_group, this);
             }
         }
 
@@ -134,6 +152,21 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
         {
             _skippedEntries.add(entry);
         }
+
+        /**
+         * @return the earliest available entry skipped by other consumers while this group was assigned
+         */
+        public QueueEntry getEarliestSkippedAvailableEntry()
+        {
+            for (QueueEntry entry : _skippedEntries)
+            {
+                if (entry.isAvailable())
+                {
+                    return entry;
+                }
+            }
+            return null;
+        }
     }
 
     public DefinedGroupMessageGroupManager(final String groupId, String defaultGroup, ConsumerResetHelper resetHelper)
@@ -141,36 +174,56 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
         _groupId = groupId;
         _defaultGroup = defaultGroup;
         _resetHelper = resetHelper;
+        for (int i = 0; i < LOCK_STRIPES; i++)
+        {
+            _locks[i] = new Object();
+        }
     }
     
-    public synchronized boolean mightAssign(final QueueEntry entry, final QueueConsumer sub)
+    public boolean mightAssign(final QueueEntry entry, final QueueConsumer sub)
     {
         Object groupId = getKey(entry);
 
-        Group group = _groupMap.get(groupId);
-        final boolean possibleAssignment = group == null || !group.isValid() || group.getConsumer() == sub;
-        if(!possibleAssignment)
+        if(_groupMap.get(groupId) == null)
         {
-            group.addSkippedEntry(entry);
+            return true;
+        }
+
+        synchronized (getLock(groupId))
+        {
+            Group group = _groupMap.get(groupId);
+            final boolean possibleAssignment = group == null || !group.isValid() || group.getConsumer() == sub;
+            if(!possibleAssignment)
+            {
+                group.addSkippedEntry(entry);
+            }
+            return possibleAssignment;
         }
-        return possibleAssignment;
     }
 
-    public synchronized boolean acceptMessage(final QueueConsumer<?> sub, final QueueEntry entry)
+    public boolean acceptMessage(final QueueConsumer<?> sub, final QueueEntry entry)
     {
-        return assignMessage(sub, entry) && entry.acquire(sub);
+        Object groupId = getKey(entry);
+        synchronized (getLock(groupId))
+        {
+            return assignMessage(sub, entry, groupId) && entry.acquire(sub);
+        }
     }
 
-    private boolean assignMessage(final QueueConsumer<?> sub, final QueueEntry entry)
+    private boolean assignMessage(final QueueConsumer<?> sub, final QueueEntry entry, final Object groupId)
     {
-        Object groupId = getKey(entry);
         Group group = _groupMap.get(groupId);
 
         if(group == null || !group.isValid())
         {
+            if(group != null)
+            {
+                removeConsumerGroup(group.getConsumer(), group);
+            }
             group = new Group(groupId, sub);
 
             _groupMap.put(groupId, group);
+            addConsumerGroup(sub, group);
 
             // there's a small change that the group became empty between the point at which getNextAvailable() was
             // called on the consumer, and when accept message is called... in that case we want to avoid delivering
@@ -195,53 +248,75 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
         }
     }
 
-    public synchronized QueueEntry findEarliestAssignedAvailableEntry(final QueueConsumer<?> sub)
+    /**
+     * Finds the earliest available entry which other consumers have skipped because its group was assigned to the
+     * given consumer.  Entries of those groups which no consumer has skipped are not yet behind any consumer.
+     */
+    public QueueEntry findEarliestAssignedAvailableEntry(final QueueConsumer<?> sub)
     {
-        EntryFinder visitor = new EntryFinder(sub);
-        sub.getQueue().visit(visitor);
-        return visitor.getEntry();
+        Set<Group> groups = _consumerGroups.get(sub);
+        QueueEntry earliest = null;
+        if(groups != null)
+        {
+            for(Group group : groups)
+            {
+                synchronized (getLock(group._group))
+                {
+                    if(group.getConsumer() == sub)
+                    {
+                        QueueEntry entry = group.getEarliestSkippedAvailableEntry();
+                        if(entry != null && (earliest == null || entry.compareTo(earliest) < 0))
+                        {
+                            earliest = entry;
+                        }
+                    }
+                }
+            }
+        }
+        return earliest;
     }
 
-    private class EntryFinder implements QueueEntryVisitor
+    public void clearAssignments(final QueueConsumer<?> sub)
     {
-        private QueueEntry _entry;
-        private QueueConsumer _sub;
-
-        public EntryFinder(final QueueConsumer<?> sub)
-        {
-            _sub = sub;
-        }
+        _consumerGroups.remove(sub);
+    }
 
-        public boolean visit(final QueueEntry entry)
+    private void addConsumerGroup(final QueueConsumer<?> sub, final Group group)
+    {
+        Set<Group> groups = _consumerGroups.get(sub);
+        if(groups == null)
         {
-            if(!entry.isAvailable())
+            Set<Group> newGroups = Collections.newSetFromMap(new ConcurrentHashMap<Group, Boolean>());
+            groups = _consumerGroups.putIfAbsent(sub, newGroups);
+            if(groups == null)
             {
-                return false;
+                groups = newGroups;
             }
+        }
+        groups.add(group);
 
-            Object groupId = getKey(entry);
-
-            Group group = _groupMap.get(groupId);
-            if(group != null && group.getConsumer() == _sub)
-            {
-                _entry = entry;
-                return true;
-            }
-            else
-            {
-                return false;
-            }
+        // the queue forgets the context of a consumer it removes before clearing the consumer's assignments, so if
+        // the context has gone the assignments may already have been cleared, and the groups must not outlive them
+        if(sub.getQueueContext() == null)
+        {
+            _consumerGroups.remove(sub);
         }
+    }
 
-        public QueueEntry getEntry()
+    private void removeConsumerGroup(final QueueConsumer<?> sub, final Group group)
+    {
+        Set<Group> groups = sub == null ? null : _consumerGroups.get(sub);
+        if(groups != null)
         {
-            return _entry;
+            groups.remove(group);
         }
     }
 
-    
-    public void clearAssignments(final QueueConsumer<?> sub)
+    private Object getLock(final Object groupId)
     {
+        int hash = groupId.hashCode();
+        hash ^= (hash >>> 16);
+        return _locks[hash & (LOCK_STRIPES - 1)];
     }
     
     private Object getKey(QueueEntry entry)
@@ -269,7 +344,7 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
                                  final MessageInstance.State oldState,
                                  final MessageInstance.State newState)
         {
-            synchronized (DefinedGroupMessageGroupManager.this)
+            synchronized (getLock(_group._group))
             {
                 if(_group.isValid())
                 {
@@ -23,11 +23,15 @@ package org.apache.qpid.server.queue;
 import org.apache.qpid.server.model.ManagedAttribute;
 import org.apache.qpid.server.model.ManagedContextDefault;
 import org.apache.qpid.server.model.ManagedObject;
+import org.apache.qpid.server.model.ManagedStatistic;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.server.model.StatisticUnit;
 
 @ManagedObject( category = false, type= LastValueQueue.LAST_VALUE_QUEUE_TYPE)
 public interface LastValueQueue<X extends LastValueQueue<X>> extends AMQQueue<X>
 {
     String LVQ_KEY = "lvqKey";
+    String LVQ_COMPACT_KEY_INDEX = "lvqCompactKeyIndex";
 
     @ManagedContextDefault( name = "queue.lvqKey" )
     String DEFAULT_LVQ_KEY = "qpid.LVQ_key";
@@ -35,4 +39,24 @@ public interface LastValueQueue<X extends LastValueQueue<X>> extends AMQQueue<X>
 
     @ManagedAttribute(defaultValue = "${queue.lvqKey}")
     String getLvqKey();
+
+    @ManagedContextDefault( name = "queue.lvqCompactKeyIndex" )
+    boolean DEFAULT_LVQ_COMPACT_KEY_INDEX = false;
+
+    @ManagedAttribute(defaultValue = "${queue.lvqCompactKeyIndex}",
+                      description = "If true, the latest entry for each key is indexed in flat arrays rather than a "
+                                    + "map, which greatly reduces the memory used by queues with many distinct keys")
+    boolean isLvqCompactKeyIndex();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Distinct Keys")
+    int getLvqKeyCount();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "Key Index Memory",
+                      description = "Estimated heap occupied by the index of the latest entry for each key, excluding "
+                                    + "the keys themselves")
+    long getLvqKeyIndexMemoryFootprint();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES, label = "Conflated",
+                      description = "Messages discarded because a later message with the same key arrived")
+    long getConflatedMessages();
 }
@@ -34,6 +34,9 @@ public class LastValueQueueImpl extends AbstractQueue<LastValueQueueImpl> implem
     @ManagedAttributeField
     private String _lvqKey;
 
+    @ManagedAttributeField
+    private boolean _lvqCompactKeyIndex;
+
     @ManagedObjectFactoryConstructor
     public LastValueQueueImpl(Map<String, Object> attributes, VirtualHostImpl virtualHost)
     {
@@ -58,4 +61,28 @@ public class LastValueQueueImpl extends AbstractQueue<LastValueQueueImpl> implem
     {
         return _lvqKey;
     }
+
+    @Override
+    public boolean isLvqCompactKeyIndex()
+    {
+        return _lvqCompactKeyIndex;
+    }
+
+    @Override
+    public int getLvqKeyCount()
+    {
+        return _entries == null ? 0 : _entries.getKeyCount();
+    }
+
+    @Override
+    public long getLvqKeyIndexMemoryFootprint()
+    {
+        return _entries == null ? 0L : _entries.getKeyIndexMemoryFootprint();
+    }
+
+    @Override
+    public long getConflatedMessages()
+    {
+        return _entries == null ? 0L : _entries.getConflatedMessages();
+    }
 }
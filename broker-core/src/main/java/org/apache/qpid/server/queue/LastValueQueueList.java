@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -53,13 +54,24 @@ public class LastValueQueueList extends OrderedQueueEntryList
     private final ConcurrentMap<Object, AtomicReference<ConflationQueueEntry>> _latestValuesMap =
         new ConcurrentHashMap<Object, AtomicReference<ConflationQueueEntry>>();
 
+    /** Used in place of {@link #_latestValuesMap} by queues configured with a compact key index */
+    private final LatestValueIndex<ConflationQueueEntry> _latestValuesIndex;
+
     private final ConflationQueueEntry _deleteInProgress = new ConflationQueueEntry(this);
     private final ConflationQueueEntry _newerEntryAlreadyBeenAndGone = new ConflationQueueEntry(this);
 
+    private final AtomicLong _conflatedMessages = new AtomicLong();
+
+    /** Estimated heap occupied by each mapping of {@link #_latestValuesMap}: map node, table slot and reference */
+    private static final int LATEST_VALUES_MAP_ENTRY_SIZE = 72;
+
     public LastValueQueueList(LastValueQueueImpl queue)
     {
         super(queue, HEAD_CREATOR);
         _conflationKey = queue.getLvqKey();
+        _latestValuesIndex = queue.isLvqCompactKeyIndex()
+                ? new LatestValueIndex<ConflationQueueEntry>(_conflationKey)
+                : null;
     }
 
     private ConflationQueueEntry createHead()
@@ -85,7 +97,19 @@ public class LastValueQueueList extends OrderedQueueEntryList
         final ConflationQueueEntry addedEntry = (ConflationQueueEntry) super.add(message, enqueueRecord);
 
         final Object keyValue = message.getMessageHeader().getHeader(_conflationKey);
-        if (keyValue != null)
+        if (keyValue != null && _latestValuesIndex != null)
+        {
+            ConflationQueueEntry superseded = _latestValuesIndex.put(keyValue, addedEntry);
+            if (superseded != null)
+            {
+                if(LOGGER.isDebugEnabled())
+                {
+                    LOGGER.debug("Entry " + superseded + " superseded by a newer entry with conflation key " + keyValue);
+                }
+                discardEntry(superseded);
+            }
+        }
+        else if (keyValue != null)
         {
             if(LOGGER.isDebugEnabled())
             {
@@ -174,6 +198,7 @@ public class LastValueQueueList extends OrderedQueueEntryList
     {
         if(entry.acquire())
         {
+            _conflatedMessages.incrementAndGet();
             ServerTransaction txn = new AutoCommitTransaction(getQueue().getVirtualHost().getMessageStore());
             txn.dequeue(entry.getEnqueueRecord(),
                                     new ServerTransaction.Action()
@@ -221,7 +246,15 @@ public class LastValueQueueList extends OrderedQueueEntryList
         @Override
         protected void onDelete()
         {
-            if(_latestValueReference != null && _latestValueReference.compareAndSet(this, _deleteInProgress))
+            if(_latestValuesIndex != null)
+            {
+                Object key = getMessage().getMessageHeader().getHeader(_conflationKey);
+                if(key != null)
+                {
+                    _latestValuesIndex.remove(key, this);
+                }
+            }
+            else if(_latestValueReference != null && _latestValueReference.compareAndSet(this, _deleteInProgress))
             {
                 Object key = getMessage().getMessageHeader().getHeader(_conflationKey);
                 _latestValuesMap.remove(key,_latestValueReference);
@@ -236,7 +269,15 @@ public class LastValueQueueList extends OrderedQueueEntryList
 
         private void discardIfReleasedEntryIsNoLongerLatest()
         {
-            if(_latestValueReference != null)
+            if(_latestValuesIndex != null)
+            {
+                Object key = getMessage().getMessageHeader().getHeader(_conflationKey);
+                if(key != null && _latestValuesIndex.get(key) != this)
+                {
+                    discardEntry(this);
+                }
+            }
+            else if(_latestValueReference != null)
             {
                 if(_latestValueReference.get() != this)
                 {
@@ -247,6 +288,23 @@ public class LastValueQueueList extends OrderedQueueEntryList
 
     }
 
+    int getKeyCount()
+    {
+        return _latestValuesIndex == null ? _latestValuesMap.size() : _latestValuesIndex.size();
+    }
+
+    long getKeyIndexMemoryFootprint()
+    {
+        return _latestValuesIndex == null
+                ? (long) _latestValuesMap.size() * LATEST_VALUES_MAP_ENTRY_SIZE
+                : _latestValuesIndex.getMemoryFootprint();
+    }
+
+    long getConflatedMessages()
+    {
+        return _conflatedMessages.get();
+    }
+
     /**
      * Exposed purposes of unit test only.
      */
@@ -0,0 +1,239 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+/**
+ * Compact index of the latest queue entry for each value of a message header, used by last value queues with very
+ * many distinct keys.
+ * <p>
+ * Each segment is an open-addressing hash table held in two flat arrays, one of key hashes and one of entries, so
+ * that a key costs a few bytes of array space rather than a map node, a boxed key and an atomic reference.  Keys are
+ * not retained: on a hash match the key is read back from the message of the entry already indexed.  Collisions are
+ * resolved by linear probing, and removals shift later entries of a probe sequence back so that no tombstones are
+ * needed.  Each segment is guarded by its own lock.
+ */
+final class LatestValueIndex<E extends QueueEntry>
+{
+    private static final int SEGMENTS = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+    /** Segments are resized when more than this proportion (in 1/16ths) of their slots are used */
+    private static final int MAXIMUM_LOAD_SIXTEENTHS = 11;
+    /** Estimated size of an object reference, assuming references are not compressed */
+    private static final int REFERENCE_SIZE = 8;
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    private final Segment[] _segments;
+
+    LatestValueIndex(final String keyHeader)
+    {
+        _segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++)
+        {
+            _segments[i] = new Segment(keyHeader);
+        }
+    }
+
+    /**
+     * Indexes the given entry as the latest for the given key, unless a later entry is already indexed.
+     *
+     * @return the entry superseded by this operation, which is either the entry previously indexed for the key or
+     * the given entry itself, or null if no entry was indexed for the key
+     */
+    @SuppressWarnings("unchecked")
+    E put(final Object key, final E entry)
+    {
+        final int hash = hash(key);
+        return (E) segmentFor(hash).put(key, hash, entry);
+    }
+
+    @SuppressWarnings("unchecked")
+    E get(final Object key)
+    {
+        final int hash = hash(key);
+        return (E) segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Removes the given entry from the index if it is still the latest for the given key.
+     */
+    boolean remove(final Object key, final E entry)
+    {
+        final int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, entry);
+    }
+
+    int size()
+    {
+        int size = 0;
+        for (Segment segment : _segments)
+        {
+            synchronized (segment)
+            {
+                size += segment._size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the estimated number of bytes of heap occupied by the index, excluding the indexed entries
+     */
+    long getMemoryFootprint()
+    {
+        long footprint = 0L;
+        for (Segment segment : _segments)
+        {
+            synchronized (segment)
+            {
+                int capacity = segment._entries.length;
+                footprint += 2 * ARRAY_HEADER_SIZE + capacity * (4L + REFERENCE_SIZE);
+            }
+        }
+        return footprint;
+    }
+
+    private Segment segmentFor(final int hash)
+    {
+        // the low bits select the slot within a segment, so the segment is chosen by the high bits
+        return _segments[(hash >>> 26) & (SEGMENTS - 1)];
+    }
+
+    private static int hash(final Object key)
+    {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment
+    {
+        private final String _keyHeader;
+        private int[] _hashes = new int[INITIAL_SEGMENT_CAPACITY];
+        private QueueEntry[] _entries = new QueueEntry[INITIAL_SEGMENT_CAPACITY];
+        private int _size;
+
+        private Segment(final String keyHeader)
+        {
+            _keyHeader = keyHeader;
+        }
+
+        synchronized QueueEntry put(final Object key, final int hash, final QueueEntry entry)
+        {
+            int slot = find(key, hash);
+            if (slot >= 0)
+            {
+                QueueEntry existing = _entries[slot];
+                if (existing.compareTo(entry) < 0)
+                {
+                    _entries[slot] = entry;
+                    return existing;
+                }
+                return existing == entry ? null : entry;
+            }
+
+            if ((_size + 1) * 16 > _entries.length * MAXIMUM_LOAD_SIXTEENTHS)
+            {
+                resize();
+            }
+            insert(hash, entry);
+            _size++;
+            return null;
+        }
+
+        synchronized QueueEntry get(final Object key, final int hash)
+        {
+            int slot = find(key, hash);
+            return slot < 0 ? null : _entries[slot];
+        }
+
+        synchronized boolean remove(final Object key, final int hash, final QueueEntry entry)
+        {
+            int slot = find(key, hash);
+            if (slot < 0 || _entries[slot] != entry)
+            {
+                return false;
+            }
+
+            // shift back any following entry of the probe sequence which the removed slot would otherwise hide
+            int mask = _entries.length - 1;
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (_entries[next] != null)
+            {
+                int home = _hashes[next] & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask))
+                {
+                    _hashes[gap] = _hashes[next];
+                    _entries[gap] = _entries[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            _entries[gap] = null;
+            _hashes[gap] = 0;
+            _size--;
+            return true;
+        }
+
+        private int find(final Object key, final int hash)
+        {
+            int mask = _entries.length - 1;
+            int slot = hash & mask;
+            QueueEntry candidate;
+            while ((candidate = _entries[slot]) != null)
+            {
+                if (_hashes[slot] == hash
+                    && key.equals(candidate.getMessage().getMessageHeader().getHeader(_keyHeader)))
+                {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(final int hash, final QueueEntry entry)
+        {
+            int mask = _entries.length - 1;
+            int slot = hash & mask;
+            while (_entries[slot] != null)
+            {
+                slot = (slot + 1) & mask;
+            }
+            _hashes[slot] = hash;
+            _entries[slot] = entry;
+        }
+
+        private void resize()
+        {
+            int[] hashes = _hashes;
+            QueueEntry[] entries = _entries;
+            _hashes = new int[hashes.length * 2];
+            _entries = new QueueEntry[entries.length * 2];
+            for (int i = 0; i < entries.length; i++)
+            {
+                if (entries[i] != null)
+                {
+                    insert(hashes[i], entries[i]);
+                }
+            }
+        }
+    }
+}
@@ -32,6 +32,20 @@ public abstract class OutOfOrderQueue<X extends OutOfOrderQueue<X>> extends Abst
         super(attributes, virtualHost);
     }
 
+    @Override
+    protected boolean isSelectorIndexSupported()
+    {
+        // entries are not ordered by entry id, so cannot be found through the sub-lists of the selector index
+        return false;
+    }
+
+    @Override
+    protected boolean isPositionIndexSupported()
+    {
+        // entries are not ordered by entry id, so their positions cannot be derived from it
+        return false;
+    }
+
     @Override
     protected void checkConsumersNotAheadOfDelivery(final QueueEntry entry)
     {
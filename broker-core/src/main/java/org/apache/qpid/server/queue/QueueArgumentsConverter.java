@@ -65,6 +65,8 @@ public class QueueArgumentsConverter
     public static final String QPID_DEFAULT_FILTERS = "qpid.default_filters";
 
     public static final String QPID_ENSURE_NONDESTRUCTIVE_CONSUMERS = "qpid.ensure_nondestructive_consumers";
+
+    public static final String QPID_SELECTOR_INDEX = "qpid.selector_index";
     /**
      * No-local queue argument is used to support the no-local feature of Durable Subscribers.
      */
@@ -106,6 +108,7 @@ public class QueueArgumentsConverter
         ATTRIBUTE_MAPPINGS.put(QPID_MESSAGE_DURABILITY, Queue.MESSAGE_DURABILITY);
         ATTRIBUTE_MAPPINGS.put(QPID_DEFAULT_FILTERS, Queue.DEFAULT_FILTERS);
         ATTRIBUTE_MAPPINGS.put(QPID_ENSURE_NONDESTRUCTIVE_CONSUMERS, Queue.ENSURE_NONDESTRUCTIVE_CONSUMERS);
+        ATTRIBUTE_MAPPINGS.put(QPID_SELECTOR_INDEX, Queue.SELECTOR_INDEX_ENABLED);
 
     }
 
@@ -420,6 +420,13 @@ class QueueConsumerImpl
         {
             return true;
         }
+
+        QueueContext queueContext = _queueContext;
+        if (queueContext != null && queueContext.getSelectorClass() != null)
+        {
+            // the queue has already evaluated the filters of this consumer's selector class against the entry
+            return queueContext.getSelectorClass().contains(entry);
+        }
         else
         {
             MessageReference ref = entry.newMessageReference();
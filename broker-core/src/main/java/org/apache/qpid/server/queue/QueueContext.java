@@ -27,6 +27,7 @@ final class QueueContext
 {
     private volatile QueueEntry _lastSeenEntry;
     private volatile QueueEntry _releasedEntry;
+    private final QueueSelectorIndex.SelectorClass _selectorClass;
 
     static final AtomicReferenceFieldUpdater<QueueContext, QueueEntry>
             _lastSeenUpdater =
@@ -38,8 +39,14 @@ final class QueueContext
         (QueueContext.class, QueueEntry.class, "_releasedEntry");
 
     public QueueContext(QueueEntry head)
+    {
+        this(head, null);
+    }
+
+    QueueContext(QueueEntry head, QueueSelectorIndex.SelectorClass selectorClass)
     {
         _lastSeenEntry = head;
+        _selectorClass = selectorClass;
     }
 
     public QueueEntry getLastSeenEntry()
@@ -53,6 +60,14 @@ final class QueueContext
         return _releasedEntry;
     }
 
+    /**
+     * @return the class of the consumer in the queue's selector index, or null if the consumer walks the whole queue
+     */
+    QueueSelectorIndex.SelectorClass getSelectorClass()
+    {
+        return _selectorClass;
+    }
+
     @Override
     public String toString()
     {
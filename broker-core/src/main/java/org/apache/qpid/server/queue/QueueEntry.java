@@ -38,5 +38,7 @@ public interface QueueEntry extends MessageInstance, Comparable<QueueEntry>
 
     void setExpiration(long calculatedExpiration);
 
+    long getExpiration();
+
     MessageReference newMessageReference();
 }
@@ -0,0 +1,139 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of the queue entries which carry an expiration time, bucketed by expiration time so that the entries which
+ * are due can be found without walking the whole queue.
+ *
+ * Entries are added when enqueued and removed when dequeued.  Each bucket covers a fixed interval of time and is
+ * keyed by the end of that interval, so every entry in a bucket whose key has passed is due for expiry.
+ */
+class QueueEntryExpiryIndex
+{
+    private final long _granularity;
+    private final ConcurrentSkipListMap<Long, Set<QueueEntry>> _buckets = new ConcurrentSkipListMap<>();
+    private final AtomicLong _size = new AtomicLong();
+
+    QueueEntryExpiryIndex(final long granularity)
+    {
+        if (granularity <= 0)
+        {
+            throw new IllegalArgumentException("Expiry index granularity must be positive: " + granularity);
+        }
+        _granularity = granularity;
+    }
+
+    void add(final QueueEntry entry)
+    {
+        final long expiration = entry.getExpiration();
+        if (expiration != 0L)
+        {
+            final Long bucketKey = getBucketKey(expiration);
+            while (true)
+            {
+                Set<QueueEntry> bucket = _buckets.get(bucketKey);
+                if (bucket == null)
+                {
+                    Set<QueueEntry> newBucket = Collections.newSetFromMap(new ConcurrentHashMap<QueueEntry, Boolean>());
+                    bucket = _buckets.putIfAbsent(bucketKey, newBucket);
+                    if (bucket == null)
+                    {
+                        bucket = newBucket;
+                    }
+                }
+
+                if (bucket.add(entry))
+                {
+                    _size.incrementAndGet();
+                }
+
+                // the bucket may have been taken by a concurrent call to removeDueEntries() before the entry was
+                // added to it; if so, and the entry was missed, it must be added to a bucket still in the index
+                if (_buckets.get(bucketKey) == bucket || !bucket.remove(entry))
+                {
+                    break;
+                }
+                _size.decrementAndGet();
+            }
+        }
+    }
+
+    void remove(final QueueEntry entry)
+    {
+        final long expiration = entry.getExpiration();
+        if (expiration != 0L)
+        {
+            Set<QueueEntry> bucket = _buckets.get(getBucketKey(expiration));
+            if (bucket != null && bucket.remove(entry))
+            {
+                _size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes from the index all entries in buckets which are due at the given time.
+     *
+     * @param currentTime the time in milliseconds
+     * @return the entries removed from the index, which may include entries which have not yet expired if their
+     * expiration is within the granularity of the index
+     */
+    List<QueueEntry> removeDueEntries(final long currentTime)
+    {
+        List<QueueEntry> dueEntries = new ArrayList<>();
+        ConcurrentNavigableMap<Long, Set<QueueEntry>> dueBuckets = _buckets.headMap(currentTime, true);
+        Map.Entry<Long, Set<QueueEntry>> bucketEntry;
+        while ((bucketEntry = dueBuckets.pollFirstEntry()) != null)
+        {
+            for (QueueEntry entry : bucketEntry.getValue())
+            {
+                if (bucketEntry.getValue().remove(entry))
+                {
+                    _size.decrementAndGet();
+                    dueEntries.add(entry);
+                }
+            }
+        }
+        return dueEntries;
+    }
+
+    long size()
+    {
+        return _size.get();
+    }
+
+    private Long getBucketKey(final long expiration)
+    {
+        long remainder = expiration % _granularity;
+        return remainder == 0L ? expiration : expiration - remainder + _granularity;
+    }
+}
@@ -96,6 +96,9 @@ public abstract class QueueEntryImpl implements QueueEntry
 
     private final MessageEnqueueRecord _enqueueRecord;
 
+    /** Shared by every consumer evaluating its selector against this entry, so that headers are looked up once */
+    private volatile Filterable _filterable;
+
 
     public QueueEntryImpl(QueueEntryList queueEntryList)
     {
@@ -145,6 +148,12 @@ public abstract class QueueEntryImpl implements QueueEntry
         _expiration = expiration;
     }
 
+    @Override
+    public long getExpiration()
+    {
+        return _expiration;
+    }
+
     public InstanceProperties getInstanceProperties()
     {
         return new EntryInstanceProperties();
@@ -435,6 +444,7 @@ public abstract class QueueEntryImpl implements QueueEntry
         {
             _queueEntryList.entryDeleted(this);
             onDelete();
+            _filterable = null;
             _message.release();
 
             return true;
@@ -569,7 +579,13 @@ public abstract class QueueEntryImpl implements QueueEntry
     @Override
     public Filterable asFilterable()
     {
-        return Filterable.Factory.newInstance(getMessage(), getInstanceProperties());
+        Filterable filterable = _filterable;
+        if (filterable == null)
+        {
+            filterable = Filterable.Factory.newInstance(getMessage(), getInstanceProperties());
+            _filterable = filterable;
+        }
+        return filterable;
     }
 
     public String toString()
@@ -21,6 +21,8 @@
 package org.apache.qpid.server.queue;
 
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.qpid.server.message.ServerMessage;
 import org.apache.qpid.server.model.Queue;
@@ -40,6 +42,27 @@ abstract class QueueEntryTransaction implements VirtualHost.TransactionalOperati
     @Override
     public void withinTransaction(final VirtualHost.Transaction txn)
     {
+        if(_sourceQueue instanceof AbstractQueue && ((AbstractQueue<?>)_sourceQueue).hasPositionIndex())
+        {
+            // find each message through the position index rather than walking the whole queue, then update the
+            // entries in queue order, as the walk would have done
+            final AbstractQueue<?> queue = (AbstractQueue<?>) _sourceQueue;
+            final Map<QueueEntry, Object> entries = new TreeMap<>();
+            for(Object messageId : _messageIds)
+            {
+                final QueueEntry entry = queue.getMessageOnTheQueue(((Number) messageId).longValue());
+                if(entry != null)
+                {
+                    entries.put(entry, messageId);
+                }
+            }
+            for(Map.Entry<QueueEntry, Object> entry : entries.entrySet())
+            {
+                _messageIds.remove(entry.getValue());
+                updateEntry(entry.getKey(), txn);
+            }
+            return;
+        }
 
         _sourceQueue.visit(new QueueEntryVisitor()
         {
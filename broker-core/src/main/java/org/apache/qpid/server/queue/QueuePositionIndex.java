@@ -0,0 +1,253 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sparse index of the positions of the entries of a queue whose entries are ordered by entry id, so that management
+ * operations can seek to a position, or to a message, without walking the queue from its head.
+ *
+ * The entry ids of the queue are divided into segments of a fixed size.  For each segment the index records the
+ * number of entries added to and removed from the queue, the range of message numbers added, and an anchor entry from
+ * which the segment can be walked.  A seek sums the live counts of the segments preceding the wanted position, then
+ * walks at most the one segment in which it falls.  Anchors which have been deleted are advanced lazily by seeks, and
+ * a segment is dropped once every entry in it has been both added and removed.
+ *
+ * Entries may be removed concurrently with, or even before, being added to the index, so, like a walk of the queue,
+ * a seek is only exact while the queue is not changing.
+ */
+class QueuePositionIndex
+{
+    private final long _segmentSize;
+    private final ConcurrentSkipListMap<Long, Segment> _segments = new ConcurrentSkipListMap<>();
+
+    QueuePositionIndex(final long segmentSize)
+    {
+        if (segmentSize <= 0)
+        {
+            throw new IllegalArgumentException("Position index segment size must be positive: " + segmentSize);
+        }
+        _segmentSize = segmentSize;
+    }
+
+    void add(final QueueEntry entry)
+    {
+        final long entryId = getEntryId(entry);
+        final Segment segment = getSegment(entryId);
+        segment.setAnchorIfEarlier(entry, entryId);
+        if (entry.getMessage() != null)
+        {
+            segment.includeMessageNumber(entry.getMessage().getMessageNumber());
+        }
+        segment._added.incrementAndGet();
+        removeIfComplete(segment);
+    }
+
+    void remove(final QueueEntry entry)
+    {
+        final Segment segment = getSegment(getEntryId(entry));
+        segment._removed.incrementAndGet();
+        removeIfComplete(segment);
+    }
+
+    /**
+     * @param position the zero based position on the queue
+     * @return the entry at, or if the queue has changed just before, the given position, or null if the queue holds
+     * fewer entries
+     */
+    QueueEntry getEntryAtPosition(final long position)
+    {
+        long skipped = 0L;
+        for (Segment segment : _segments.values())
+        {
+            final int live = segment.getLiveCount();
+            if (skipped + live > position)
+            {
+                long toSkip = position - skipped;
+                QueueEntry entry = segment.getAnchor();
+                while (entry != null)
+                {
+                    if (!entry.isDeleted())
+                    {
+                        if (toSkip == 0L)
+                        {
+                            return entry;
+                        }
+                        toSkip--;
+                    }
+                    entry = entry.getNextValidEntry();
+                }
+                return null;
+            }
+            skipped += live;
+        }
+        return null;
+    }
+
+    /**
+     * @return the undeleted entry for the given message, or null if none is found
+     */
+    QueueEntry getEntryForMessage(final long messageNumber)
+    {
+        for (Segment segment : _segments.values())
+        {
+            if (segment.mayContainMessageNumber(messageNumber))
+            {
+                QueueEntry entry = segment.getAnchor();
+                while (entry != null && getEntryId(entry) < segment._endEntryId)
+                {
+                    if (!entry.isDeleted()
+                        && entry.getMessage() != null
+                        && entry.getMessage().getMessageNumber() == messageNumber)
+                    {
+                        return entry;
+                    }
+                    entry = entry.getNextValidEntry();
+                }
+            }
+        }
+        return null;
+    }
+
+    int getSegmentCount()
+    {
+        return _segments.size();
+    }
+
+    private Segment getSegment(final long entryId)
+    {
+        final Long key = entryId / _segmentSize;
+        Segment segment = _segments.get(key);
+        if (segment == null)
+        {
+            final long firstEntryId = key * _segmentSize;
+            // the head of the list has entry id zero and is never added to the queue
+            Segment newSegment = new Segment(firstEntryId == 0L ? _segmentSize - 1 : _segmentSize,
+                                             firstEntryId + _segmentSize);
+            segment = _segments.putIfAbsent(key, newSegment);
+            if (segment == null)
+            {
+                segment = newSegment;
+            }
+        }
+        return segment;
+    }
+
+    private void removeIfComplete(final Segment segment)
+    {
+        // each entry is added once and removed at most once, so no further updates can arrive for a complete segment
+        if (segment._added.get() == segment._capacity && segment._removed.get() == segment._capacity)
+        {
+            _segments.values().remove(segment);
+        }
+    }
+
+    private static long getEntryId(final QueueEntry entry)
+    {
+        return ((QueueEntryImpl) entry).getEntryId();
+    }
+
+    private static final class Segment
+    {
+        private final long _capacity;
+        private final long _endEntryId;
+        private final AtomicInteger _added = new AtomicInteger();
+        private final AtomicInteger _removed = new AtomicInteger();
+        private final AtomicReference<QueueEntry> _anchor = new AtomicReference<>();
+        private final AtomicLong _minimumMessageNumber = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong _maximumMessageNumber = new AtomicLong(Long.MIN_VALUE);
+
+        private Segment(final long capacity, final long endEntryId)
+        {
+            _capacity = capacity;
+            _endEntryId = endEntryId;
+        }
+
+        private int getLiveCount()
+        {
+            return Math.max(0, _added.get() - _removed.get());
+        }
+
+        private QueueEntry getAnchor()
+        {
+            QueueEntry anchor = _anchor.get();
+            // repair the anchor if it has been deleted, so that later seeks need not step over it again
+            while (anchor != null && anchor.isDeleted())
+            {
+                QueueEntry next = anchor.getNextValidEntry();
+                if (next == null || getEntryId(next) >= _endEntryId)
+                {
+                    break;
+                }
+                if (_anchor.compareAndSet(anchor, next))
+                {
+                    anchor = next;
+                }
+                else
+                {
+                    anchor = _anchor.get();
+                }
+            }
+            return anchor;
+        }
+
+        private void setAnchorIfEarlier(final QueueEntry entry, final long entryId)
+        {
+            QueueEntry anchor;
+            while ((anchor = _anchor.get()) == null || getEntryId(anchor) > entryId)
+            {
+                if (_anchor.compareAndSet(anchor, entry))
+                {
+                    break;
+                }
+            }
+        }
+
+        private void includeMessageNumber(final long messageNumber)
+        {
+            long minimum;
+            while (messageNumber < (minimum = _minimumMessageNumber.get()))
+            {
+                if (_minimumMessageNumber.compareAndSet(minimum, messageNumber))
+                {
+                    break;
+                }
+            }
+            long maximum;
+            while (messageNumber > (maximum = _maximumMessageNumber.get()))
+            {
+                if (_maximumMessageNumber.compareAndSet(maximum, messageNumber))
+                {
+                    break;
+                }
+            }
+        }
+
+        private boolean mayContainMessageNumber(final long messageNumber)
+        {
+            return messageNumber >= _minimumMessageNumber.get() && messageNumber <= _maximumMessageNumber.get();
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.qpid.server.stats.LatencyHistogram;
 import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
 import org.apache.qpid.transport.TransportException;
 
@@ -36,6 +37,8 @@ import org.apache.qpid.transport.TransportException;
  * asynchronous message delivery to consumers, which is necessary
  * when straight-through delivery of a message to a consumer isn't
  * possible during the enqueue operation.
+ * <p>
+ * Each runner records how long it waits between being scheduled and starting to run, and how long each run takes.
  */
 public class QueueRunner implements Runnable
 {
@@ -55,6 +58,10 @@ public class QueueRunner implements Runnable
     private final AtomicLong _lastRunTime = new AtomicLong();
     private final AccessControlContext _context;
 
+    private volatile long _scheduledTime;
+    private final LatencyHistogram _scheduleLatency = new LatencyHistogram();
+    private final LatencyHistogram _runDuration = new LatencyHistogram();
+
     public QueueRunner(AbstractQueue queue, AccessControlContext context)
     {
         _queue = queue;
@@ -66,6 +73,8 @@ public class QueueRunner implements Runnable
     {
         if(_scheduled.compareAndSet(SCHEDULED,RUNNING))
         {
+            final long runStart = System.nanoTime();
+            _scheduleLatency.registerLatency(runStart - _scheduledTime);
             long runAgain = Long.MIN_VALUE;
             _stateChange.set(false);
             try
@@ -89,11 +98,14 @@ public class QueueRunner implements Runnable
                 _scheduled.compareAndSet(RUNNING, IDLE);
                 final long stateChangeCount = _queue.getStateChangeCount();
                 _lastRunAgain.set(runAgain);
-                _lastRunTime.set(System.nanoTime());
+                final long runEnd = System.nanoTime();
+                _lastRunTime.set(runEnd);
+                _runDuration.registerLatency(runEnd - runStart);
                 if(runAgain == 0L || runAgain != stateChangeCount || _stateChange.compareAndSet(true,false))
                 {
                     if(_scheduled.compareAndSet(IDLE, SCHEDULED))
                     {
+                        _scheduledTime = runEnd;
                         _queue.execute("Queue Runner["+ _queue.getName()+"]", QueueRunner.this, _context);
                     }
                 }
@@ -112,6 +124,7 @@ public class QueueRunner implements Runnable
         _stateChange.set(true);
         if(_scheduled.compareAndSet(IDLE, SCHEDULED))
         {
+            _scheduledTime = System.nanoTime();
             _queue.execute("Queue Runner["+ _queue.getName()+"]", this, _context);
         }
     }
@@ -121,4 +134,20 @@ public class QueueRunner implements Runnable
         return _scheduled.get() == IDLE;
     }
 
+    /**
+     * @return the times, in nanoseconds, between the runner being scheduled and it starting to run
+     */
+    public LatencyHistogram getScheduleLatency()
+    {
+        return _scheduleLatency;
+    }
+
+    /**
+     * @return the times, in nanoseconds, taken by each run
+     */
+    public LatencyHistogram getRunDuration()
+    {
+        return _runDuration;
+    }
+
 }
@@ -0,0 +1,282 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.filter.SelectorParsingException;
+import org.apache.qpid.server.filter.FilterManager;
+import org.apache.qpid.server.filter.Filterable;
+import org.apache.qpid.server.filter.JMSSelectorFilter;
+import org.apache.qpid.server.filter.MessageFilter;
+import org.apache.qpid.server.message.MessageReference;
+
+/**
+ * Index of the queue entries matched by each distinct selector of the queue's consumers.
+ *
+ * Consumers whose filters are all JMS selectors are grouped into selector classes, consumers with equal filters
+ * sharing a class.  Each entry is classified once, when enqueued, against every selector class and added to the
+ * sub-list of each class it matches.  A consumer then walks only the sub-list of its class, so that a queue with many
+ * consumers sharing a few selectors evaluates each selector once per entry rather than once per consumer, and no
+ * consumer visits entries it has no interest in.  When a class is created, the entries already on the queue are
+ * classified against it.
+ *
+ * Entries are removed from the sub-lists when dequeued.  An entry's state changes to dequeued before it is removed
+ * from the index, and an entry is re-checked after being added to a sub-list, so that an entry dequeued while being
+ * classified is removed either by the dequeue or by the classification, whichever comes last.
+ */
+class QueueSelectorIndex
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueueSelectorIndex.class);
+
+    private static final SelectorClass[] NO_CLASSES = new SelectorClass[0];
+
+    private final AbstractQueue<?> _queue;
+    /** Replaced, never modified, under the lock of the index */
+    private volatile SelectorClass[] _classes = NO_CLASSES;
+
+    QueueSelectorIndex(final AbstractQueue<?> queue)
+    {
+        _queue = queue;
+    }
+
+    /**
+     * @return true if the given filters can be indexed, that is they are JMS selectors whose result for an entry
+     * depends only on the entry's message
+     */
+    static boolean isIndexable(final FilterManager filters)
+    {
+        if (filters == null || !filters.hasFilters())
+        {
+            return false;
+        }
+        Iterator<MessageFilter> iterator = filters.filters();
+        while (iterator.hasNext())
+        {
+            if (!(iterator.next() instanceof JMSSelectorFilter))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers a consumer with the given filters, creating and populating a selector class for them if no other
+     * registered consumer has equal filters.
+     */
+    synchronized SelectorClass register(final FilterManager filters, final QueueConsumer<?> consumer)
+    {
+        for (SelectorClass selectorClass : _classes)
+        {
+            if (selectorClass._filters.equals(filters))
+            {
+                selectorClass._consumers.add(consumer);
+                return selectorClass;
+            }
+        }
+
+        SelectorClass selectorClass = new SelectorClass(filters);
+        selectorClass._consumers.add(consumer);
+        SelectorClass[] classes = Arrays.copyOf(_classes, _classes.length + 1);
+        classes[_classes.length] = selectorClass;
+        _classes = classes;
+
+        // entries enqueued from now on are classified as they are enqueued, so only those already on the queue
+        // need classifying here; an entry may be classified twice, which is harmless
+        QueueEntryIterator iterator = _queue.getEntries().iterator();
+        while (iterator.advance())
+        {
+            QueueEntry entry = iterator.getNode();
+            if (!entry.isDeleted())
+            {
+                selectorClass.classify(entry);
+            }
+        }
+        return selectorClass;
+    }
+
+    /**
+     * Unregisters a consumer, discarding its selector class if no other consumer is registered with it.
+     */
+    synchronized void unregister(final SelectorClass selectorClass, final QueueConsumer<?> consumer)
+    {
+        selectorClass._consumers.remove(consumer);
+        if (selectorClass._consumers.isEmpty())
+        {
+            SelectorClass[] classes = new SelectorClass[_classes.length - 1];
+            int i = 0;
+            for (SelectorClass existing : _classes)
+            {
+                if (existing != selectorClass)
+                {
+                    classes[i++] = existing;
+                }
+            }
+            _classes = classes;
+            selectorClass._matching.clear();
+        }
+    }
+
+    boolean isEmpty()
+    {
+        return _classes.length == 0;
+    }
+
+    int getSelectorClassCount()
+    {
+        return _classes.length;
+    }
+
+    /**
+     * Adds a newly enqueued entry to the sub-list of each selector class it matches.
+     *
+     * @return the selector classes the entry was added to
+     */
+    Collection<SelectorClass> classify(final QueueEntry entry)
+    {
+        List<SelectorClass> matched = null;
+        for (SelectorClass selectorClass : _classes)
+        {
+            if (selectorClass.classify(entry))
+            {
+                if (matched == null)
+                {
+                    matched = new ArrayList<>(_classes.length);
+                }
+                matched.add(selectorClass);
+            }
+        }
+        return matched == null ? Collections.<SelectorClass>emptyList() : matched;
+    }
+
+    void remove(final QueueEntry entry)
+    {
+        for (SelectorClass selectorClass : _classes)
+        {
+            selectorClass._matching.remove(entry);
+        }
+    }
+
+    /**
+     * The consumers sharing equal filters, and the entries those filters match, in queue order.
+     */
+    static final class SelectorClass
+    {
+        private final FilterManager _filters;
+        private final ConcurrentSkipListSet<QueueEntry> _matching = new ConcurrentSkipListSet<>();
+        /** Modified under the lock of the index */
+        private final List<QueueConsumer<?>> _consumers = new CopyOnWriteArrayList<>();
+
+        private SelectorClass(final FilterManager filters)
+        {
+            _filters = filters;
+        }
+
+        boolean contains(final QueueEntry entry)
+        {
+            return _matching.contains(entry);
+        }
+
+        /**
+         * @return the first entry matched by this class which follows the given entry, or null if there is none
+         */
+        QueueEntry next(final QueueEntry entry)
+        {
+            return _matching.higher(entry);
+        }
+
+        int size()
+        {
+            return _matching.size();
+        }
+
+        /**
+         * @return the consumers registered with this class
+         */
+        Collection<QueueConsumer<?>> getConsumers()
+        {
+            return _consumers;
+        }
+
+        /**
+         * @return true if the entry matched and was added to the sub-list of this class
+         */
+        private boolean classify(final QueueEntry entry)
+        {
+            if (entry.isDeleted() || !matches(entry))
+            {
+                return false;
+            }
+            _matching.add(entry);
+            // the entry may have been dequeued, and its removal from the index already done, while being classified
+            if (entry.isDeleted())
+            {
+                _matching.remove(entry);
+                return false;
+            }
+            return true;
+        }
+
+        private boolean matches(final QueueEntry entry)
+        {
+            MessageReference ref = entry.newMessageReference();
+            if (ref == null)
+            {
+                return false;
+            }
+            try
+            {
+                Filterable msg = entry.asFilterable();
+                try
+                {
+                    return _filters.allAllow(msg);
+                }
+                catch (SelectorParsingException e)
+                {
+                    LOGGER.info("Could not evaluate filter [" + _filters + "] against message " + msg
+                                + ". Error was : " + e.getMessage());
+                    return false;
+                }
+            }
+            finally
+            {
+                ref.release();
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return "SelectorClass{" + _filters + '}';
+        }
+    }
+}
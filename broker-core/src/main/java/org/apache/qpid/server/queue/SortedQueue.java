@@ -21,6 +21,7 @@
 package org.apache.qpid.server.queue;
 
 import org.apache.qpid.server.model.ManagedAttribute;
+import org.apache.qpid.server.model.ManagedContextDefault;
 import org.apache.qpid.server.model.ManagedObject;
 
 @ManagedObject( category = false, type= SortedQueue.SORTED_QUEUE_TYPE)
@@ -29,6 +30,10 @@ public interface SortedQueue<X extends SortedQueue<X>> extends AMQQueue<X>
     String SORT_KEY = "sortKey";
     String SORTED_QUEUE_TYPE = "sorted";
 
+    String SORTED_QUEUE_CONCURRENT_ENTRY_LIST = "queue.sorted.concurrentEntryList";
+    @ManagedContextDefault( name = SORTED_QUEUE_CONCURRENT_ENTRY_LIST)
+    boolean DEFAULT_SORTED_QUEUE_CONCURRENT_ENTRY_LIST = false;
+
     @ManagedAttribute( mandatory = true )
     String getSortKey();
 
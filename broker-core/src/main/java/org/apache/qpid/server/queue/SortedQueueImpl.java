@@ -38,7 +38,8 @@ public class SortedQueueImpl extends OutOfOrderQueue<SortedQueueImpl> implements
 
     @ManagedAttributeField
     private String _sortKey;
-    private SortedQueueEntryList _entries;
+    private QueueEntryList _entries;
+    private boolean _concurrentEntryList;
 
     @ManagedObjectFactoryConstructor
     public SortedQueueImpl(Map<String, Object> attributes, VirtualHostImpl virtualHost)
@@ -50,7 +51,8 @@ public class SortedQueueImpl extends OutOfOrderQueue<SortedQueueImpl> implements
     protected void onOpen()
     {
         super.onOpen();
-        _entries = new SortedQueueEntryList(this);
+        _concurrentEntryList = getContextValue(Boolean.class, SORTED_QUEUE_CONCURRENT_ENTRY_LIST);
+        _entries = _concurrentEntryList ? new ConcurrentSortedQueueEntryList(this) : new SortedQueueEntryList(this);
     }
 
     @Override
@@ -58,14 +60,21 @@ public class SortedQueueImpl extends OutOfOrderQueue<SortedQueueImpl> implements
                         final Action<? super MessageInstance> action,
                         MessageEnqueueRecord record)
     {
-        synchronized (_sortedQueueLock)
+        if (_concurrentEntryList)
         {
             super.doEnqueue(message, action, record);
         }
+        else
+        {
+            synchronized (_sortedQueueLock)
+            {
+                super.doEnqueue(message, action, record);
+            }
+        }
     }
 
     @Override
-    SortedQueueEntryList getEntries()
+    QueueEntryList getEntries()
     {
         return _entries;
     }
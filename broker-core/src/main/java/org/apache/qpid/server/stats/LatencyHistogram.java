@@ -0,0 +1,177 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class records latencies, in nanoseconds, into a fixed set of buckets whose bounds grow in powers of two, so
+ * that percentiles can be estimated cheaply without retaining the individual samples.
+ *
+ * Bucket <i>i</i> counts the latencies less than {@link #getBucketUpperBound(int)} and not counted by a lower bucket;
+ * the last bucket also counts every latency beyond the range of the histogram.  Percentiles are reported as the upper
+ * bound of the bucket in which they fall, so are accurate to within a factor of two.
+ *
+ * The histogram may equally record other non-negative quantities, such as batch sizes, by choosing a smaller upper
+ * bound for the first bucket.
+ */
+public class LatencyHistogram
+{
+    /** The upper bound of the first bucket is 2^10ns, roughly a microsecond */
+    private static final int DEFAULT_FIRST_BUCKET_SHIFT = 10;
+    public static final int NUMBER_OF_BUCKETS = 32;
+
+    private final int _firstBucketShift;
+
+    private final AtomicLongArray _buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _total = new AtomicLong();
+    private final AtomicLong _maximum = new AtomicLong();
+
+    public LatencyHistogram()
+    {
+        this(DEFAULT_FIRST_BUCKET_SHIFT);
+    }
+
+    /**
+     * @param firstBucketShift the base two logarithm of the upper bound of the first bucket
+     */
+    public LatencyHistogram(int firstBucketShift)
+    {
+        if (firstBucketShift < 0 || firstBucketShift + NUMBER_OF_BUCKETS > Long.SIZE)
+        {
+            throw new IllegalArgumentException("Invalid first bucket shift: " + firstBucketShift);
+        }
+        _firstBucketShift = firstBucketShift;
+    }
+
+    public void registerLatency(long nanos)
+    {
+        if (nanos < 0L)
+        {
+            nanos = 0L;
+        }
+        _buckets.incrementAndGet(getBucket(nanos));
+        _count.incrementAndGet();
+        _total.addAndGet(nanos);
+
+        long maximum;
+        while (nanos > (maximum = _maximum.get()))
+        {
+            if (_maximum.compareAndSet(maximum, nanos))
+            {
+                break;
+            }
+        }
+    }
+
+    public long getCount()
+    {
+        return _count.get();
+    }
+
+    public long getTotal()
+    {
+        return _total.get();
+    }
+
+    public long getMaximum()
+    {
+        return _maximum.get();
+    }
+
+    /**
+     * Estimates the latency below which the given proportion of the registered latencies fall.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket containing the percentile, never more than the maximum latency
+     * registered, or zero if no latencies have been registered
+     */
+    public long getPercentile(double percentile)
+    {
+        if (percentile < 0d || percentile > 100d)
+        {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+
+        long[] counts = getBucketCounts();
+        long count = 0L;
+        for (long bucketCount : counts)
+        {
+            count += bucketCount;
+        }
+        if (count == 0L)
+        {
+            return 0L;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100d));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++)
+        {
+            seen += counts[i];
+            if (seen >= rank)
+            {
+                return Math.min(upperBound(i), getMaximum());
+            }
+        }
+        return getMaximum();
+    }
+
+    /**
+     * @return a snapshot of the number of latencies counted by each bucket
+     */
+    public long[] getBucketCounts()
+    {
+        long[] counts = new long[NUMBER_OF_BUCKETS];
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++)
+        {
+            counts[i] = _buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * @return the exclusive upper bound, in nanoseconds, of the latencies counted by the given bucket of a histogram
+     * created with the default bucket bounds
+     */
+    public static long getBucketUpperBound(int bucket)
+    {
+        return getBucketUpperBound(bucket, DEFAULT_FIRST_BUCKET_SHIFT);
+    }
+
+    private static long getBucketUpperBound(int bucket, int firstBucketShift)
+    {
+        return bucket == NUMBER_OF_BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucket + firstBucketShift);
+    }
+
+    private long upperBound(int bucket)
+    {
+        return getBucketUpperBound(bucket, _firstBucketShift);
+    }
+
+    private int getBucket(long nanos)
+    {
+        int bucket = (64 - Long.numberOfLeadingZeros(nanos)) - _firstBucketShift;
+        return bucket < 0 ? 0 : Math.min(bucket, NUMBER_OF_BUCKETS - 1);
+    }
+}
@@ -27,6 +27,12 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * This class collects statistics and counts the total, rate per second and
  * peak rate per second values for the events that are registered with it. 
+ * <p>
+ * Events are accumulated in {@link StripedLongCounter}s, so that threads
+ * registering events concurrently do not contend with each other.  The rate
+ * and peak are folded from the events counted in the previous sample period
+ * once per period, by the first thread to register an event or read the
+ * counter in a new sample period.
  */
 public class StatisticsCounter
 {
@@ -37,13 +43,13 @@ public class StatisticsCounter
     private static final String COUNTER = "counter";
     private static final AtomicLong _counterIds = new AtomicLong(0L);
     
-    private long _peak = 0L;
-    private long _total = 0L;
-    private long _temp = 0L;
-    private long _last = 0L;
-    private long _rate = 0L;
+    private final StripedLongCounter _total = new StripedLongCounter();
+    private final StripedLongCounter _temp = new StripedLongCounter();
+    private volatile long _peak = 0L;
+    private volatile long _last = 0L;
+    private volatile long _rate = 0L;
 
-    private long _start;
+    private volatile long _start;
     
     private final long _period;
     private final String _name;
@@ -76,21 +82,25 @@ public class StatisticsCounter
     public void registerEvent(long value, long timestamp)
     {
         long thisSample = (timestamp / _period);
-        synchronized (this)
+        if (thisSample > _last)
         {
-            if (thisSample > _last)
+            foldSample(thisSample);
+        }
+
+        _total.add(value);
+        _temp.add(value);
+    }
+
+    private synchronized void foldSample(long thisSample)
+    {
+        if (thisSample > _last)
+        {
+            _rate = _temp.sumThenReset();
+            if (_rate > _peak)
             {
-                _last = thisSample;
-                _rate = _temp;
-                _temp = 0L;
-                if (_rate > _peak)
-                {
-                    _peak = _rate;
-                }
+                _peak = _rate;
             }
-            
-            _total += value;
-            _temp += value;
+            _last = thisSample;
         }
     }
     
@@ -106,12 +116,12 @@ public class StatisticsCounter
     /**
      * Reset 
      */
-    public void reset()
+    public synchronized void reset()
     {
         _log.info("Resetting statistics for counter: " + _name);
         _peak = 0L;
         _rate = 0L;
-        _total = 0L;
+        _total.reset();
         _start = System.currentTimeMillis();
         _last = _start / _period;
     }
@@ -130,7 +140,7 @@ public class StatisticsCounter
 
     public long getTotal()
     {
-        return _total;
+        return _total.sum();
     }
 
     public long getStart()
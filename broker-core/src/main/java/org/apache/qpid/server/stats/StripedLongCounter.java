@@ -0,0 +1,122 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A sum which can be updated concurrently by many threads without them contending on a single memory location.
+ * <p>
+ * Updates go to a single base value until two threads are seen to collide on it, at which point the counter
+ * inflates to a set of stripes, each padded onto its own cache line, and each thread adds to the stripe selected by
+ * its id.  Uncontended counters therefore cost no more than an {@link AtomicLong}.  Reads sum the base and every
+ * stripe, so are more expensive than updates, and are not atomic with respect to concurrent updates.
+ */
+public final class StripedLongCounter
+{
+    /** Number of longs between stripes, so that each stripe occupies its own 64 byte cache line */
+    private static final int PADDING = 8;
+    private static final int NUMBER_OF_STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+    private final AtomicLong _base = new AtomicLong();
+    private volatile AtomicLongArray _stripes;
+
+    public void add(final long value)
+    {
+        AtomicLongArray stripes = _stripes;
+        if (stripes == null)
+        {
+            long base = _base.get();
+            if (_base.compareAndSet(base, base + value))
+            {
+                return;
+            }
+            stripes = inflate();
+        }
+        stripes.addAndGet(stripeIndex(), value);
+    }
+
+    public long sum()
+    {
+        long sum = _base.get();
+        AtomicLongArray stripes = _stripes;
+        if (stripes != null)
+        {
+            for (int i = 0; i < NUMBER_OF_STRIPES; i++)
+            {
+                sum += stripes.get((i + 1) * PADDING);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the counter and resets it to zero.  Updates made concurrently may be reflected in either the value
+     * returned or the value of the counter after the reset, but are never lost.
+     */
+    public long sumThenReset()
+    {
+        long sum = _base.getAndSet(0L);
+        AtomicLongArray stripes = _stripes;
+        if (stripes != null)
+        {
+            for (int i = 0; i < NUMBER_OF_STRIPES; i++)
+            {
+                sum += stripes.getAndSet((i + 1) * PADDING, 0L);
+            }
+        }
+        return sum;
+    }
+
+    public void reset()
+    {
+        sumThenReset();
+    }
+
+    private synchronized AtomicLongArray inflate()
+    {
+        if (_stripes == null)
+        {
+            // leave padding before the first and after the last stripe, so that none share a line with other objects
+            _stripes = new AtomicLongArray((NUMBER_OF_STRIPES + 2) * PADDING);
+        }
+        return _stripes;
+    }
+
+    private static int stripeIndex()
+    {
+        long threadId = Thread.currentThread().getId();
+        int hash = (int) (threadId ^ (threadId >>> 32));
+        hash ^= (hash >>> 16);
+        return ((hash & (NUMBER_OF_STRIPES - 1)) + 1) * PADDING;
+    }
+
+    private static int stripeCount(final int processors)
+    {
+        int count = 1;
+        while (count < 2 * processors && count < 64)
+        {
+            count <<= 1;
+        }
+        return count;
+    }
+}
@@ -21,7 +21,6 @@
 package org.apache.qpid.server.store;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -32,19 +31,21 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.slf4j.Logger;
 
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
@@ -116,13 +117,31 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             "SELECT action_type, queue_id, message_id FROM " + XID_ACTIONS_TABLE_NAME +
             " WHERE format = ? and global_id = ? and branch_id = ?";
 
+    /**
+     * The order in which the rows of a batch are written, grouped by statement.  Rows are inserted before any are
+     * deleted, so a row inserted and deleted within the same batch is never left behind.
+     */
+    private static final List<String> BATCH_STATEMENT_ORDER = Arrays.asList(INSERT_INTO_META_DATA,
+                                                                            INSERT_INTO_MESSAGE_CONTENT,
+                                                                            INSERT_INTO_QUEUE_ENTRY,
+                                                                            INSERT_INTO_XIDS,
+                                                                            INSERT_INTO_XID_ACTIONS,
+                                                                            DELETE_FROM_QUEUE_ENTRY,
+                                                                            DELETE_FROM_XID_ACTIONS,
+                                                                            DELETE_FROM_XIDS,
+                                                                            DELETE_FROM_META_DATA,
+                                                                            DELETE_FROM_MESSAGE_CONTENT);
+
+    public static final String COMMIT_MAX_BATCH_SIZE = "qpid.jdbcstore.commit.maxBatchSize";
+    private static final int DEFAULT_COMMIT_MAX_BATCH_SIZE = 256;
+
     protected final EventManager _eventManager = new EventManager();
     private ConfiguredObject<?> _parent;
 
     protected abstract boolean isMessageStoreOpen();
 
     protected abstract void checkMessageStoreOpen();
-    private ScheduledThreadPoolExecutor _executor;
+    private CommitThread _commitThread;
 
     public AbstractJDBCMessageStore()
     {
@@ -259,29 +278,27 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
     protected void initMessageStore(final ConfiguredObject<?> parent)
     {
         _parent = parent;
-        _executor = new ScheduledThreadPoolExecutor(4, new ThreadFactory()
+        int maxBatchSize = DEFAULT_COMMIT_MAX_BATCH_SIZE;
+        if (parent.getContextKeys(false).contains(COMMIT_MAX_BATCH_SIZE))
         {
-            private final AtomicInteger _count = new AtomicInteger();
-            @Override
-            public Thread newThread(final Runnable r)
-            {
-                final Thread thread = Executors.defaultThreadFactory().newThread(r);
-                thread.setName(parent.getName() + "-store-"+_count.incrementAndGet());
-                return thread;
-            }
-        });
-        _executor.prestartAllCoreThreads();
-
+            maxBatchSize = parent.getContextValue(Integer.class, COMMIT_MAX_BATCH_SIZE);
+        }
+        _commitThread = new CommitThread(parent.getName() + "-store-committer",
+                                         maxBatchSize > 0 ? maxBatchSize : Integer.MAX_VALUE);
+        _commitThread.start();
     }
 
+    /**
+     * Stops the commit thread once every transaction already submitted has been written, so must be called before
+     * the underlying database is closed.
+     */
     @Override
     public void closeMessageStore()
     {
-        if(_executor != null)
+        if(_commitThread != null)
         {
-            _executor.shutdown();
+            _commitThread.close();
         }
-
     }
 
     protected abstract Logger getLogger();
@@ -453,59 +470,12 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     private void removeMessage(long messageId)
     {
-        try
-        {
-            Connection conn = newConnection();
-            try
-            {
-                PreparedStatement stmt = conn.prepareStatement(DELETE_FROM_META_DATA);
-                try
-                {
-                    stmt.setLong(1,messageId);
-                    int results = stmt.executeUpdate();
-                    stmt.close();
-
-                    if (results == 0)
-                    {
-                        getLogger().debug("Message id {} not found (attempt to remove failed - probably application initiated rollback)", messageId);
-                    }
-
-                    getLogger().debug("Deleted metadata for message {}", messageId);
-
-                    stmt = conn.prepareStatement(DELETE_FROM_MESSAGE_CONTENT);
-                    stmt.setLong(1, messageId);
-                    results = stmt.executeUpdate();
-                }
-                finally
-                {
-                    stmt.close();
-                }
-                conn.commit();
-            }
-            catch(SQLException e)
-            {
-                try
-                {
-                    conn.rollback();
-                }
-                catch(SQLException t)
-                {
-                    // ignore - we are re-throwing underlying exception
-                }
-
-                throw e;
-
-            }
-            finally
-            {
-                conn.close();
-            }
-        }
-        catch (SQLException e)
-        {
-            throw new StoreException("Error removing message with id " + messageId + " from database: " + e.getMessage(), e);
-        }
+        List<BatchedStatement> statements = new ArrayList<>(2);
+        statements.add(new BatchedStatement(DELETE_FROM_META_DATA, messageKey(messageId), null, messageId));
+        statements.add(new BatchedStatement(DELETE_FROM_MESSAGE_CONTENT, messageKey(messageId), null, messageId));
+        commit("Error removing message with id " + messageId + " from database", statements);
 
+        getLogger().debug("Deleted metadata and content for message {}", messageId);
     }
 
     /**
@@ -571,324 +541,201 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         return new JDBCTransaction();
     }
 
-    private void enqueueMessage(ConnectionWrapper connWrapper, final TransactionLogResource queue, Long messageId) throws StoreException
+    private void enqueueMessage(List<BatchedStatement> statements, final TransactionLogResource queue, long messageId)
     {
-        Connection conn = connWrapper.getConnection();
+        getLogger().debug("Enqueuing message {} on queue {} with id {}", messageId, queue.getName(), queue.getId());
 
+        statements.add(new BatchedStatement(INSERT_INTO_QUEUE_ENTRY,
+                                            queueEntryKey(queue.getId(), messageId),
+                                            null,
+                                            queue.getId().toString(),
+                                            messageId));
+    }
 
-        try
+    private void dequeueMessage(List<BatchedStatement> statements, final UUID queueId, long messageId)
+    {
+        getLogger().debug("Dequeuing message {} on queue with id {}", messageId, queueId);
+
+        statements.add(new BatchedStatement(DELETE_FROM_QUEUE_ENTRY,
+                                            queueEntryKey(queueId, messageId),
+                                            "Unable to find message with id " + messageId
+                                            + " on queue with id " + queueId,
+                                            queueId.toString(),
+                                            messageId));
+    }
+
+    private void removeXid(List<BatchedStatement> statements, long format, byte[] globalId, byte[] branchId)
+    {
+        String key = xidKey(format, globalId, branchId);
+        statements.add(new BatchedStatement(DELETE_FROM_XIDS, key, "Unable to find message with xid",
+                                            format, globalId, branchId));
+        statements.add(new BatchedStatement(DELETE_FROM_XID_ACTIONS, key, null, format, globalId, branchId));
+    }
+
+    private void recordXid(List<BatchedStatement> statements, long format, byte[] globalId, byte[] branchId,
+                           Transaction.EnqueueRecord[] enqueues, Transaction.DequeueRecord[] dequeues)
+    {
+        String key = xidKey(format, globalId, branchId);
+        statements.add(new BatchedStatement(INSERT_INTO_XIDS, key, null, format, globalId, branchId));
+
+        for(Transaction.EnqueueRecord enqueue : enqueues)
         {
-            if (getLogger().isDebugEnabled())
+            StoredMessage storedMessage = enqueue.getMessage().getStoredMessage();
+            if(storedMessage instanceof StoredJDBCMessage)
             {
-                getLogger().debug("Enqueuing message {} on queue {} with id {} [Connection {}]",
-                                  messageId, queue.getName(), queue.getId(), conn);
+                ((StoredJDBCMessage) storedMessage).store(statements);
             }
+        }
 
-            try (PreparedStatement stmt = conn.prepareStatement(INSERT_INTO_QUEUE_ENTRY))
+        if(enqueues != null)
+        {
+            for(Transaction.EnqueueRecord record : enqueues)
             {
-                stmt.setString(1, queue.getId().toString());
-                stmt.setLong(2, messageId);
-                stmt.executeUpdate();
+                statements.add(new BatchedStatement(INSERT_INTO_XID_ACTIONS, key, null,
+                                                    format, globalId, branchId, "E",
+                                                    record.getResource().getId().toString(),
+                                                    record.getMessage().getMessageNumber()));
             }
-
         }
-        catch (SQLException e)
+
+        if(dequeues != null)
         {
-            getLogger().error("Failed to enqueue message {}", messageId, e);
-            throw new StoreException("Error writing enqueued message with id " + messageId + " for queue " + queue.getName() + " with id " + queue.getId()
-                                     + " to database", e);
+            for(Transaction.DequeueRecord record : dequeues)
+            {
+                statements.add(new BatchedStatement(INSERT_INTO_XID_ACTIONS, key, null,
+                                                    format, globalId, branchId, "D",
+                                                    record.getEnqueueRecord().getQueueId().toString(),
+                                                    record.getEnqueueRecord().getMessageNumber()));
+            }
         }
-
     }
 
-    private void dequeueMessage(ConnectionWrapper connWrapper, final UUID queueId,
-                                Long messageId) throws StoreException
+    private static String messageKey(long messageId)
     {
+        return "M" + messageId;
+    }
 
-        Connection conn = connWrapper.getConnection();
-
-        try
-        {
-            try (PreparedStatement stmt = conn.prepareStatement(DELETE_FROM_QUEUE_ENTRY))
-            {
-                stmt.setString(1, queueId.toString());
-                stmt.setLong(2, messageId);
-                int results = stmt.executeUpdate();
-
-
-                if (results != 1)
-                {
-                    throw new StoreException("Unable to find message with id " + messageId
-                                             + " on queue with id " + queueId);
-                }
-
-                getLogger().debug("Dequeuing message {} on queue with id {}", messageId, queueId);
+    private static String queueEntryKey(UUID queueId, long messageId)
+    {
+        return "Q" + queueId + "/" + messageId;
+    }
 
-            }
+    private static String xidKey(long format, byte[] globalId, byte[] branchId)
+    {
+        return "X" + format + "/" + Arrays.toString(globalId) + "/" + Arrays.toString(branchId);
+    }
 
-        }
-        catch (SQLException e)
+    /**
+     * Submits the given rows to the commit thread, to be written in the same database transaction as those of any
+     * other transactions waiting to be committed.
+     */
+    private ListenableFuture<Void> commitAsync(String description, List<BatchedStatement> statements)
+    {
+        if (statements.isEmpty())
         {
-            getLogger().error("Failed to dequeue message {}", messageId, e);
-            throw new StoreException("Error deleting enqueued message with id " + messageId + " for queue with id "
-                                     + queueId + " from database", e);
+            return Futures.immediateFuture(null);
         }
-
+        return _commitThread.addJob(new CommitJob(description, statements));
     }
 
-    private void removeXid(ConnectionWrapper connWrapper, long format, byte[] globalId, byte[] branchId)
-            throws StoreException
+    private void commit(String description, List<BatchedStatement> statements) throws StoreException
     {
-        Connection conn = connWrapper.getConnection();
-
-
         try
         {
-            PreparedStatement stmt = conn.prepareStatement(DELETE_FROM_XIDS);
-            try
-            {
-                stmt.setLong(1,format);
-                stmt.setBytes(2,globalId);
-                stmt.setBytes(3,branchId);
-                int results = stmt.executeUpdate();
-
-
-
-                if(results != 1)
-                {
-                    throw new StoreException("Unable to find message with xid");
-                }
-            }
-            finally
+            Uninterruptibles.getUninterruptibly(commitAsync(description, statements));
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
             {
-                stmt.close();
+                throw (RuntimeException) e.getCause();
             }
-
-            stmt = conn.prepareStatement(DELETE_FROM_XID_ACTIONS);
-            try
+            else if (e.getCause() instanceof Error)
             {
-                stmt.setLong(1,format);
-                stmt.setBytes(2,globalId);
-                stmt.setBytes(3,branchId);
-                int results = stmt.executeUpdate();
-
+                throw (Error) e.getCause();
             }
-            finally
+            else
             {
-                stmt.close();
+                throw new StoreException(e.getCause());
             }
-
-        }
-        catch (SQLException e)
-        {
-            getLogger().error("Failed to remove xid", e);
-            throw new StoreException("Error deleting enqueued message with xid", e);
         }
-
     }
 
-    private List<Runnable> recordXid(ConnectionWrapper connWrapper, long format, byte[] globalId, byte[] branchId,
-                                     Transaction.EnqueueRecord[] enqueues, Transaction.DequeueRecord[] dequeues) throws StoreException
+    /**
+     * Writes the given rows using one JDBC batch per statement, splitting them into several rounds of batches only
+     * where a row is inserted after another with the same key was deleted, so that the order of those operations
+     * is preserved.
+     */
+    private void executeBatch(Connection conn, List<BatchedStatement> statements) throws SQLException
     {
-        Connection conn = connWrapper.getConnection();
-
-
-        try
+        Map<String, List<BatchedStatement>> round = new HashMap<>();
+        Set<String> deletedKeys = new HashSet<>();
+        for (BatchedStatement statement : statements)
         {
-
-            PreparedStatement stmt = conn.prepareStatement(INSERT_INTO_XIDS);
-            try
+            if (statement.isDelete())
             {
-                stmt.setLong(1,format);
-                stmt.setBytes(2, globalId);
-                stmt.setBytes(3, branchId);
-                stmt.executeUpdate();
+                deletedKeys.add(statement.getKey());
             }
-            finally
+            else if (deletedKeys.contains(statement.getKey()))
             {
-                stmt.close();
+                executeRound(conn, round);
+                round.clear();
+                deletedKeys.clear();
             }
 
-            for(Transaction.EnqueueRecord enqueue : enqueues)
+            List<BatchedStatement> rows = round.get(statement.getSql());
+            if (rows == null)
             {
-                StoredMessage storedMessage = enqueue.getMessage().getStoredMessage();
-                if(storedMessage instanceof StoredJDBCMessage)
-                {
-                    ((StoredJDBCMessage) storedMessage).store(conn);
-                }
+                rows = new ArrayList<>();
+                round.put(statement.getSql(), rows);
             }
+            rows.add(statement);
+        }
+        executeRound(conn, round);
+    }
 
-
-            stmt = conn.prepareStatement(INSERT_INTO_XID_ACTIONS);
-
-            try
+    private void executeRound(Connection conn, Map<String, List<BatchedStatement>> round) throws SQLException
+    {
+        for (String sql : BATCH_STATEMENT_ORDER)
+        {
+            List<BatchedStatement> rows = round.get(sql);
+            if (rows != null)
             {
-                stmt.setLong(1,format);
-                stmt.setBytes(2, globalId);
-                stmt.setBytes(3, branchId);
-
-                if(enqueues != null)
+                try (PreparedStatement stmt = conn.prepareStatement(sql))
                 {
-                    stmt.setString(4, "E");
-                    for(Transaction.EnqueueRecord record : enqueues)
+                    for (BatchedStatement row : rows)
                     {
-                        stmt.setString(5, record.getResource().getId().toString());
-                        stmt.setLong(6, record.getMessage().getMessageNumber());
-                        stmt.executeUpdate();
+                        row.bind(stmt);
+                        stmt.addBatch();
                     }
-                }
-
-                if(dequeues != null)
-                {
-                    stmt.setString(4, "D");
-                    for(Transaction.DequeueRecord record : dequeues)
+                    int[] results = stmt.executeBatch();
+                    for (int i = 0; i < rows.size(); i++)
                     {
-                        stmt.setString(5, record.getEnqueueRecord().getQueueId().toString());
-                        stmt.setLong(6, record.getEnqueueRecord().getMessageNumber());
-                        stmt.executeUpdate();
+                        rows.get(i).checkResult(results[i]);
                     }
                 }
-
-            }
-            finally
-            {
-                stmt.close();
             }
-            return Collections.emptyList();
         }
-        catch (SQLException e)
-        {
-            getLogger().error("Failed to record xid", e);
-            throw new StoreException("Error writing xid ", e);
-        }
-
     }
 
-    private static final class ConnectionWrapper
-    {
-        private final Connection _connection;
-
-        public ConnectionWrapper(Connection conn)
-        {
-            _connection = conn;
-        }
-
-        public Connection getConnection()
-        {
-            return _connection;
-        }
-    }
-
-
-    private void commitTran(ConnectionWrapper connWrapper) throws StoreException
-    {
-        try
-        {
-            Connection conn = connWrapper.getConnection();
-            conn.commit();
-
-            getLogger().debug("commit tran completed");
-
-            conn.close();
-        }
-        catch (SQLException e)
-        {
-            throw new StoreException("Error commit tx", e);
-        }
-    }
-
-    private ListenableFuture<Void> commitTranAsync(final ConnectionWrapper connWrapper) throws StoreException
-    {
-        final SettableFuture<Void> future = SettableFuture.create();
-        _executor.submit(new Runnable()
-                        {
-                            @Override
-                            public void run()
-                            {
-                                try
-                                {
-                                    commitTran(connWrapper);
-                                    future.set(null);
-                                }
-                                catch (RuntimeException e)
-                                {
-                                    future.setException(e);
-                                }
-                            }
-                        });
-        return future;
-    }
-
-    private void abortTran(ConnectionWrapper connWrapper) throws StoreException
-    {
-        if (connWrapper == null)
-        {
-            throw new StoreException("Fatal internal error: transactional context is empty at abortTran");
-        }
-
-        getLogger().debug("abort tran called: {}", connWrapper.getConnection());
-
-        try
-        {
-            Connection conn = connWrapper.getConnection();
-            conn.rollback();
-            conn.close();
-        }
-        catch (SQLException e)
-        {
-            throw new StoreException("Error aborting transaction: " + e.getMessage(), e);
-        }
-
-    }
-
-    private void storeMetaData(Connection conn, long messageId, StorableMessageMetaData metaData)
-            throws SQLException
+    private void storeMetaData(List<BatchedStatement> statements, long messageId, StorableMessageMetaData metaData)
     {
         getLogger().debug("Adding metadata for message {}", messageId);
 
-        PreparedStatement stmt = conn.prepareStatement(INSERT_INTO_META_DATA);
-        try
-        {
-            stmt.setLong(1, messageId);
-
-            final int bodySize = 1 + metaData.getStorableSize();
-            byte[] underlying = new byte[bodySize];
-            underlying[0] = (byte) metaData.getType().ordinal();
-            QpidByteBuffer buf = QpidByteBuffer.wrap(underlying);
-            buf.position(1);
-            buf = buf.slice();
-
-            metaData.writeToBuffer(buf);
-            ByteArrayInputStream bis = new ByteArrayInputStream(underlying);
-            try
-            {
-                stmt.setBinaryStream(2, bis, underlying.length);
-                int result = stmt.executeUpdate();
-
-                if (result == 0)
-                {
-                    throw new StoreException("Unable to add meta data for message " + messageId);
-                }
-            }
-            finally
-            {
-                try
-                {
-                    bis.close();
-                }
-                catch (IOException e)
-                {
-
-                    throw new SQLException(e);
-                }
-            }
+        final int bodySize = 1 + metaData.getStorableSize();
+        byte[] underlying = new byte[bodySize];
+        underlying[0] = (byte) metaData.getType().ordinal();
+        QpidByteBuffer buf = QpidByteBuffer.wrap(underlying);
+        buf.position(1);
+        buf = buf.slice();
 
-        }
-        finally
-        {
-            stmt.close();
-        }
+        metaData.writeToBuffer(buf);
 
+        statements.add(new BatchedStatement(INSERT_INTO_META_DATA,
+                                            messageKey(messageId),
+                                            "Unable to add meta data for message " + messageId,
+                                            messageId,
+                                            new BlobParameter(underlying)));
     }
 
 
@@ -1009,13 +856,11 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     protected abstract byte[] getBlobAsBytes(ResultSet rs, int col) throws SQLException;
 
-    private void addContent(final Connection conn, long messageId,
+    private void addContent(final List<BatchedStatement> statements, long messageId,
                             Collection<QpidByteBuffer> contentBody)
     {
         getLogger().debug("Adding content for message {}", messageId);
 
-        PreparedStatement stmt = null;
-
         int size = 0;
 
         for(QpidByteBuffer buf : contentBody)
@@ -1029,23 +874,11 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             buf.copyTo(dst);
         }
 
-        try
-        {
-
-            stmt = conn.prepareStatement(INSERT_INTO_MESSAGE_CONTENT);
-            stmt.setLong(1, messageId);
-            stmt.setBinaryStream(2, new ByteArrayInputStream(data), data.length);
-            stmt.executeUpdate();
-        }
-        catch (SQLException e)
-        {
-            JdbcUtils.closeConnection(conn, getLogger());
-            throw new StoreException("Error adding content for message " + messageId + ": " + e.getMessage(), e);
-        }
-        finally
-        {
-            JdbcUtils.closePreparedStatement(stmt, getLogger());
-        }
+        statements.add(new BatchedStatement(INSERT_INTO_MESSAGE_CONTENT,
+                                            messageKey(messageId),
+                                            null,
+                                            messageId,
+                                            new BlobParameter(data)));
     }
 
     Collection<QpidByteBuffer> getAllContent(long messageId) throws StoreException
@@ -1104,21 +937,12 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     protected class JDBCTransaction implements Transaction
     {
-        private final ConnectionWrapper _connWrapper;
+        private final List<BatchedStatement> _statements = new ArrayList<>();
+        private final List<StoredJDBCMessage<?>> _messagesToStore = new ArrayList<>();
         private int _storeSizeIncrease;
-        private final List<Runnable> _preCommitActions = new ArrayList<>();
-        private final List<Runnable> _postCommitActions = new ArrayList<>();
 
         protected JDBCTransaction()
         {
-            try
-            {
-                _connWrapper = new ConnectionWrapper(newConnection());
-            }
-            catch (SQLException e)
-            {
-                throw new StoreException(e);
-            }
         }
 
         @Override
@@ -1129,25 +953,9 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             final StoredMessage storedMessage = message.getStoredMessage();
             if(storedMessage instanceof StoredJDBCMessage)
             {
-                _preCommitActions.add(new Runnable()
-                {
-                    @Override
-                    public void run()
-                    {
-                        try
-                        {
-                            ((StoredJDBCMessage) storedMessage).store(_connWrapper.getConnection());
-                            _storeSizeIncrease += storedMessage.getMetaData().getContentSize();
-                        }
-                        catch (SQLException e)
-                        {
-                            throw new StoreException("Exception on enqueuing message into message store" + _messageId,
-                                                     e);
-                        }
-                    }
-                });
+                _messagesToStore.add((StoredJDBCMessage<?>) storedMessage);
             }
-            AbstractJDBCMessageStore.this.enqueueMessage(_connWrapper, queue, message.getMessageNumber());
+            AbstractJDBCMessageStore.this.enqueueMessage(_statements, queue, message.getMessageNumber());
             return new JDBCEnqueueRecord(queue.getId(), message.getMessageNumber());
         }
 
@@ -1156,7 +964,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             checkMessageStoreOpen();
 
-            AbstractJDBCMessageStore.this.dequeueMessage(_connWrapper,
+            AbstractJDBCMessageStore.this.dequeueMessage(_statements,
                                                          enqueueRecord.getQueueId(),
                                                          enqueueRecord.getMessageNumber());
         }
@@ -1165,47 +973,46 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         public void commitTran()
         {
             checkMessageStoreOpen();
-            doPreCommitActions();
-            AbstractJDBCMessageStore.this.commitTran(_connWrapper);
+            AbstractJDBCMessageStore.this.commit("Error commit tx", prepareCommit());
             storedSizeChange(_storeSizeIncrease);
-            doPostCommitActions();
         }
 
         @Override
         public ListenableFuture<Void> commitTranAsync()
         {
             checkMessageStoreOpen();
-            doPreCommitActions();
-            ListenableFuture<Void> futureResult = AbstractJDBCMessageStore.this.commitTranAsync(_connWrapper);
+            ListenableFuture<Void> futureResult = AbstractJDBCMessageStore.this.commitAsync("Error commit tx",
+                                                                                            prepareCommit());
             storedSizeChange(_storeSizeIncrease);
-            doPostCommitActions();
             return futureResult;
         }
 
-        private void doPreCommitActions()
-        {
-            for(Runnable action : _preCommitActions)
-            {
-                action.run();
-            }
-            _preCommitActions.clear();
-        }
-
-        private void doPostCommitActions()
+        /**
+         * Prepares the rows of the messages enqueued by this transaction, which are written ahead of its own rows.
+         */
+        private List<BatchedStatement> prepareCommit()
         {
-            for(Runnable action : _postCommitActions)
+            List<BatchedStatement> statements = new ArrayList<>(2 * _messagesToStore.size() + _statements.size());
+            for(StoredJDBCMessage<?> message : _messagesToStore)
             {
-                action.run();
+                if (message.store(statements))
+                {
+                    _storeSizeIncrease += message.getMetaData().getContentSize();
+                }
             }
-            _postCommitActions.clear();
+            statements.addAll(_statements);
+            _messagesToStore.clear();
+            _statements.clear();
+            return statements;
         }
 
         @Override
         public void abortTran()
         {
             checkMessageStoreOpen();
-            _preCommitActions.clear();
-            AbstractJDBCMessageStore.this.abortTran(_connWrapper);
+            getLogger().debug("abort tran called");
+            _messagesToStore.clear();
+            _statements.clear();
         }
 
         @Override
@@ -1213,7 +1020,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             checkMessageStoreOpen();
 
-            AbstractJDBCMessageStore.this.removeXid(_connWrapper,
+            AbstractJDBCMessageStore.this.removeXid(_statements,
                                                     record.getFormat(),
                                                     record.getGlobalId(),
                                                     record.getBranchId());
@@ -1228,7 +1035,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             checkMessageStoreOpen();
 
-            _postCommitActions.addAll(AbstractJDBCMessageStore.this.recordXid(_connWrapper, format, globalId, branchId, enqueues, dequeues));
+            AbstractJDBCMessageStore.this.recordXid(_statements, format, globalId, branchId, enqueues, dequeues);
             return new JDBCStoredXidRecord(format, globalId, branchId);
         }
 
@@ -1573,13 +1380,18 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             return content;
         }
 
-        synchronized void store(final Connection conn) throws SQLException
+        /**
+         * Adds the rows storing this message to the given list, unless it has been stored already.
+         *
+         * @return true if the rows were added
+         */
+        synchronized boolean store(final List<BatchedStatement> statements)
         {
             if (!stored())
             {
 
-                AbstractJDBCMessageStore.this.storeMetaData(conn, _messageId, _messageDataRef.getMetaData());
-                AbstractJDBCMessageStore.this.addContent(conn, _messageId,
+                AbstractJDBCMessageStore.this.storeMetaData(statements, _messageId, _messageDataRef.getMetaData());
+                AbstractJDBCMessageStore.this.addContent(statements, _messageId,
                                                          _messageDataRef.getData() == null
                                                                 ? Collections.<QpidByteBuffer>emptySet()
                                                                 : _messageDataRef.getData());
@@ -1593,26 +1405,20 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
                 _messageDataRef = messageDataSoftRef;
 
-
+                return true;
             }
+            return false;
         }
 
         synchronized ListenableFuture<Void> flushToStore()
         {
             if (_messageDataRef != null)
             {
-                if(!stored())
+                List<BatchedStatement> statements = new ArrayList<>(2);
+                if(store(statements))
                 {
-                    try (Connection conn = newConnection())
-                    {
-                        store(conn);
-                        conn.commit();
-                        storedSizeChange(getMetaData().getContentSize());
-                    }
-                    catch (SQLException e)
-                    {
-                        throw new StoreException("Failed to flow to disk", e);
-                    }
+                    commit("Failed to flow to disk", statements);
+                    storedSizeChange(getMetaData().getContentSize());
                 }
 
             }
@@ -2027,6 +1833,303 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
     }
 
 
+    /**
+     * A row to be inserted or deleted by the commit thread.  Rows are prepared in full by the thread committing the
+     * transaction, so the commit thread need not touch any message.
+     */
+    private static final class BatchedStatement
+    {
+        private final String _sql;
+        private final String _key;
+        private final String _failureMessage;
+        private final Object[] _parameters;
+
+        /**
+         * @param key identifies the row, so that a row is not inserted ahead of the deletion of a previous row with
+         *            the same key
+         * @param failureMessage if not null, the message of the exception thrown unless exactly one row is affected
+         */
+        private BatchedStatement(String sql, String key, String failureMessage, Object... parameters)
+        {
+            _sql = sql;
+            _key = key;
+            _failureMessage = failureMessage;
+            _parameters = parameters;
+        }
+
+        private String getSql()
+        {
+            return _sql;
+        }
+
+        private String getKey()
+        {
+            return _key;
+        }
+
+        private boolean isDelete()
+        {
+            return _sql.startsWith("DELETE");
+        }
+
+        private void bind(PreparedStatement stmt) throws SQLException
+        {
+            for (int i = 0; i < _parameters.length; i++)
+            {
+                Object parameter = _parameters[i];
+                if (parameter instanceof Long)
+                {
+                    stmt.setLong(i + 1, (Long) parameter);
+                }
+                else if (parameter instanceof String)
+                {
+                    stmt.setString(i + 1, (String) parameter);
+                }
+                else if (parameter instanceof BlobParameter)
+                {
+                    byte[] data = ((BlobParameter) parameter).getData();
+                    stmt.setBinaryStream(i + 1, new ByteArrayInputStream(data), data.length);
+                }
+                else
+                {
+                    stmt.setBytes(i + 1, (byte[]) parameter);
+                }
+            }
+        }
+
+        private void checkResult(int result)
+        {
+            if (_failureMessage != null && result != 1 && result != Statement.SUCCESS_NO_INFO)
+            {
+                throw new StoreException(_failureMessage);
+            }
+        }
+    }
+
+    private static final class BlobParameter
+    {
+        private final byte[] _data;
+
+        private BlobParameter(final byte[] data)
+        {
+            _data = data;
+        }
+
+        private byte[] getData()
+        {
+            return _data;
+        }
+    }
+
+    private static final class CommitJob
+    {
+        private final String _description;
+        private final List<BatchedStatement> _statements;
+        private final SettableFuture<Void> _future = SettableFuture.create();
+
+        private CommitJob(final String description, final List<BatchedStatement> statements)
+        {
+            _description = description;
+            _statements = statements;
+        }
+
+        private List<BatchedStatement> getStatements()
+        {
+            return _statements;
+        }
+
+        private SettableFuture<Void> getFuture()
+        {
+            return _future;
+        }
+
+        private void complete()
+        {
+            _future.set(null);
+        }
+
+        private void abort(Exception e)
+        {
+            if (e instanceof StoreException)
+            {
+                _future.setException(e);
+            }
+            else
+            {
+                _future.setException(new StoreException(_description + ": " + e.getMessage(), e));
+            }
+        }
+    }
+
+    /**
+     * Writes the rows of every transaction waiting to be committed, up to the maximum batch size, using a single
+     * connection, one JDBC batch per statement and a single database commit, before completing their futures.
+     * Transactions are written in the order they were submitted.  Should a batch fail, its transactions are retried
+     * one at a time, so that only the transactions at fault are failed.
+     */
+    private final class CommitThread extends Thread
+    {
+        private final Queue<CommitJob> _jobQueue = new ConcurrentLinkedQueue<>();
+        private final Object _lock = new Object();
+        private final int _maxBatchSize;
+        private boolean _stopped;
+
+        private CommitThread(final String name, final int maxBatchSize)
+        {
+            super(name);
+            _maxBatchSize = maxBatchSize;
+        }
+
+        private ListenableFuture<Void> addJob(CommitJob job)
+        {
+            synchronized (_lock)
+            {
+                if (_stopped)
+                {
+                    job.abort(new StoreException("Message store is closed"));
+                }
+                else
+                {
+                    _jobQueue.add(job);
+                    _lock.notifyAll();
+                }
+            }
+            return job.getFuture();
+        }
+
+        private void close()
+        {
+            synchronized (_lock)
+            {
+                _stopped = true;
+                _lock.notifyAll();
+            }
+            if (Thread.currentThread() != this)
+            {
+                try
+                {
+                    join();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new StoreException("Commit thread has not shutdown", e);
+                }
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            boolean interrupted = false;
+            while (true)
+            {
+                synchronized (_lock)
+                {
+                    while (!_stopped && _jobQueue.isEmpty())
+                    {
+                        try
+                        {
+                            _lock.wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            // transactions already queued are still committed, later ones are aborted
+                            getLogger().warn("Commit thread {} interrupted, stopping", getName());
+                            interrupted = true;
+                            _stopped = true;
+                        }
+                    }
+                    if (_jobQueue.isEmpty())
+                    {
+                        break;
+                    }
+                }
+                processJobs();
+            }
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void processJobs()
+        {
+            List<CommitJob> batch = new ArrayList<>();
+            CommitJob job;
+            while (batch.size() < _maxBatchSize && (job = _jobQueue.poll()) != null)
+            {
+                batch.add(job);
+            }
+
+            try
+            {
+                commitBatch(batch);
+                getLogger().debug("Committed batch of {} transactions", batch.size());
+                for (CommitJob committed : batch)
+                {
+                    committed.complete();
+                }
+            }
+            catch (SQLException | RuntimeException e)
+            {
+                if (batch.size() == 1)
+                {
+                    batch.get(0).abort(e);
+                }
+                else
+                {
+                    getLogger().debug("Failed to commit batch of {} transactions, committing each separately",
+                                      batch.size(), e);
+                    for (CommitJob retried : batch)
+                    {
+                        try
+                        {
+                            commitBatch(Collections.singletonList(retried));
+                            retried.complete();
+                        }
+                        catch (SQLException | RuntimeException retryException)
+                        {
+                            retried.abort(retryException);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void commitBatch(List<CommitJob> batch) throws SQLException
+        {
+            List<BatchedStatement> statements = new ArrayList<>();
+            for (CommitJob job : batch)
+            {
+                statements.addAll(job.getStatements());
+            }
+
+            Connection conn = newConnection();
+            try
+            {
+                executeBatch(conn, statements);
+                conn.commit();
+            }
+            catch (SQLException | RuntimeException e)
+            {
+                try
+                {
+                    conn.rollback();
+                }
+                catch (SQLException t)
+                {
+                    // ignore - we are re-throwing underlying exception
+                }
+                throw e;
+            }
+            finally
+            {
+                JdbcUtils.closeConnection(conn, getLogger());
+            }
+        }
+    }
+
     private static class JDBCEnqueueRecord implements MessageEnqueueRecord
     {
         private final UUID _queueId;
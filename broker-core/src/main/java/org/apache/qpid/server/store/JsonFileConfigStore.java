@@ -24,13 +24,14 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -42,6 +43,7 @@ import java.util.Map;
 import java.util.UUID;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,16 +51,33 @@ import org.slf4j.LoggerFactory;
 import org.apache.qpid.server.configuration.BrokerProperties;
 import org.apache.qpid.server.model.ConfiguredObject;
 import org.apache.qpid.server.model.ConfiguredObjectJacksonModule;
+import org.apache.qpid.server.model.JsonSystemConfig;
 import org.apache.qpid.server.model.Model;
 import org.apache.qpid.server.store.handler.ConfiguredObjectRecordHandler;
 import org.apache.qpid.server.util.BaseAction;
 import org.apache.qpid.server.util.FileHelper;
 import org.apache.qpid.util.FileUtils;
 
+/**
+ * Configuration store which holds its records as a single JSON document.
+ *
+ * By default the whole document is rewritten on every change.  If the context variable
+ * {@link JsonSystemConfig#JSON_STORE_JOURNAL_COMPACTION_THRESHOLD} is positive, changes are instead appended to a
+ * journal beside the document, one line of JSON per change, and the document is rewritten, and the journal emptied,
+ * only once the journal holds that many changes, and whenever the store is opened.  Replaying the journal is
+ * idempotent, so a failure between rewriting the document and emptying the journal loses nothing, and a line left
+ * incomplete by a failure while appending is ignored.
+ */
 public class JsonFileConfigStore implements DurableConfigurationStore
 {
     private static final Logger _logger = LoggerFactory.getLogger(JsonFileConfigStore.class);
 
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String JOURNAL_OPERATION = "operation";
+    private static final String JOURNAL_RECORDS = "records";
+    private static final String JOURNAL_UPDATE = "update";
+    private static final String JOURNAL_REMOVE = "remove";
+
     private static final Comparator<Class<? extends ConfiguredObject>> CATEGORY_CLASS_COMPARATOR =
             new Comparator<Class<? extends ConfiguredObject>>()
             {
@@ -84,6 +103,7 @@ public class JsonFileConfigStore implements DurableConfigurationStore
     private final Map<UUID, ConfiguredObjectRecord> _objectsById = new HashMap<UUID, ConfiguredObjectRecord>();
     private final Map<String, List<UUID>> _idsByType = new HashMap<String, List<UUID>>();
     private final ObjectMapper _objectMapper;
+    private final ObjectWriter _journalWriter;
     private final Class<? extends ConfiguredObject> _rootClass;
     private final FileHelper _fileHelper;
 
@@ -95,6 +115,11 @@ public class JsonFileConfigStore implements DurableConfigurationStore
     private String _backupFileName;
     private String _tempFileName;
     private String _lockFileName;
+    private String _journalFileName;
+
+    private int _journalCompactionThreshold;
+    private FileChannel _journalChannel;
+    private int _journalEntries;
 
     private ConfiguredObject<?> _parent;
 
@@ -103,6 +128,7 @@ public class JsonFileConfigStore implements DurableConfigurationStore
 
         _objectMapper = ConfiguredObjectJacksonModule.newObjectMapper();
         _objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        _journalWriter = _objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
         _rootClass = rootClass;
         _fileHelper = new FileHelper();
     }
@@ -123,6 +149,9 @@ public class JsonFileConfigStore implements DurableConfigurationStore
         _classNameMapping = generateClassNameMap(_parent.getModel(), _rootClass);
         FileBasedSettings fileBasedSettings = (FileBasedSettings)_parent;
         setup(fileBasedSettings);
+        Integer journalCompactionThreshold =
+                _parent.getContextValue(Integer.class, JsonSystemConfig.JSON_STORE_JOURNAL_COMPACTION_THRESHOLD);
+        _journalCompactionThreshold = journalCompactionThreshold == null ? 0 : journalCompactionThreshold;
         load(overwrite, initialRecords);
     }
 
@@ -176,6 +205,7 @@ public class JsonFileConfigStore implements DurableConfigurationStore
             _configFileName = fileFromSettings.getName();
             _backupFileName = fileFromSettings.getName() + ".bak";
             _tempFileName = fileFromSettings.getName() + ".tmp";
+            _journalFileName = fileFromSettings.getName() + JOURNAL_SUFFIX;
 
             _lockFileName = fileFromSettings.getName() + ".lck";
         }
@@ -185,6 +215,7 @@ public class JsonFileConfigStore implements DurableConfigurationStore
             _configFileName = _name + ".json";
             _backupFileName = _name + ".bak";
             _tempFileName = _name + ".tmp";
+            _journalFileName = _name + JOURNAL_SUFFIX;
 
             _lockFileName = _name + ".lck";
         }
@@ -301,23 +332,25 @@ public class JsonFileConfigStore implements DurableConfigurationStore
                 records = configuredObjectRecordConverter.readFromJson(_rootClass, _parent, new FileReader(configFile));
             }
 
-            if(records.isEmpty())
+            for(ConfiguredObjectRecord record : records)
             {
-                records = Arrays.asList(initialRecords);
-                updated = true;
+                putRecord(record);
             }
 
-            for(ConfiguredObjectRecord record : records)
+            if(!overwrite)
+            {
+                updated = replayJournal();
+            }
+
+            if(_objectsById.isEmpty())
             {
-                _objectsById.put(record.getId(), record);
-                List<UUID> idsForType = _idsByType.get(record.getType());
-                if (idsForType == null)
+                for(ConfiguredObjectRecord record : initialRecords)
                 {
-                    idsForType = new ArrayList<>();
-                    _idsByType.put(record.getType(), idsForType);
+                    putRecord(record);
                 }
-                idsForType.add(record.getId());
+                updated = true;
             }
+
             if(updated)
             {
                 save();
@@ -366,8 +399,221 @@ public class JsonFileConfigStore implements DurableConfigurationStore
 
             idsForType.add(record.getId());
 
+            persist(JOURNAL_UPDATE, Collections.singletonList(record));
+        }
+    }
+
+    private void putRecord(final ConfiguredObjectRecord record)
+    {
+        if(_objectsById.put(record.getId(), record) == null)
+        {
+            List<UUID> idsForType = _idsByType.get(record.getType());
+            if(idsForType == null)
+            {
+                idsForType = new ArrayList<UUID>();
+                _idsByType.put(record.getType(), idsForType);
+            }
+            idsForType.add(record.getId());
+        }
+    }
+
+    private ConfiguredObjectRecord removeRecord(final UUID id)
+    {
+        ConfiguredObjectRecord record = _objectsById.remove(id);
+        if(record != null)
+        {
+            _idsByType.get(record.getType()).remove(id);
+        }
+        return record;
+    }
+
+    /**
+     * Records a change either by appending it to the journal or, if the journal is disabled or full, by rewriting
+     * the whole configuration file.
+     */
+    private void persist(final String operation, final Collection<ConfiguredObjectRecord> records)
+    {
+        if(_journalCompactionThreshold <= 0 || _journalEntries >= _journalCompactionThreshold)
+        {
             save();
         }
+        else
+        {
+            appendToJournal(operation, records);
+        }
+    }
+
+    private void appendToJournal(final String operation, final Collection<ConfiguredObjectRecord> records)
+    {
+        List<Object> journalRecords = new ArrayList<>(records.size());
+        for(ConfiguredObjectRecord record : records)
+        {
+            if(JOURNAL_REMOVE.equals(operation))
+            {
+                journalRecords.add(record.getId());
+            }
+            else
+            {
+                Map<String, Object> journalRecord = new LinkedHashMap<>();
+                journalRecord.put("id", record.getId());
+                journalRecord.put("type", record.getType());
+                journalRecord.put("attributes", record.getAttributes());
+                journalRecord.put("parents", record.getParents());
+                journalRecords.add(journalRecord);
+            }
+        }
+        Map<String, Object> journalEntry = new LinkedHashMap<>();
+        journalEntry.put(JOURNAL_OPERATION, operation);
+        journalEntry.put(JOURNAL_RECORDS, journalRecords);
+
+        Path journalFile = new File(_directoryName, _journalFileName).toPath();
+        long journalSize = -1l;
+        try
+        {
+            if(_journalChannel == null)
+            {
+                String posixFileAttributes = _parent.getContextValue(String.class, BrokerProperties.POSIX_FILE_PERMISSIONS);
+                _fileHelper.createNewFile(journalFile, posixFileAttributes);
+                _journalChannel = FileChannel.open(journalFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            journalSize = _journalChannel.size();
+
+            byte[] json = _journalWriter.writeValueAsBytes(journalEntry);
+            ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+            buffer.put(json);
+            buffer.put((byte) '\n');
+            buffer.flip();
+            while(buffer.hasRemaining())
+            {
+                _journalChannel.write(buffer);
+            }
+            _journalChannel.force(false);
+            _journalEntries++;
+        }
+        catch (IOException e)
+        {
+            if(journalSize >= 0l)
+            {
+                // remove any partial line, so that later changes are not appended to it
+                try
+                {
+                    _journalChannel.truncate(journalSize);
+                }
+                catch (IOException te)
+                {
+                    _logger.warn("Could not truncate configuration journal " + journalFile, te);
+                }
+            }
+            throw new StoreException("Cannot append to configuration journal " + journalFile, e);
+        }
+    }
+
+    /**
+     * Applies to the records loaded from the configuration file the changes recorded in the journal since the file
+     * was last written.
+     *
+     * @return true if any changes were applied
+     */
+    @SuppressWarnings("unchecked")
+    private boolean replayJournal() throws IOException
+    {
+        Path journalFile = new File(_directoryName, _journalFileName).toPath();
+        if(!Files.exists(journalFile))
+        {
+            return false;
+        }
+
+        byte[] journal = Files.readAllBytes(journalFile);
+        int lineStart = 0;
+        int replayed = 0;
+        for(int i = 0; i < journal.length; i++)
+        {
+            if(journal[i] == '\n')
+            {
+                if(i > lineStart)
+                {
+                    try
+                    {
+                        Map<String, Object> journalEntry = _objectMapper.readValue(journal, lineStart, i - lineStart, Map.class);
+                        replayJournalEntry(journalEntry);
+                        replayed++;
+                    }
+                    catch (IOException | RuntimeException e)
+                    {
+                        _logger.warn("Ignoring unreadable entry in configuration journal " + journalFile, e);
+                    }
+                }
+                lineStart = i + 1;
+            }
+        }
+        if(lineStart < journal.length)
+        {
+            _logger.warn("Ignoring incomplete final entry in configuration journal " + journalFile);
+        }
+        if(_logger.isDebugEnabled())
+        {
+            _logger.debug("Replayed " + replayed + " entries from configuration journal " + journalFile);
+        }
+        return replayed > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void replayJournalEntry(final Map<String, Object> journalEntry)
+    {
+        final String operation = (String) journalEntry.get(JOURNAL_OPERATION);
+        final List<Object> journalRecords = (List<Object>) journalEntry.get(JOURNAL_RECORDS);
+        for(Object journalRecord : journalRecords)
+        {
+            if(JOURNAL_REMOVE.equals(operation))
+            {
+                removeRecord(UUID.fromString((String) journalRecord));
+            }
+            else if(JOURNAL_UPDATE.equals(operation))
+            {
+                Map<String, Object> recordMap = (Map<String, Object>) journalRecord;
+                Map<String, UUID> parents = new HashMap<>();
+                Map<String, Object> parentIds = (Map<String, Object>) recordMap.get("parents");
+                if(parentIds != null)
+                {
+                    for(Map.Entry<String, Object> parent : parentIds.entrySet())
+                    {
+                        parents.put(parent.getKey(), UUID.fromString((String) parent.getValue()));
+                    }
+                }
+                ConfiguredObjectRecord record =
+                        new ConfiguredObjectRecordImpl(UUID.fromString((String) recordMap.get("id")),
+                                                       (String) recordMap.get("type"),
+                                                       (Map<String, Object>) recordMap.get("attributes"),
+                                                       parents);
+                putRecord(record);
+            }
+            else
+            {
+                throw new StoreException("Unknown operation in configuration journal: " + operation);
+            }
+        }
+    }
+
+    private void resetJournal()
+    {
+        Path journalFile = new File(_directoryName, _journalFileName).toPath();
+        try
+        {
+            if(_journalChannel != null)
+            {
+                _journalChannel.truncate(0l);
+                _journalChannel.force(false);
+            }
+            else
+            {
+                Files.deleteIfExists(journalFile);
+            }
+            _journalEntries = 0;
+        }
+        catch (IOException e)
+        {
+            throw new StoreException("Cannot reset configuration journal " + journalFile, e);
+        }
     }
 
     private UUID getRootId()
@@ -417,6 +663,8 @@ public class JsonFileConfigStore implements DurableConfigurationStore
         {
             throw new StoreException("Cannot save to store", e);
         }
+        // every change in the journal is now in the configuration file
+        resetJournal();
     }
 
     private Map<String, Object> build(final Class<? extends ConfiguredObject> type, final UUID id)
@@ -498,16 +746,17 @@ public class JsonFileConfigStore implements DurableConfigurationStore
         }
 
         List<UUID> removedIds = new ArrayList<UUID>();
+        List<ConfiguredObjectRecord> removedRecords = new ArrayList<ConfiguredObjectRecord>();
         for(ConfiguredObjectRecord requestedRecord : objects)
         {
-            ConfiguredObjectRecord record = _objectsById.remove(requestedRecord.getId());
+            ConfiguredObjectRecord record = removeRecord(requestedRecord.getId());
             if(record != null)
             {
                 removedIds.add(record.getId());
-                _idsByType.get(record.getType()).remove(record.getId());
+                removedRecords.add(record);
             }
         }
-        save();
+        persist(JOURNAL_REMOVE, removedRecords);
         return removedIds.toArray(new UUID[removedIds.size()]);
     }
 
@@ -552,24 +801,15 @@ public class JsonFileConfigStore implements DurableConfigurationStore
                 throw new StoreException("Cannot update record of unknown type " + type);
             }
         }
+        List<ConfiguredObjectRecord> updatedRecords = new ArrayList<ConfiguredObjectRecord>(records.length);
         for(ConfiguredObjectRecord record : records)
         {
             record = new ConfiguredObjectRecordImpl(record);
-            final UUID id = record.getId();
-            final String type = record.getType();
-            if(_objectsById.put(id, record) == null)
-            {
-                List<UUID> idsForType = _idsByType.get(type);
-                if(idsForType == null)
-                {
-                    idsForType = new ArrayList<UUID>();
-                    _idsByType.put(type, idsForType);
-                }
-                idsForType.add(id);
-            }
+            putRecord(record);
+            updatedRecords.add(record);
         }
 
-        save();
+        persist(JOURNAL_UPDATE, updatedRecords);
     }
 
     @Override
@@ -577,6 +817,7 @@ public class JsonFileConfigStore implements DurableConfigurationStore
     {
         try
         {
+            closeJournal();
             releaseFileLock();
         }
         finally
@@ -604,12 +845,37 @@ public class JsonFileConfigStore implements DurableConfigurationStore
             {
                 _logger.info("Failed to delete the store at location " + storePath);
             }
+            File journalFile = new File(storePath + JOURNAL_SUFFIX);
+            if (journalFile.isFile() && !journalFile.delete())
+            {
+                _logger.info("Failed to delete the store journal at location " + journalFile);
+            }
         }
 
         _configFileName = null;
         _directoryName = null;
     }
 
+    private void closeJournal()
+    {
+        if (_journalChannel != null)
+        {
+            try
+            {
+                _journalChannel.close();
+            }
+            catch (IOException e)
+            {
+                _logger.warn("Failed to close configuration journal", e);
+            }
+            finally
+            {
+                _journalChannel = null;
+                _journalEntries = 0;
+            }
+        }
+    }
+
     private void releaseFileLock()
     {
         if (_fileLock != null)
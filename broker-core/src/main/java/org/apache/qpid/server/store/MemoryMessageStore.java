@@ -64,6 +64,7 @@ public class MemoryMessageStore implements MessageStore
         @Override
         public ListenableFuture<Void> commitTranAsync()
         {
+            commitTran();
             return Futures.immediateFuture(null);
         }
 
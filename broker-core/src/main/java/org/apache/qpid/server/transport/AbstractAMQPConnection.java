@@ -497,6 +497,12 @@ public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C>
         return getDataDeliveryStatistics().getTotal();
     }
 
+    @Override
+    public long getBytesPendingOut()
+    {
+        return _network instanceof NonBlockingConnection ? ((NonBlockingConnection) _network).getBytesPending() : 0L;
+    }
+
     @Override
     public long getMessagesIn()
     {
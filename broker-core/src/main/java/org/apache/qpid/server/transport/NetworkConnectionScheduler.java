@@ -38,20 +38,30 @@ public class NetworkConnectionScheduler
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(NetworkConnectionScheduler.class);
     private final ThreadFactory _factory;
-    private volatile SelectorThread _selectorThread;
+    private volatile SelectorThread[] _selectorThreads;
     private volatile ThreadPoolExecutor _executor;
     private final AtomicInteger _running = new AtomicInteger();
     private final int _poolSizeMinimum;
     private final int _poolSizeMaximum;
     private final long _threadKeepAliveTimeout;
     private final String _name;
+    private final int _numberOfSelectors;
 
     public NetworkConnectionScheduler(final String name,
                                       int threadPoolSizeMinimum,
                                       int threadPoolSizeMaximum,
                                       long threadKeepAliveTimeout)
     {
-        this(name, threadPoolSizeMinimum, threadPoolSizeMaximum, threadKeepAliveTimeout, new ThreadFactory()
+        this(name, 1, threadPoolSizeMinimum, threadPoolSizeMaximum, threadKeepAliveTimeout);
+    }
+
+    public NetworkConnectionScheduler(final String name,
+                                      int numberOfSelectors,
+                                      int threadPoolSizeMinimum,
+                                      int threadPoolSizeMaximum,
+                                      long threadKeepAliveTimeout)
+    {
+        this(name, numberOfSelectors, threadPoolSizeMinimum, threadPoolSizeMaximum, threadKeepAliveTimeout, new ThreadFactory()
                                     {
                                         final AtomicInteger _count = new AtomicInteger();
 
@@ -71,7 +81,22 @@ public class NetworkConnectionScheduler
                                       long threadKeepAliveTimeout,
                                       ThreadFactory factory)
     {
+        this(name, 1, threadPoolSizeMinimum, threadPoolSizeMaximum, threadKeepAliveTimeout, factory);
+    }
+
+    public NetworkConnectionScheduler(String name,
+                                      int numberOfSelectors,
+                                      int threadPoolSizeMinimum,
+                                      int threadPoolSizeMaximum,
+                                      long threadKeepAliveTimeout,
+                                      ThreadFactory factory)
+    {
+        if (numberOfSelectors < 1)
+        {
+            throw new IllegalArgumentException("Number of selectors " + numberOfSelectors + " must be greater than zero");
+        }
         _name = name;
+        _numberOfSelectors = numberOfSelectors;
         _poolSizeMaximum = threadPoolSizeMaximum;
         _poolSizeMinimum = threadPoolSizeMinimum;
         _threadKeepAliveTimeout = threadKeepAliveTimeout;
@@ -83,8 +108,18 @@ public class NetworkConnectionScheduler
     {
         try
         {
-            _selectorThread = new SelectorThread(this);
-            _selectorThread.start();
+            SelectorThread[] selectorThreads = new SelectorThread[_numberOfSelectors];
+            for (int i = 0; i < _numberOfSelectors; i++)
+            {
+                selectorThreads[i] = _numberOfSelectors == 1
+                        ? new SelectorThread(this)
+                        : new SelectorThread(this, "Selector-" + _name + "-" + i);
+            }
+            _selectorThreads = selectorThreads;
+            for (SelectorThread selectorThread : selectorThreads)
+            {
+                selectorThread.start();
+            }
             _executor = new ThreadPoolExecutor(_poolSizeMinimum, _poolSizeMaximum,
                                                _threadKeepAliveTimeout, TimeUnit.MINUTES,
                                                new LinkedBlockingQueue<Runnable>(), _factory);
@@ -142,6 +177,11 @@ public class NetworkConnectionScheduler
                 rerun = false;
                 boolean closed = connection.doWork();
 
+                if (closed)
+                {
+                    unassignSelectorThread(connection);
+                }
+
                 if (!closed && connection.getScheduler() == this)
                 {
 
@@ -158,7 +198,7 @@ public class NetworkConnectionScheduler
                     }
                     else
                     {
-                        _selectorThread.addConnection(connection);
+                        addConnection(connection);
                     }
                 }
                 else if(connection.getScheduler() != this)
@@ -177,9 +217,12 @@ public class NetworkConnectionScheduler
 
     public void close()
     {
-        if(_selectorThread != null)
+        if(_selectorThreads != null)
         {
-            _selectorThread.close();
+            for (SelectorThread selectorThread : _selectorThreads)
+            {
+                selectorThread.close();
+            }
         }
         if(_executor != null)
         {
@@ -193,29 +236,137 @@ public class NetworkConnectionScheduler
         return _name;
     }
 
+    public int getNumberOfSelectors()
+    {
+        return _numberOfSelectors;
+    }
+
     public void addAcceptingSocket(final ServerSocketChannel serverSocket,
                                    final NonBlockingNetworkTransport nonBlockingNetworkTransport)
     {
-        _selectorThread.addAcceptingSocket(serverSocket, nonBlockingNetworkTransport);
+        _selectorThreads[0].addAcceptingSocket(serverSocket, nonBlockingNetworkTransport);
     }
 
     public void cancelAcceptingSocket(final ServerSocketChannel serverSocket)
     {
-        _selectorThread.cancelAcceptingSocket(serverSocket);
+        _selectorThreads[0].cancelAcceptingSocket(serverSocket);
     }
 
     public void addConnection(final NonBlockingConnection connection)
     {
-        _selectorThread.addConnection(connection);
+        SelectorThread selectorThread = connection.getSelectorThread();
+        if (selectorThread == null || !isOwnSelectorThread(selectorThread))
+        {
+            selectorThread = getLeastLoadedSelectorThread();
+            selectorThread.connectionAssigned();
+            connection.setSelectorThread(selectorThread);
+        }
+        selectorThread.addConnection(connection);
     }
 
     public void wakeup()
     {
-        _selectorThread.wakeup();
+        for (SelectorThread selectorThread : getSelectorThreads())
+        {
+            selectorThread.wakeup();
+        }
+    }
+
+    public void wakeup(final NonBlockingConnection connection)
+    {
+        SelectorThread selectorThread = connection.getSelectorThread();
+        if (selectorThread != null && isOwnSelectorThread(selectorThread))
+        {
+            selectorThread.wakeup();
+        }
+        else
+        {
+            wakeup();
+        }
     }
 
     public void removeConnection(final NonBlockingConnection connection)
     {
-        _selectorThread.removeConnection(connection);
+        SelectorThread selectorThread = connection.getSelectorThread();
+        if (selectorThread != null && isOwnSelectorThread(selectorThread))
+        {
+            selectorThread.removeConnection(connection);
+            unassignSelectorThread(connection);
+        }
+    }
+
+    public long getSelectLoopCount()
+    {
+        long total = 0L;
+        for (SelectorThread selectorThread : getSelectorThreads())
+        {
+            total += selectorThread.getSelectLoopCount();
+        }
+        return total;
+    }
+
+    public long getSelectLoopTime()
+    {
+        long total = 0L;
+        for (SelectorThread selectorThread : getSelectorThreads())
+        {
+            total += selectorThread.getSelectLoopTime();
+        }
+        return total;
+    }
+
+    public long getReadyKeyCount()
+    {
+        long total = 0L;
+        for (SelectorThread selectorThread : getSelectorThreads())
+        {
+            total += selectorThread.getReadyKeyCount();
+        }
+        return total;
+    }
+
+    public int getMaximumSelectorConnectionCount()
+    {
+        int max = 0;
+        for (SelectorThread selectorThread : getSelectorThreads())
+        {
+            max = Math.max(max, selectorThread.getAssignedConnectionCount());
+        }
+        return max;
+    }
+
+    private SelectorThread[] getSelectorThreads()
+    {
+        SelectorThread[] selectorThreads = _selectorThreads;
+        return selectorThreads == null ? new SelectorThread[0] : selectorThreads;
+    }
+
+    private void unassignSelectorThread(final NonBlockingConnection connection)
+    {
+        SelectorThread selectorThread = connection.getSelectorThread();
+        if (selectorThread != null && isOwnSelectorThread(selectorThread))
+        {
+            connection.setSelectorThread(null);
+            selectorThread.connectionUnassigned();
+        }
+    }
+
+    private boolean isOwnSelectorThread(final SelectorThread selectorThread)
+    {
+        return selectorThread.getScheduler() == this;
+    }
+
+    private SelectorThread getLeastLoadedSelectorThread()
+    {
+        SelectorThread[] selectorThreads = _selectorThreads;
+        SelectorThread leastLoaded = selectorThreads[0];
+        for (int i = 1; i < selectorThreads.length; i++)
+        {
+            if (selectorThreads[i].getAssignedConnectionCount() < leastLoaded.getAssignedConnectionCount())
+            {
+                leastLoaded = selectorThreads[i];
+            }
+        }
+        return leastLoaded;
     }
 }
@@ -28,6 +28,7 @@ import java.security.cert.Certificate;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.model.port.AmqpPort;
@@ -49,7 +50,11 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
     private final SocketChannel _socketChannel;
     private NonBlockingConnectionDelegate _delegate;
     private NetworkConnectionScheduler _scheduler;
+    private volatile SelectorThread _selectorThread;
     private final ConcurrentLinkedQueue<QpidByteBuffer> _buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong _bytesPending = new AtomicLong();
+    /** The number of bytes of the buffer at the head of _buffers already deducted from _bytesPending */
+    private int _headBytesWritten;
 
     private final String _remoteSocketAddress;
     private final AtomicBoolean _closed = new AtomicBoolean(false);
@@ -60,10 +65,15 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
     private volatile int _maxWriteIdle;
 
     private volatile boolean _fullyWritten = true;
+    private boolean _blockedForWriting;
 
     private boolean _partialRead = false;
 
     private final AmqpPort _port;
+    private final int _writeSpinCount;
+    private final int _gatheringWriteMaxBuffers;
+    private final long _writeBufferHighWatermark;
+    private final long _writeBufferLowWatermark;
     private boolean _unexpectedByteBufferSizeUsed;
 
     public NonBlockingConnection(SocketChannel socketChannel,
@@ -81,13 +91,17 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
 
         _remoteSocketAddress = _socketChannel.socket().getRemoteSocketAddress().toString();
         _port = port;
+        _writeSpinCount = port.getWriteSpinCount();
+        _gatheringWriteMaxBuffers = port.getGatheringWriteMaxBuffers();
+        _writeBufferHighWatermark = port.getWriteBufferHighWatermark();
+        _writeBufferLowWatermark = Math.min(port.getWriteBufferLowWatermark(), _writeBufferHighWatermark);
 
         protocolEngine.setWorkListener(new Action<ProtocolEngine>()
         {
             @Override
             public void performAction(final ProtocolEngine object)
             {
-                _scheduler.wakeup();
+                _scheduler.wakeup(NonBlockingConnection.this);
             }
         });
 
@@ -135,7 +149,7 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
         if(_closed.compareAndSet(false,true))
         {
             _protocolEngine.notifyWork();
-            _scheduler.wakeup();
+            _scheduler.wakeup(this);
         }
     }
 
@@ -197,6 +211,15 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
         return !_fullyWritten;
     }
 
+    /**
+     * @return the number of bytes sent by the protocol layer and not yet written to the network or, for encrypted
+     * connections, not yet encrypted
+     */
+    public long getBytesPending()
+    {
+        return _bytesPending.get();
+    }
+
     public boolean isStateChanged()
     {
         return _protocolEngine.hasWork();
@@ -220,10 +243,10 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
 
                 _protocolEngine.processPending();
 
-                _protocolEngine.setTransportBlockedForWriting(!doWrite());
+                _protocolEngine.setTransportBlockedForWriting(isBlockedForWriting(doWrite()));
                 boolean dataRead = doRead();
                 _fullyWritten = doWrite();
-                _protocolEngine.setTransportBlockedForWriting(!_fullyWritten);
+                _protocolEngine.setTransportBlockedForWriting(isBlockedForWriting(_fullyWritten));
 
                 if (dataRead || (_delegate.needsWork() && _delegate.getNetInputBuffer().position() != 0))
                 {
@@ -362,7 +385,7 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
 
     long writeToTransport(Collection<QpidByteBuffer> buffers) throws IOException
     {
-        long written  = QpidByteBuffer.write(_socketChannel, buffers);
+        long written  = QpidByteBuffer.write(_socketChannel, buffers, _gatheringWriteMaxBuffers);
         if (LOGGER.isDebugEnabled())
         {
             LOGGER.debug("Written " + written + " bytes");
@@ -370,21 +393,65 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
         return written;
     }
 
+    /**
+     * Writes pending output, repeating the write up to the write spin count whilst the socket continues to accept
+     * data, so that a backlog larger than a single gathering write can be drained within one I/O cycle.
+     */
     private boolean doWrite() throws IOException
     {
-        final boolean result = _delegate.doWrite(_buffers);
-        while(!_buffers.isEmpty())
+        boolean fullyWritten;
+        int spins = 0;
+        do
+        {
+            fullyWritten = _delegate.doWrite(_buffers);
+        }
+        while (releaseWrittenBuffers() > 0L && !fullyWritten && ++spins < _writeSpinCount);
+        return fullyWritten;
+    }
+
+    private long releaseWrittenBuffers()
+    {
+        long written = 0L;
+        QpidByteBuffer buf;
+        while((buf = _buffers.peek()) != null)
         {
-            QpidByteBuffer buf = _buffers.peek();
+            written += buf.position() - _headBytesWritten;
             if(buf.hasRemaining())
             {
+                _headBytesWritten = buf.position();
                 break;
             }
+            _headBytesWritten = 0;
             _buffers.poll();
             buf.dispose();
         }
-        return result;
+        if (written != 0L)
+        {
+            _bytesPending.addAndGet(-written);
+        }
+        return written;
+    }
 
+    /**
+     * Sessions are blocked from producing once the pending output exceeds the high watermark, and remain blocked
+     * until it has drained to the low watermark.
+     */
+    private boolean isBlockedForWriting(final boolean fullyWritten)
+    {
+        long pending = _bytesPending.get();
+        if (fullyWritten)
+        {
+            _blockedForWriting = false;
+        }
+        else if (_blockedForWriting)
+        {
+            _blockedForWriting = pending > _writeBufferLowWatermark;
+        }
+        else
+        {
+            _blockedForWriting = pending > _writeBufferHighWatermark;
+        }
+        return _blockedForWriting;
     }
 
     protected int readFromNetwork() throws IOException
@@ -416,7 +483,8 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
         }
         else if (msg.remaining() > 0)
         {
-            _buffers.add(msg.duplicate());
+            _bytesPending.addAndGet(msg.remaining());
+            _buffers.add(msg.slice());
         }
         msg.position(msg.limit());
     }
@@ -442,6 +510,16 @@ public class NonBlockingConnection implements NetworkConnection, ByteBufferSende
         return _scheduler;
     }
 
+    SelectorThread getSelectorThread()
+    {
+        return _selectorThread;
+    }
+
+    void setSelectorThread(final SelectorThread selectorThread)
+    {
+        _selectorThread = selectorThread;
+    }
+
     public void processAmqpData(QpidByteBuffer applicationData)
     {
         _protocolEngine.received(applicationData);
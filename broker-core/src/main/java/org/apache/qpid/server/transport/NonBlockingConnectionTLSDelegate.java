@@ -45,6 +45,7 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
 
     private final SSLEngine _sslEngine;
     private final NonBlockingConnection _parent;
+    private final AmqpPort<?> _port;
     private final int _networkBufferSize;
     private SSLEngineResult _status;
     private final List<QpidByteBuffer> _encryptedOutput = new ArrayList<>();
@@ -59,6 +60,7 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
     public NonBlockingConnectionTLSDelegate(NonBlockingConnection parent, AmqpPort port)
     {
         _parent = parent;
+        _port = port;
         _sslEngine = createSSLEngine(port);
         _networkBufferSize = port.getNetworkBufferSize();
 
@@ -87,12 +89,15 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
         boolean readData = false;
         boolean tasksRun;
         int oldNetBufferPos;
+        long engineTime = 0L;
         do
         {
             int oldAppBufPos = _applicationBuffer.position();
             oldNetBufferPos = _netInputBuffer.position();
 
+            long startTime = System.nanoTime();
             _status = _netInputBuffer.decryptSSL(_sslEngine, _applicationBuffer);
+            engineTime += System.nanoTime() - startTime;
             if (_status.getStatus() == SSLEngineResult.Status.CLOSED)
             {
                 // KW If SSLEngine changes state to CLOSED, what will ever set _closed to true?
@@ -112,6 +117,7 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
 
         }
         while((_netInputBuffer.hasRemaining() && (_netInputBuffer.position()>oldNetBufferPos)) || tasksRun);
+        _port.registerTlsStatistics(0L, 0L, engineTime);
 
         if(_netInputBuffer.hasRemaining())
         {
@@ -129,7 +135,14 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
     {
         final int bufCount = bufferArray.size();
 
-        wrapBufferArray(bufferArray);
+        // only encrypt further application data once the previously encrypted output has been written, so that
+        // unwritten output remains queued on the connection where it counts towards its write buffer watermarks
+        writeEncryptedOutput();
+        if(_encryptedOutput.isEmpty())
+        {
+            wrapBufferArray(bufferArray);
+            writeEncryptedOutput();
+        }
 
         boolean bufsSent = true;
         final Iterator<QpidByteBuffer> itr = bufferArray.iterator();
@@ -140,6 +153,11 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
             bufsSent = !buf.hasRemaining();
         }
 
+        return bufsSent && _encryptedOutput.isEmpty();
+    }
+
+    private void writeEncryptedOutput() throws IOException
+    {
         if(!_encryptedOutput.isEmpty())
         {
             _parent.writeToTransport(_encryptedOutput);
@@ -159,7 +177,6 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
                 }
             }
         }
-        return bufsSent && _encryptedOutput.isEmpty();
     }
 
     protected void restoreApplicationBufferForWrite()
@@ -199,6 +216,9 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
     private void wrapBufferArray(Collection<QpidByteBuffer> bufferArray) throws SSLException
     {
         boolean encrypted;
+        long records = 0L;
+        long recordBytes = 0L;
+        long engineTime = 0L;
         do
         {
             if(_sslEngine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NEED_UNWRAP)
@@ -217,8 +237,16 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
                     _netOutputBuffer = QpidByteBuffer.allocateDirect(_networkBufferSize);
                 }
 
+                // the engine gathers the pending buffers, so small buffers are encrypted into a single record
+                long startTime = System.nanoTime();
                 _status = QpidByteBuffer.encryptSSL(_sslEngine, bufferArray, _netOutputBuffer);
+                engineTime += System.nanoTime() - startTime;
                 encrypted = _status.bytesProduced() > 0;
+                if(encrypted)
+                {
+                    records++;
+                    recordBytes += _status.bytesProduced();
+                }
                 runSSLEngineTasks(_status);
                 if(encrypted && _netOutputBuffer.remaining() < _sslEngine.getSession().getPacketBufferSize())
                 {
@@ -247,6 +275,7 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
 
         }
 
+        _port.registerTlsStatistics(records, recordBytes, engineTime);
     }
 
     private boolean runSSLEngineTasks(final SSLEngineResult status)
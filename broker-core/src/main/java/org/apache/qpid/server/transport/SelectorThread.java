@@ -32,6 +32,8 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,14 +60,31 @@ class SelectorThread extends Thread
     private final NetworkConnectionScheduler _scheduler;
     private long _nextTimeout;
 
+    /** Number of connections assigned to this selector by the scheduler, used for least-load assignment */
+    private final AtomicInteger _assignedConnectionCount = new AtomicInteger();
+
+    private final AtomicLong _selectLoopCount = new AtomicLong();
+    private final AtomicLong _selectLoopTime = new AtomicLong();
+    private final AtomicLong _readyKeyCount = new AtomicLong();
+
     SelectorThread(final NetworkConnectionScheduler scheduler) throws IOException
     {
-        super("Selector-" + scheduler.getName());
+        this(scheduler, "Selector-" + scheduler.getName());
+    }
+
+    SelectorThread(final NetworkConnectionScheduler scheduler, final String name) throws IOException
+    {
+        super(name);
 
         _selector = Selector.open();
         _scheduler = scheduler;
     }
 
+    NetworkConnectionScheduler getScheduler()
+    {
+        return _scheduler;
+    }
+
     public void addAcceptingSocket(final ServerSocketChannel socketChannel,
                                    final NonBlockingNetworkTransport nonBlockingNetworkTransport)
     {
@@ -128,6 +147,8 @@ class SelectorThread extends Thread
                     break;
                 }
 
+                long loopStartTime = System.nanoTime();
+
                 runTasks();
 
                 List<NonBlockingConnection> toBeScheduled = processSelectionKeys();
@@ -140,6 +161,9 @@ class SelectorThread extends Thread
                 {
                     _scheduler.schedule(connection);
                 }
+
+                _selectLoopCount.incrementAndGet();
+                _selectLoopTime.addAndGet(System.nanoTime() - loopStartTime);
             }
         }
         finally
@@ -228,6 +252,7 @@ class SelectorThread extends Thread
         List<NonBlockingConnection> toBeScheduled = new ArrayList<>();
 
         Set<SelectionKey> selectionKeys = _selector.selectedKeys();
+        _readyKeyCount.addAndGet(selectionKeys.size());
         for (SelectionKey key : selectionKeys)
         {
             if(key.isAcceptable())
@@ -294,6 +319,45 @@ class SelectorThread extends Thread
         _selector.wakeup();
     }
 
+    int getAssignedConnectionCount()
+    {
+        return _assignedConnectionCount.get();
+    }
+
+    void connectionAssigned()
+    {
+        _assignedConnectionCount.incrementAndGet();
+    }
+
+    void connectionUnassigned()
+    {
+        _assignedConnectionCount.decrementAndGet();
+    }
+
+    /**
+     * @return the number of times this thread has returned from select() and processed the ready keys
+     */
+    long getSelectLoopCount()
+    {
+        return _selectLoopCount.get();
+    }
+
+    /**
+     * @return the total time in nanoseconds spent processing selected keys, excluding time blocked in select()
+     */
+    long getSelectLoopTime()
+    {
+        return _selectLoopTime.get();
+    }
+
+    /**
+     * @return the total number of keys found ready across all wakeups
+     */
+    long getReadyKeyCount()
+    {
+        return _readyKeyCount.get();
+    }
+
     public void close()
     {
         _closed.set(true);
@@ -72,8 +72,8 @@ class TCPandSSLTransport implements AcceptingTransport
 
         long threadPoolKeepAliveTimeout = _port.getContextValue(Long.class, AmqpPort.PORT_AMQP_THREAD_POOL_KEEP_ALIVE_TIMEOUT);
 
-        _scheduler = new NetworkConnectionScheduler("Port-"+_port.getName(), _port.getThreadPoolMinimum(),
-                _port.getThreadPoolMaximum(), threadPoolKeepAliveTimeout);
+        _scheduler = new NetworkConnectionScheduler("Port-"+_port.getName(), _port.getNumberOfSelectors(),
+                _port.getThreadPoolMinimum(), _port.getThreadPoolMaximum(), threadPoolKeepAliveTimeout);
         _scheduler.start();
         _networkTransport = new NonBlockingNetworkTransport(protocolEngineFactory,
                                                             encryptionSet, _scheduler, _port);
@@ -86,6 +86,12 @@ class TCPandSSLTransport implements AcceptingTransport
         return _networkTransport.getAcceptingPort();
     }
 
+    @Override
+    public NetworkConnectionScheduler getNetworkConnectionScheduler()
+    {
+        return _scheduler;
+    }
+
     @Override
     public void close()
     {
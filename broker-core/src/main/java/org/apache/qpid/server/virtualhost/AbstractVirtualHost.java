@@ -83,6 +83,7 @@ import org.apache.qpid.server.queue.QueueConsumer;
 import org.apache.qpid.server.queue.QueueEntry;
 import org.apache.qpid.server.security.SecurityManager;
 import org.apache.qpid.server.stats.StatisticsCounter;
+import org.apache.qpid.server.stats.StripedLongCounter;
 import org.apache.qpid.server.store.ConfiguredObjectRecord;
 import org.apache.qpid.server.store.DurableConfigurationStore;
 import org.apache.qpid.server.store.Event;
@@ -127,6 +128,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
     private static final int HOUSEKEEPING_SHUTDOWN_TIMEOUT = 5;
 
     private ScheduledThreadPoolExecutor _houseKeepingTaskExecutor;
+    private DeliveryScheduler _deliveryScheduler;
 
     private final Broker<?> _broker;
 
@@ -135,6 +137,8 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
     private final SystemNodeRegistry _systemNodeRegistry = new SystemNodeRegistry();
 
     private final StatisticsCounter _messagesDelivered, _dataDelivered, _messagesReceived, _dataReceived;
+    private final StripedLongCounter _convertedMessageCacheHits = new StripedLongCounter();
+    private final StripedLongCounter _convertedMessageCacheMisses = new StripedLongCounter();
 
     private final Map<String, LinkRegistry> _linkRegistry = new HashMap<String, LinkRegistry>();
     private AtomicBoolean _blocked = new AtomicBoolean();
@@ -201,7 +205,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
     private MessageDestination _defaultDestination;
 
     private MessageStore _messageStore;
-    private MessageStoreRecoverer _messageStoreRecoverer;
+    private volatile MessageStoreRecoverer _messageStoreRecoverer;
     private final FileSystemSpaceChecker _fileSystemSpaceChecker;
     private int _fileSystemMaxUsagePercent;
     private Collection<VirtualHostLogger> _virtualHostLoggersToClose;
@@ -598,6 +602,14 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         }
     }
 
+    protected void shutdownDeliveryScheduler()
+    {
+        if(_deliveryScheduler != null)
+        {
+            _deliveryScheduler.close(HOUSEKEEPING_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+        }
+    }
+
     protected void removeHouseKeepingTasks()
     {
         BlockingQueue<Runnable> taskQueue = _houseKeepingTaskExecutor.getQueue();
@@ -623,10 +635,14 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         return _houseKeepingTaskExecutor.schedule(task, delay, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Executes a queue delivery task on the virtual host's delivery scheduler, rather than on the housekeeping
+     * executor, so that delivery is not held up behind housekeeping.
+     */
     @Override
     public void executeTask(final String name, final Runnable task, AccessControlContext context)
     {
-        _houseKeepingTaskExecutor.execute(new HouseKeepingTask(name, this, context)
+        _deliveryScheduler.execute(new HouseKeepingTask(name, this, context)
         {
             @Override
             public void execute()
@@ -662,6 +678,11 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         return _houseKeepingTaskExecutor.getActiveCount();
     }
 
+    public DeliveryScheduler getDeliveryScheduler()
+    {
+        return _deliveryScheduler;
+    }
+
     @Override
     public List<String> getEnabledConnectionValidators()
     {
@@ -920,6 +941,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
     {
         _dtxRegistry.close();
         closeMessageStore();
+        shutdownDeliveryScheduler();
         shutdownHouseKeeping();
         if(_networkConnectionScheduler != null)
         {
@@ -1015,6 +1037,31 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         _broker.registerMessageReceived(messageSize, timestamp);
     }
 
+    @Override
+    public void registerMessageConversion(final boolean cacheHit)
+    {
+        if (cacheHit)
+        {
+            _convertedMessageCacheHits.add(1L);
+        }
+        else
+        {
+            _convertedMessageCacheMisses.add(1L);
+        }
+    }
+
+    @Override
+    public long getConvertedMessageCacheHits()
+    {
+        return _convertedMessageCacheHits.sum();
+    }
+
+    @Override
+    public long getConvertedMessageCacheMisses()
+    {
+        return _convertedMessageCacheMisses.sum();
+    }
+
     public StatisticsCounter getMessageReceiptStatistics()
     {
         return _messagesReceived;
@@ -1471,6 +1518,20 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         return getMessageDeliveryStatistics().getTotal();
     }
 
+    @Override
+    public long getRecoveredMessageInstances()
+    {
+        MessageStoreRecoverer recoverer = _messageStoreRecoverer;
+        return recoverer == null ? 0l : recoverer.getRecoveredMessageInstanceCount();
+    }
+
+    @Override
+    public long getQueuesRecovering()
+    {
+        MessageStoreRecoverer recoverer = _messageStoreRecoverer;
+        return recoverer == null ? 0l : recoverer.getRecoveringQueueCount();
+    }
+
     @Override
     public int getHousekeepingThreadCount()
     {
@@ -1506,6 +1567,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
             @Override
             public void run()
             {
+                shutdownDeliveryScheduler();
                 shutdownHouseKeeping();
                 if (_networkConnectionScheduler != null)
                 {
@@ -1898,6 +1960,10 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
             }
         };
 
+        _deliveryScheduler = new DeliveryScheduler("virtualhost-" + getName() + "-delivery",
+                                                   getContextValue(Integer.class, VIRTUALHOST_DELIVERY_THREAD_COUNT),
+                                                   SecurityManager.getSystemTaskSubject("Delivery", getPrincipal()));
+
         long threadPoolKeepAliveTimeout = getContextValue(Long.class, CONNECTION_THREAD_POOL_KEEP_ALIVE_TIMEOUT);
 
         final SuppressingInheritedAccessControlContextThreadFactory connectionThreadFactory =
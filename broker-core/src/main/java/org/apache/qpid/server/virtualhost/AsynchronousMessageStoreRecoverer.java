@@ -21,15 +21,19 @@
 package org.apache.qpid.server.virtualhost;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +43,7 @@ import org.apache.qpid.server.logging.messages.TransactionLogMessages;
 import org.apache.qpid.server.logging.subjects.MessageStoreLogSubject;
 import org.apache.qpid.server.message.MessageReference;
 import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.model.VirtualHost;
 import org.apache.qpid.server.plugin.MessageMetaDataType;
 import org.apache.qpid.server.queue.AMQQueue;
 import org.apache.qpid.server.queue.QueueEntry;
@@ -60,7 +65,7 @@ import org.apache.qpid.transport.util.Functions;
 public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
 {
     private static final Logger _logger = LoggerFactory.getLogger(AsynchronousMessageStoreRecoverer.class);
-    private AsynchronousRecoverer _asynchronousRecoverer;
+    private volatile AsynchronousRecoverer _asynchronousRecoverer;
 
     @Override
     public void recover(final VirtualHostImpl virtualHost)
@@ -79,9 +84,23 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         }
     }
 
+    @Override
+    public long getRecoveredMessageInstanceCount()
+    {
+        return _asynchronousRecoverer == null ? 0l : _asynchronousRecoverer._recoveredMessageInstances.get();
+    }
+
+    @Override
+    public int getRecoveringQueueCount()
+    {
+        return _asynchronousRecoverer == null ? 0 : _asynchronousRecoverer._recoveringQueues.size();
+    }
+
     private static class AsynchronousRecoverer
     {
         public static final int THREAD_POOL_SHUTDOWN_TIMEOUT = 5000;
+        /** Number of locks guarding the loading of messages, each guarding the message ids equal modulo the number */
+        private static final int MESSAGE_LOAD_LOCKS = 64;
         private final VirtualHostImpl<?, ?, ?> _virtualHost;
         private final EventLogger _eventLogger;
         private final MessageStore _store;
@@ -89,8 +108,11 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         private final long _maxMessageId;
         private final Set<AMQQueue<?>> _recoveringQueues = new CopyOnWriteArraySet<>();
         private final AtomicBoolean _recoveryComplete = new AtomicBoolean();
-        private final Map<Long, MessageReference<? extends ServerMessage<?>>> _recoveredMessages = new HashMap<>();
-        private final ExecutorService _queueRecoveryExecutor = Executors.newCachedThreadPool();
+        private final ConcurrentMap<Long, MessageReference<? extends ServerMessage<?>>> _recoveredMessages =
+                new ConcurrentHashMap<>();
+        private final Object[] _messageLoadLocks = new Object[MESSAGE_LOAD_LOCKS];
+        private final AtomicLong _recoveredMessageInstances = new AtomicLong();
+        private final ExecutorService _queueRecoveryExecutor;
         private final MessageStore.MessageStoreReader _storeReader;
         private AtomicBoolean _continueRecovery = new AtomicBoolean(true);
 
@@ -105,6 +127,26 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
             _maxMessageId = _store.getNextMessageId();
             _recoveringQueues.addAll(_virtualHost.getQueues());
 
+            for (int i = 0; i < MESSAGE_LOAD_LOCKS; i++)
+            {
+                _messageLoadLocks[i] = new Object();
+            }
+
+            // queues beyond the number of threads wait their turn, rather than each having a thread of its own
+            Integer threadCount = virtualHost.getContextValue(Integer.class, VirtualHost.VIRTUALHOST_RECOVERY_THREAD_COUNT);
+            threadCount = Math.min(threadCount == null || threadCount < 1 ? 1 : threadCount,
+                                   Math.max(1, _recoveringQueues.size()));
+            _queueRecoveryExecutor = Executors.newFixedThreadPool(threadCount, new ThreadFactory()
+            {
+                private final AtomicInteger _threadCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable runnable)
+                {
+                    return new Thread(runnable, "Queue Recoverer-" + _virtualHost.getName()
+                                                + "-" + _threadCount.incrementAndGet());
+                }
+            });
         }
 
         public void recover()
@@ -161,11 +203,14 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         private synchronized void completeRecovery()
         {
             // at this point nothing should be writing to the map of recovered messages
-            for (Map.Entry<Long,MessageReference<? extends ServerMessage<?>>> entry : _recoveredMessages.entrySet())
+            final Set<Long> recoveredMessageIds = new HashSet<>(_recoveredMessages.keySet());
+            for (MessageReference<? extends ServerMessage<?>> reference : _recoveredMessages.values())
             {
-                entry.getValue().release();
-                entry.setValue(null); // free up any memory associated with the reference object
+                reference.release();
             }
+            // free up any memory associated with the reference objects
+            _recoveredMessages.clear();
+
             final List<StoredMessage<?>> messagesToDelete = new ArrayList<>();
             getStoreReader().visitMessages(new MessageHandler()
             {
@@ -174,7 +219,7 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
                 {
 
                     long messageNumber = storedMessage.getMessageNumber();
-                    if (!_recoveredMessages.containsKey(messageNumber))
+                    if (!recoveredMessageIds.contains(messageNumber))
                     {
                         messagesToDelete.add(storedMessage);
                     }
@@ -193,28 +238,37 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
             }
 
             messagesToDelete.clear();
-            _recoveredMessages.clear();
+            recoveredMessageIds.clear();
             _storeReader.close();
         }
 
-        private synchronized ServerMessage<?> getRecoveredMessage(final long messageId)
+        private ServerMessage<?> getRecoveredMessage(final long messageId)
         {
             MessageReference<? extends ServerMessage<?>> ref = _recoveredMessages.get(messageId);
             if (ref == null)
             {
-                StoredMessage<?> message = _storeReader.getMessage(messageId);
-                if(message != null)
+                // a message must be created only once, as releasing a duplicate would remove it from the store;
+                // messages guarded by different locks are loaded in parallel
+                synchronized (_messageLoadLocks[(int) (messageId & (MESSAGE_LOAD_LOCKS - 1))])
                 {
-                    StorableMessageMetaData metaData = message.getMetaData();
+                    ref = _recoveredMessages.get(messageId);
+                    if (ref == null)
+                    {
+                        StoredMessage<?> message = _storeReader.getMessage(messageId);
+                        if(message != null)
+                        {
+                            StorableMessageMetaData metaData = message.getMetaData();
 
-                    @SuppressWarnings("rawtypes")
-                    MessageMetaDataType type = metaData.getType();
+                            @SuppressWarnings("rawtypes")
+                            MessageMetaDataType type = metaData.getType();
 
-                    @SuppressWarnings("unchecked")
-                    ServerMessage<?> serverMessage = type.createMessage(message);
+                            @SuppressWarnings("unchecked")
+                            ServerMessage<?> serverMessage = type.createMessage(message);
 
-                    ref = serverMessage.newReference();
-                    _recoveredMessages.put(messageId, ref);
+                            ref = serverMessage.newReference();
+                            _recoveredMessages.put(messageId, ref);
+                        }
+                    }
                 }
             }
             return ref == null ? null : ref.getMessage();
@@ -456,6 +510,7 @@ public class AsynchronousMessageStoreRecoverer implements MessageStoreRecoverer
 
                         _queue.recover(message, record);
                         _recoveredCount++;
+                        _recoveredMessageInstances.incrementAndGet();
                     }
                     else
                     {
@@ -0,0 +1,167 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.virtualhost;
+
+import java.security.PrivilegedAction;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.security.auth.Subject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the asynchronous delivery tasks of a virtual host's queues.
+ * <p>
+ * Delivery is kept apart from the housekeeping executor so that long running housekeeping, such as checking the
+ * status of every message on a deep queue, cannot delay delivery.  Tasks run on a work-stealing pool in FIFO order:
+ * a queue runner which reschedules itself goes to the back of its worker's local queue, and idle workers steal from
+ * busy ones, so deliveries for many queues spread across the workers without a single shared task queue.
+ */
+public class DeliveryScheduler
+{
+    private static final Logger _logger = LoggerFactory.getLogger(DeliveryScheduler.class);
+
+    private final String _name;
+    private final ForkJoinPool _pool;
+
+    public DeliveryScheduler(final String name, final int threadCount, final Subject subject)
+    {
+        _name = name;
+        _pool = new ForkJoinPool(threadCount, new WorkerThreadFactory(name, subject), null, true);
+    }
+
+    /**
+     * @throws java.util.concurrent.RejectedExecutionException if the scheduler has been closed
+     */
+    public void execute(final Runnable task)
+    {
+        _pool.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    task.run();
+                }
+                catch (Throwable t)
+                {
+                    // the pool would otherwise record the failure against the task and carry on silently
+                    _logger.error("Delivery task threw an exception:", t);
+
+                    final Thread.UncaughtExceptionHandler uncaughtExceptionHandler =
+                            Thread.getDefaultUncaughtExceptionHandler();
+                    if (uncaughtExceptionHandler != null)
+                    {
+                        uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), t);
+                    }
+                    else
+                    {
+                        Runtime.getRuntime().halt(1);
+                    }
+                }
+            }
+        });
+    }
+
+    public void close(final long timeout, final TimeUnit unit)
+    {
+        _pool.shutdown();
+        try
+        {
+            if (!_pool.awaitTermination(timeout, unit))
+            {
+                _logger.warn("Delivery scheduler {} did not terminate within {} {}", _name, timeout, unit);
+                _pool.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            _logger.warn("Interrupted during delivery scheduler shutdown:", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isTerminated()
+    {
+        return _pool.isTerminated();
+    }
+
+    public int getThreadCount()
+    {
+        return _pool.getParallelism();
+    }
+
+    public int getActiveThreadCount()
+    {
+        return _pool.getActiveThreadCount();
+    }
+
+    /**
+     * @return an estimate of the number of tasks waiting to run, whether submitted from outside the scheduler or
+     * rescheduled by its workers
+     */
+    public long getQueuedTaskCount()
+    {
+        return _pool.getQueuedTaskCount() + _pool.getQueuedSubmissionCount();
+    }
+
+    /**
+     * @return an estimate of the number of tasks taken by one worker from another's queue
+     */
+    public long getStealCount()
+    {
+        return _pool.getStealCount();
+    }
+
+    private static final class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory
+    {
+        private final String _threadNamePrefix;
+        private final Subject _subject;
+        private final AtomicInteger _threadId = new AtomicInteger();
+
+        private WorkerThreadFactory(final String threadNamePrefix, final Subject subject)
+        {
+            _threadNamePrefix = threadNamePrefix;
+            _subject = subject;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(final ForkJoinPool pool)
+        {
+            // as SuppressingInheritedAccessControlContextThreadFactory, workers must not inherit the caller's context
+            return Subject.doAsPrivileged(_subject, new PrivilegedAction<ForkJoinWorkerThread>()
+            {
+                @Override
+                public ForkJoinWorkerThread run()
+                {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName(_threadNamePrefix + "-" + _threadId.getAndIncrement());
+                    return thread;
+                }
+            }, null);
+        }
+    }
+}
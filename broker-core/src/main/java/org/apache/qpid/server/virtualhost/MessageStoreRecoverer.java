@@ -29,4 +29,14 @@ public interface MessageStoreRecoverer
      * completed, this method call has no effect.
      */
     void cancel();
+
+    /**
+     * @return the number of message instances restored to queues so far
+     */
+    long getRecoveredMessageInstanceCount();
+
+    /**
+     * @return the number of queues whose recovery has not yet completed
+     */
+    int getRecoveringQueueCount();
 }
@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +59,9 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
 {
     private static final Logger _logger = LoggerFactory.getLogger(SynchronousMessageStoreRecoverer.class);
 
+    private final AtomicLong _recoveredMessageInstances = new AtomicLong();
+    private volatile int _recoveringQueueCount;
+
     @Override
     public void recover(VirtualHostImpl virtualHost)
     {
@@ -69,7 +73,7 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         Map<String, Integer> queueRecoveries = new TreeMap<>();
         Map<Long, ServerMessage<?>> recoveredMessages = new HashMap<>();
         Map<Long, StoredMessage<?>> unusedMessages = new HashMap<>();
-
+        _recoveringQueueCount = virtualHost.getQueues().size();
 
         eventLogger.message(logSubject, MessageStoreMessages.RECOVERY_START());
 
@@ -77,7 +81,8 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
 
         eventLogger.message(logSubject, TransactionLogMessages.RECOVERY_START(null, false));
         storeReader.visitMessageInstances(new MessageInstanceVisitor(virtualHost, store, queueRecoveries,
-                                                               recoveredMessages, unusedMessages));
+                                                               recoveredMessages, unusedMessages,
+                                                               _recoveredMessageInstances));
         for(Map.Entry<String,Integer> entry : queueRecoveries.entrySet())
         {
             eventLogger.message(logSubject, TransactionLogMessages.RECOVERED(entry.getValue(), entry.getKey()));
@@ -94,6 +99,7 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
                 q.completeRecovery();
             }
         }
+        _recoveringQueueCount = 0;
 
         storeReader.visitDistributedTransactions(new DistributedTransactionVisitor(virtualHost, store, eventLogger,
                                                                              logSubject, recoveredMessages, unusedMessages));
@@ -120,6 +126,18 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         // No-op
     }
 
+    @Override
+    public long getRecoveredMessageInstanceCount()
+    {
+        return _recoveredMessageInstances.get();
+    }
+
+    @Override
+    public int getRecoveringQueueCount()
+    {
+        return _recoveringQueueCount;
+    }
+
     private static class MessageVisitor implements MessageHandler
     {
 
@@ -159,18 +177,21 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
         private final Map<String, Integer> _queueRecoveries;
         private final Map<Long, ServerMessage<?>> _recoveredMessages;
         private final Map<Long, StoredMessage<?>> _unusedMessages;
+        private final AtomicLong _recoveredMessageInstances;
 
         private MessageInstanceVisitor(final VirtualHostImpl virtualHost,
                                        final MessageStore store,
                                        final Map<String, Integer> queueRecoveries,
                                        final Map<Long, ServerMessage<?>> recoveredMessages,
-                                       final Map<Long, StoredMessage<?>> unusedMessages)
+                                       final Map<Long, StoredMessage<?>> unusedMessages,
+                                       final AtomicLong recoveredMessageInstances)
         {
             _virtualHost = virtualHost;
             _store = store;
             _queueRecoveries = queueRecoveries;
             _recoveredMessages = recoveredMessages;
             _unusedMessages = unusedMessages;
+            _recoveredMessageInstances = recoveredMessageInstances;
         }
 
         @Override
@@ -199,6 +220,7 @@ public class SynchronousMessageStoreRecoverer implements MessageStoreRecoverer
                     }
 
                     queue.recover(message, record);
+                    _recoveredMessageInstances.incrementAndGet();
 
                     _queueRecoveries.put(queueName, ++count);
                 }
@@ -111,4 +111,6 @@ public interface VirtualHostImpl< X extends VirtualHostImpl<X,Q,E>, Q extends AM
 
     String getLocalAddress(String routingAddress);
 
+    void registerMessageConversion(boolean cacheHit);
+
 }
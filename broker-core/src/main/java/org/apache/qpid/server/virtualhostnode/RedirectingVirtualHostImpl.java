@@ -293,6 +293,30 @@ class RedirectingVirtualHostImpl
         return 0;
     }
 
+    @Override
+    public long getRecoveredMessageInstances()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getQueuesRecovering()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getConvertedMessageCacheHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getConvertedMessageCacheMisses()
+    {
+        return 0;
+    }
+
     @Override
     public Collection<VirtualHostAlias> getAliases()
     {
@@ -475,6 +499,12 @@ class RedirectingVirtualHostImpl
         throwUnsupportedForRedirector();
     }
 
+    @Override
+    public void registerMessageConversion(final boolean cacheHit)
+    {
+        throwUnsupportedForRedirector();
+    }
+
     @Override
     public StatisticsCounter getMessageDeliveryStatistics()
     {
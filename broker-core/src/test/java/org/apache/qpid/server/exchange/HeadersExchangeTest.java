@@ -253,6 +253,87 @@ public class HeadersExchangeTest extends QpidTestCase
 
     }
 
+    public void testBindingsWithoutConditionsMatchAllMessages() throws Exception
+    {
+        AMQQueue q1 = createAndBind("Q1");
+        AMQQueue q2 = createAndBind("Q2", "X-match=any");
+        AMQQueue q3 = createAndBind("Q3", "F0000=Aardvark");
+
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0000")), q1, q2);
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0000=Aardvark")), q1, q2, q3);
+        routeAndTest(mockMessage(getArgsMapFromStrings()), q1, q2);
+    }
+
+    public void testRoutedQueuesInBindingOrder() throws Exception
+    {
+        AMQQueue q1 = createAndBind("Q1", "F0000=Aardvark", "F0001=Bear");
+        AMQQueue q2 = createAndBind("Q2", "F0001");
+        AMQQueue q3 = createAndBind("Q3", "F0000", "X-match=any");
+
+        List<? extends BaseQueue> results =
+                _exchange.route(mockMessage(getArgsMapFromStrings("F0000=Aardvark", "F0001=Bear")),
+                                "",
+                                InstanceProperties.EMPTY);
+        assertEquals("Unexpected routing order", Arrays.asList(q1, q2, q3), results);
+    }
+
+    public void testOnBindingUpdated() throws Exception
+    {
+        AMQQueue q1 = createAndBind("Q1", "F0000=Aardvark");
+        AMQQueue q2 = createAndBind("Q2", "F0001");
+
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0000=Aardvark")), q1);
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0001")), q2);
+
+        _exchange.replaceBinding("Q1", q1, getArgsMapFromStrings("F0001", "F0002=Cat"));
+
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0000=Aardvark")));
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0001")), q2);
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0001", "F0002=Cat")), q1, q2);
+
+        _exchange.replaceBinding("Q1", q1, getArgsMapFromStrings());
+
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0000=Aardvark")), q1);
+
+        _exchange.deleteBinding("Q1", q1);
+
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0000=Aardvark")));
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0001", "F0002=Cat")), q2);
+    }
+
+    public void testManyBindings() throws Exception
+    {
+        List<AMQQueue> queues = new ArrayList<AMQQueue>();
+        for (int i = 0; i < 100; i++)
+        {
+            queues.add(createAndBind("Q" + i, "type=order", "id=" + i));
+        }
+        AMQQueue anyQueue = createAndBind("any", "id=42", "region", "X-match=any");
+
+        routeAndTest(mockMessage(getArgsMapFromStrings("type=order", "id=42")), queues.get(42), anyQueue);
+        routeAndTest(mockMessage(getArgsMapFromStrings("type=trade", "id=42")), anyQueue);
+        routeAndTest(mockMessage(getArgsMapFromStrings("type=order", "id=7", "region=EU")), queues.get(7), anyQueue);
+        routeAndTest(mockMessage(getArgsMapFromStrings("type=order")));
+    }
+
+    public void testRoutingLatencyRecorded() throws Exception
+    {
+        AMQQueue q1 = createAndBind("Q1", "F0000");
+
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0000")), q1);
+        routeAndTest(mockMessage(getArgsMapFromStrings("F0001")));
+
+        long recorded = 0L;
+        for (long count : _exchange.getRoutingLatencyHistogram())
+        {
+            recorded += count;
+        }
+        assertEquals("Unexpected number of routing latencies recorded", 2L, recorded);
+        assertTrue("Median should not exceed maximum",
+                   _exchange.getRoutingTimeMedian() <= _exchange.getRoutingTimeMaximum());
+        assertTrue("Maximum should not exceed total", _exchange.getRoutingTimeMaximum() <= _exchange.getRoutingTime());
+    }
+
     private ServerMessage mockMessage(final Map<String, Object> headerValues)
     {
         final AMQMessageHeader header = mock(AMQMessageHeader.class);
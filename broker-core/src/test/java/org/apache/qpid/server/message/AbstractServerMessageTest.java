@@ -25,6 +25,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.UUID;
 
+import org.apache.qpid.server.message.internal.InternalMessage;
 import org.apache.qpid.server.store.StorableMessageMetaData;
 import org.apache.qpid.server.store.StoredMessage;
 import org.apache.qpid.server.store.TransactionLogResource;
@@ -143,4 +144,28 @@ public class AbstractServerMessageTest extends QpidTestCase
         }
 
     }
+
+    public void testConvertedMessages()
+    {
+        TestMessage<StorableMessageMetaData> msg = new TestMessage<StorableMessageMetaData>(mock(StoredMessage.class),this);
+        assertNull(msg.getConvertedMessage(TestMessage.class));
+
+        TestMessage converted = new TestMessage<StorableMessageMetaData>(mock(StoredMessage.class), this);
+        msg.setConvertedMessage(TestMessage.class, converted);
+        assertSame("Converted message not held", converted, msg.getConvertedMessage(TestMessage.class));
+        assertNull("Unexpected message for other class", msg.getConvertedMessage(InternalMessage.class));
+
+        TestMessage reconverted = new TestMessage<StorableMessageMetaData>(mock(StoredMessage.class), this);
+        msg.setConvertedMessage(TestMessage.class, reconverted);
+        assertSame("Converted message not replaced", reconverted, msg.getConvertedMessage(TestMessage.class));
+
+        MessageReference<TestMessage<StorableMessageMetaData>> ref = msg.newReference();
+        ref.release();
+        assertNull("Converted message should be discarded when the message is deleted",
+                   msg.getConvertedMessage(TestMessage.class));
+
+        msg.setConvertedMessage(TestMessage.class, converted);
+        assertNull("Converted message should not be held for a deleted message",
+                   msg.getConvertedMessage(TestMessage.class));
+    }
 }
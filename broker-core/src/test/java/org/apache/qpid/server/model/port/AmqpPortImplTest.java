@@ -126,6 +126,26 @@ public class AmqpPortImplTest extends QpidTestCase
         }
     }
 
+    public void testValidateNumberOfSelectors() throws Exception
+    {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(AmqpPort.PORT, 0);
+        attributes.put(AmqpPort.NAME, getTestName());
+        attributes.put(AmqpPort.AUTHENTICATION_PROVIDER, AUTHENTICATION_PROVIDER_NAME);
+        attributes.put(AmqpPort.NUMBER_OF_SELECTORS, 0);
+        AmqpPortImpl port = new AmqpPortImpl(attributes, _broker);
+        try
+        {
+            port.create();
+            fail("Creation should fail due to validation check");
+        }
+        catch (IllegalConfigurationException e)
+        {
+            assertEquals("Unexpected exception message",
+                         "Number of selectors 0 is too small. Must be greater than zero.", e.getMessage());
+        }
+    }
+
     private ServerSocket openSocket() throws IOException
     {
         ServerSocket serverSocket = new ServerSocket();
@@ -217,6 +217,21 @@ abstract class AbstractQueueTestBase extends QpidTestCase
                    _consumer.getQueueContext().getReleasedEntry());
     }
 
+    public void testAsynchronousDeliveryRecordsLatencies() throws Exception
+    {
+        ServerMessage messageA = createMessage(new Long(24));
+        _queue.enqueue(messageA, null, null);
+        _consumer = (QueueConsumer<?>) _queue.addConsumer(_consumerTarget, null, messageA.getClass(), "test",
+                                       EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                                  ConsumerImpl.Option.SEES_REQUEUES));
+        Thread.sleep(150);
+        assertEquals(messageA, _consumer.getQueueContext().getLastSeenEntry().getMessage());
+        assertTrue("Delivery run time not recorded", _queue.getDeliveryRunTime() > 0L);
+        assertTrue("Unexpected maximum run time", _queue.getDeliveryRunTimeMaximum() <= _queue.getDeliveryRunTime());
+        assertTrue("Unexpected median schedule latency",
+                   _queue.getDeliveryScheduleLatencyMedian() <= _queue.getDeliveryScheduleLatencyMaximum());
+    }
+
     /**
      * Tests enqueuing two messages.
      */
@@ -827,6 +842,22 @@ abstract class AbstractQueueTestBase extends QpidTestCase
         verify(listener, atLeastOnce()).notifyClients(eq(NotificationCheck.MESSAGE_COUNT_ALERT), eq(_queue), contains("Maximum count on queue threshold"));
     }
 
+    public void testExpiredMessageRemovedByHousekeeping() throws Exception
+    {
+        ServerMessage expiredMessage = createMessage(24l);
+        when(expiredMessage.getExpiration()).thenReturn(System.currentTimeMillis() - 1000l);
+        ServerMessage unexpiringMessage = createMessage(25l);
+
+        _queue.enqueue(expiredMessage, null, null);
+        _queue.enqueue(unexpiringMessage, null, null);
+
+        assertEquals("Unexpected number of messages pending expiry", 1l, _queue.getQueueDepthMessagesPendingExpiry());
+
+        _queue.checkMessageStatus();
+
+        assertEquals("Unexpected number of messages pending expiry", 0l, _queue.getQueueDepthMessagesPendingExpiry());
+        assertEquals("Expired message should have been removed", 1, _queue.getQueueDepthMessages());
+    }
 
     public void testMaximumMessageTtl() throws Exception
     {
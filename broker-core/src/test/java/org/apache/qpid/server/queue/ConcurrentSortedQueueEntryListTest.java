@@ -0,0 +1,246 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.qpid.server.configuration.updater.CurrentThreadTaskExecutor;
+import org.apache.qpid.server.configuration.updater.TaskExecutor;
+import org.apache.qpid.server.logging.EventLogger;
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.MessageReference;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.server.model.BrokerModel;
+import org.apache.qpid.server.model.ConfiguredObjectFactory;
+import org.apache.qpid.server.model.ConfiguredObjectFactoryImpl;
+import org.apache.qpid.server.model.LifetimePolicy;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.security.SecurityManager;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.server.virtualhost.VirtualHostImpl;
+
+public class ConcurrentSortedQueueEntryListTest extends QueueEntryListTestBase
+{
+    private final static String KEYS[] = SortedQueueEntryListTest.keys;
+    private final static String KEYS_SORTED[] = KEYS.clone();
+
+    private SortedQueueImpl _testQueue;
+    private ConcurrentSortedQueueEntryList _list;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        Map<String,Object> attributes = new HashMap<String,Object>();
+        attributes.put(Queue.ID,UUID.randomUUID());
+        attributes.put(Queue.NAME, getName());
+        attributes.put(Queue.DURABLE, false);
+        attributes.put(Queue.LIFETIME_POLICY, LifetimePolicy.PERMANENT);
+        attributes.put(SortedQueue.SORT_KEY, "KEY");
+        attributes.put(Queue.CONTEXT, Collections.singletonMap(SortedQueue.SORTED_QUEUE_CONCURRENT_ENTRY_LIST, "true"));
+
+        final VirtualHostImpl virtualHost = mock(VirtualHostImpl.class);
+        when(virtualHost.getSecurityManager()).thenReturn(mock(SecurityManager.class));
+        when(virtualHost.getEventLogger()).thenReturn(new EventLogger());
+        ConfiguredObjectFactory factory = new ConfiguredObjectFactoryImpl(BrokerModel.getInstance());
+        when(virtualHost.getObjectFactory()).thenReturn(factory);
+        when(virtualHost.getModel()).thenReturn(factory.getModel());
+        when(virtualHost.getPrincipal()).thenReturn(mock(Principal.class));
+        TaskExecutor taskExecutor = CurrentThreadTaskExecutor.newStartedInstance();
+        when(virtualHost.getTaskExecutor()).thenReturn(taskExecutor);
+        when(virtualHost.getChildExecutor()).thenReturn(taskExecutor);
+        _testQueue = new SortedQueueImpl(attributes, virtualHost);
+        _testQueue.open();
+        _list = (ConcurrentSortedQueueEntryList) _testQueue.getEntries();
+
+        super.setUp();
+
+        Arrays.sort(KEYS_SORTED);
+
+        long messageId = 0L;
+        for(final String key : KEYS)
+        {
+            _list.add(generateTestMessage(messageId++, key), null);
+        }
+    }
+
+    @Override
+    public ConcurrentSortedQueueEntryList getTestList()
+    {
+        return getTestList(false);
+    }
+
+    @Override
+    public ConcurrentSortedQueueEntryList getTestList(boolean newList)
+    {
+        return newList ? new ConcurrentSortedQueueEntryList(_testQueue) : _list;
+    }
+
+    @Override
+    public int getExpectedListLength()
+    {
+        return KEYS.length;
+    }
+
+    @Override
+    public long getExpectedFirstMsgId()
+    {
+        return 67L;
+    }
+
+    @Override
+    public ServerMessage getTestMessageToAdd()
+    {
+        return generateTestMessage(1, "test value");
+    }
+
+    @Override
+    protected SortedQueueImpl getTestQueue()
+    {
+        return _testQueue;
+    }
+
+    public void testIterator()
+    {
+        super.testIterator();
+
+        final QueueEntryIterator iter = getTestList().iterator();
+        int count = 0;
+        while(iter.advance())
+        {
+            assertEquals("Sorted queue entry value does not match sorted key array",
+                         KEYS_SORTED[count++], iter.getNode().getMessage().getMessageHeader().getHeader("KEY"));
+        }
+    }
+
+    public void testNonUniqueAndNullSortKeysKeepArrivalOrder()
+    {
+        ConcurrentSortedQueueEntryList list = getTestList(true);
+        for (long messageId = 0; messageId < 200; messageId++)
+        {
+            list.add(generateTestMessage(messageId, messageId % 2 == 0 ? null : "samekey"), null);
+        }
+
+        final QueueEntryIterator iter = list.iterator();
+        long expectedId = 0;
+        while(iter.advance())
+        {
+            assertEquals("Message id not as expected", expectedId, iter.getNode().getMessage().getMessageNumber());
+            expectedId += 2;
+            if (expectedId == 200)
+            {
+                expectedId = 1;
+            }
+        }
+        assertEquals("Unexpected number of entries iterated", 201, expectedId);
+    }
+
+    public void testNextOfDeletedEntryContinuesInSortOrder()
+    {
+        ConcurrentSortedQueueEntryList list = getTestList(true);
+        QueueEntry a = list.add(generateTestMessage(1, "A"), null);
+        QueueEntry b = list.add(generateTestMessage(2, "B"), null);
+        QueueEntry c = list.add(generateTestMessage(3, "C"), null);
+
+        b.acquire();
+        b.delete();
+
+        assertSame("Unexpected next entry after deleted entry", c, list.next(b));
+        assertSame("Unexpected next entry", c, list.next(a));
+        assertSame("Unexpected tail", c, list.getTail());
+    }
+
+    public void testConcurrentAdds() throws Exception
+    {
+        final ConcurrentSortedQueueEntryList list = getTestList(true);
+        final int threads = 4;
+        final int messagesPerThread = 500;
+        final AtomicLong messageId = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++)
+        {
+            new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for (int i = 0; i < messagesPerThread; i++)
+                        {
+                            long id = messageId.incrementAndGet();
+                            list.add(generateTestMessage(id, KEYS[(int) (id % KEYS.length)]), null);
+                        }
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await();
+
+        final QueueEntryIterator iter = list.iterator();
+        int count = 0;
+        QueueEntry previous = null;
+        while(iter.advance())
+        {
+            QueueEntry node = iter.getNode();
+            if (previous != null)
+            {
+                assertTrue("Entries out of order", previous.compareTo(node) < 0);
+            }
+            previous = node;
+            count++;
+        }
+        assertEquals("Unexpected number of entries", threads * messagesPerThread, count);
+    }
+
+    private ServerMessage generateTestMessage(final long id, final String keyValue)
+    {
+        final ServerMessage message = mock(ServerMessage.class);
+        AMQMessageHeader hdr = mock(AMQMessageHeader.class);
+        when(message.getMessageHeader()).thenReturn(hdr);
+        when(hdr.getHeader(eq("KEY"))).thenReturn(keyValue);
+        when(hdr.containsHeader(eq("KEY"))).thenReturn(true);
+        when(hdr.getHeaderNames()).thenReturn(Collections.singleton("KEY"));
+        MessageReference ref = mock(MessageReference.class);
+        when(ref.getMessage()).thenReturn(message);
+        when(message.newReference()).thenReturn(ref);
+        when(message.newReference(any(TransactionLogResource.class))).thenReturn(ref);
+        when(message.getMessageNumber()).thenReturn(id);
+
+        return message;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.qpid.server.consumer.ConsumerImpl;
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class DefinedGroupMessageGroupManagerTest extends QpidTestCase
+{
+    private static final String GROUP_KEY = "JMSXGroupID";
+
+    private DefinedGroupMessageGroupManager _groupManager;
+    private QueueConsumer<?> _consumer1;
+    private QueueConsumer<?> _consumer2;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        MessageGroupManager.ConsumerResetHelper resetHelper = mock(MessageGroupManager.ConsumerResetHelper.class);
+        _groupManager = new DefinedGroupMessageGroupManager(GROUP_KEY, "qpid.no-group", resetHelper);
+        _consumer1 = mock(QueueConsumer.class);
+        when(_consumer1.getQueueContext()).thenReturn(new QueueContext(null));
+        _consumer2 = mock(QueueConsumer.class);
+        when(_consumer2.getQueueContext()).thenReturn(new QueueContext(null));
+    }
+
+    public void testGroupAssignedToFirstAcceptingConsumer()
+    {
+        QueueEntry entry1 = createEntry("A");
+        QueueEntry entry2 = createEntry("A");
+        QueueEntry entry3 = createEntry("B");
+
+        assertTrue("Unassigned group might be assigned to any consumer", _groupManager.mightAssign(entry1, _consumer2));
+        assertTrue("Message should be accepted", _groupManager.acceptMessage(_consumer1, entry1));
+
+        assertTrue("Group should be assignable to its consumer", _groupManager.mightAssign(entry2, _consumer1));
+        assertFalse("Group should not be assignable to another consumer", _groupManager.mightAssign(entry2, _consumer2));
+        assertFalse("Message should not be accepted by another consumer",
+                    _groupManager.acceptMessage(_consumer2, entry2));
+
+        assertTrue("Other group should be assignable to another consumer",
+                   _groupManager.acceptMessage(_consumer2, entry3));
+    }
+
+    public void testEarliestSkippedEntryFoundForConsumer()
+    {
+        QueueEntry entry1 = createEntry("A");
+        QueueEntry entry2 = createEntry("A");
+
+        assertNull("No entries assigned", _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+
+        _groupManager.acceptMessage(_consumer1, entry1);
+        assertNull("No entries skipped", _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+
+        _groupManager.mightAssign(entry2, _consumer2);
+        assertSame("Skipped entry not found", entry2, _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+        assertNull("Entry not held up by other consumer", _groupManager.findEarliestAssignedAvailableEntry(_consumer2));
+
+        _groupManager.clearAssignments(_consumer1);
+        assertNull("Assignments not cleared", _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+    }
+
+    public void testAssignmentToRemovedConsumerNotRemembered()
+    {
+        QueueEntry entry1 = createEntry("A");
+        QueueEntry entry2 = createEntry("A");
+
+        // the queue has removed the consumer, and so cleared its assignments, while the message was being accepted
+        when(_consumer1.getQueueContext()).thenReturn(null);
+        _groupManager.clearAssignments(_consumer1);
+        _groupManager.acceptMessage(_consumer1, entry1);
+
+        _groupManager.mightAssign(entry2, _consumer2);
+        assertNull("Groups of a removed consumer should not be remembered",
+                   _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+    }
+
+    private QueueEntry createEntry(final String group)
+    {
+        AMQMessageHeader header = mock(AMQMessageHeader.class);
+        when(header.getHeader(GROUP_KEY)).thenReturn(group);
+        ServerMessage message = mock(ServerMessage.class);
+        when(message.getMessageHeader()).thenReturn(header);
+
+        QueueEntry entry = mock(QueueEntry.class);
+        when(entry.getMessage()).thenReturn(message);
+        when(entry.isAvailable()).thenReturn(true);
+        when(entry.acquire(any(ConsumerImpl.class))).thenReturn(true);
+        return entry;
+    }
+}
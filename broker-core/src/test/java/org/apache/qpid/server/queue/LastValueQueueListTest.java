@@ -58,10 +58,17 @@ public class LastValueQueueListTest extends QpidTestCase
     protected void setUp() throws Exception
     {
         super.setUp();
+        _queue = createQueue(false);
+        _list = _queue.getEntries();
+    }
+
+    private LastValueQueueImpl createQueue(final boolean compactKeyIndex)
+    {
         Map<String,Object> queueAttributes = new HashMap<String, Object>();
         queueAttributes.put(Queue.ID, UUID.randomUUID());
         queueAttributes.put(Queue.NAME, getName());
         queueAttributes.put(LastValueQueue.LVQ_KEY, CONFLATION_KEY);
+        queueAttributes.put(LastValueQueue.LVQ_COMPACT_KEY_INDEX, compactKeyIndex);
         final VirtualHostImpl virtualHost = mock(VirtualHostImpl.class);
         when(virtualHost.getSecurityManager()).thenReturn(mock(SecurityManager.class));
         when(virtualHost.getEventLogger()).thenReturn(new EventLogger());
@@ -72,9 +79,9 @@ public class LastValueQueueListTest extends QpidTestCase
         TaskExecutor taskExecutor = CurrentThreadTaskExecutor.newStartedInstance();
         when(virtualHost.getTaskExecutor()).thenReturn(taskExecutor);
         when(virtualHost.getChildExecutor()).thenReturn(taskExecutor);
-        _queue = new LastValueQueueImpl(queueAttributes, virtualHost);
-        _queue.open();
-        _list = _queue.getEntries();
+        LastValueQueueImpl queue = new LastValueQueueImpl(queueAttributes, virtualHost);
+        queue.open();
+        return queue;
     }
 
     public void testListHasNoEntries()
@@ -209,6 +216,49 @@ public class LastValueQueueListTest extends QpidTestCase
         assertEquals(0, _list.getLatestValuesMap().size());
     }
 
+    public void testConflationStatistics()
+    {
+        assertEquals(0, _queue.getLvqKeyCount());
+        assertEquals(0L, _queue.getLvqKeyIndexMemoryFootprint());
+
+        _list.add(createTestServerMessage(TEST_KEY_VALUE1), null);
+        _list.add(createTestServerMessage(TEST_KEY_VALUE1), null);
+        _list.add(createTestServerMessage(TEST_KEY_VALUE2), null);
+
+        assertEquals(2, _queue.getLvqKeyCount());
+        assertEquals(1L, _queue.getConflatedMessages());
+        assertTrue(_queue.getLvqKeyIndexMemoryFootprint() > 0L);
+    }
+
+    public void testCompactKeyIndex()
+    {
+        _queue = createQueue(true);
+        _list = _queue.getEntries();
+        long emptyFootprint = _queue.getLvqKeyIndexMemoryFootprint();
+
+        QueueEntry entry1 = _list.add(createTestServerMessage(TEST_KEY_VALUE1), null);
+        entry1.acquire(); // simulate an in-progress delivery to consumer
+        QueueEntry entry2 = _list.add(createTestServerMessage(TEST_KEY_VALUE1), null);
+        QueueEntry entry3 = _list.add(createTestServerMessage(TEST_KEY_VALUE2), null);
+        _list.add(createTestServerMessage(TEST_KEY_VALUE2), null);
+
+        assertEquals(3, countEntries(_list));
+        assertEquals(2, _queue.getLvqKeyCount());
+        assertEquals("Superseded entry being delivered should not be discarded", 1L, _queue.getConflatedMessages());
+        assertTrue(entry3.isDeleted());
+        assertTrue("Index should not have grown for two keys",
+                   _queue.getLvqKeyIndexMemoryFootprint() == emptyFootprint);
+
+        entry1.release(); // simulate consumer rollback/recover
+        assertTrue(entry1.isDeleted());
+        assertEquals(2L, _queue.getConflatedMessages());
+
+        entry2.acquire();
+        entry2.delete();
+        assertEquals(1, _queue.getLvqKeyCount());
+        assertEquals(1, countEntries(_list));
+    }
+
     private int countEntries(LastValueQueueList list)
     {
         QueueEntryIterator iterator =
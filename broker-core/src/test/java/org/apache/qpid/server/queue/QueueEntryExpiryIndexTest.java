@@ -0,0 +1,96 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class QueueEntryExpiryIndexTest extends QpidTestCase
+{
+    private QueueEntryExpiryIndex _index;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _index = new QueueEntryExpiryIndex(100l);
+    }
+
+    public void testEntriesWithoutExpirationAreNotIndexed()
+    {
+        _index.add(createEntry(0l));
+        assertEquals("Unexpected index size", 0l, _index.size());
+        assertTrue("Unexpected due entries", _index.removeDueEntries(Long.MAX_VALUE).isEmpty());
+    }
+
+    public void testOnlyDueEntriesAreRemoved()
+    {
+        QueueEntry early = createEntry(1050l);
+        QueueEntry boundary = createEntry(1100l);
+        QueueEntry late = createEntry(1250l);
+        _index.add(late);
+        _index.add(early);
+        _index.add(boundary);
+        assertEquals("Unexpected index size", 3l, _index.size());
+
+        assertTrue("No entries should be due", _index.removeDueEntries(1099l).isEmpty());
+
+        List<QueueEntry> due = _index.removeDueEntries(1100l);
+        assertEquals("Unexpected number of due entries", 2, due.size());
+        assertTrue("Early entry should be due", due.contains(early));
+        assertTrue("Boundary entry should be due", due.contains(boundary));
+        assertEquals("Unexpected index size", 1l, _index.size());
+
+        due = _index.removeDueEntries(2000l);
+        assertEquals("Unexpected number of due entries", 1, due.size());
+        assertSame("Unexpected due entry", late, due.get(0));
+        assertEquals("Unexpected index size", 0l, _index.size());
+    }
+
+    public void testRemovedEntriesAreNotDue()
+    {
+        QueueEntry entry = createEntry(1050l);
+        QueueEntry other = createEntry(1060l);
+        _index.add(entry);
+        _index.add(other);
+
+        _index.remove(entry);
+        assertEquals("Unexpected index size", 1l, _index.size());
+
+        _index.remove(entry);
+        assertEquals("Removing twice should not change the size", 1l, _index.size());
+
+        List<QueueEntry> due = _index.removeDueEntries(2000l);
+        assertEquals("Unexpected number of due entries", 1, due.size());
+        assertSame("Unexpected due entry", other, due.get(0));
+    }
+
+    private QueueEntry createEntry(long expiration)
+    {
+        QueueEntry entry = mock(QueueEntry.class);
+        when(entry.getExpiration()).thenReturn(expiration);
+        return entry;
+    }
+}
@@ -23,7 +23,9 @@ package org.apache.qpid.server.queue;
 import java.security.AccessControlContext;
 import java.security.AccessController;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
@@ -31,9 +33,13 @@ import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.qpid.common.AMQPFilterTypes;
 import org.apache.qpid.server.consumer.ConsumerImpl;
 import org.apache.qpid.server.consumer.ConsumerTarget;
 import org.apache.qpid.server.consumer.MockConsumer;
+import org.apache.qpid.server.filter.FilterManager;
+import org.apache.qpid.server.filter.Filterable;
+import org.apache.qpid.server.filter.JMSSelectorFilter;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.ServerMessage;
 import org.apache.qpid.server.model.LifetimePolicy;
@@ -138,6 +144,154 @@ public class StandardQueueTest extends AbstractQueueTestBase
     }
 
 
+    public void testSelectorIndexDeliversOnlyMatchingEntries() throws Exception
+    {
+        Map<String,Object> queueAttributes = new HashMap<>();
+        queueAttributes.put(Queue.NAME, "testSelectorIndex");
+        queueAttributes.put(Queue.SELECTOR_INDEX_ENABLED, true);
+        final StandardQueueImpl queue = new StandardQueueImpl(queueAttributes, getVirtualHost());
+        queue.create();
+
+        ServerMessage redBeforeConsumers = createColouredMessage(1l, "red");
+        queue.enqueue(redBeforeConsumers, null, null);
+
+        MockConsumer redTarget1 = new MockConsumer();
+        MockConsumer redTarget2 = new MockConsumer();
+        MockConsumer blueTarget = new MockConsumer();
+        QueueConsumer<?> redConsumer1 = addSelectorConsumer(queue, redTarget1, "colour = 'red'");
+        QueueConsumer<?> redConsumer2 = addSelectorConsumer(queue, redTarget2, "colour = 'red'");
+        QueueConsumer<?> blueConsumer = addSelectorConsumer(queue, blueTarget, "colour = 'blue'");
+
+        assertSame("Consumers with equal selectors should share a selector class",
+                   redConsumer1.getQueueContext().getSelectorClass(),
+                   redConsumer2.getQueueContext().getSelectorClass());
+        assertNotSame("Consumers with different selectors should not share a selector class",
+                      redConsumer1.getQueueContext().getSelectorClass(),
+                      blueConsumer.getQueueContext().getSelectorClass());
+
+        queue.enqueue(createColouredMessage(2l, "blue"), null, null);
+        queue.enqueue(createColouredMessage(3l, "red"), null, null);
+        queue.enqueue(createColouredMessage(4l, "green"), null, null);
+
+        Thread.sleep(150);  // Work done by QueueRunner Thread
+
+        assertEquals("Unexpected number of red messages delivered",
+                     2,
+                     redTarget1.getMessages().size() + redTarget2.getMessages().size());
+        assertEquals("Unexpected number of blue messages delivered", 1, blueTarget.getMessages().size());
+        assertEquals("Unexpected number of red entries indexed",
+                     2,
+                     redConsumer1.getQueueContext().getSelectorClass().size());
+    }
+
+    public void testSelectorIndexForgetsEntryDequeuedWhileClassified() throws Exception
+    {
+        Map<String,Object> queueAttributes = new HashMap<>();
+        queueAttributes.put(Queue.NAME, "testSelectorIndexDequeueRace");
+        queueAttributes.put(Queue.SELECTOR_INDEX_ENABLED, true);
+        final StandardQueueImpl queue = new StandardQueueImpl(queueAttributes, getVirtualHost());
+        queue.create();
+
+        // dequeues the entry being classified from within the evaluation of the selector
+        JMSSelectorFilter dequeuingFilter = new JMSSelectorFilter("colour = 'red'")
+        {
+            @Override
+            public boolean matches(final Filterable message)
+            {
+                QueueEntry entry = queue.getMessageOnTheQueue(message.getMessageNumber());
+                if (entry != null && entry.acquire())
+                {
+                    entry.delete();
+                }
+                return super.matches(message);
+            }
+        };
+        FilterManager filters = new FilterManager();
+        filters.add(AMQPFilterTypes.JMS_SELECTOR.toString(), dequeuingFilter);
+        MockConsumer target = new MockConsumer();
+        target.setActive(false);
+        target.setState(ConsumerTarget.State.SUSPENDED);
+        QueueConsumer<?> consumer = (QueueConsumer<?>) queue.addConsumer(target,
+                                                                         filters,
+                                                                         createMessage(-1l).getClass(),
+                                                                         "test",
+                                                                         EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                                                                    ConsumerImpl.Option.SEES_REQUEUES));
+
+        queue.enqueue(createColouredMessage(1l, "red"), null, null);
+
+        assertEquals("Unexpected queue depth", 0, queue.getQueueDepthMessages());
+        assertEquals("Entry dequeued while being classified should not remain indexed",
+                     0,
+                     consumer.getQueueContext().getSelectorClass().size());
+    }
+
+    public void testPositionIndexSeeksAcrossSegments() throws Exception
+    {
+        Map<String,Object> queueAttributes = new HashMap<>();
+        queueAttributes.put(Queue.NAME, "testPositionIndex");
+        queueAttributes.put(Queue.CONTEXT, Collections.singletonMap(Queue.QUEUE_POSITION_INDEX_SEGMENT_SIZE, "4"));
+        final StandardQueueImpl queue = new StandardQueueImpl(queueAttributes, getVirtualHost());
+        queue.create();
+        assertTrue("Standard queue should have a position index", queue.hasPositionIndex());
+
+        for (long id = 1; id <= 20; id++)
+        {
+            queue.enqueue(createMessage(id), null, null);
+        }
+        for (long id : new long[] {2l, 3l, 4l, 5l, 6l, 7l, 13l})
+        {
+            QueueEntry entry = queue.getMessageOnTheQueue(id);
+            assertTrue("Could not acquire entry for message " + id, entry.acquire());
+            entry.delete();
+        }
+
+        assertEquals("Unexpected message ids in range",
+                     Arrays.asList(8l, 9l, 10l),
+                     getMessageIds(queue.getMessagesRangeOnTheQueue(2, 4)));
+        assertEquals("Unexpected message ids at end of queue",
+                     Arrays.asList(19l, 20l),
+                     getMessageIds(queue.getMessagesRangeOnTheQueue(12, 20)));
+        assertEquals("Unexpected message ids from offset",
+                     Arrays.asList(12l, 14l, 15l),
+                     queue.getMessagesOnTheQueue(3, 5));
+
+        assertNull("Deleted message should not be found", queue.getMessageOnTheQueue(13l));
+        assertNull("Deleted message should not be found", queue.getMessageOnTheQueue(6l));
+        assertEquals("Unexpected message found",
+                     14l,
+                     queue.getMessageOnTheQueue(14l).getMessage().getMessageNumber());
+    }
+
+    private List<Long> getMessageIds(final List<? extends QueueEntry> entries)
+    {
+        List<Long> ids = new ArrayList<>();
+        for (QueueEntry entry : entries)
+        {
+            ids.add(entry.getMessage().getMessageNumber());
+        }
+        return ids;
+    }
+
+    private QueueConsumer<?> addSelectorConsumer(final AbstractQueue<?> queue,
+                                                 final MockConsumer target,
+                                                 final String selector) throws Exception
+    {
+        FilterManager filters = new FilterManager();
+        filters.add(AMQPFilterTypes.JMS_SELECTOR.toString(), new JMSSelectorFilter(selector));
+        return (QueueConsumer<?>) queue.addConsumer(target,
+                                                    filters,
+                                                    createMessage(-1l).getClass(),
+                                                    "test",
+                                                    EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                                               ConsumerImpl.Option.SEES_REQUEUES));
+    }
+
+    private ServerMessage createColouredMessage(final long id, final String colour)
+    {
+        return createMessage(id, (byte) 4, Collections.<String, Object>singletonMap("colour", colour), 0l);
+    }
+
     /**
      * Tests that entry in dequeued state are not enqueued and not delivered to consumer
      */
@@ -0,0 +1,105 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.stats;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+/**
+ * Unit tests for the {@link LatencyHistogram} class.
+ */
+public class LatencyHistogramTest extends QpidTestCase
+{
+    public void testEmptyHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getTotal());
+        assertEquals(0L, histogram.getMaximum());
+        assertEquals(0L, histogram.getPercentile(50d));
+    }
+
+    public void testLatenciesBucketedByPowersOfTwo()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.registerLatency(0L);
+        histogram.registerLatency(1023L);
+        histogram.registerLatency(1024L);
+        histogram.registerLatency(2047L);
+        histogram.registerLatency(2048L);
+        histogram.registerLatency(Long.MAX_VALUE);
+
+        long[] counts = histogram.getBucketCounts();
+        assertEquals(LatencyHistogram.NUMBER_OF_BUCKETS, counts.length);
+        assertEquals(2L, counts[0]);
+        assertEquals(2L, counts[1]);
+        assertEquals(1L, counts[2]);
+        assertEquals(1L, counts[LatencyHistogram.NUMBER_OF_BUCKETS - 1]);
+        assertEquals(6L, histogram.getCount());
+        assertEquals(Long.MAX_VALUE, histogram.getMaximum());
+    }
+
+    public void testPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++)
+        {
+            histogram.registerLatency(500L);
+        }
+        histogram.registerLatency(100000L);
+
+        assertEquals(1024L, histogram.getPercentile(50d));
+        assertEquals(1024L, histogram.getPercentile(99d));
+        assertEquals("Percentile should be capped at the maximum", 100000L, histogram.getPercentile(100d));
+        assertEquals(99 * 500L + 100000L, histogram.getTotal());
+    }
+
+    public void testSmallerFirstBucket()
+    {
+        LatencyHistogram histogram = new LatencyHistogram(0);
+        histogram.registerLatency(0L);
+        histogram.registerLatency(1L);
+        histogram.registerLatency(2L);
+        histogram.registerLatency(3L);
+        histogram.registerLatency(4L);
+
+        long[] counts = histogram.getBucketCounts();
+        assertEquals(1L, counts[0]);
+        assertEquals(1L, counts[1]);
+        assertEquals(2L, counts[2]);
+        assertEquals(1L, counts[3]);
+        assertEquals(4L, histogram.getPercentile(50d));
+        assertEquals(4L, histogram.getMaximum());
+    }
+
+    public void testInvalidPercentile()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        try
+        {
+            histogram.getPercentile(101d);
+            fail("Exception not thrown");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // pass
+        }
+    }
+}
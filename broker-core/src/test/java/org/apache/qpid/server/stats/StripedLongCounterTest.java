@@ -0,0 +1,84 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.stats;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+/**
+ * Unit tests for the {@link StripedLongCounter} class.
+ */
+public class StripedLongCounterTest extends QpidTestCase
+{
+    public void testSumAndReset()
+    {
+        StripedLongCounter counter = new StripedLongCounter();
+        assertEquals(0L, counter.sum());
+        counter.add(10L);
+        counter.add(-3L);
+        assertEquals(7L, counter.sum());
+        assertEquals(7L, counter.sumThenReset());
+        assertEquals(0L, counter.sum());
+        counter.add(5L);
+        counter.reset();
+        assertEquals(0L, counter.sum());
+    }
+
+    public void testConcurrentAdds() throws Exception
+    {
+        final StripedLongCounter counter = new StripedLongCounter();
+        final int threadCount = 8;
+        final int increments = 100000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++)
+        {
+            threads[i] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int j = 0; j < increments; j++)
+                    {
+                        counter.add(1L);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        assertEquals((long) threadCount * increments, counter.sum());
+    }
+}
@@ -29,6 +29,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -41,6 +43,7 @@ import org.apache.qpid.server.model.BrokerModel;
 import org.apache.qpid.server.model.ConfiguredObject;
 import org.apache.qpid.server.model.ConfiguredObjectFactory;
 import org.apache.qpid.server.model.ConfiguredObjectFactoryImpl;
+import org.apache.qpid.server.model.JsonSystemConfig;
 import org.apache.qpid.server.model.Queue;
 import org.apache.qpid.server.model.VirtualHost;
 import org.apache.qpid.server.store.handler.ConfiguredObjectRecordHandler;
@@ -436,6 +439,97 @@ public class JsonFileConfigStoreTest extends QpidTestCase
     }
 
 
+    public void testJournalledChangesSurviveReopen() throws Exception
+    {
+        setJournalCompactionThreshold(100);
+        File journalFile = new File(_storeLocation, _parent.getName() + ".journal");
+        File jsonFile = new File(_storeLocation, _parent.getName() + ".json");
+
+        _store.openConfigurationStore(_parent, false);
+        long jsonLength = jsonFile.length();
+        createRootRecord();
+
+        final UUID queueId = new UUID(0, 1);
+        final UUID queue2Id = new UUID(1, 1);
+        Map<String,Object> queueAttr = Collections.singletonMap("name", (Object) "q1");
+        _store.create(new ConfiguredObjectRecordImpl(queueId, "Queue", queueAttr, getRootAsParentMap()));
+        queueAttr = new HashMap<String,Object>(queueAttr);
+        queueAttr.put("owner", "theowner");
+        _store.update(false, new ConfiguredObjectRecordImpl(queueId, "Queue", queueAttr, getRootAsParentMap()));
+        final ConfiguredObjectRecordImpl queue2Record =
+                new ConfiguredObjectRecordImpl(queue2Id, "Queue",
+                                               Collections.singletonMap("name", (Object) "q2"),
+                                               getRootAsParentMap());
+        _store.create(queue2Record);
+        _store.remove(queue2Record);
+
+        assertTrue("Journal should hold the changes", journalFile.length() > 0);
+        assertEquals("JSON store should not have been rewritten", jsonLength, jsonFile.length());
+        _store.closeConfigurationStore();
+
+        _store.openConfigurationStore(_parent, false);
+        assertFalse("Journal should have been compacted on open", journalFile.exists());
+        _store.visitConfiguredObjectRecords(_handler);
+        verify(_handler, times(1)).handle(matchesRecord(queueId, "Queue", queueAttr));
+        verify(_handler, times(2)).handle(any(ConfiguredObjectRecord.class));
+        _store.closeConfigurationStore();
+    }
+
+    public void testJournalCompactedAtThreshold() throws Exception
+    {
+        setJournalCompactionThreshold(2);
+        File journalFile = new File(_storeLocation, _parent.getName() + ".journal");
+
+        _store.openConfigurationStore(_parent, false);
+        createRootRecord();
+        _store.create(new ConfiguredObjectRecordImpl(new UUID(0, 1), "Queue",
+                                                     Collections.singletonMap("name", (Object) "q1"),
+                                                     getRootAsParentMap()));
+        assertTrue("Journal should hold the changes", journalFile.length() > 0);
+
+        _store.create(new ConfiguredObjectRecordImpl(new UUID(1, 1), "Queue",
+                                                     Collections.singletonMap("name", (Object) "q2"),
+                                                     getRootAsParentMap()));
+        assertEquals("Journal should have been emptied when full", 0l, journalFile.length());
+        _store.closeConfigurationStore();
+
+        setJournalCompactionThreshold(0);
+        _store.openConfigurationStore(_parent, false);
+        _store.visitConfiguredObjectRecords(_handler);
+        verify(_handler, times(3)).handle(any(ConfiguredObjectRecord.class));
+        _store.closeConfigurationStore();
+    }
+
+    public void testIncompleteJournalEntryIgnored() throws Exception
+    {
+        setJournalCompactionThreshold(100);
+        File journalFile = new File(_storeLocation, _parent.getName() + ".journal");
+
+        _store.openConfigurationStore(_parent, false);
+        createRootRecord();
+        final UUID queueId = new UUID(0, 1);
+        final Map<String,Object> queueAttr = Collections.singletonMap("name", (Object) "q1");
+        _store.create(new ConfiguredObjectRecordImpl(queueId, "Queue", queueAttr, getRootAsParentMap()));
+        _store.closeConfigurationStore();
+
+        try (FileOutputStream out = new FileOutputStream(journalFile, true))
+        {
+            out.write("{\"operation\":\"upd".getBytes(StandardCharsets.UTF_8));
+        }
+
+        _store.openConfigurationStore(_parent, false);
+        _store.visitConfiguredObjectRecords(_handler);
+        verify(_handler).handle(matchesRecord(queueId, "Queue", queueAttr));
+        verify(_handler, times(2)).handle(any(ConfiguredObjectRecord.class));
+        _store.closeConfigurationStore();
+    }
+
+    private void setJournalCompactionThreshold(int threshold)
+    {
+        when(_parent.getContextValue(Integer.class, JsonSystemConfig.JSON_STORE_JOURNAL_COMPACTION_THRESHOLD))
+                .thenReturn(threshold);
+    }
+
     private void createRootRecord()
     {
         UUID rootRecordId = UUID.randomUUID();
@@ -29,11 +29,16 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.hamcrest.Description;
 import org.mockito.ArgumentMatcher;
 
@@ -284,6 +289,31 @@ public abstract class MessageStoreTestCase extends QpidTestCase
         assertTrue("Message with id " + messageId2 + " is not found", enqueuedIds.contains(messageId2));
     }
 
+    public void testCommitTransactionAsync() throws Exception
+    {
+        final UUID mockQueueId = UUIDGenerator.generateRandomUUID();
+        TransactionLogResource mockQueue = createTransactionLogResource(mockQueueId);
+
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (long messageId = 40L; messageId < 50L; messageId++)
+        {
+            Transaction txn = getStore().newTransaction();
+            txn.enqueueMessage(mockQueue, createEnqueueableMessage(messageId));
+            futures.add(txn.commitTranAsync());
+        }
+        Futures.allAsList(futures).get(10, TimeUnit.SECONDS);
+
+        QueueFilteringMessageInstanceHandler filter = new QueueFilteringMessageInstanceHandler(mockQueueId);
+        _storeReader.visitMessageInstances(filter);
+        Set<Long> enqueuedIds = filter.getEnqueuedIds();
+
+        assertEquals("Number of enqueued messages is incorrect", 10, enqueuedIds.size());
+        for (long messageId = 40L; messageId < 50L; messageId++)
+        {
+            assertTrue("Message with id " + messageId + " is not found", enqueuedIds.contains(messageId));
+        }
+    }
+
     public void testRollbackTransactionBeforeCommit() throws Exception
     {
         final UUID mockQueueId = UUIDGenerator.generateRandomUUID();
@@ -116,5 +116,51 @@ public class NetworkConnectionSchedulerTest extends QpidTestCase
         scheduler.close();
     }
 
+    public void testConnectionsAssignedToLeastLoadedSelector() throws Exception
+    {
+        AmqpPort port = mock(AmqpPort.class);
+        when(port.isTcpNoDelay()).thenReturn(true);
+        when(port.getNetworkBufferSize()).thenReturn(1);
+        when(port.getPort()).thenReturn(0);
+        when(port.getBindingAddress()).thenReturn("*");
+        when(port.getEnabledCipherSuites()).thenReturn(Collections.emptyList());
+        when(port.getDisabledCipherSuites()).thenReturn(Collections.emptyList());
+
+        MultiVersionProtocolEngineFactory engineFactory = mock(MultiVersionProtocolEngineFactory.class);
+        MultiVersionProtocolEngine engine1 = mock(MultiVersionProtocolEngine.class);
+        MultiVersionProtocolEngine engine2 = mock(MultiVersionProtocolEngine.class);
+
+        when(engineFactory.newProtocolEngine(any(SocketAddress.class))).thenReturn(engine1).thenReturn(engine2);
+        when(engine1.getAggregateTicker()).thenReturn(new AggregateTicker());
+        when(engine2.getAggregateTicker()).thenReturn(new AggregateTicker());
 
+        final NetworkConnectionScheduler scheduler = new NetworkConnectionScheduler(getName(), 2, 1, 1, 1000);
+        assertEquals("Unexpected number of selectors", 2, scheduler.getNumberOfSelectors());
+        scheduler.start();
+        NonBlockingNetworkTransport transport = new NonBlockingNetworkTransport(engineFactory, EnumSet.of(TransportEncryption.NONE),
+                                                                                scheduler, port);
+        transport.start();
+        final int portNumber = transport.getAcceptingPort();
+
+        try (Socket socket1 = new Socket(); Socket socket2 = new Socket())
+        {
+            socket1.connect(new InetSocketAddress(portNumber));
+            socket2.connect(new InetSocketAddress(portNumber));
+            socket1.getOutputStream().write("Hello".getBytes());
+            socket2.getOutputStream().write("World".getBytes());
+
+            verify(engine1, timeout(2000).atLeastOnce()).received(any(QpidByteBuffer.class));
+            verify(engine2, timeout(2000).atLeastOnce()).received(any(QpidByteBuffer.class));
+
+            assertEquals("Connections should be spread across the selectors",
+                         1, scheduler.getMaximumSelectorConnectionCount());
+            assertTrue("Expected selector loops to be counted", scheduler.getSelectLoopCount() > 0);
+            assertTrue("Expected ready keys to be counted", scheduler.getReadyKeyCount() > 0);
+        }
+        finally
+        {
+            transport.close();
+            scheduler.close();
+        }
+    }
 }
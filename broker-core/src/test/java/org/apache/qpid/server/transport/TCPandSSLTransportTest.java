@@ -20,14 +20,19 @@
  */
 package org.apache.qpid.server.transport;
 
+import static org.mockito.AdditionalMatchers.gt;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.net.InetAddress;
 import java.net.SocketAddress;
 import java.security.KeyStore;
+import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.HashSet;
 
@@ -35,7 +40,9 @@ import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLHandshakeException;
 import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
 import javax.xml.bind.DatatypeConverter;
 
 import org.apache.qpid.server.model.Protocol;
@@ -90,7 +97,20 @@ public class TCPandSSLTransportTest extends QpidTestCase
 
 
 
-    private void checkSSLExcluded(String clientProtocol, final Transport... transports) throws Exception
+    public void testTlsStatisticsRegistered() throws Exception
+    {
+        AmqpPort<?> port = connect("TLSv1.2", true, Transport.SSL);
+        verify(port, timeout(5000).atLeastOnce()).registerTlsStatistics(gt(0L), gt(0L), anyLong());
+    }
+
+    private AmqpPort<?> checkSSLExcluded(String clientProtocol, final Transport... transports) throws Exception
+    {
+        return connect(clientProtocol, false, transports);
+    }
+
+    private AmqpPort<?> connect(String clientProtocol,
+                                final boolean trustAnyCertificate,
+                                final Transport... transports) throws Exception
     {
         KeyStore keyStore = KeyStore.getInstance("JKS");
         keyStore.load(new ByteArrayInputStream(DatatypeConverter.parseBase64Binary(keystoreString)), "password".toCharArray());
@@ -110,6 +130,7 @@ public class TCPandSSLTransportTest extends QpidTestCase
         when(port.canAcceptNewConnection(any(SocketAddress.class))).thenReturn(true);
         when(port.getThreadPoolMinimum()).thenReturn(1);
         when(port.getThreadPoolMaximum()).thenReturn(1);
+        when(port.getNumberOfSelectors()).thenReturn(1);
         when(port.getSSLContext()).thenReturn(sslContext);
         when(port.getContextValue(Long.class, AmqpPort.PORT_AMQP_THREAD_POOL_KEEP_ALIVE_TIMEOUT)).thenReturn(1l);
 
@@ -129,7 +150,10 @@ public class TCPandSSLTransportTest extends QpidTestCase
             TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
             tmf.init(keyStore);
 
-            clientContext.init(null, tmf.getTrustManagers(), null);
+            clientContext.init(null,
+                               trustAnyCertificate ? new TrustManager[]{new TrustAnyCertificateManager()}
+                                                   : tmf.getTrustManagers(),
+                               null);
 
             SSLSocket sslSocket =
                     (SSLSocket) clientContext.getSocketFactory().createSocket(InetAddress.getLoopbackAddress(),
@@ -143,10 +167,30 @@ public class TCPandSSLTransportTest extends QpidTestCase
         {
             transport.close();
         }
+        return port;
     }
 
 
 
+    private static class TrustAnyCertificateManager implements X509TrustManager
+    {
+        @Override
+        public void checkClientTrusted(final X509Certificate[] chain, final String authType)
+        {
+        }
+
+        @Override
+        public void checkServerTrusted(final X509Certificate[] chain, final String authType)
+        {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers()
+        {
+            return new X509Certificate[0];
+        }
+    }
+
     // self signed cert keystore valid until Oct 2024
     private static String keystoreString = "/u3+7QAAAAIAAAABAAAAAQAKc2VsZnNpZ25lZAAAAUkYmo+uAAAFATCCBP0wDgYKKwYBBAEqAhEB"
                                            + "AQUABIIE6bR+b7FHo2BRT/WG+zDIfO8zOXoGIbuNL2znNMnvEp9xwfMQOkhKxEbVtX8uJ7HSwi1V"
@@ -0,0 +1,120 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.virtualhost;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.qpid.server.security.SecurityManager;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class DeliverySchedulerTest extends QpidTestCase
+{
+    private DeliveryScheduler _scheduler;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _scheduler = new DeliveryScheduler("test-delivery", 2, SecurityManager.getSystemTaskSubject("Delivery"));
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            _scheduler.close(5, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testTaskRunsOnNamedWorker() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> threadName = new AtomicReference<>();
+        _scheduler.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                threadName.set(Thread.currentThread().getName());
+                latch.countDown();
+            }
+        });
+
+        assertTrue("Task did not run", latch.await(5, TimeUnit.SECONDS));
+        assertTrue("Unexpected thread name " + threadName.get(), threadName.get().startsWith("test-delivery-"));
+        assertEquals("Unexpected thread count", 2, _scheduler.getThreadCount());
+    }
+
+    public void testTaskRescheduledByWorkerRuns() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        _scheduler.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (runs.incrementAndGet() < 100)
+                {
+                    _scheduler.execute(this);
+                }
+                else
+                {
+                    latch.countDown();
+                }
+            }
+        });
+
+        assertTrue("Rescheduled task did not complete", latch.await(5, TimeUnit.SECONDS));
+        assertEquals("Unexpected number of runs", 100, runs.get());
+    }
+
+    public void testCloseRejectsFurtherTasks()
+    {
+        _scheduler.close(5, TimeUnit.SECONDS);
+        assertTrue("Scheduler not terminated", _scheduler.isTerminated());
+
+        try
+        {
+            _scheduler.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                }
+            });
+            fail("Exception not thrown");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // pass
+        }
+    }
+}
@@ -105,6 +105,8 @@ public class SynchronousMessageStoreRecovererTest extends QpidTestCase
 
         ServerMessage<?> message = storedMessage.getMetaData().getType().createMessage(storedMessage);
         verify(queue, times(1)).recover(eq(message), any(MessageEnqueueRecord.class));
+        assertEquals("Unexpected number of recovered message instances", 1l, recoverer.getRecoveredMessageInstanceCount());
+        assertEquals("No queues should still be recovering", 0, recoverer.getRecoveringQueueCount());
     }
 
     @SuppressWarnings("unchecked")
@@ -145,6 +147,9 @@ public class SynchronousMessageStoreRecovererTest extends QpidTestCase
         verify(queue, never()).enqueue(any(ServerMessage.class), any(Action.class), any(MessageEnqueueRecord.class));
         verify(transaction).dequeueMessage(argThat(new MessageEnqueueRecordMatcher(queue.getId(), messageId)));
         verify(transaction, times(1)).commitTranAsync();
+        assertEquals("Discarded message instances should not be counted as recovered",
+                     0l,
+                     recoverer.getRecoveredMessageInstanceCount());
     }
 
     public void testRecoveryOfMessageInstanceForNonExistingQueue()
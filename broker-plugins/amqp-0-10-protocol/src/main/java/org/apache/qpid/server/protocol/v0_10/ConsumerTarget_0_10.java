@@ -37,7 +37,6 @@ import org.apache.qpid.server.logging.messages.ChannelMessages;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.ServerMessage;
 import org.apache.qpid.server.model.Exchange;
-import org.apache.qpid.server.plugin.MessageConverter;
 import org.apache.qpid.server.protocol.MessageConverterRegistry;
 import org.apache.qpid.server.queue.AMQQueue;
 import org.apache.qpid.server.queue.QueueConsumer;
@@ -222,11 +221,7 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget implements FlowC
         }
         else
         {
-            MessageConverter converter =
-                    MessageConverterRegistry.getConverter(serverMsg.getClass(), MessageTransferMessage.class);
-
-
-            msg = (MessageTransferMessage) converter.convert(serverMsg, _session.getVirtualHost());
+            msg = MessageConverterRegistry.convert(serverMsg, MessageTransferMessage.class, _session.getVirtualHost());
         }
         DeliveryProperties origDeliveryProps = msg.getHeader() == null ? null : msg.getHeader().getDeliveryProperties();
         messageProps = msg.getHeader() == null ? null : msg.getHeader().getMessageProperties();
@@ -280,6 +275,8 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget implements FlowC
             byte[] uncompressed = GZIPUtils.uncompressBufferToArray(ByteBufferUtils.combine(body));
             if(uncompressed != null)
             {
+                // the properties belong to the message, which may be shared with other consumers
+                messageProps = new MessageProperties(messageProps);
                 messageProps.setContentEncoding(null);
                 for (QpidByteBuffer buf : body)
                 {
@@ -297,10 +294,7 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget implements FlowC
             byte[] compressed = GZIPUtils.compressBufferToArray(ByteBufferUtils.combine(body));
             if(compressed != null)
             {
-                if(messageProps == null)
-                {
-                    messageProps = new MessageProperties();
-                }
+                messageProps = messageProps == null ? new MessageProperties() : new MessageProperties(messageProps);
                 messageProps.setContentEncoding(GZIPUtils.GZIP_CONTENT_ENCODING);
                 for (QpidByteBuffer buf : body)
                 {
@@ -32,6 +32,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -98,7 +99,7 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
 
     private ConnectionState _state = ConnectionState.UNOPENED;
     private int _channelMax = DEFAULT_CHANNEL_MAX;
-    private int _maxFrameSize = 4096;
+    private volatile int _maxFrameSize = 4096;
     private String _remoteContainerId;
 
     private SocketAddress _remoteAddress;
@@ -109,7 +110,14 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
     // positioned by the *incoming* channel
     private SessionEndpoint[] _receivingSessions;
     private boolean _closedForInput;
-    private boolean _closedForOutput;
+    private volatile boolean _closedForOutput;
+
+    /**
+     * Serialises the emission of frames.  The monitor of the connection guards only connection level state, and
+     * each session guards its own state, so that sessions need not contend with each other to send.  A thread
+     * holding the lock of a session may acquire the monitor of the connection, but not the reverse.
+     */
+    private final Object _sendLock = new Object();
 
     private long _idleTimeout;
 
@@ -226,14 +234,25 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         _properties = properties;
     }
 
-    public synchronized SessionEndpoint createSession(String name)
+    public SessionEndpoint createSession(String name)
     {
         // todo assert connection state
-        short channel = getFirstFreeChannel();
-        if (channel != -1)
+        SessionEndpoint endpoint = new SessionEndpoint(this);
+        short channel;
+        synchronized (this)
         {
-            SessionEndpoint endpoint = new SessionEndpoint(this);
+            channel = getFirstFreeChannel();
+            if (channel == -1)
+            {
+                // TODO - report error
+                return null;
+            }
             _sendingSessions[channel] = endpoint;
+        }
+
+        // the session is set up under its own lock, not the monitor of the connection
+        synchronized (endpoint.getLock())
+        {
             endpoint.setSendingChannel(channel);
             Begin begin = new Begin();
             begin.setNextOutgoingId(endpoint.getNextOutgoingId());
@@ -242,14 +261,8 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
 
             begin.setHandleMax(_handleMax);
             send(channel, begin);
-            return endpoint;
-
-        }
-        else
-        {
-            // TODO - report error
-            return null;
         }
+        return endpoint;
     }
 
 
@@ -334,7 +347,7 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         return -1;
     }
 
-    private SessionEndpoint getSession(final short channel)
+    private synchronized SessionEndpoint getSession(final short channel)
     {
         SessionEndpoint session = _receivingSessions[channel];
         if (session == null)
@@ -402,32 +415,37 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         return _remoteProperties;
     }
 
-    public synchronized void receiveClose(short channel, Close close)
+    public void receiveClose(short channel, Close close)
     {
         setClosedForInput(true);
+        // sessions are ended without holding the monitor of the connection
         _connectionEventListener.closeReceived();
-        switch (_state)
+        synchronized (this)
         {
-            case UNOPENED:
-            case AWAITING_OPEN:
-                Error error = new Error();
-                error.setCondition(ConnectionError.CONNECTION_FORCED);
-                error.setDescription("Connection close sent before connection was opened");
-                close(error);
-                break;
-            case OPEN:
-                _state = ConnectionState.CLOSE_RECEIVED;
-                sendClose(new Close());
-                _state = ConnectionState.CLOSED;
-                break;
-            case CLOSE_SENT:
-                _state = ConnectionState.CLOSED;
+            switch (_state)
+            {
+                case UNOPENED:
+                case AWAITING_OPEN:
+                    Error error = new Error();
+                    error.setCondition(ConnectionError.CONNECTION_FORCED);
+                    error.setDescription("Connection close sent before connection was opened");
+                    close(error);
+                    break;
+                case OPEN:
+                    _state = ConnectionState.CLOSE_RECEIVED;
+                    sendClose(new Close());
+                    _state = ConnectionState.CLOSED;
+                    break;
+                case CLOSE_SENT:
+                    _state = ConnectionState.CLOSED;
 
-            default:
-        }
-        _remoteError = close.getError();
+                default:
+            }
+            _remoteError = close.getError();
 
-        notifyAll();
+            notifyAll();
+        }
+        notifySessions();
     }
 
     public synchronized void close(Error error)
@@ -454,45 +472,98 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         }
     }
 
-    public synchronized void inputClosed()
+    public void inputClosed()
     {
-        if (!_closedForInput)
+        List<SessionEndpoint> sessionsToEnd = new ArrayList<>();
+        boolean alreadyClosed = false;
+        synchronized (this)
         {
-            _closedForInput = true;
-            _logger.received(_remoteAddress,(short)-1,"Underlying connection closed");
-            switch (_state)
+            if (_closedForInput)
             {
-                case UNOPENED:
-                case AWAITING_OPEN:
-                case CLOSE_SENT:
-                    _state = ConnectionState.CLOSED;
-                    closeSender();
-                    break;
-                case OPEN:
-                    _state = ConnectionState.CLOSE_RECEIVED;
-                case CLOSED:
-                    // already sent our close - too late to do anything more
-                    break;
-                default:
+                notifyAll();
+                alreadyClosed = true;
             }
-            if (_receivingSessions != null)
+            else
             {
-                for (int i = 0; i < _receivingSessions.length; i++)
+                _closedForInput = true;
+                _logger.received(_remoteAddress,(short)-1,"Underlying connection closed");
+                switch (_state)
+                {
+                    case UNOPENED:
+                    case AWAITING_OPEN:
+                    case CLOSE_SENT:
+                        _state = ConnectionState.CLOSED;
+                        closeSender();
+                        break;
+                    case OPEN:
+                        _state = ConnectionState.CLOSE_RECEIVED;
+                    case CLOSED:
+                        // already sent our close - too late to do anything more
+                        break;
+                    default:
+                }
+                if (_receivingSessions != null)
                 {
-                    if (_receivingSessions[i] != null)
+                    for (int i = 0; i < _receivingSessions.length; i++)
                     {
-                        _receivingSessions[i].end();
-                        _receivingSessions[i] = null;
+                        if (_receivingSessions[i] != null)
+                        {
+                            sessionsToEnd.add(_receivingSessions[i]);
+                            _receivingSessions[i] = null;
 
+                        }
                     }
                 }
             }
-            if(_connectionEventListener != null)
+        }
+
+        if (alreadyClosed)
+        {
+            notifySessions();
+            return;
+        }
+
+        // sessions are ended without holding the monitor of the connection
+        for (SessionEndpoint session : sessionsToEnd)
+        {
+            session.end();
+        }
+        if(_connectionEventListener != null)
+        {
+            _connectionEventListener.closeReceived();
+        }
+
+        synchronized (this)
+        {
+            notifyAll();
+        }
+        notifySessions();
+    }
+
+    /**
+     * Wakes the threads waiting on each session, which wait on the lock of the session rather than the monitor of
+     * the connection, so that they see the connection has closed.  Must be called holding neither the monitor of the
+     * connection nor the lock of any session.
+     */
+    private void notifySessions()
+    {
+        Set<SessionEndpoint> sessions = new HashSet<>();
+        synchronized (this)
+        {
+            if (_sendingSessions != null)
             {
-                _connectionEventListener.closeReceived();
+                Collections.addAll(sessions, _sendingSessions);
+            }
+            if (_receivingSessions != null)
+            {
+                Collections.addAll(sessions, _receivingSessions);
             }
         }
-        notifyAll();
+        sessions.remove(null);
+        for (SessionEndpoint session : sessions)
+        {
+            session.connectionStateChanged();
+        }
     }
 
     private void sendClose(Close closeToSend)
@@ -508,15 +579,29 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         notifyAll();
     }
 
-    public synchronized void receiveBegin(short channel, Begin begin)
+    /**
+     * Records the session begun by the peer, or the peer's reply to a session begun locally.  The tables of sessions
+     * are updated under the monitor of the connection, and the session itself under its own lock, so that the monitor
+     * of the connection is never held while taking the lock of a session.
+     */
+    public void receiveBegin(short channel, Begin begin)
     {
-        short myChannelId;
-
-
         if (begin.getRemoteChannel() != null)
         {
-            myChannelId = begin.getRemoteChannel().shortValue();
-            SessionEndpoint endpoint;
+            receiveBeginReply(channel, begin);
+        }
+        else // Peer requesting session creation
+        {
+            receiveBeginRequest(channel, begin);
+        }
+    }
+
+    private void receiveBeginReply(final short channel, final Begin begin)
+    {
+        short myChannelId = begin.getRemoteChannel().shortValue();
+        SessionEndpoint endpoint;
+        synchronized (this)
+        {
             try
             {
                 endpoint = _sendingSessions[myChannelId];
@@ -531,41 +616,62 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
                 close(error);
                 return;
             }
-            if (endpoint != null)
-            {
-                if (_receivingSessions[channel] == null)
-                {
-                    _receivingSessions[channel] = endpoint;
-                    endpoint.setReceivingChannel(channel);
-                    endpoint.setNextIncomingId(begin.getNextOutgoingId());
-                    endpoint.setOutgoingSessionCredit(begin.getIncomingWindow());
-
-                    if (endpoint.getState() == SessionState.END_SENT)
-                    {
-                        _sendingSessions[myChannelId] = null;
-                    }
-                }
-                else
-                {
-                    final Error error = new Error();
-                    error.setCondition(ConnectionError.FRAMING_ERROR);
-                    error.setDescription("BEGIN received on channel " + channel + " which is already in use.");
-                    close(error);
-                }
-            }
-            else
+            if (endpoint == null)
             {
                 final Error error = new Error();
                 error.setCondition(ConnectionError.FRAMING_ERROR);
                 error.setDescription("BEGIN received on channel " + channel + " with given remote-channel "
                                      + begin.getRemoteChannel() + " which is not known as a begun session.");
                 close(error);
+                return;
             }
+            if (_receivingSessions[channel] != null)
+            {
+                final Error error = new Error();
+                error.setCondition(ConnectionError.FRAMING_ERROR);
+                error.setDescription("BEGIN received on channel " + channel + " which is already in use.");
+                close(error);
+                return;
+            }
+            _receivingSessions[channel] = endpoint;
+        }
 
+        boolean endSent;
+        synchronized (endpoint.getLock())
+        {
+            endpoint.setReceivingChannel(channel);
+            endpoint.setNextIncomingId(begin.getNextOutgoingId());
+            endpoint.setOutgoingSessionCredit(begin.getIncomingWindow());
+            endSent = endpoint.getState() == SessionState.END_SENT;
+            endpoint.getLock().notifyAll();
+        }
 
+        if (endSent)
+        {
+            synchronized (this)
+            {
+                if (_sendingSessions[myChannelId] == endpoint)
+                {
+                    _sendingSessions[myChannelId] = null;
+                }
+            }
         }
-        else // Peer requesting session creation
+    }
+
+    private void receiveBeginRequest(final short channel, final Begin begin)
+    {
+        SessionEndpoint endpoint = new SessionEndpoint(this, begin);
+        short myChannelId;
+        synchronized (this)
         {
+            if (_receivingSessions[channel] != null)
+            {
+                final Error error = new Error();
+                error.setCondition(ConnectionError.FRAMING_ERROR);
+                error.setDescription("BEGIN received on channel " + channel + " which is already in use.");
+                close(error);
+                return;
+            }
 
             myChannelId = getFirstFreeChannel();
             if (myChannelId == -1)
@@ -575,46 +681,37 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
 
             }
 
-            if (_receivingSessions[channel] == null)
-            {
-                SessionEndpoint endpoint = new SessionEndpoint(this, begin);
-
-                _receivingSessions[channel] = endpoint;
-                _sendingSessions[myChannelId] = endpoint;
-
-                Begin beginToSend = new Begin();
-
-                endpoint.setReceivingChannel(channel);
-                endpoint.setSendingChannel(myChannelId);
-                beginToSend.setRemoteChannel(UnsignedShort.valueOf(channel));
-                beginToSend.setNextOutgoingId(endpoint.getNextOutgoingId());
-                beginToSend.setOutgoingWindow(endpoint.getOutgoingWindowSize());
-                beginToSend.setIncomingWindow(endpoint.getIncomingWindowSize());
-                send(myChannelId, beginToSend);
+            _receivingSessions[channel] = endpoint;
+            _sendingSessions[myChannelId] = endpoint;
+        }
 
-                _connectionEventListener.remoteSessionCreation(endpoint);
-            }
-            else
-            {
-                final Error error = new Error();
-                error.setCondition(ConnectionError.FRAMING_ERROR);
-                error.setDescription("BEGIN received on channel " + channel + " which is already in use.");
-                close(error);
-            }
+        synchronized (endpoint.getLock())
+        {
+            Begin beginToSend = new Begin();
 
+            endpoint.setReceivingChannel(channel);
+            endpoint.setSendingChannel(myChannelId);
+            beginToSend.setRemoteChannel(UnsignedShort.valueOf(channel));
+            beginToSend.setNextOutgoingId(endpoint.getNextOutgoingId());
+            beginToSend.setOutgoingWindow(endpoint.getOutgoingWindowSize());
+            beginToSend.setIncomingWindow(endpoint.getIncomingWindowSize());
+            send(myChannelId, beginToSend);
         }
 
-
+        _connectionEventListener.remoteSessionCreation(endpoint);
     }
 
 
-    public synchronized void receiveEnd(short channel, End end)
+    public void receiveEnd(short channel, End end)
     {
-        SessionEndpoint endpoint = _receivingSessions[channel];
-        if (endpoint != null)
+        SessionEndpoint endpoint;
+        synchronized (this)
         {
+            endpoint = _receivingSessions[channel];
             _receivingSessions[channel] = null;
-
+        }
+        if (endpoint != null)
+        {
             endpoint.receiveEnd(end);
         }
         else
@@ -634,7 +731,7 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         }
     }
 
-    public synchronized void receiveAttach(short channel, Attach attach)
+    public void receiveAttach(short channel, Attach attach)
     {
         SessionEndpoint endPoint = getSession(channel);
         if (endPoint != null)
@@ -644,7 +741,7 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
     }
 
 
-    public synchronized void receiveDetach(short channel, Detach detach)
+    public void receiveDetach(short channel, Detach detach)
     {
         SessionEndpoint endPoint = getSession(channel);
         if (endPoint != null)
@@ -653,7 +750,7 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         }
     }
 
-    public synchronized void receiveTransfer(short channel, Transfer transfer)
+    public void receiveTransfer(short channel, Transfer transfer)
     {
         SessionEndpoint endPoint = getSession(channel);
         if (endPoint != null)
@@ -662,7 +759,7 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         }
     }
 
-    public synchronized void receiveDisposition(short channel, Disposition disposition)
+    public void receiveDisposition(short channel, Disposition disposition)
     {
         SessionEndpoint endPoint = getSession(channel);
         if (endPoint != null)
@@ -671,7 +768,7 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         }
     }
 
-    public synchronized void receiveFlow(short channel, Flow flow)
+    public void receiveFlow(short channel, Flow flow)
     {
         SessionEndpoint endPoint = getSession(channel);
         if (endPoint != null)
@@ -681,13 +778,21 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
     }
 
 
-    public synchronized void send(short channel, FrameBody body)
+    public void send(short channel, FrameBody body)
     {
         send(channel, body, null);
     }
 
 
-    public synchronized int send(short channel, FrameBody body, QpidByteBuffer payload)
+    public int send(short channel, FrameBody body, QpidByteBuffer payload)
+    {
+        synchronized (_sendLock)
+        {
+            return sendFrame(channel, body, payload);
+        }
+    }
+
+    private int sendFrame(short channel, FrameBody body, QpidByteBuffer payload)
     {
         if (!_closedForOutput)
         {
@@ -802,21 +907,27 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
 
     public void receive(final short channel, final Object frame)
     {
-        List<Runnable> postLockActions;
-        synchronized(this)
+        if (_logger.isEnabled())
         {
-            if (_logger.isEnabled())
-            {
-                _logger.received(_remoteAddress, channel, frame);
-            }
-            if (frame instanceof FrameBody)
-            {
-                ((FrameBody) frame).invoke(channel, this);
-            }
-            else if (frame instanceof SaslFrameBody)
+            _logger.received(_remoteAddress, channel, frame);
+        }
+        if (frame instanceof FrameBody)
+        {
+            // connection level frames take the monitor of the connection, session level frames only the lock of the
+            // session to which they are addressed
+            ((FrameBody) frame).invoke(channel, this);
+        }
+        else if (frame instanceof SaslFrameBody)
+        {
+            synchronized (this)
             {
                 ((SaslFrameBody) frame).invoke(this);
             }
+        }
+
+        List<Runnable> postLockActions;
+        synchronized(this)
+        {
             postLockActions = _postLockActions;
             _postLockActions = new ArrayList<>();
         }
@@ -858,20 +969,24 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
         return _idleTimeout;
     }
 
-    public synchronized void close()
+    public void close()
     {
-        switch (_state)
+        synchronized (this)
         {
-            case AWAITING_OPEN:
-            case OPEN:
-                Close closeToSend = new Close();
-                sendClose(closeToSend);
-                _state = ConnectionState.CLOSE_SENT;
-                break;
-            case CLOSE_SENT:
-            default:
+            switch (_state)
+            {
+                case AWAITING_OPEN:
+                case OPEN:
+                    Close closeToSend = new Close();
+                    sendClose(closeToSend);
+                    _state = ConnectionState.CLOSE_SENT;
+                    break;
+                case CLOSE_SENT:
+                default:
+            }
+            notifyAll();
         }
-
+        notifySessions();
     }
 
     public void setConnectionEventListener(final ConnectionEventListener connectionEventListener)
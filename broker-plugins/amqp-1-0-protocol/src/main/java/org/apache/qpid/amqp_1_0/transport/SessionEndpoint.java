@@ -25,7 +25,6 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
@@ -40,7 +39,10 @@ import org.apache.qpid.amqp_1_0.type.messaging.Source;
 import org.apache.qpid.amqp_1_0.type.messaging.Target;
 import org.apache.qpid.amqp_1_0.type.messaging.TerminusDurability;
 import org.apache.qpid.amqp_1_0.type.messaging.TerminusExpiryPolicy;
+import org.apache.qpid.amqp_1_0.type.messaging.Accepted;
+import org.apache.qpid.amqp_1_0.type.messaging.Released;
 import org.apache.qpid.amqp_1_0.type.transaction.Coordinator;
+import org.apache.qpid.amqp_1_0.type.transaction.TransactionalState;
 import org.apache.qpid.amqp_1_0.type.transaction.TxnCapability;
 import org.apache.qpid.amqp_1_0.type.transport.AmqpError;
 import org.apache.qpid.amqp_1_0.type.transport.Attach;
@@ -57,6 +59,9 @@ import org.apache.qpid.bytebuffer.QpidByteBuffer;
 
 public class SessionEndpoint
 {
+    /** Guards the state of this session and its links, independently of the other sessions on the connection */
+    private final Object _lock = new Object();
+
     private SessionState _state = SessionState.INACTIVE;
 
     private final Map<String, LinkEndpoint> _linkMap = new HashMap<String, LinkEndpoint>();
@@ -72,8 +77,13 @@ public class SessionEndpoint
     private short _receivingChannel;
     private short _sendingChannel;
 
-    private LinkedHashMap<UnsignedInteger,Delivery> _outgoingUnsettled;
-    private LinkedHashMap<UnsignedInteger,Delivery> _incomingUnsettled;
+    private final UnsettledDeliveries _outgoingUnsettled;
+    private final UnsettledDeliveries _incomingUnsettled;
+
+    /** Whether dispositions are held back so that those for consecutive deliveries can be sent as a single range */
+    private boolean _coalesceDispositions;
+    private Disposition _pendingDisposition;
+    private int _pendingDispositionLast;
 
     // has to be a power of two
     private static final int DEFAULT_SESSION_BUFFER_SIZE = 1 << 11;
@@ -125,8 +135,8 @@ public class SessionEndpoint
         _initialOutgoingId = nextOutgoingId;
         _nextOutgoingTransferId = new SequenceNumber(nextOutgoingId.intValue());
 
-        _outgoingUnsettled = new LinkedHashMap<UnsignedInteger,Delivery>(DEFAULT_SESSION_BUFFER_SIZE);
-        _incomingUnsettled = new LinkedHashMap<UnsignedInteger, Delivery>(DEFAULT_SESSION_BUFFER_SIZE);
+        _outgoingUnsettled = new UnsettledDeliveries(DEFAULT_SESSION_BUFFER_SIZE);
+        _incomingUnsettled = new UnsettledDeliveries(DEFAULT_SESSION_BUFFER_SIZE);
         _availableIncomingCredit = DEFAULT_SESSION_BUFFER_SIZE;
         _availableOutgoingCredit = DEFAULT_SESSION_BUFFER_SIZE;
     }
@@ -187,11 +197,13 @@ public class SessionEndpoint
             switch(_state)
             {
                 case BEGIN_SENT:
+                    flushDispositions();
                     _connection.sendEnd(getSendingChannel(), end, false);
                     _state = SessionState.END_PIPE;
                     break;
                 case ACTIVE:
                     detachLinks();
+                    flushDispositions();
                     short sendChannel = getSendingChannel();
                     _connection.sendEnd(sendChannel, end, true);
                     _state = SessionState.END_SENT;
@@ -224,6 +236,7 @@ public class SessionEndpoint
                 case ACTIVE:
                     detachLinks();
                     _sessionEventListener.remoteEnd(end);
+                    flushDispositions();
                     short sendChannel = getSendingChannel();
                     _connection.sendEnd(sendChannel, new End(), true);
                     _state = SessionState.ENDED;
@@ -270,49 +283,52 @@ public class SessionEndpoint
 
     public void receiveAttach(final Attach attach)
     {
-        if(_state == SessionState.ACTIVE)
+        synchronized(getLock())
         {
-            UnsignedInteger handle = attach.getHandle();
-            if(_remoteLinkEndpoints.containsKey(handle))
-            {
-                // TODO - Error - handle busy?
-            }
-            else
+            if(_state == SessionState.ACTIVE)
             {
-                LinkEndpoint endpoint = getLinkMap().get(attach.getName());
-                if(endpoint == null)
+                UnsignedInteger handle = attach.getHandle();
+                if(_remoteLinkEndpoints.containsKey(handle))
                 {
-                    endpoint = attach.getRole() == Role.RECEIVER
-                               ? new SendingLinkEndpoint(this, attach)
-                               : new ReceivingLinkEndpoint(this, attach);
+                    // TODO - Error - handle busy?
+                }
+                else
+                {
+                    LinkEndpoint endpoint = getLinkMap().get(attach.getName());
+                    if(endpoint == null)
+                    {
+                        endpoint = attach.getRole() == Role.RECEIVER
+                                   ? new SendingLinkEndpoint(this, attach)
+                                   : new ReceivingLinkEndpoint(this, attach);
 
-                    // TODO : fix below - distinguish between local and remote owned
-                    endpoint.setSource(attach.getSource());
-                    endpoint.setTarget(attach.getTarget());
+                        // TODO : fix below - distinguish between local and remote owned
+                        endpoint.setSource(attach.getSource());
+                        endpoint.setTarget(attach.getTarget());
 
 
-                }
+                    }
 
-                if(attach.getRole() == Role.SENDER)
-                {
-                    endpoint.setDeliveryCount(attach.getInitialDeliveryCount());
-                }
+                    if(attach.getRole() == Role.SENDER)
+                    {
+                        endpoint.setDeliveryCount(attach.getInitialDeliveryCount());
+                    }
 
-                _remoteLinkEndpoints.put(handle, endpoint);
+                    _remoteLinkEndpoints.put(handle, endpoint);
 
-                if(!_localLinkEndpoints.containsKey(endpoint))
-                {
-                    UnsignedInteger localHandle = findNextAvailableHandle();
-                    endpoint.setLocalHandle(localHandle);
-                    _localLinkEndpoints.put(endpoint, localHandle);
+                    if(!_localLinkEndpoints.containsKey(endpoint))
+                    {
+                        UnsignedInteger localHandle = findNextAvailableHandle();
+                        endpoint.setLocalHandle(localHandle);
+                        _localLinkEndpoints.put(endpoint, localHandle);
 
-                    _sessionEventListener.remoteLinkCreation(endpoint);
+                        _sessionEventListener.remoteLinkCreation(endpoint);
 
 
-                }
-                else
-                {
-                    endpoint.receiveAttach(attach);
+                    }
+                    else
+                    {
+                        endpoint.receiveAttach(attach);
+                    }
                 }
             }
         }
@@ -320,12 +336,14 @@ public class SessionEndpoint
 
     private void send(final FrameBody frameBody)
     {
+        flushDispositions();
         _connection.send(this.getSendingChannel(), frameBody);
     }
 
 
     private int send(final FrameBody frameBody, QpidByteBuffer payload)
     {
+        flushDispositions();
         return _connection.send(this.getSendingChannel(), frameBody, payload);
     }
 
@@ -346,8 +364,11 @@ public class SessionEndpoint
 
     public void receiveDetach(final Detach detach)
     {
-        UnsignedInteger handle = detach.getHandle();
-        detach(handle, detach);
+        synchronized(getLock())
+        {
+            UnsignedInteger handle = detach.getHandle();
+            detach(handle, detach);
+        }
     }
 
     private void detach(UnsignedInteger handle, Detach detach)
@@ -396,11 +417,11 @@ public class SessionEndpoint
                 deliveryId = ((ReceivingLinkEndpoint)endpoint).getLastDeliveryId();
             }
 
-            Delivery delivery = _incomingUnsettled.get(deliveryId);
+            Delivery delivery = _incomingUnsettled.get(deliveryId.intValue());
             if(delivery == null)
             {
                 delivery = new Delivery(transfer, endpoint);
-                _incomingUnsettled.put(deliveryId,delivery);
+                _incomingUnsettled.put(deliveryId.intValue(), delivery);
                 if(delivery.isSettled() || Boolean.TRUE.equals(transfer.getAborted()))
                 {
 /*
@@ -450,7 +471,7 @@ public class SessionEndpoint
 
             if((delivery.isComplete() && delivery.isSettled() || Boolean.TRUE.equals(transfer.getAborted())))
             {
-                _incomingUnsettled.remove(deliveryId);
+                _incomingUnsettled.remove(deliveryId.intValue());
             }
         }
     }
@@ -497,45 +518,47 @@ public class SessionEndpoint
 
     public void receiveDisposition(final Disposition disposition)
     {
-        Role dispositionRole = disposition.getRole();
+        synchronized(getLock())
+        {
+            Role dispositionRole = disposition.getRole();
 
-        LinkedHashMap<UnsignedInteger, Delivery> unsettledTransfers;
+            UnsettledDeliveries unsettledTransfers;
 
-        if(dispositionRole == Role.RECEIVER)
-        {
-            unsettledTransfers = _outgoingUnsettled;
-        }
-        else
-        {
-            unsettledTransfers = _incomingUnsettled;
+            if(dispositionRole == Role.RECEIVER)
+            {
+                unsettledTransfers = _outgoingUnsettled;
+            }
+            else
+            {
+                unsettledTransfers = _incomingUnsettled;
 
-        }
+            }
 
-        UnsignedInteger deliveryId = disposition.getFirst();
-        UnsignedInteger last = disposition.getLast();
-        if(last == null)
-        {
-            last = deliveryId;
-        }
+            UnsignedInteger deliveryId = disposition.getFirst();
+            UnsignedInteger last = disposition.getLast();
+            if(last == null)
+            {
+                last = deliveryId;
+            }
 
 
-                while(deliveryId.compareTo(last)<=0)
-                {
+            while(deliveryId.compareTo(last)<=0)
+            {
 
-                    Delivery delivery = unsettledTransfers.get(deliveryId);
-                    if(delivery != null)
-                    {
-                        delivery.getLinkEndpoint().receiveDeliveryState(delivery,
-                                                                   disposition.getState(),
-                                                                   disposition.getSettled());
-                    }
-                    deliveryId = deliveryId.add(UnsignedInteger.ONE);
-                }
-                if(disposition.getSettled())
+                Delivery delivery = unsettledTransfers.get(deliveryId.intValue());
+                if(delivery != null)
                 {
-                    checkSendFlow();
+                    delivery.getLinkEndpoint().receiveDeliveryState(delivery,
+                                                               disposition.getState(),
+                                                               disposition.getSettled());
                 }
-
+                deliveryId = deliveryId.add(UnsignedInteger.ONE);
+            }
+            if(disposition.getSettled())
+            {
+                checkSendFlow();
+            }
+        }
     }
 
     private void checkSendFlow()
@@ -621,10 +644,10 @@ public class SessionEndpoint
         if(!Boolean.TRUE.equals(xfr.getSettled()))
         {
             Delivery delivery;
-            if((delivery = _outgoingUnsettled.get(deliveryId))== null)
+            if((delivery = _outgoingUnsettled.get(deliveryId.intValue()))== null)
             {
                 delivery = new Delivery(xfr, endpoint);
-                _outgoingUnsettled.put(deliveryId, delivery);
+                _outgoingUnsettled.put(deliveryId.intValue(), delivery);
 
             }
             else
@@ -668,7 +691,19 @@ public class SessionEndpoint
 
     public Object getLock()
     {
-        return _connection.getLock();
+        return _lock;
+    }
+
+    /**
+     * Wakes the threads waiting on this session, so that they re-evaluate conditions which depend on the state of the
+     * connection.
+     */
+    void connectionStateChanged()
+    {
+        synchronized (getLock())
+        {
+            getLock().notifyAll();
+        }
     }
 
 
@@ -679,12 +714,29 @@ public class SessionEndpoint
 
     public void waitUntil(Predicate predicate) throws TimeoutException, InterruptedException
     {
-        _connection.waitUntil(predicate);
+        waitUntil(predicate, getSyncTimeout());
     }
 
     public void waitUntil(Predicate predicate, long timeout) throws TimeoutException, InterruptedException
     {
-        _connection.waitUntil(predicate, timeout);
+        long endTime = System.currentTimeMillis() + timeout;
+
+        synchronized (getLock())
+        {
+            while (!predicate.isSatisfied())
+            {
+                getLock().wait(timeout);
+
+                if (!predicate.isSatisfied())
+                {
+                    timeout = endTime - System.currentTimeMillis();
+                    if (timeout <= 0l)
+                    {
+                        throw new TimeoutException();
+                    }
+                }
+            }
+        }
     }
 
 
@@ -727,45 +779,126 @@ public class SessionEndpoint
                                   final DeliveryState state,
                                   final boolean settled)
     {
-
-
-        Disposition disposition = new Disposition();
-        disposition.setRole(role);
-        disposition.setFirst(first);
-        disposition.setLast(last);
-        disposition.setSettled(settled);
-
-        disposition.setState(state);
-
-
-        if(settled)
+        synchronized(getLock())
         {
-            if(role == Role.RECEIVER)
+            if(settled && role == Role.RECEIVER)
             {
-                SequenceNumber pos = new SequenceNumber(first.intValue());
-                SequenceNumber end = new SequenceNumber(last.intValue());
-                while(pos.compareTo(end)<=0)
+                final int end = last.intValue();
+                for(int pos = first.intValue(); pos - end <= 0; pos++)
                 {
-                    Delivery d = _incomingUnsettled.remove(new UnsignedInteger(pos.intValue()));
+                    Delivery d = _incomingUnsettled.remove(pos);
 
 /*
                     _availableIncomingCredit += d.getTransfers().size();
 */
+                }
+            }
 
-                    pos.incr();
+            if(_coalesceDispositions && extendsPendingDisposition(role, first, state, settled))
+            {
+                _pendingDisposition.setLast(last);
+                _pendingDispositionLast = last.intValue();
+            }
+            else
+            {
+                Disposition disposition = new Disposition();
+                disposition.setRole(role);
+                disposition.setFirst(first);
+                disposition.setLast(last);
+                disposition.setSettled(settled);
+
+                disposition.setState(state);
+
+                if(_coalesceDispositions)
+                {
+                    boolean wasPending = _pendingDisposition != null;
+                    flushDispositions();
+                    _pendingDisposition = disposition;
+                    _pendingDispositionLast = last.intValue();
+                    if(!wasPending)
+                    {
+                        _sessionEventListener.dispositionsPending();
+                    }
+                }
+                else
+                {
+                    send(disposition);
                 }
             }
+            checkSendFlow();
+        }
+    }
+
+    private boolean extendsPendingDisposition(final Role role,
+                                              final UnsignedInteger first,
+                                              final DeliveryState state,
+                                              final boolean settled)
+    {
+        return _pendingDisposition != null
+               && _pendingDisposition.getRole() == role
+               && _pendingDisposition.getSettled() == settled
+               && first.intValue() == _pendingDispositionLast + 1
+               && isSameState(_pendingDisposition.getState(), state);
+    }
+
+    /**
+     * Only states which carry no information specific to the delivery can be shared by a range of deliveries.
+     */
+    private static boolean isSameState(final Object state, final Object otherState)
+    {
+        if(state == null || otherState == null)
+        {
+            return state == otherState;
+        }
+        else if(state instanceof TransactionalState && otherState instanceof TransactionalState)
+        {
+            TransactionalState txnState = (TransactionalState) state;
+            TransactionalState otherTxnState = (TransactionalState) otherState;
+            return txnState.getTxnId() != null
+                   && txnState.getTxnId().equals(otherTxnState.getTxnId())
+                   && isSameState(txnState.getOutcome(), otherTxnState.getOutcome());
+        }
+        else
+        {
+            return (state instanceof Accepted || state instanceof Released) && state.getClass() == otherState.getClass();
+        }
+    }
+
+    /**
+     * Enables dispositions to be held back until {@link #flushDispositions()} is called, so that those for
+     * consecutive deliveries with the same state can be sent as a single disposition for the range.  The session
+     * event listener is told when dispositions become pending so that it can arrange for them to be flushed.
+     */
+    public void setCoalesceDispositions(final boolean coalesceDispositions)
+    {
+        synchronized(getLock())
+        {
+            _coalesceDispositions = coalesceDispositions;
+            if(!coalesceDispositions)
+            {
+                flushDispositions();
+            }
         }
+    }
 
-        send(disposition);
-        checkSendFlow();
+    public void flushDispositions()
+    {
+        synchronized(getLock())
+        {
+            final Disposition disposition = _pendingDisposition;
+            if(disposition != null)
+            {
+                _pendingDisposition = null;
+                _connection.send(getSendingChannel(), disposition);
+            }
+        }
     }
 
     public void settle(Role role, final UnsignedInteger deliveryId)
     {
         if(role == Role.RECEIVER)
         {
-            Delivery d = _incomingUnsettled.remove(deliveryId);
+            Delivery d = _incomingUnsettled.remove(deliveryId.intValue());
             if(d != null)
             {
 /*
@@ -775,7 +908,7 @@ public class SessionEndpoint
         }
         else
         {
-            Delivery d = _outgoingUnsettled.remove(deliveryId);
+            Delivery d = _outgoingUnsettled.remove(deliveryId.intValue());
 /*            if(d != null)
             {
                 _availableOutgoingCredit += d.getTransfers().size();
@@ -36,6 +36,11 @@ public interface SessionEventListener
 
         }
 
+        public void dispositionsPending()
+        {
+
+        }
+
     }
 
     public static final SessionEventListener DEFAULT = new DefaultSessionEventListener();
@@ -44,4 +49,10 @@ public interface SessionEventListener
 
     void remoteEnd(End end);
 
+    /**
+     * Called when the session starts holding back dispositions, which will not be sent until the session's
+     * dispositions are flushed or it sends another frame.
+     */
+    void dispositionsPending();
+
 }
@@ -0,0 +1,281 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.transport;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The unsettled deliveries of one direction of a session, keyed by delivery id.
+ * <p>
+ * Delivery ids are allocated sequentially and deliveries are usually settled in roughly the order they were sent,
+ * so the deliveries are held in a ring buffer indexed directly by the delivery id rather than in a map of boxed ids.
+ * The ring covers a window of ids from its oldest unsettled delivery to the newest, and grows while that span is
+ * within a fixed maximum capacity.  Deliveries left unsettled while the window moves on are moved out of the ring
+ * into an overflow map, so that memory stays proportional to the number of unsettled deliveries however long a
+ * delivery stays unsettled.  The ring shrinks again when few of its slots are in use.  Ids are compared using serial
+ * number arithmetic, so the window may wrap past 2<sup>32</sup>.
+ * <p>
+ * This class is not thread safe; the session guards it with its lock.
+ */
+class UnsettledDeliveries
+{
+    private static final int MINIMUM_CAPACITY = 16;
+    static final int DEFAULT_MAXIMUM_CAPACITY = 1 << 16;
+
+    private final int _minimumCapacity;
+    private final int _maximumCapacity;
+    private Delivery[] _deliveries;
+    private int _mask;
+    /** The id of the oldest unsettled delivery in the ring */
+    private int _first;
+    /** The number of ids from the oldest to the newest unsettled delivery in the ring inclusive */
+    private int _span;
+    private int _ringSize;
+    /** Unsettled deliveries outside the window of the ring */
+    private final Map<Integer, Delivery> _overflow = new HashMap<>();
+
+    UnsettledDeliveries(final int initialCapacity)
+    {
+        this(initialCapacity, DEFAULT_MAXIMUM_CAPACITY);
+    }
+
+    UnsettledDeliveries(final int initialCapacity, final int maximumCapacity)
+    {
+        _minimumCapacity = capacityFor(initialCapacity);
+        _maximumCapacity = Math.max(_minimumCapacity, capacityFor(maximumCapacity));
+        _deliveries = new Delivery[_minimumCapacity];
+        _mask = _minimumCapacity - 1;
+    }
+
+    Delivery get(final int deliveryId)
+    {
+        Delivery delivery = null;
+        if (isInRing(deliveryId))
+        {
+            delivery = _deliveries[deliveryId & _mask];
+        }
+        if (delivery == null && !_overflow.isEmpty())
+        {
+            delivery = _overflow.get(deliveryId);
+        }
+        return delivery;
+    }
+
+    void put(final int deliveryId, final Delivery delivery)
+    {
+        if (!_overflow.isEmpty() && _overflow.containsKey(deliveryId))
+        {
+            _overflow.put(deliveryId, delivery);
+            return;
+        }
+
+        if (_ringSize == 0)
+        {
+            _first = deliveryId;
+            _span = 1;
+        }
+        else
+        {
+            int offset = deliveryId - _first;
+            if (offset < 0)
+            {
+                int span = _span - offset;
+                if (span <= 0 || span > _maximumCapacity || !_overflow.isEmpty())
+                {
+                    // older than the window, which cannot grow back over the ids moved to the overflow map
+                    _overflow.put(deliveryId, delivery);
+                    return;
+                }
+                ensureCapacity(span);
+                _first = deliveryId;
+                _span = span;
+            }
+            else if (offset >= _span)
+            {
+                if (offset >= _maximumCapacity)
+                {
+                    moveToOverflow(deliveryId - (_maximumCapacity - 1));
+                    if (_ringSize == 0)
+                    {
+                        _first = deliveryId;
+                    }
+                    offset = deliveryId - _first;
+                }
+                ensureCapacity(offset + 1);
+                _span = offset + 1;
+            }
+        }
+
+        int index = deliveryId & _mask;
+        if (_deliveries[index] == null)
+        {
+            _ringSize++;
+        }
+        _deliveries[index] = delivery;
+    }
+
+    Delivery remove(final int deliveryId)
+    {
+        if (!isInRing(deliveryId))
+        {
+            return _overflow.isEmpty() ? null : _overflow.remove(deliveryId);
+        }
+
+        int offset = deliveryId - _first;
+        int index = deliveryId & _mask;
+        Delivery delivery = _deliveries[index];
+        if (delivery == null)
+        {
+            return _overflow.isEmpty() ? null : _overflow.remove(deliveryId);
+        }
+
+        _deliveries[index] = null;
+        if (--_ringSize == 0)
+        {
+            _span = 0;
+        }
+        else if (offset == 0)
+        {
+            // the oldest delivery was settled, so advance to the next unsettled one
+            do
+            {
+                _first++;
+                _span--;
+            }
+            while (_deliveries[_first & _mask] == null);
+        }
+        else if (offset == _span - 1)
+        {
+            do
+            {
+                _span--;
+            }
+            while (_deliveries[(_first + _span - 1) & _mask] == null);
+        }
+        shrinkIfSparse();
+        return delivery;
+    }
+
+    int size()
+    {
+        return _ringSize + _overflow.size();
+    }
+
+    boolean isEmpty()
+    {
+        return _ringSize == 0 && _overflow.isEmpty();
+    }
+
+    /**
+     * @return the number of slots in the ring
+     */
+    int getCapacity()
+    {
+        return _deliveries.length;
+    }
+
+    int getOverflowSize()
+    {
+        return _overflow.size();
+    }
+
+    private boolean isInRing(final int deliveryId)
+    {
+        int offset = deliveryId - _first;
+        return offset >= 0 && offset < _span;
+    }
+
+    /**
+     * Moves the deliveries in the ring with ids preceding the given id to the overflow map, and advances the ring to
+     * its oldest remaining delivery.
+     */
+    private void moveToOverflow(final int newFirst)
+    {
+        int toMove = Math.min(_span, newFirst - _first);
+        for (int i = 0; i < toMove; i++)
+        {
+            int deliveryId = _first + i;
+            int index = deliveryId & _mask;
+            Delivery delivery = _deliveries[index];
+            if (delivery != null)
+            {
+                _overflow.put(deliveryId, delivery);
+                _deliveries[index] = null;
+                _ringSize--;
+            }
+        }
+
+        if (_ringSize == 0)
+        {
+            _span = 0;
+        }
+        else
+        {
+            _first += toMove;
+            _span -= toMove;
+            while (_deliveries[_first & _mask] == null)
+            {
+                _first++;
+                _span--;
+            }
+        }
+    }
+
+    private void ensureCapacity(final int span)
+    {
+        if (span > _deliveries.length)
+        {
+            resize(capacityFor(span));
+        }
+    }
+
+    private void shrinkIfSparse()
+    {
+        if (_deliveries.length > _minimumCapacity && _span < _deliveries.length / 4)
+        {
+            resize(Math.max(_minimumCapacity, capacityFor(_span)));
+        }
+    }
+
+    private void resize(final int capacity)
+    {
+        Delivery[] deliveries = new Delivery[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < _span; i++)
+        {
+            int deliveryId = _first + i;
+            deliveries[deliveryId & mask] = _deliveries[deliveryId & _mask];
+        }
+        _deliveries = deliveries;
+        _mask = mask;
+    }
+
+    private static int capacityFor(final int span)
+    {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < span && capacity < (1 << 30))
+        {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
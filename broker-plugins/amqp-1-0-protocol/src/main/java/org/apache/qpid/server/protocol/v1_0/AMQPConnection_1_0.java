@@ -466,6 +466,10 @@ public class AMQPConnection_1_0 extends AbstractAMQPConnection<AMQPConnection_1_
         finally
         {
             msg.position(msg.limit());
+            if(_connection != null)
+            {
+                _connection.flushDispositions();
+            }
         }
      }
 
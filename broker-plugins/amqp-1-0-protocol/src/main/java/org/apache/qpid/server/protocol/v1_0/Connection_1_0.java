@@ -187,6 +187,7 @@ public class Connection_1_0 implements ConnectionEventListener
             final Session_1_0 session = new Session_1_0(this, endpoint);
             _sessions.add(session);
             _amqpConnection.sessionAdded(session);
+            endpoint.setCoalesceDispositions(true);
             endpoint.setSessionEventListener(new SessionEventListener()
             {
                 @Override
@@ -216,6 +217,12 @@ public class Connection_1_0 implements ConnectionEventListener
                         }
                     }, session.getAccessControllerContext());
                 }
+
+                @Override
+                public void dispositionsPending()
+                {
+                    session.dispositionsPending();
+                }
             });
         }
     }
@@ -401,6 +408,19 @@ public class Connection_1_0 implements ConnectionEventListener
             asyncAction.performAction(this);
         }
 
+        flushDispositions();
+    }
+
+    /**
+     * Sends the dispositions which the sessions have held back in order to coalesce those for consecutive
+     * deliveries.  Called at the end of each cycle of work on the connection.
+     */
+    public void flushDispositions()
+    {
+        for(Session_1_0 session : getSessionModels())
+        {
+            session.flushDispositions();
+        }
     }
 
     @Override
@@ -49,7 +49,6 @@ import org.apache.qpid.server.consumer.AbstractConsumerTarget;
 import org.apache.qpid.server.consumer.ConsumerImpl;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.ServerMessage;
-import org.apache.qpid.server.plugin.MessageConverter;
 import org.apache.qpid.server.protocol.AMQSessionModel;
 import org.apache.qpid.server.protocol.LinkRegistry;
 import org.apache.qpid.server.protocol.MessageConverterRegistry;
@@ -132,8 +131,7 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget
         }
         else
         {
-            final MessageConverter converter = MessageConverterRegistry.getConverter(serverMessage.getClass(), Message_1_0.class);
-            message = (Message_1_0) converter.convert(serverMessage, _link.getVirtualHost());
+            message = MessageConverterRegistry.convert(serverMessage, Message_1_0.class, _link.getVirtualHost());
         }
 
         Transfer transfer = new Transfer();
@@ -519,6 +519,17 @@ public class Session_1_0 implements SessionEventListener, AMQSessionModel<Sessio
         return transaction;
     }
 
+    @Override
+    public void dispositionsPending()
+    {
+        _connection.notifyWork();
+    }
+
+    void flushDispositions()
+    {
+        _endpoint.flushDispositions();
+    }
+
     public void remoteEnd(End end)
     {
         Iterator<Map.Entry<Integer, ServerTransaction>> iter = _openTransactions.entrySet().iterator();
@@ -0,0 +1,173 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.transport;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.amqp_1_0.type.FrameBody;
+import org.apache.qpid.amqp_1_0.type.UnsignedInteger;
+import org.apache.qpid.amqp_1_0.type.UnsignedShort;
+import org.apache.qpid.amqp_1_0.type.transport.Begin;
+import org.apache.qpid.amqp_1_0.type.transport.End;
+import org.apache.qpid.amqp_1_0.type.transport.Open;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ConnectionEndpointTest extends QpidTestCase
+{
+    private static final int CHANNEL_MAX = 255;
+
+    private ConnectionEndpoint _connection;
+    private final List<SessionEndpoint> _remoteSessions = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _connection = new ConnectionEndpoint(new Container("test"), null, null);
+        @SuppressWarnings("unchecked")
+        FrameOutputHandler<FrameBody> frameOutputHandler = mock(FrameOutputHandler.class);
+        _connection.setFrameOutputHandler(frameOutputHandler);
+        _connection.setConnectionEventListener(new ConnectionEventListener.DefaultConnectionEventListener()
+        {
+            @Override
+            public void remoteSessionCreation(final SessionEndpoint endpoint)
+            {
+                _remoteSessions.add(endpoint);
+            }
+        });
+        Open open = new Open();
+        open.setChannelMax(UnsignedShort.valueOf((short) CHANNEL_MAX));
+        _connection.receiveOpen((short) 0, open);
+    }
+
+    public void testConcurrentBeginAndEnd() throws Exception
+    {
+        final int threadCount = 8;
+        final int iterations = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++)
+        {
+            final short channel = (short) t;
+            Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for (int i = 0; i < iterations; i++)
+                        {
+                            _connection.receiveBegin(channel, createBegin());
+                            _connection.receiveEnd(channel, new End());
+                        }
+                    }
+                    catch (Throwable e)
+                    {
+                        failures.add(e);
+                    }
+                }
+            }, "BeginEnd-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join(10000);
+            assertFalse("Thread " + thread.getName() + " did not finish", thread.isAlive());
+        }
+
+        assertTrue("Unexpected failures: " + failures, failures.isEmpty());
+        assertEquals("Unexpected number of sessions begun", threadCount * iterations, _remoteSessions.size());
+        for (SessionEndpoint session : _remoteSessions)
+        {
+            assertEquals("Unexpected session state", SessionState.ENDED, session.getState());
+        }
+        assertEquals("All channels should have been released", 0, _connection.getFirstFreeChannel());
+    }
+
+    public void testConnectionCloseWakesWaitingSession() throws Exception
+    {
+        _connection.receiveBegin((short) 0, createBegin());
+        assertEquals("Unexpected number of sessions", 1, _remoteSessions.size());
+        final SessionEndpoint session = _remoteSessions.get(0);
+
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        Thread waiter = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    synchronized (session.getLock())
+                    {
+                        waiting.countDown();
+                        session.waitUntil(new Predicate()
+                        {
+                            @Override
+                            public boolean isSatisfied()
+                            {
+                                return _connection.closedForOutput();
+                            }
+                        }, 30000L);
+                    }
+                }
+                catch (Throwable e)
+                {
+                    failures.add(e);
+                }
+            }
+        }, "SessionWaiter");
+        waiter.start();
+        assertTrue("Waiter did not start", waiting.await(5, TimeUnit.SECONDS));
+        assertFalse("Connection should not yet be closed for output", _connection.closedForOutput());
+        synchronized (session.getLock())
+        {
+            assertTrue("Waiter should be waiting", waiter.isAlive());
+        }
+
+        _connection.close();
+
+        waiter.join(5000);
+        assertFalse("Session waiter was not woken by the connection closing", waiter.isAlive());
+        assertTrue("Unexpected failures: " + failures, failures.isEmpty());
+    }
+
+    private Begin createBegin()
+    {
+        Begin begin = new Begin();
+        begin.setNextOutgoingId(UnsignedInteger.ZERO);
+        begin.setIncomingWindow(UnsignedInteger.valueOf(2048));
+        begin.setOutgoingWindow(UnsignedInteger.valueOf(2048));
+        return begin;
+    }
+}
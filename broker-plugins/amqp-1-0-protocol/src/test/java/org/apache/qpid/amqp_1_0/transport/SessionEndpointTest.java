@@ -0,0 +1,207 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.transport;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.qpid.amqp_1_0.framing.AMQFrame;
+import org.apache.qpid.amqp_1_0.type.Binary;
+import org.apache.qpid.amqp_1_0.type.DeliveryState;
+import org.apache.qpid.amqp_1_0.type.FrameBody;
+import org.apache.qpid.amqp_1_0.type.UnsignedInteger;
+import org.apache.qpid.amqp_1_0.type.UnsignedShort;
+import org.apache.qpid.amqp_1_0.type.messaging.Accepted;
+import org.apache.qpid.amqp_1_0.type.messaging.Modified;
+import org.apache.qpid.amqp_1_0.type.messaging.Rejected;
+import org.apache.qpid.amqp_1_0.type.transaction.TransactionalState;
+import org.apache.qpid.amqp_1_0.type.transport.Begin;
+import org.apache.qpid.amqp_1_0.type.transport.Disposition;
+import org.apache.qpid.amqp_1_0.type.transport.End;
+import org.apache.qpid.amqp_1_0.type.transport.Flow;
+import org.apache.qpid.amqp_1_0.type.transport.Open;
+import org.apache.qpid.amqp_1_0.type.transport.Role;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class SessionEndpointTest extends QpidTestCase
+{
+    private final List<FrameBody> _sentFrames = new ArrayList<>();
+    private SessionEndpoint _session;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        ConnectionEndpoint connection = new ConnectionEndpoint(new Container("test"), null, null);
+        connection.setFrameOutputHandler(new CapturingFrameOutputHandler());
+        final List<SessionEndpoint> sessions = new ArrayList<>();
+        connection.setConnectionEventListener(new ConnectionEventListener.DefaultConnectionEventListener()
+        {
+            @Override
+            public void remoteSessionCreation(final SessionEndpoint endpoint)
+            {
+                sessions.add(endpoint);
+            }
+        });
+        Open open = new Open();
+        open.setChannelMax(UnsignedShort.valueOf((short) 1));
+        connection.receiveOpen((short) 0, open);
+
+        Begin begin = new Begin();
+        begin.setNextOutgoingId(UnsignedInteger.ZERO);
+        begin.setIncomingWindow(UnsignedInteger.valueOf(2048));
+        begin.setOutgoingWindow(UnsignedInteger.valueOf(2048));
+        connection.receiveBegin((short) 0, begin);
+
+        assertEquals("Unexpected number of sessions", 1, sessions.size());
+        _session = sessions.get(0);
+        _session.setCoalesceDispositions(true);
+        _sentFrames.clear();
+    }
+
+    public void testContiguousAcceptedDispositionsCoalesced()
+    {
+        settle(0, 0, new Accepted());
+        settle(1, 1, new Accepted());
+        settle(2, 3, new Accepted());
+        assertTrue("Dispositions should be held back until flushed", _sentFrames.isEmpty());
+
+        _session.flushDispositions();
+
+        assertEquals("Unexpected number of frames sent", 1, _sentFrames.size());
+        assertDisposition(_sentFrames.get(0), 0, 3, Accepted.class);
+    }
+
+    public void testGapStartsNewDisposition()
+    {
+        settle(0, 1, new Accepted());
+        settle(3, 3, new Accepted());
+        _session.flushDispositions();
+
+        assertEquals("Unexpected number of frames sent", 2, _sentFrames.size());
+        assertDisposition(_sentFrames.get(0), 0, 1, Accepted.class);
+        assertDisposition(_sentFrames.get(1), 3, 3, Accepted.class);
+    }
+
+    public void testDifferentStateStartsNewDisposition()
+    {
+        settle(0, 0, new Accepted());
+        settle(1, 1, new Rejected());
+        settle(2, 2, new Rejected());
+        settle(3, 3, new Modified());
+        _session.flushDispositions();
+
+        assertEquals("Unexpected number of frames sent", 4, _sentFrames.size());
+        assertDisposition(_sentFrames.get(0), 0, 0, Accepted.class);
+        assertDisposition(_sentFrames.get(1), 1, 1, Rejected.class);
+        assertDisposition(_sentFrames.get(2), 2, 2, Rejected.class);
+        assertDisposition(_sentFrames.get(3), 3, 3, Modified.class);
+    }
+
+    public void testDifferentTransactionStartsNewDisposition()
+    {
+        settle(0, 0, createTransactionalState(1));
+        settle(1, 1, createTransactionalState(1));
+        settle(2, 2, createTransactionalState(2));
+        _session.flushDispositions();
+
+        assertEquals("Unexpected number of frames sent", 2, _sentFrames.size());
+        assertDisposition(_sentFrames.get(0), 0, 1, TransactionalState.class);
+        assertDisposition(_sentFrames.get(1), 2, 2, TransactionalState.class);
+    }
+
+    public void testPendingDispositionSentBeforeOtherFrames()
+    {
+        settle(0, 1, new Accepted());
+        _session.sendFlow();
+
+        assertEquals("Unexpected number of frames sent", 2, _sentFrames.size());
+        assertDisposition(_sentFrames.get(0), 0, 1, Accepted.class);
+        assertTrue("Unexpected frame " + _sentFrames.get(1), _sentFrames.get(1) instanceof Flow);
+    }
+
+    public void testPendingDispositionSentOnEnd()
+    {
+        settle(0, 1, new Accepted());
+        _session.end();
+
+        assertEquals("Unexpected number of frames sent", 2, _sentFrames.size());
+        assertDisposition(_sentFrames.get(0), 0, 1, Accepted.class);
+        assertTrue("Unexpected frame " + _sentFrames.get(1), _sentFrames.get(1) instanceof End);
+    }
+
+    private void settle(final int first, final int last, final DeliveryState state)
+    {
+        _session.updateDisposition(Role.RECEIVER,
+                                   UnsignedInteger.valueOf(first),
+                                   UnsignedInteger.valueOf(last),
+                                   state,
+                                   true);
+    }
+
+    private TransactionalState createTransactionalState(final int txnId)
+    {
+        TransactionalState state = new TransactionalState();
+        state.setTxnId(new Binary(new byte[] { (byte) txnId }));
+        state.setOutcome(new Accepted());
+        return state;
+    }
+
+    private void assertDisposition(final FrameBody frame,
+                                   final int first,
+                                   final int last,
+                                   final Class<? extends DeliveryState> stateClass)
+    {
+        assertTrue("Unexpected frame " + frame, frame instanceof Disposition);
+        Disposition disposition = (Disposition) frame;
+        assertEquals("Unexpected first", UnsignedInteger.valueOf(first), disposition.getFirst());
+        assertEquals("Unexpected last", UnsignedInteger.valueOf(last), disposition.getLast());
+        assertEquals("Unexpected state", stateClass, disposition.getState().getClass());
+        assertEquals("Unexpected settled", Boolean.TRUE, disposition.getSettled());
+    }
+
+    private class CapturingFrameOutputHandler implements FrameOutputHandler<FrameBody>
+    {
+        @Override
+        public boolean canSend()
+        {
+            return true;
+        }
+
+        @Override
+        public void send(final AMQFrame<FrameBody> frame)
+        {
+            _sentFrames.add(frame.getFrameBody());
+        }
+
+        @Override
+        public void send(final AMQFrame<FrameBody> frame, final ByteBuffer payload)
+        {
+            _sentFrames.add(frame.getFrameBody());
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
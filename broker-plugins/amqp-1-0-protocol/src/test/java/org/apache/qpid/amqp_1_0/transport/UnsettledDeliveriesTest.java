@@ -0,0 +1,165 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.transport;
+
+import static org.mockito.Mockito.mock;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class UnsettledDeliveriesTest extends QpidTestCase
+{
+    public void testPutGetRemove()
+    {
+        UnsettledDeliveries deliveries = new UnsettledDeliveries(4);
+        Delivery first = mock(Delivery.class);
+        Delivery second = mock(Delivery.class);
+        deliveries.put(10, first);
+        deliveries.put(11, second);
+
+        assertEquals("Unexpected size", 2, deliveries.size());
+        assertSame("Unexpected delivery", first, deliveries.get(10));
+        assertSame("Unexpected delivery", second, deliveries.get(11));
+        assertNull("Unexpected delivery for unknown id", deliveries.get(12));
+        assertNull("Unexpected delivery for unknown id", deliveries.get(9));
+
+        assertSame("Unexpected delivery removed", first, deliveries.remove(10));
+        assertNull("Delivery should have been removed", deliveries.get(10));
+        assertNull("Delivery should not be removed twice", deliveries.remove(10));
+        assertSame("Unexpected delivery removed", second, deliveries.remove(11));
+        assertTrue("Deliveries should be empty", deliveries.isEmpty());
+    }
+
+    public void testSettledOutOfOrder()
+    {
+        UnsettledDeliveries deliveries = new UnsettledDeliveries(16);
+        Delivery[] delivery = new Delivery[5];
+        for (int i = 0; i < delivery.length; i++)
+        {
+            delivery[i] = mock(Delivery.class);
+            deliveries.put(i, delivery[i]);
+        }
+
+        assertSame(delivery[2], deliveries.remove(2));
+        assertSame(delivery[4], deliveries.remove(4));
+        assertSame(delivery[0], deliveries.remove(0));
+        assertEquals("Unexpected size", 2, deliveries.size());
+        assertSame(delivery[1], deliveries.get(1));
+        assertSame(delivery[3], deliveries.get(3));
+
+        Delivery next = mock(Delivery.class);
+        deliveries.put(5, next);
+        assertSame(next, deliveries.get(5));
+        assertEquals("Unexpected size", 3, deliveries.size());
+    }
+
+    public void testGrowsBeyondInitialCapacity()
+    {
+        UnsettledDeliveries deliveries = new UnsettledDeliveries(16);
+        Delivery[] delivery = new Delivery[100];
+        for (int i = 0; i < delivery.length; i++)
+        {
+            delivery[i] = mock(Delivery.class);
+            deliveries.put(1000 + i, delivery[i]);
+        }
+
+        assertEquals("Unexpected size", delivery.length, deliveries.size());
+        for (int i = 0; i < delivery.length; i++)
+        {
+            assertSame("Unexpected delivery " + i, delivery[i], deliveries.get(1000 + i));
+        }
+    }
+
+    public void testDeliveryIdsWrap()
+    {
+        UnsettledDeliveries deliveries = new UnsettledDeliveries(16);
+        Delivery beforeWrap = mock(Delivery.class);
+        Delivery afterWrap = mock(Delivery.class);
+        deliveries.put(-1, beforeWrap);
+        deliveries.put(0, afterWrap);
+
+        assertSame(beforeWrap, deliveries.get(-1));
+        assertSame(afterWrap, deliveries.get(0));
+
+        assertSame(beforeWrap, deliveries.remove(-1));
+        assertSame(afterWrap, deliveries.get(0));
+        assertEquals("Unexpected size", 1, deliveries.size());
+    }
+
+    public void testLongUnsettledDeliveryDoesNotGrowRing()
+    {
+        UnsettledDeliveries deliveries = new UnsettledDeliveries(16, 64);
+        Delivery stuck = mock(Delivery.class);
+        Delivery other = mock(Delivery.class);
+        deliveries.put(0, stuck);
+
+        for (int deliveryId = 1; deliveryId < 1000000; deliveryId++)
+        {
+            deliveries.put(deliveryId, other);
+            assertSame(other, deliveries.remove(deliveryId));
+            assertTrue("Ring grew beyond its maximum capacity", deliveries.getCapacity() <= 64);
+        }
+
+        assertEquals("Unexpected size", 1, deliveries.size());
+        assertEquals("Long unsettled delivery should have moved to the overflow map", 1, deliveries.getOverflowSize());
+        assertEquals("Ring should have shrunk", 16, deliveries.getCapacity());
+        assertSame(stuck, deliveries.get(0));
+        assertSame(stuck, deliveries.remove(0));
+        assertTrue("Deliveries should be empty", deliveries.isEmpty());
+    }
+
+    public void testWindowMovesPastUnsettledDeliveries()
+    {
+        UnsettledDeliveries deliveries = new UnsettledDeliveries(16, 32);
+        Delivery[] delivery = new Delivery[100];
+        for (int i = 0; i < delivery.length; i++)
+        {
+            delivery[i] = mock(Delivery.class);
+            deliveries.put(i, delivery[i]);
+            assertTrue("Ring grew beyond its maximum capacity", deliveries.getCapacity() <= 32);
+        }
+
+        assertEquals("Unexpected size", delivery.length, deliveries.size());
+        assertEquals("Unexpected overflow size", delivery.length - 32, deliveries.getOverflowSize());
+        for (int i = 0; i < delivery.length; i++)
+        {
+            assertSame("Unexpected delivery " + i, delivery[i], deliveries.get(i));
+        }
+        for (int i = 0; i < delivery.length; i++)
+        {
+            assertSame("Unexpected delivery " + i, delivery[i], deliveries.remove(i));
+        }
+        assertTrue("Deliveries should be empty", deliveries.isEmpty());
+        assertEquals("Ring should have shrunk", 16, deliveries.getCapacity());
+    }
+
+    public void testDeliveryPrecedingOldest()
+    {
+        UnsettledDeliveries deliveries = new UnsettledDeliveries(16);
+        Delivery later = mock(Delivery.class);
+        Delivery earlier = mock(Delivery.class);
+        deliveries.put(40, later);
+        deliveries.put(10, earlier);
+
+        assertSame(earlier, deliveries.get(10));
+        assertSame(later, deliveries.get(40));
+        assertEquals("Unexpected size", 2, deliveries.size());
+    }
+}
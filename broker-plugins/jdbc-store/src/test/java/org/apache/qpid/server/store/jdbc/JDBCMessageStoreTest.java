@@ -30,10 +30,21 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.apache.qpid.server.message.EnqueueableMessage;
 import org.apache.qpid.server.model.VirtualHost;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.MessageStoreTestCase;
+import org.apache.qpid.server.store.StoreException;
+import org.apache.qpid.server.store.Transaction;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.server.store.handler.MessageInstanceHandler;
 import org.apache.qpid.server.virtualhost.jdbc.JDBCVirtualHost;
 
 public class JDBCMessageStoreTest extends MessageStoreTestCase
@@ -63,6 +74,66 @@ public class JDBCMessageStoreTest extends MessageStoreTestCase
         assertTablesExist(expectedTables, false);
     }
 
+    public void testFailedAsyncCommitDoesNotFailOthers() throws Exception
+    {
+        TransactionLogResource queue = mock(TransactionLogResource.class);
+        final UUID queueId = UUID.randomUUID();
+        when(queue.getId()).thenReturn(queueId);
+        when(queue.getName()).thenReturn("testQueue");
+
+        MessageEnqueueRecord missingRecord = mock(MessageEnqueueRecord.class);
+        when(missingRecord.getQueueId()).thenReturn(queueId);
+        when(missingRecord.getMessageNumber()).thenReturn(2L);
+
+        Transaction first = getStore().newTransaction();
+        first.enqueueMessage(queue, createEnqueueableMessage(1L));
+        Transaction second = getStore().newTransaction();
+        second.dequeueMessage(missingRecord);
+        Transaction third = getStore().newTransaction();
+        third.enqueueMessage(queue, createEnqueueableMessage(3L));
+
+        ListenableFuture<Void> firstFuture = first.commitTranAsync();
+        ListenableFuture<Void> secondFuture = second.commitTranAsync();
+        ListenableFuture<Void> thirdFuture = third.commitTranAsync();
+
+        firstFuture.get(10, TimeUnit.SECONDS);
+        thirdFuture.get(10, TimeUnit.SECONDS);
+        try
+        {
+            secondFuture.get(10, TimeUnit.SECONDS);
+            fail("Dequeue of a message not on the queue should fail");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue("Unexpected cause " + e.getCause(), e.getCause() instanceof StoreException);
+        }
+
+        final Set<Long> enqueuedIds = new HashSet<>();
+        getStore().newMessageStoreReader().visitMessageInstances(new MessageInstanceHandler()
+        {
+            @Override
+            public boolean handle(final MessageEnqueueRecord record)
+            {
+                if (record.getQueueId().equals(queueId))
+                {
+                    enqueuedIds.add(record.getMessageNumber());
+                }
+                return true;
+            }
+        });
+        assertEquals("Unexpected enqueued messages", 2, enqueuedIds.size());
+        assertTrue("Message 1 not enqueued", enqueuedIds.contains(1L));
+        assertTrue("Message 3 not enqueued", enqueuedIds.contains(3L));
+    }
+
+    private EnqueueableMessage createEnqueueableMessage(long messageNumber)
+    {
+        EnqueueableMessage message = mock(EnqueueableMessage.class);
+        when(message.getMessageNumber()).thenReturn(messageNumber);
+        when(message.isPersistent()).thenReturn(true);
+        return message;
+    }
+
     @Override
     protected VirtualHost createVirtualHost()
     {
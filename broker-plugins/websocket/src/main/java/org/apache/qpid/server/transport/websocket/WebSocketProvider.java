@@ -53,6 +53,7 @@ import org.apache.qpid.server.model.Transport;
 import org.apache.qpid.server.model.port.AmqpPort;
 import org.apache.qpid.server.transport.MultiVersionProtocolEngineFactory;
 import org.apache.qpid.server.transport.AcceptingTransport;
+import org.apache.qpid.server.transport.NetworkConnectionScheduler;
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
 import org.apache.qpid.transport.ByteBufferSender;
 import org.apache.qpid.transport.network.NetworkConnection;
@@ -195,6 +196,12 @@ class WebSocketProvider implements AcceptingTransport
 
     }
 
+    @Override
+    public NetworkConnectionScheduler getNetworkConnectionScheduler()
+    {
+        return null;
+    }
+
     @Override
     public int getAcceptingPort()
     {
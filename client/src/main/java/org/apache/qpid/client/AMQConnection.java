@@ -225,6 +225,8 @@ public class AMQConnection extends Closeable implements CommonConnection, Refere
     private boolean _compressMessages;
     private int _messageCompressionThresholdSize;
 
+    private int _maxInFlightPublishes;
+
     private final Map<String, String> _virtualHostProperties = new HashMap<>();
     private volatile boolean _virtualHostPropertiesPopulated;
 
@@ -407,6 +409,20 @@ public class AMQConnection extends Closeable implements CommonConnection, Refere
             _messageCompressionThresholdSize = Integer.MAX_VALUE;
         }
 
+        if(connectionURL.getOption(ConnectionURL.OPTIONS_MAX_IN_FLIGHT_PUBLISHES) != null)
+        {
+            _maxInFlightPublishes = Integer.valueOf(connectionURL.getOption(ConnectionURL.OPTIONS_MAX_IN_FLIGHT_PUBLISHES));
+        }
+        else
+        {
+            _maxInFlightPublishes = Integer.getInteger(ClientProperties.CONNECTION_OPTION_MAX_IN_FLIGHT_PUBLISHES,
+                                                       ClientProperties.DEFAULT_MAX_IN_FLIGHT_PUBLISHES);
+        }
+        if(_maxInFlightPublishes <= 0)
+        {
+            _maxInFlightPublishes = Integer.MAX_VALUE;
+        }
+
         String amqpVersion = System.getProperty((ClientProperties.AMQP_VERSION), "0-10");
         if (_logger.isDebugEnabled())
         {
@@ -1827,6 +1843,11 @@ public class AMQConnection extends Closeable implements CommonConnection, Refere
         return _messageCompressionThresholdSize;
     }
 
+    public int getMaxInFlightPublishes()
+    {
+        return _maxInFlightPublishes;
+    }
+
     void doWithAllLocks(Runnable r)
     {
         doWithAllLocks(r, _sessions.values());
@@ -561,6 +561,12 @@ public class AMQConnectionDelegate_0_10 implements AMQConnectionDelegate, Connec
             }
         }
 
+        String nonBlockingTransportOption = _conn.getConnectionURL().getOption(ConnectionURL.OPTIONS_NON_BLOCKING_TRANSPORT);
+        if(nonBlockingTransportOption != null)
+        {
+            conSettings.setNonBlocking(Boolean.parseBoolean(nonBlockingTransportOption));
+        }
+
         return conSettings;
     }
     protected org.apache.qpid.transport.Connection getQpidConnection()
@@ -59,7 +59,8 @@ import org.apache.qpid.properties.ConnectionStartProperties;
 import org.apache.qpid.transport.ConnectionSettings;
 import org.apache.qpid.transport.ExceptionHandlingByteBufferReceiver;
 import org.apache.qpid.transport.network.NetworkConnection;
-import org.apache.qpid.transport.network.io.IoNetworkTransport;
+import org.apache.qpid.transport.network.OutgoingNetworkTransport;
+import org.apache.qpid.transport.network.OutgoingNetworkTransportFactory;
 import org.apache.qpid.transport.network.security.SecurityLayer;
 import org.apache.qpid.transport.network.security.SecurityLayerFactory;
 
@@ -140,9 +141,15 @@ public class AMQConnectionDelegate_8_0 implements AMQConnectionDelegate
             }
         }
 
+        String nonBlockingTransportOption = _conn.getConnectionURL().getOption(ConnectionURL.OPTIONS_NON_BLOCKING_TRANSPORT);
+        if(nonBlockingTransportOption != null)
+        {
+            settings.setNonBlocking(Boolean.parseBoolean(nonBlockingTransportOption));
+        }
+
         SecurityLayer securityLayer = SecurityLayerFactory.newInstance(settings);
 
-        IoNetworkTransport transport = new IoNetworkTransport();
+        OutgoingNetworkTransport transport = OutgoingNetworkTransportFactory.newInstance(settings);
 
         ReceiverClosedWaiter monitoringReceiver = new ReceiverClosedWaiter(securityLayer.receiver(_conn.getProtocolHandler()));
 
@@ -143,6 +143,9 @@ public abstract class AMQSession<C extends BasicMessageConsumer, P extends Basic
     /** The connection to which this session belongs. */
     private AMQConnection _connection;
 
+    /** Messages sent asynchronously on this session which the broker has yet to accept */
+    private final PublishCompletionTracker _publishCompletionTracker;
+
     /** Used to indicate whether or not this is a transactional session. */
     private final boolean _transacted;
 
@@ -350,6 +353,10 @@ public abstract class AMQSession<C extends BasicMessageConsumer, P extends Basic
         _dispatcherShutdownTimeoutMs = Integer.parseInt(System.getProperty(DISPATCHER_SHUTDOWN_TIMEOUT_MS, DISPATCHER_SHUTDOWN_TIMEOUT_MS_DEFAULT));
 
         _connection = con;
+        _publishCompletionTracker = new PublishCompletionTracker(con,
+                                                                 con == null
+                                                                         ? ClientProperties.DEFAULT_MAX_IN_FLIGHT_PUBLISHES
+                                                                         : con.getMaxInFlightPublishes());
         _transacted = transacted;
         if (transacted)
         {
@@ -749,6 +756,12 @@ public abstract class AMQSession<C extends BasicMessageConsumer, P extends Basic
         if (!setClosed())
         {
             setClosing(true);
+            if (!_publishCompletionTracker.awaitCompletion(timeout))
+            {
+                _logger.warn("Closing session with " + _publishCompletionTracker.getOutstandingCount()
+                             + " asynchronous sends not yet accepted by the broker");
+            }
+            _publishCompletionTracker.failAll(new JMSException("Session closed before the broker accepted the message"));
             // we pass null since this is not an error case
             closeProducersAndConsumers(null);
 
@@ -828,6 +841,8 @@ public abstract class AMQSession<C extends BasicMessageConsumer, P extends Basic
             }
 
             _connection.deregisterSession(_channelId);
+            _publishCompletionTracker.failAll(JMSExceptionHelper.chainJMSException(
+                    new JMSException("Session closed before the broker accepted the message"), amqe));
             closeProducersAndConsumers(amqe);
         }
 
@@ -2233,6 +2248,7 @@ public abstract class AMQSession<C extends BasicMessageConsumer, P extends Basic
     {
         setClosed();
         _connection.deregisterSession(_channelId);
+        _publishCompletionTracker.failAll(new JMSException("Session closed before the broker accepted the message"));
         markClosedProducersAndConsumers();
 
     }
@@ -2364,10 +2380,41 @@ public abstract class AMQSession<C extends BasicMessageConsumer, P extends Basic
         _prefetchedMessageTags.clear();
 
         _rollbackMark.set(-1);
+
+        // the new session knows nothing of messages sent before failover
+        _publishCompletionTracker.failAll(new JMSException(
+                "Fail-over interrupted send. Status of the send is uncertain."));
+        _publishCompletionTracker.resetSequence();
         resubscribeProducers();
         resubscribeConsumers();
     }
 
+    PublishCompletionTracker getPublishCompletionTracker()
+    {
+        return _publishCompletionTracker;
+    }
+
+    /**
+     * Resolves asynchronous sends which the broker has confirmed.
+     *
+     * @param deliveryTag the sequence number of the confirmed send
+     * @param multiple whether every earlier send is also confirmed
+     * @param rejected whether the broker refused, rather than accepted, the messages
+     */
+    public void confirmPublishes(final long deliveryTag, final boolean multiple, final boolean rejected)
+    {
+        boolean resolved = _publishCompletionTracker.resolve(deliveryTag,
+                                                             multiple,
+                                                             rejected
+                                                                     ? new JMSException("The message was not accepted by the server")
+                                                                     : null);
+        // a send which failed, or was failed when the session closed, may still be confirmed later
+        if (!resolved && _logger.isDebugEnabled())
+        {
+            _logger.debug("Ignoring confirmation of unknown delivery tag " + deliveryTag + " on channel " + _channelId);
+        }
+    }
+
     void setHasMessageListeners()
     {
         _hasMessageListeners = true;
@@ -40,6 +40,7 @@ import org.apache.qpid.QpidException;
 import org.apache.qpid.client.message.AbstractJMSMessage;
 import org.apache.qpid.client.message.MessageConverter;
 import org.apache.qpid.client.util.JMSExceptionHelper;
+import org.apache.qpid.jms.CompletionListener;
 import org.apache.qpid.transport.TransportException;
 import org.apache.qpid.util.UUIDGen;
 import org.apache.qpid.util.UUIDs;
@@ -323,7 +324,7 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
 
         synchronized (_connection.getFailoverMutex())
         {
-            sendImpl(_destination, message, _deliveryMode, _messagePriority, _timeToLive, _mandatory, _immediate);
+            sendImpl(_destination, message, _deliveryMode, _messagePriority, _timeToLive, _mandatory, _immediate, null);
         }
     }
 
@@ -334,7 +335,7 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
 
         synchronized (_connection.getFailoverMutex())
         {
-            sendImpl(_destination, message, deliveryMode, _messagePriority, _timeToLive, _mandatory, _immediate);
+            sendImpl(_destination, message, deliveryMode, _messagePriority, _timeToLive, _mandatory, _immediate, null);
         }
     }
 
@@ -344,7 +345,7 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
         checkInitialDestination();
         synchronized (_connection.getFailoverMutex())
         {
-            sendImpl(_destination, message, deliveryMode, _messagePriority, _timeToLive, _mandatory, immediate);
+            sendImpl(_destination, message, deliveryMode, _messagePriority, _timeToLive, _mandatory, immediate, null);
         }
     }
 
@@ -354,7 +355,7 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
         checkInitialDestination();
         synchronized (_connection.getFailoverMutex())
         {
-            sendImpl(_destination, message, deliveryMode, priority, timeToLive, _mandatory, _immediate);
+            sendImpl(_destination, message, deliveryMode, priority, timeToLive, _mandatory, _immediate, null);
         }
     }
 
@@ -371,7 +372,39 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
                                 ? _defaultMandatoryTopicValue
                                 : _defaultMandatoryValue
                             : _mandatory,
-                     _immediate);
+                     _immediate, null);
+        }
+    }
+
+    public void send(Message message, CompletionListener listener) throws JMSException
+    {
+        checkPreConditions();
+        checkInitialDestination();
+        checkCompletionListener(listener);
+
+        synchronized (_connection.getFailoverMutex())
+        {
+            sendImpl(_destination, message, _deliveryMode, _messagePriority, _timeToLive, _mandatory, _immediate,
+                     listener);
+        }
+    }
+
+    public void send(Destination destination, Message message, CompletionListener listener) throws JMSException
+    {
+        checkPreConditions();
+        checkDestination(destination);
+        checkCompletionListener(listener);
+        synchronized (_connection.getFailoverMutex())
+        {
+            validateDestination(destination);
+            sendImpl((AMQDestination) destination, message, _deliveryMode, _messagePriority, _timeToLive,
+                    _mandatory == null
+                            ? destination instanceof Topic
+                                ? _defaultMandatoryTopicValue
+                                : _defaultMandatoryValue
+                            : _mandatory,
+                     _immediate,
+                     listener);
         }
     }
 
@@ -389,7 +422,7 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
                                 ? _defaultMandatoryTopicValue
                                 : _defaultMandatoryValue
                             : _mandatory,
-                    _immediate);
+                    _immediate, null);
         }
     }
 
@@ -401,7 +434,7 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
         synchronized (_connection.getFailoverMutex())
         {
             validateDestination(destination);
-            sendImpl((AMQDestination) destination, message, deliveryMode, priority, timeToLive, mandatory, _immediate);
+            sendImpl((AMQDestination) destination, message, deliveryMode, priority, timeToLive, mandatory, _immediate, null);
         }
     }
 
@@ -413,7 +446,7 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
         synchronized (_connection.getFailoverMutex())
         {
             validateDestination(destination);
-            sendImpl((AMQDestination) destination, message, deliveryMode, priority, timeToLive, mandatory, immediate);
+            sendImpl((AMQDestination) destination, message, deliveryMode, priority, timeToLive, mandatory, immediate, null);
         }
     }
 
@@ -498,11 +531,12 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
      * @param timeToLive
      * @param mandatory
      * @param immediate
+     * @param listener notified once the broker has accepted the message, or null if the send is synchronous
      *
      * @throws JMSException
      */
     protected void sendImpl(AMQDestination destination, Message origMessage, int deliveryMode, int priority, long timeToLive,
-                            boolean mandatory, boolean immediate) throws JMSException
+                            boolean mandatory, boolean immediate, CompletionListener listener) throws JMSException
     {
         checkTemporaryDestination(destination);
         origMessage.setJMSDestination(destination);
@@ -522,7 +556,8 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
 
         try
         {
-            sendMessage(destination, origMessage, message, messageId, deliveryMode, priority, timeToLive, mandatory, immediate);
+            sendMessage(destination, origMessage, message, messageId, deliveryMode, priority, timeToLive, mandatory,
+                        immediate, listener);
         }
         catch (TransportException e)
         {
@@ -550,7 +585,7 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
 
     abstract void sendMessage(AMQDestination destination, Message origMessage, AbstractJMSMessage message,
                               UUID messageId, int deliveryMode, int priority, long timeToLive, boolean mandatory,
-                              boolean immediate) throws JMSException;
+                              boolean immediate, CompletionListener listener) throws JMSException;
 
     private void checkTemporaryDestination(AMQDestination destination) throws InvalidDestinationException
     {
@@ -615,6 +650,14 @@ public abstract class BasicMessageProducer extends Closeable implements org.apac
 
     }
 
+    private void checkCompletionListener(CompletionListener listener)
+    {
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("CompletionListener must not be null");
+        }
+    }
+
     private void checkValidQueue() throws JMSException
     {
         if(_destination instanceof AMQQueue)
@@ -49,6 +49,7 @@ import org.apache.qpid.client.message.MessageEncryptionHelper;
 import org.apache.qpid.client.message.QpidMessageProperties;
 import org.apache.qpid.client.messaging.address.Link.Reliability;
 import org.apache.qpid.client.util.JMSExceptionHelper;
+import org.apache.qpid.jms.CompletionListener;
 import org.apache.qpid.transport.DeliveryProperties;
 import org.apache.qpid.transport.Header;
 import org.apache.qpid.transport.MessageAcceptMode;
@@ -56,6 +57,8 @@ import org.apache.qpid.transport.MessageAcquireMode;
 import org.apache.qpid.transport.MessageDeliveryMode;
 import org.apache.qpid.transport.MessageDeliveryPriority;
 import org.apache.qpid.transport.MessageProperties;
+import org.apache.qpid.transport.MessageTransfer;
+import org.apache.qpid.transport.Method;
 import org.apache.qpid.transport.Option;
 import org.apache.qpid.transport.codec.BBEncoder;
 import org.apache.qpid.util.BytesDataOutput;
@@ -111,7 +114,7 @@ public class BasicMessageProducer_0_10 extends BasicMessageProducer
      */
     void sendMessage(AMQDestination destination, Message origMessage, AbstractJMSMessage message,
                      UUID messageId, int deliveryMode, int priority, long timeToLive, boolean mandatory,
-                     boolean immediate) throws JMSException
+                     boolean immediate, CompletionListener listener) throws JMSException
     {
         message.prepareForSending();
 
@@ -351,7 +354,14 @@ public class BasicMessageProducer_0_10 extends BasicMessageProducer
             
 
             ByteBuffer buffer = data == null ? ByteBuffer.allocate(0) : data.slice();
-            
+
+            if (listener != null)
+            {
+                sendAsynchronously(ssn, destination, deliveryProp, messageProps, buffer, unreliable, origMessage,
+                                   listener);
+                return;
+            }
+
             ssn.messageTransfer(destination.getExchangeName() == null ? "" : destination.getExchangeName(),
                                 MessageAcceptMode.NONE,
                                 MessageAcquireMode.PRE_ACQUIRED,
@@ -371,6 +381,52 @@ public class BasicMessageProducer_0_10 extends BasicMessageProducer
         }
     }
 
+    /**
+     * Sends the message without waiting for the broker, asking the broker to complete the transfer so that the
+     * listener can be notified once it has been accepted.
+     */
+    private void sendAsynchronously(final org.apache.qpid.transport.Session ssn,
+                                    final AMQDestination destination,
+                                    final DeliveryProperties deliveryProp,
+                                    final MessageProperties messageProps,
+                                    final ByteBuffer buffer,
+                                    final boolean unreliable,
+                                    final Message origMessage,
+                                    final CompletionListener listener) throws JMSException
+    {
+        final PublishCompletionTracker tracker = getSession().getPublishCompletionTracker();
+        final long sequence = tracker.nextSequence();
+        tracker.add(sequence, origMessage, listener);
+
+        MessageTransfer transfer = new MessageTransfer(destination.getExchangeName() == null
+                                                               ? ""
+                                                               : destination.getExchangeName(),
+                                                       MessageAcceptMode.NONE,
+                                                       MessageAcquireMode.PRE_ACQUIRED,
+                                                       new Header(deliveryProp, messageProps),
+                                                       buffer,
+                                                       SYNC,
+                                                       unreliable ? UNRELIABLE : NONE);
+        transfer.setCompletionListener(new Method.CompletionListener()
+        {
+            @Override
+            public void onComplete(final Method method)
+            {
+                tracker.resolve(sequence, false, null);
+            }
+        });
+
+        try
+        {
+            ssn.invoke(transfer);
+        }
+        catch (RuntimeException e)
+        {
+            tracker.remove(sequence);
+            throw e;
+        }
+    }
+
     @Override
     public boolean isBound(AMQDestination destination) throws JMSException
     {
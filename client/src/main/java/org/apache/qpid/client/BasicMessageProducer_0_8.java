@@ -59,6 +59,7 @@ import org.apache.qpid.framing.ContentHeaderBody;
 import org.apache.qpid.framing.ExchangeDeclareBody;
 import org.apache.qpid.framing.FieldTable;
 import org.apache.qpid.framing.MethodRegistry;
+import org.apache.qpid.jms.CompletionListener;
 import org.apache.qpid.util.BytesDataOutput;
 import org.apache.qpid.util.GZIPUtils;
 
@@ -109,7 +110,7 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
 
     void sendMessage(AMQDestination destination, Message origMessage, AbstractJMSMessage message,
                      UUID messageId, int deliveryMode,int priority, long timeToLive, boolean mandatory,
-                     boolean immediate) throws JMSException
+                     boolean immediate, CompletionListener listener) throws JMSException
     {
 
 
@@ -346,13 +347,37 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
                               && (connectionDelegate80.isConfirmedPublishSupported()
                                || (!getSession().isTransacted() && connectionDelegate80.isConfirmedPublishNonTransactionalSupported()));
 
+        final PublishCompletionTracker tracker = getSession().getPublishCompletionTracker();
+
         if(!useConfirms)
         {
             getConnection().getProtocolHandler().writeFrame(compositeFrame);
+            if (listener != null)
+            {
+                // without confirms the broker never acknowledges the publish, so the send is complete once written
+                tracker.resolveImmediately(origMessage, listener);
+            }
+        }
+        else if (listener != null)
+        {
+            // the broker confirms every publish on the channel, counting from one, so sends must take a sequence
+            // number in the order in which they are written
+            final long sequence = tracker.nextSequence();
+            tracker.add(sequence, origMessage, listener);
+            try
+            {
+                getConnection().getProtocolHandler().writeFrame(compositeFrame);
+            }
+            catch (RuntimeException e)
+            {
+                tracker.remove(sequence);
+                throw e;
+            }
         }
         else
         {
-            final PublishConfirmMessageListener frameListener = new PublishConfirmMessageListener(getChannelId());
+            final PublishConfirmMessageListener frameListener =
+                    new PublishConfirmMessageListener(getChannelId(), tracker.nextSequence());
             try
             {
 
@@ -445,16 +470,20 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
 
     private static class PublishConfirmMessageListener extends BlockingMethodFrameListener
     {
+        private final long _sequence;
         private boolean _rejected;
 
         /**
-         * Creates a new method listener, that filters incoming method to just those that match the specified channel id.
+         * Creates a new method listener, that filters incoming method to just those that match the specified channel id
+         * and confirm the publish with the given sequence number.
          *
          * @param channelId The channel id to filter incoming methods with.
+         * @param sequence The sequence number of the publish awaiting confirmation.
          */
-        public PublishConfirmMessageListener(final int channelId)
+        public PublishConfirmMessageListener(final int channelId, final long sequence)
         {
             super(channelId);
+            _sequence = sequence;
         }
 
         @Override
@@ -462,12 +491,18 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
         {
             if (frame instanceof BasicAckBody)
             {
-                return true;
+                BasicAckBody ack = (BasicAckBody) frame;
+                return confirms(ack.getDeliveryTag(), ack.getMultiple());
             }
             else if (frame instanceof BasicNackBody)
             {
-                _rejected = true;
-                return true;
+                BasicNackBody nack = (BasicNackBody) frame;
+                if (confirms(nack.getDeliveryTag(), nack.getMultiple()))
+                {
+                    _rejected = true;
+                    return true;
+                }
+                return false;
             }
             else
             {
@@ -479,5 +514,10 @@ public class BasicMessageProducer_0_8 extends BasicMessageProducer
         {
             return _rejected;
         }
+
+        private boolean confirms(final long deliveryTag, final boolean multiple)
+        {
+            return deliveryTag == _sequence || (multiple && deliveryTag > _sequence);
+        }
     }
 }
@@ -0,0 +1,259 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.configuration.ClientProperties;
+import org.apache.qpid.jms.CompletionListener;
+
+/**
+ * Tracks the messages which a session has sent asynchronously and which the broker has not yet accepted.
+ * <p>
+ * Each send is identified by a sequence number, allocated by {@link #nextSequence()} in the order in which the
+ * messages are sent, which for 0-8..0-91 matches the delivery tags the broker uses to confirm publishes.  Sends are
+ * resolved either individually or, for a confirm covering multiple messages, together with every earlier send.  The
+ * completion listeners are called on the connection's task thread, never on the thread which resolved the send,
+ * since that is usually the thread reading from the network.
+ * <p>
+ * At most the connection's maximum number of in-flight publishes may be outstanding; further sends block until
+ * earlier ones are resolved.
+ */
+class PublishCompletionTracker
+{
+    private static final Logger _logger = LoggerFactory.getLogger(PublishCompletionTracker.class);
+
+    private static final long WINDOW_TIMEOUT = Long.getLong(ClientProperties.QPID_SYNC_OP_TIMEOUT,
+                                                            ClientProperties.DEFAULT_SYNC_OPERATION_TIMEOUT);
+
+    private final AMQConnection _connection;
+    private final int _maxInFlight;
+    private final TreeMap<Long, PendingPublish> _pending = new TreeMap<>();
+    private long _lastSequence;
+
+    PublishCompletionTracker(final AMQConnection connection, final int maxInFlight)
+    {
+        _connection = connection;
+        _maxInFlight = maxInFlight;
+    }
+
+    synchronized long nextSequence()
+    {
+        return ++_lastSequence;
+    }
+
+    /**
+     * Resets the sequence, as the broker does when the session is re-established after failover.
+     */
+    synchronized void resetSequence()
+    {
+        _lastSequence = 0L;
+    }
+
+    /**
+     * Records a send which is about to be made, waiting first for the number of outstanding sends to fall below the
+     * limit.
+     */
+    synchronized void add(final long sequence, final Message message, final CompletionListener listener)
+            throws JMSException
+    {
+        long remaining = WINDOW_TIMEOUT;
+        long deadline = System.currentTimeMillis() + remaining;
+        while (_pending.size() >= _maxInFlight)
+        {
+            if (remaining <= 0L)
+            {
+                throw new JMSException("Timed out after " + WINDOW_TIMEOUT + "ms waiting for the broker to accept"
+                                       + " some of the " + _pending.size() + " messages already sent");
+            }
+            try
+            {
+                wait(remaining);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new JMSException("Interrupted while waiting for the broker to accept messages already sent");
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+        _pending.put(sequence, new PendingPublish(message, listener));
+    }
+
+    /**
+     * Forgets a send which failed synchronously, and whose failure is reported to the caller rather than the listener.
+     */
+    synchronized void remove(final long sequence)
+    {
+        _pending.remove(sequence);
+        notifyAll();
+    }
+
+    /**
+     * Resolves the send with the given sequence number and, if multiple, every earlier send.
+     *
+     * @param failure the reason the broker did not accept the messages, or null if it did
+     * @return true if any outstanding send was resolved
+     */
+    boolean resolve(final long sequence, final boolean multiple, final Exception failure)
+    {
+        final Collection<PendingPublish> resolved;
+        synchronized (this)
+        {
+            if (multiple)
+            {
+                SortedMap<Long, PendingPublish> upToSequence = _pending.headMap(sequence, true);
+                resolved = new ArrayList<>(upToSequence.values());
+                upToSequence.clear();
+            }
+            else
+            {
+                PendingPublish pendingPublish = _pending.remove(sequence);
+                resolved = pendingPublish == null
+                        ? Collections.<PendingPublish>emptyList()
+                        : Collections.singletonList(pendingPublish);
+            }
+            if (!resolved.isEmpty())
+            {
+                notifyAll();
+            }
+        }
+        notifyListeners(resolved, failure);
+        return !resolved.isEmpty();
+    }
+
+    /**
+     * Resolves a send for which the broker gives no confirmation, so which is complete once written.
+     */
+    void resolveImmediately(final Message message, final CompletionListener listener)
+    {
+        notifyListeners(Collections.singletonList(new PendingPublish(message, listener)), null);
+    }
+
+    /**
+     * Fails every outstanding send, for instance because the session has been closed or failed over.
+     */
+    void failAll(final Exception cause)
+    {
+        final List<PendingPublish> failed;
+        synchronized (this)
+        {
+            failed = new ArrayList<>(_pending.values());
+            _pending.clear();
+            notifyAll();
+        }
+        if (!failed.isEmpty())
+        {
+            _logger.debug("Failing {} outstanding asynchronous sends", failed.size());
+            notifyListeners(failed, cause);
+        }
+    }
+
+    /**
+     * Waits for every outstanding send to be resolved.
+     *
+     * @return true if there are no outstanding sends
+     */
+    synchronized boolean awaitCompletion(final long timeout)
+    {
+        long deadline = System.currentTimeMillis() + timeout;
+        long remaining = timeout;
+        while (!_pending.isEmpty() && remaining > 0L)
+        {
+            try
+            {
+                wait(remaining);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return _pending.isEmpty();
+    }
+
+    synchronized int getOutstandingCount()
+    {
+        return _pending.size();
+    }
+
+    private void notifyListeners(final Collection<PendingPublish> resolved, final Exception failure)
+    {
+        if (!resolved.isEmpty())
+        {
+            _connection.performConnectionTask(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (PendingPublish pendingPublish : resolved)
+                    {
+                        pendingPublish.notifyListener(failure);
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class PendingPublish
+    {
+        private final Message _message;
+        private final CompletionListener _listener;
+
+        private PendingPublish(final Message message, final CompletionListener listener)
+        {
+            _message = message;
+            _listener = listener;
+        }
+
+        private void notifyListener(final Exception failure)
+        {
+            try
+            {
+                if (failure == null)
+                {
+                    _listener.onCompletion(_message);
+                }
+                else
+                {
+                    _listener.onException(_message, failure);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                _logger.warn("Completion listener threw exception", e);
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import org.apache.qpid.AMQInternalException;
 import org.apache.qpid.client.message.AbstractJMSMessage;
 import org.apache.qpid.filter.FilterableMessage;
+import org.apache.qpid.filter.SelectorCompiler;
 import org.apache.qpid.filter.SelectorParsingException;
 import org.apache.qpid.filter.selector.ParseException;
 import org.apache.qpid.filter.selector.SelectorParser;
@@ -53,7 +54,7 @@ public class JMSSelectorFilter implements MessageFilter
         }
         try
         {
-            _matcher = new SelectorParser().parse(selector);
+            _matcher = SelectorCompiler.compile(new SelectorParser().parse(selector));
         }
         catch (ParseException e)
         {
@@ -441,6 +441,22 @@ public class AMQProtocolSession implements AMQVersionAwareProtocolSession
         session.setFlowControl(active);
     }
 
+    public void confirmPublishes(final int channelId,
+                                 final long deliveryTag,
+                                 final boolean multiple,
+                                 final boolean rejected)
+    {
+        final AMQSession session = getSession(channelId);
+        if (session != null)
+        {
+            session.confirmPublishes(deliveryTag, multiple, rejected);
+        }
+        else if (_logger.isDebugEnabled())
+        {
+            _logger.debug("Ignoring confirmation of delivery tag " + deliveryTag + " for closed channel " + channelId);
+        }
+    }
+
     public void methodFrameReceived(final int channel, final AMQMethodBody amqMethodBody) throws QpidException
     {
         _protocolHandler.methodBodyReceived(channel, amqMethodBody);
@@ -0,0 +1,37 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.jms;
+
+import javax.jms.Message;
+
+/**
+ * Receives notification that a message sent asynchronously by
+ * {@link MessageProducer#send(javax.jms.Message, CompletionListener)} has been accepted by the broker, or could not be.
+ * <p>
+ * Listeners are called from a thread belonging to the connection, in the order in which the sends were resolved,
+ * and must not block or use the session or producer on which the message was sent.
+ */
+public interface CompletionListener
+{
+    void onCompletion(Message message);
+
+    void onException(Message message, Exception exception);
+}
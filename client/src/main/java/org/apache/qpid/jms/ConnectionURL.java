@@ -50,6 +50,14 @@ public interface ConnectionURL
      */
     String OPTIONS_SSL = "ssl";
 
+    /**
+     * This option selects the non-blocking transport, whose connections are served by a small pool of selector threads
+     * shared by all connections, rather than by reader and writer threads of their own.  If not specified, the value
+     * of the system property {@value org.apache.qpid.configuration.ClientProperties#CONNECTION_OPTION_NON_BLOCKING_TRANSPORT}
+     * is used.
+     */
+    String OPTIONS_NON_BLOCKING_TRANSPORT = "nonBlockingTransport";
+
     /**
      * This option is only applicable for 0-8/0-9/0-9-1 protocols connection
      * <p>
@@ -75,6 +83,12 @@ public interface ConnectionURL
     String OPTIONS_COMPRESS_MESSAGES = "compressMessages";
     String OPTIONS_MESSAGES_COMPRESSION_THRESHOLD_SIZE = "messageCompressionThresholdSize";
 
+    /**
+     * The maximum number of messages a session may have sent asynchronously without yet having been told by the
+     * broker that they have been accepted.
+     */
+    String OPTIONS_MAX_IN_FLIGHT_PUBLISHES = "maxInFlightPublishes";
+
 
     String OPTIONS_DEFAULT_TOPIC_EXCHANGE = "defaultTopicExchange";
     String OPTIONS_DEFAULT_QUEUE_EXCHANGE = "defaultQueueExchange";
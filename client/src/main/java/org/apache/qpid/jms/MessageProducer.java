@@ -36,4 +36,14 @@ public interface MessageProducer extends javax.jms.MessageProducer
                      int priority, long timeToLive, boolean mandatory, boolean immediate)
             throws JMSException;
 
+    /**
+     * Sends the message without waiting for the broker to accept it, notifying the listener once it has.  The number
+     * of messages a session may have awaiting acceptance is limited by the connection option
+     * {@value org.apache.qpid.jms.ConnectionURL#OPTIONS_MAX_IN_FLIGHT_PUBLISHES}; once that many are outstanding,
+     * sends block until the broker has accepted earlier messages.
+     */
+    void send(Message message, CompletionListener completionListener) throws JMSException;
+
+    void send(Destination destination, Message message, CompletionListener completionListener) throws JMSException;
+
 }
@@ -0,0 +1,187 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.client;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.jms.CompletionListener;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class PublishCompletionTrackerTest extends QpidTestCase
+{
+    private PublishCompletionTracker _tracker;
+    private RecordingListener _listener;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        AMQConnection connection = mock(AMQConnection.class);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable
+            {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(connection).performConnectionTask(any(Runnable.class));
+
+        _tracker = new PublishCompletionTracker(connection, 3);
+        _listener = new RecordingListener();
+    }
+
+    public void testSingleConfirm() throws Exception
+    {
+        Message message1 = addMessage();
+        Message message2 = addMessage();
+
+        assertTrue("Confirm not matched", _tracker.resolve(2L, false, null));
+        assertEquals("Unexpected completed messages", Collections.singletonList(message2), _listener._completed);
+        assertEquals("Unexpected outstanding count", 1, _tracker.getOutstandingCount());
+
+        assertFalse("Repeated confirm should not match", _tracker.resolve(2L, false, null));
+
+        assertTrue("Confirm not matched", _tracker.resolve(1L, false, null));
+        assertEquals("Unexpected outstanding count", 0, _tracker.getOutstandingCount());
+        assertEquals("Unexpected completed message", message1, _listener._completed.get(1));
+    }
+
+    public void testMultipleConfirm() throws Exception
+    {
+        Message message1 = addMessage();
+        Message message2 = addMessage();
+        Message message3 = addMessage();
+
+        assertTrue("Confirm not matched", _tracker.resolve(2L, true, null));
+        assertEquals("Unexpected completed message count", 2, _listener._completed.size());
+        assertEquals("Unexpected first completed message", message1, _listener._completed.get(0));
+        assertEquals("Unexpected second completed message", message2, _listener._completed.get(1));
+        assertEquals("Unexpected outstanding count", 1, _tracker.getOutstandingCount());
+        assertFalse("Sends should be outstanding", _tracker.awaitCompletion(0L));
+
+        _tracker.resolve(3L, false, null);
+        assertEquals("Unexpected completed message", message3, _listener._completed.get(2));
+        assertTrue("Sends should be complete", _tracker.awaitCompletion(0L));
+    }
+
+    public void testRejection() throws Exception
+    {
+        Message message = addMessage();
+        JMSException failure = new JMSException("rejected");
+
+        _tracker.resolve(1L, false, failure);
+
+        assertTrue("Listener should not report completion", _listener._completed.isEmpty());
+        assertEquals("Unexpected failed messages", Collections.singletonList(message), _listener._failed);
+        assertSame("Unexpected failure", failure, _listener._exceptions.get(0));
+    }
+
+    public void testFailAll() throws Exception
+    {
+        addMessage();
+        addMessage();
+        JMSException failure = new JMSException("closed");
+
+        _tracker.failAll(failure);
+
+        assertEquals("Unexpected failed message count", 2, _listener._failed.size());
+        assertEquals("Unexpected outstanding count", 0, _tracker.getOutstandingCount());
+    }
+
+    public void testSequenceReset() throws Exception
+    {
+        assertEquals("Unexpected first sequence", 1L, _tracker.nextSequence());
+        assertEquals("Unexpected second sequence", 2L, _tracker.nextSequence());
+        _tracker.resetSequence();
+        assertEquals("Unexpected sequence after reset", 1L, _tracker.nextSequence());
+    }
+
+    public void testWindowReleasedByConfirm() throws Exception
+    {
+        addMessage();
+        addMessage();
+        addMessage();
+
+        Thread confirmer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    Thread.sleep(100L);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                _tracker.resolve(1L, false, null);
+            }
+        });
+        confirmer.start();
+
+        addMessage();
+        confirmer.join();
+
+        assertEquals("Unexpected outstanding count", 3, _tracker.getOutstandingCount());
+        assertEquals("Unexpected completed message count", 1, _listener._completed.size());
+    }
+
+    private Message addMessage() throws JMSException
+    {
+        Message message = mock(Message.class);
+        _tracker.add(_tracker.nextSequence(), message, _listener);
+        return message;
+    }
+
+    private static class RecordingListener implements CompletionListener
+    {
+        private final List<Message> _completed = new ArrayList<>();
+        private final List<Message> _failed = new ArrayList<>();
+        private final List<Exception> _exceptions = new ArrayList<>();
+
+        @Override
+        public synchronized void onCompletion(final Message message)
+        {
+            _completed.add(message);
+        }
+
+        @Override
+        public synchronized void onException(final Message message, final Exception exception)
+        {
+            _failed.add(message);
+            _exceptions.add(exception);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.client.handler;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.apache.qpid.client.protocol.AMQProtocolSession;
+import org.apache.qpid.framing.BasicAckBody;
+import org.apache.qpid.framing.BasicNackBody;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ClientMethodDispatcherImplTest extends QpidTestCase
+{
+    private AMQProtocolSession _session;
+    private ClientMethodDispatcherImpl _dispatcher;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _session = mock(AMQProtocolSession.class);
+        _dispatcher = new ClientMethodDispatcherImpl(_session);
+    }
+
+    public void testLateConfirmIsAbsorbed() throws Exception
+    {
+        // the session holds no send for the tag, so it resolves nothing, but the ack must not go unprocessed
+        assertTrue("Ack should be processed", _dispatcher.dispatchBasicAck(new BasicAckBody(7L, false), 1));
+        assertTrue("Repeated ack should be processed", _dispatcher.dispatchBasicAck(new BasicAckBody(7L, false), 1));
+        verify(_session, times(2)).confirmPublishes(1, 7L, false, false);
+    }
+
+    public void testLateRejectionIsAbsorbed() throws Exception
+    {
+        assertTrue("Nack should be processed",
+                   _dispatcher.dispatchBasicNack(new BasicNackBody(9L, true, false), 2));
+        verify(_session).confirmPublishes(2, 9L, true, true);
+    }
+}
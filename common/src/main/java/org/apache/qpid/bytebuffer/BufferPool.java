@@ -20,35 +20,292 @@
  */
 package org.apache.qpid.bytebuffer;
 
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Pool of equally sized direct buffers.
+ * <p>
+ * Each thread takes buffers from, and returns buffers to, a small magazine of its own, so that the common case
+ * involves no shared state at all.  Only when its magazine runs empty or full does a thread move buffers from or to
+ * the shared depot.  At most half the maximum pool size is given to magazines, and the depot is bounded by the rest,
+ * so that together they never hold more buffers than the maximum pool size.  A thread which starts using the pool
+ * when every magazine is taken by a live thread gets an empty magazine and uses the depot directly.  Buffers returned
+ * when the depot is full are left to the garbage collector.
+ * <p>
+ * Statistics are counted by each magazine without synchronisation and summed when read.  The magazines of threads
+ * which have died are retired, and their buffers moved to the depot, when statistics are read or a new thread first
+ * uses the pool.
+ */
 class BufferPool
 {
+    static final int MAXIMUM_MAGAZINE_SIZE = 16;
+    /** Magazines are only used if the pool is big enough that they hold a small proportion of its buffers */
+    private static final int MAGAZINES_PER_POOL = 64;
+
     private final int _maxSize;
-    private final ConcurrentLinkedQueue<ByteBuffer> _pooledBuffers = new ConcurrentLinkedQueue<>();
+    private final int _magazineSize;
+    private final int _maxMagazines;
+    private final int _maxDepotSize;
+    private final ConcurrentLinkedQueue<ByteBuffer> _depot = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger _depotSize = new AtomicInteger();
+    /** The number of magazines of non-zero capacity owned by threads which have not been retired */
+    private final AtomicInteger _magazineCount = new AtomicInteger();
+
+    private final ConcurrentLinkedQueue<Magazine> _magazines = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Magazine> _threadMagazine = new ThreadLocal<Magazine>()
+    {
+        @Override
+        protected Magazine initialValue()
+        {
+            retireDeadMagazines();
+            int size = incrementIfBelow(_magazineCount, _maxMagazines) ? _magazineSize : 0;
+            Magazine magazine = new Magazine(Thread.currentThread(), size);
+            _magazines.add(magazine);
+            return magazine;
+        }
+    };
+
+    private final AtomicLong _retiredHits = new AtomicLong();
+    private final AtomicLong _retiredMisses = new AtomicLong();
+    private final AtomicLong _retiredReturns = new AtomicLong();
+    private final AtomicLong _removedFromPool = new AtomicLong();
 
     BufferPool(final int maxSize)
+    {
+        this(maxSize, Math.min(MAXIMUM_MAGAZINE_SIZE, maxSize / MAGAZINES_PER_POOL));
+    }
+
+    BufferPool(final int maxSize, final int magazineSize)
     {
         _maxSize = maxSize;
+        _magazineSize = magazineSize;
+        _maxMagazines = magazineSize == 0 ? 0 : maxSize / (2 * magazineSize);
+        _maxDepotSize = maxSize - _maxMagazines * magazineSize;
     }
 
+    /**
+     * @return a pooled buffer, or null if the pool is empty, in which case the caller is expected to allocate a new
+     * buffer which will later be returned to the pool
+     */
     ByteBuffer getBuffer()
     {
-        return _pooledBuffers.poll();
+        Magazine magazine = _threadMagazine.get();
+        ByteBuffer buf = magazine.pop();
+        if (buf == null)
+        {
+            buf = pollDepot();
+            if (buf != null)
+            {
+                // refill the magazine up to half its size, leaving room for subsequent returns
+                int refill = magazine.capacity() / 2;
+                ByteBuffer next;
+                while (refill-- > 0 && (next = pollDepot()) != null)
+                {
+                    magazine.push(next);
+                }
+            }
+        }
+
+        if (buf == null)
+        {
+            magazine._misses++;
+        }
+        else
+        {
+            magazine._hits++;
+        }
+        return buf;
     }
 
     void returnBuffer(ByteBuffer buf)
     {
         buf.clear();
-        if (_pooledBuffers.size() < _maxSize)
+        Magazine magazine = _threadMagazine.get();
+        magazine._returns++;
+        if (!magazine.push(buf))
         {
-            _pooledBuffers.add(buf);
+            // spill half the magazine to the depot, so that a subsequent get does not need to refill
+            for (int i = 0; i < magazine.capacity() / 2; i++)
+            {
+                offerDepot(magazine.pop());
+            }
+            if (!magazine.push(buf))
+            {
+                offerDepot(buf);
+            }
         }
     }
 
+    /**
+     * Records that a buffer taken from the pool will never be returned to it.
+     */
+    void removeBuffer()
+    {
+        _removedFromPool.incrementAndGet();
+    }
+
     public int getMaxSize()
     {
         return _maxSize;
     }
+
+    int getMagazineSize()
+    {
+        return _magazineSize;
+    }
+
+    /**
+     * @return the number of buffers held in the shared depot, excluding those held in thread magazines
+     */
+    int getDepotSize()
+    {
+        return _depotSize.get();
+    }
+
+    long getHits()
+    {
+        long hits = _retiredHits.get();
+        for (Magazine magazine : retireDeadMagazines())
+        {
+            hits += magazine._hits;
+        }
+        return hits;
+    }
+
+    long getMisses()
+    {
+        long misses = _retiredMisses.get();
+        for (Magazine magazine : retireDeadMagazines())
+        {
+            misses += magazine._misses;
+        }
+        return misses;
+    }
+
+    /**
+     * @return the number of buffers taken from, or allocated on behalf of, the pool and not yet returned
+     */
+    long getOutstandingBuffers()
+    {
+        long outstanding = _retiredHits.get() + _retiredMisses.get() - _retiredReturns.get() - _removedFromPool.get();
+        for (Magazine magazine : retireDeadMagazines())
+        {
+            outstanding += magazine._hits + magazine._misses - magazine._returns;
+        }
+        return outstanding;
+    }
+
+    private ByteBuffer pollDepot()
+    {
+        ByteBuffer buf = _depot.poll();
+        if (buf != null)
+        {
+            _depotSize.decrementAndGet();
+        }
+        return buf;
+    }
+
+    private void offerDepot(ByteBuffer buf)
+    {
+        if (incrementIfBelow(_depotSize, _maxDepotSize))
+        {
+            _depot.add(buf);
+        }
+    }
+
+    /**
+     * @return true if the counter was below the given maximum, in which case it has been incremented
+     */
+    private static boolean incrementIfBelow(final AtomicInteger counter, final int maximum)
+    {
+        int current;
+        do
+        {
+            current = counter.get();
+            if (current >= maximum)
+            {
+                return false;
+            }
+        }
+        while (!counter.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private Iterable<Magazine> retireDeadMagazines()
+    {
+        Iterator<Magazine> iterator = _magazines.iterator();
+        while (iterator.hasNext())
+        {
+            Magazine magazine = iterator.next();
+            Thread owner = magazine._owner.get();
+            if ((owner == null || !owner.isAlive()) && _magazines.remove(magazine))
+            {
+                if (magazine.capacity() != 0)
+                {
+                    _magazineCount.decrementAndGet();
+                }
+                ByteBuffer buf;
+                while ((buf = magazine.pop()) != null)
+                {
+                    offerDepot(buf);
+                }
+                _retiredHits.addAndGet(magazine._hits);
+                _retiredMisses.addAndGet(magazine._misses);
+                _retiredReturns.addAndGet(magazine._returns);
+            }
+        }
+        return _magazines;
+    }
+
+    /**
+     * The buffers and statistics of a single thread.  Only the owning thread updates a magazine while it lives; the
+     * counters are volatile so that they may be read by other threads.
+     */
+    private static final class Magazine
+    {
+        private final WeakReference<Thread> _owner;
+        private final ByteBuffer[] _buffers;
+        private int _count;
+
+        private volatile long _hits;
+        private volatile long _misses;
+        private volatile long _returns;
+
+        private Magazine(final Thread owner, final int size)
+        {
+            _owner = new WeakReference<>(owner);
+            _buffers = new ByteBuffer[size];
+        }
+
+        private int capacity()
+        {
+            return _buffers.length;
+        }
+
+        private ByteBuffer pop()
+        {
+            if (_count == 0)
+            {
+                return null;
+            }
+            ByteBuffer buf = _buffers[--_count];
+            _buffers[_count] = null;
+            return buf;
+        }
+
+        private boolean push(final ByteBuffer buf)
+        {
+            if (buf == null || _count == _buffers.length)
+            {
+                return false;
+            }
+            _buffers[_count++] = buf;
+            return true;
+        }
+    }
 }
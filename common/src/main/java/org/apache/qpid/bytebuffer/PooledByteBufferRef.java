@@ -63,7 +63,10 @@ class PooledByteBufferRef implements ByteBufferRef
     @Override
     public void removeFromPool()
     {
-        REF_COUNT.set(this, Integer.MIN_VALUE/2);
+        if (REF_COUNT.getAndSet(this, Integer.MIN_VALUE/2) > 0)
+        {
+            QpidByteBuffer.removedFromPool();
+        }
     }
 
 
@@ -23,6 +23,9 @@ package org.apache.qpid.bytebuffer;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.channels.GatheringByteChannel;
@@ -33,7 +36,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLEngineResult;
@@ -54,8 +60,14 @@ public final class QpidByteBuffer
             "_disposed");
 
     private static final ThreadLocal<QpidByteBuffer> _cachedBuffer = new ThreadLocal<>();
+    private static final ReferenceQueue<QpidByteBuffer> _leakQueue = new ReferenceQueue<>();
+    private static final Set<LeakTracker> _leakTrackers =
+            Collections.newSetFromMap(new ConcurrentHashMap<LeakTracker, Boolean>());
+    private static final AtomicLong _leakCount = new AtomicLong();
+
     private volatile ByteBuffer _buffer;
     private final ByteBufferRef _ref;
+    private final LeakTracker _leakTracker;
 
     @SuppressWarnings("unused")
     private volatile int _disposed;
@@ -64,6 +76,7 @@ public final class QpidByteBuffer
     private volatile static BufferPool _bufferPool;
     private volatile static int _pooledBufferSize;
     private volatile static ByteBuffer _zeroed;
+    private volatile static boolean _leakDetectionEnabled;
 
     QpidByteBuffer(ByteBufferRef ref)
     {
@@ -75,6 +88,16 @@ public final class QpidByteBuffer
         _buffer = buf;
         _ref = ref;
         ref.incrementRef();
+
+        if (_leakDetectionEnabled && ref instanceof PooledByteBufferRef)
+        {
+            reportLeaks();
+            _leakTracker = new LeakTracker(this);
+        }
+        else
+        {
+            _leakTracker = null;
+        }
     }
 
 
@@ -420,6 +443,10 @@ public final class QpidByteBuffer
     {
         if(DISPOSED_UPDATER.compareAndSet(this,0,1))
         {
+            if (_leakTracker != null)
+            {
+                _leakTracker.disposed();
+            }
             _ref.decrementRef();
             _buffer = null;
         }
@@ -539,6 +566,11 @@ public final class QpidByteBuffer
 
     public ByteBuffer asByteBuffer()
     {
+        if (_leakTracker != null)
+        {
+            // the buffer is deliberately leaving the pool, so is not a leak if it is never disposed
+            _leakTracker.disposed();
+        }
         _ref.removeFromPool();
         return _buffer;
     }
@@ -576,7 +608,19 @@ public final class QpidByteBuffer
 
     public static long write(GatheringByteChannel channel, Collection<QpidByteBuffer> buffers) throws IOException
     {
-        ByteBuffer[] bufs = new ByteBuffer[buffers.size()];
+        return write(channel, buffers, 0);
+    }
+
+    /**
+     * Writes the leading buffers of the collection to the channel in a single gathering write.
+     *
+     * @param maxBuffers the maximum number of buffers passed to the channel, or zero for no limit
+     */
+    public static long write(GatheringByteChannel channel, Collection<QpidByteBuffer> buffers, int maxBuffers)
+            throws IOException
+    {
+        int size = buffers.size();
+        ByteBuffer[] bufs = new ByteBuffer[maxBuffers > 0 ? Math.min(size, maxBuffers) : size];
         Iterator<QpidByteBuffer> bufIter = buffers.iterator();
         for(int i = 0; i < bufs.length; i++)
         {
@@ -610,6 +654,11 @@ public final class QpidByteBuffer
         _bufferPool.returnBuffer(buffer);
     }
 
+    static void removedFromPool()
+    {
+        _bufferPool.removeBuffer();
+    }
+
     public synchronized static void initialisePool(int bufferSize, int maxPoolSize)
     {
         if (_isPoolInitialized && (bufferSize != _pooledBufferSize || maxPoolSize != _bufferPool.getMaxSize()))
@@ -626,6 +675,117 @@ public final class QpidByteBuffer
         _isPoolInitialized = true;
     }
 
+    public static boolean isPoolInitialised()
+    {
+        return _isPoolInitialized;
+    }
+
+    /**
+     * @return the size of the buffers held by the pool, or 0 if the pool has not been initialised
+     */
+    public static int getPooledBufferSize()
+    {
+        return _pooledBufferSize;
+    }
+
+    /**
+     * Enables or disables recording the allocation site of every pooled buffer, so that buffers which are garbage
+     * collected without having been disposed, and so are never returned to the pool, can be reported.  This is
+     * expensive, so intended only for diagnosing leaks.
+     */
+    public static void setLeakDetectionEnabled(boolean enabled)
+    {
+        _leakDetectionEnabled = enabled;
+        if (!enabled)
+        {
+            _leakTrackers.clear();
+        }
+    }
+
+    public static boolean isLeakDetectionEnabled()
+    {
+        return _leakDetectionEnabled;
+    }
+
+    /**
+     * @return the number of pooled buffers found to have been garbage collected without being disposed since leak
+     * detection was first enabled
+     */
+    public static long getLeakCount()
+    {
+        reportLeaks();
+        return _leakCount.get();
+    }
+
+    /**
+     * @return the number of times a pooled buffer was reused rather than newly allocated
+     */
+    public static long getPooledBufferHits()
+    {
+        final BufferPool bufferPool = _bufferPool;
+        return bufferPool == null ? 0L : bufferPool.getHits();
+    }
+
+    /**
+     * @return the number of times a pooled buffer had to be newly allocated because the pool was empty
+     */
+    public static long getPooledBufferMisses()
+    {
+        final BufferPool bufferPool = _bufferPool;
+        return bufferPool == null ? 0L : bufferPool.getMisses();
+    }
+
+    /**
+     * @return the number of buffers held in the shared part of the pool
+     */
+    public static int getPooledBufferCount()
+    {
+        final BufferPool bufferPool = _bufferPool;
+        return bufferPool == null ? 0 : bufferPool.getDepotSize();
+    }
+
+    /**
+     * @return the size in bytes of the pooled direct buffers currently in use
+     */
+    public static long getOutstandingPooledMemory()
+    {
+        final BufferPool bufferPool = _bufferPool;
+        return bufferPool == null ? 0L : bufferPool.getOutstandingBuffers() * _pooledBufferSize;
+    }
+
+    private static void reportLeaks()
+    {
+        Reference<? extends QpidByteBuffer> ref;
+        while ((ref = _leakQueue.poll()) != null)
+        {
+            LeakTracker tracker = (LeakTracker) ref;
+            if (_leakTrackers.remove(tracker))
+            {
+                _leakCount.incrementAndGet();
+                LOGGER.warn("Pooled QpidByteBuffer was garbage collected without being disposed, so its memory will"
+                            + " not be returned to the pool. Allocation site:", tracker._allocationSite);
+            }
+        }
+    }
+
+    private static final class LeakTracker extends WeakReference<QpidByteBuffer>
+    {
+        private final Throwable _allocationSite;
+
+        private LeakTracker(final QpidByteBuffer buffer)
+        {
+            super(buffer, _leakQueue);
+            _allocationSite = new Throwable("QpidByteBuffer allocation");
+            _leakTrackers.add(this);
+        }
+
+        private void disposed()
+        {
+            _leakTrackers.remove(this);
+            clear();
+        }
+    }
+
     private final class BufferInputStream extends InputStream
     {
 
@@ -252,6 +252,33 @@ public class ClientProperties
     public static final String CONNECTION_OPTION_MESSAGE_COMPRESSION_THRESHOLD_SIZE = "qpid.message_compression_threshold_size";
     public static final int DEFAULT_MESSAGE_COMPRESSION_THRESHOLD_SIZE = 102400;
 
+    /**
+     * System property to set a default value for a connection option 'maxInFlightPublishes'
+     */
+    public static final String CONNECTION_OPTION_MAX_IN_FLIGHT_PUBLISHES = "qpid.max_in_flight_publishes";
+    public static final int DEFAULT_MAX_IN_FLIGHT_PUBLISHES = 1024;
+
+    /**
+     * System property to set a default value for a connection option 'nonBlockingTransport'
+     */
+    public static final String CONNECTION_OPTION_NON_BLOCKING_TRANSPORT = "qpid.non_blocking_transport";
+    public static final boolean DEFAULT_CONNECTION_OPTION_NON_BLOCKING_TRANSPORT = false;
+
+    /**
+     * System property to set the number of selector threads shared by all connections using the non-blocking
+     * transport.  Defaults to the number of processors, up to a maximum of four.
+     */
+    public static final String SELECTOR_THREADS_PROP_NAME = "qpid.selector_threads";
+
+    /**
+     * System properties to size the pool of direct buffers used by the non-blocking transport.  These have no effect
+     * if the pool has already been initialised, for instance by a broker running in the same JVM.
+     */
+    public static final String DIRECT_BUFFER_SIZE_PROP_NAME = "qpid.direct_buffer_size";
+    public static final int DEFAULT_DIRECT_BUFFER_SIZE = 64 * 1024;
+    public static final String DIRECT_BUFFER_POOL_SIZE_PROP_NAME = "qpid.direct_buffer_pool_size";
+    public static final int DEFAULT_DIRECT_BUFFER_POOL_SIZE = 256;
+
     public static final String ADDR_SYNTAX_SUPPORTED_IN_0_8 = "qpid.addr_syntax_supported";
     public static final boolean DEFAULT_ADDR_SYNTAX_0_8_SUPPORT = true;
 
@@ -69,15 +69,54 @@ public abstract class ComparisonExpression extends BinaryExpression implements B
         REGEXP_CONTROL_CHARS.add('!');
     }
 
-    static class LikeExpression extends UnaryExpression implements BooleanExpression
+    static class LikeExpression extends UnaryExpression implements BooleanExpression, UnaryExpression.Applicable
     {
 
+        /** How a value is matched: patterns with a single literal run use a string operation rather than the regex */
+        private enum MatchType
+        {
+            ANY, EXACT, PREFIX, SUFFIX, CONTAINS, REGEX
+        }
+
         private Pattern likePattern;
+        private final MatchType _matchType;
+        private final String _literal;
 
         public LikeExpression(Expression right, String like, int escape)
         {
             super(right);
 
+            int start = 0;
+            int end = like.length();
+            while (start < end && like.charAt(start) == '%')
+            {
+                start++;
+            }
+            while (end > start && like.charAt(end - 1) == '%')
+            {
+                end--;
+            }
+            _literal = like.substring(start, end);
+            if (isLiteral(_literal, escape))
+            {
+                boolean leadingWildcard = start > 0;
+                boolean trailingWildcard = end < like.length();
+                if (_literal.isEmpty())
+                {
+                    _matchType = leadingWildcard ? MatchType.ANY : MatchType.EXACT;
+                }
+                else if (leadingWildcard)
+                {
+                    _matchType = trailingWildcard ? MatchType.CONTAINS : MatchType.SUFFIX;
+                }
+                else
+                {
+                    _matchType = trailingWildcard ? MatchType.PREFIX : MatchType.EXACT;
+                }
+                return;
+            }
+            _matchType = MatchType.REGEX;
+
             StringBuffer regexp = new StringBuffer(like.length() * 2);
             regexp.append("\\A"); // The beginning of the input
             for (int i = 0; i < like.length(); i++)
@@ -120,6 +159,24 @@ public abstract class ComparisonExpression extends BinaryExpression implements B
             likePattern = Pattern.compile(regexp.toString(), Pattern.DOTALL);
         }
 
+        private static boolean isLiteral(String value, int escape)
+        {
+            for (int i = 0; i < value.length(); i++)
+            {
+                char c = value.charAt(i);
+                if (c == '%' || c == '_' || escape == (0xFFFF & c))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean usesRegex()
+        {
+            return _matchType == MatchType.REGEX;
+        }
+
         /**
          *  org.apache.activemq.filter.UnaryExpression#getExpressionSymbol()
          */
@@ -133,9 +190,12 @@ public abstract class ComparisonExpression extends BinaryExpression implements B
          */
         public Object evaluate(FilterableMessage message)
         {
+            return apply(this.getRight().evaluate(message));
+        }
 
-            Object rv = this.getRight().evaluate(message);
-
+        @Override
+        public Object apply(final Object rv)
+        {
             if (rv == null)
             {
                 return null;
@@ -147,7 +207,26 @@ public abstract class ComparisonExpression extends BinaryExpression implements B
                     Boolean.FALSE;
             }
 
-            return likePattern.matcher((String) rv).matches() ? Boolean.TRUE : Boolean.FALSE;
+            return matches((String) rv) ? Boolean.TRUE : Boolean.FALSE;
+        }
+
+        private boolean matches(String value)
+        {
+            switch (_matchType)
+            {
+                case ANY:
+                    return true;
+                case EXACT:
+                    return value.equals(_literal);
+                case PREFIX:
+                    return value.startsWith(_literal);
+                case SUFFIX:
+                    return value.endsWith(_literal);
+                case CONTAINS:
+                    return value.contains(_literal);
+                default:
+                    return likePattern.matcher(value).matches();
+            }
         }
 
         public boolean matches(FilterableMessage message)
@@ -393,6 +472,27 @@ public abstract class ComparisonExpression extends BinaryExpression implements B
         return compare(lv, rv);
     }
 
+    /**
+     * Applies the comparison to already evaluated operands, so that a compiled selector can reuse the comparison
+     * without re-evaluating its operands.
+     */
+    Object apply(Object lv, Object rv)
+    {
+        if (lv == null || rv == null)
+        {
+            return null;
+        }
+        return compare((Comparable) lv, (Comparable) rv);
+    }
+
+    /**
+     * @return true if the right operand need not be evaluated when the left operand is null
+     */
+    boolean isNullIfLeftNull()
+    {
+        return true;
+    }
+
     protected Boolean compare(Comparable lv, Comparable rv)
     {
         Class lc = lv.getClass();
@@ -545,7 +645,7 @@ public abstract class ComparisonExpression extends BinaryExpression implements B
         return (object != null) && (object == Boolean.TRUE);
     }
 
-    private static class EqualExpression extends ComparisonExpression
+    static class EqualExpression extends ComparisonExpression
     {
         public EqualExpression(final Expression left, final Expression right)
         {
@@ -554,9 +654,18 @@ public abstract class ComparisonExpression extends BinaryExpression implements B
 
         public Object evaluate(FilterableMessage message)
         {
-            Object lv = getLeft().evaluate(message);
-            Object rv = getRight().evaluate(message);
+            return apply(getLeft().evaluate(message), getRight().evaluate(message));
+        }
+
+        @Override
+        boolean isNullIfLeftNull()
+        {
+            return false;
+        }
 
+        @Override
+        Object apply(final Object lv, final Object rv)
+        {
             // Iff one of the values is null
             if ((lv == null) ^ (rv == null))
             {
@@ -114,6 +114,14 @@ public class PropertyExpression implements Expression
         return name;
     }
 
+    /**
+     * @return true if this expression refers to a JMS header field rather than to an application property
+     */
+    boolean isJMSProperty()
+    {
+        return jmsPropertyExpression != null;
+    }
+
     /**
      * @see java.lang.Object#toString()
      */
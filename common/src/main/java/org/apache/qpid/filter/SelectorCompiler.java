@@ -0,0 +1,685 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiles a parsed selector into a tree of specialised evaluators.
+ * <p>
+ * The compiled tree folds constant sub-expressions and, wherever only the truth of a sub-expression matters (at the
+ * root, and within the operands of a conjunction or disjunction which is itself only tested for truth), flattens
+ * chains of AND and OR into a single node whose operands are evaluated cheapest first.  Since evaluating an operand
+ * may fail, as arithmetic on a non-numeric property does, such a node still evaluates any operand which may fail and
+ * which precedes, as written, the operand deciding its value, and fails as the interpreted expression would if that
+ * operand fails.  Elsewhere, for instance beneath NOT, the three-valued semantics of the interpreted expression are
+ * preserved exactly, so that a compiled selector matches precisely the messages that the interpreted selector
+ * matches.
+ * <p>
+ * Operators are applied by the parsed expressions themselves, so the compiled tree shares their semantics.
+ */
+public final class SelectorCompiler
+{
+    private static final int CONSTANT_COST = 0;
+    private static final int JMS_PROPERTY_COST = 1;
+    private static final int HEADER_COST = 2;
+    private static final int OPERATOR_COST = 1;
+    private static final int REGEX_COST = 8;
+    private static final int UNKNOWN_COST = 16;
+
+    private SelectorCompiler()
+    {
+    }
+
+    /**
+     * @param expression the parsed selector
+     * @return an expression matching exactly the messages matched by the given expression
+     */
+    public static BooleanExpression compile(BooleanExpression expression)
+    {
+        return compileForTruth(expression);
+    }
+
+    private static CompiledExpression compileForTruth(Expression expression)
+    {
+        if (expression instanceof LogicExpression)
+        {
+            LogicExpression logic = (LogicExpression) expression;
+            if ("AND".equals(logic.getExpressionSymbol()))
+            {
+                return compileConjunction(logic);
+            }
+            else if ("OR".equals(logic.getExpressionSymbol()))
+            {
+                return compileDisjunction(logic);
+            }
+        }
+        return compileForValue(expression);
+    }
+
+    private static CompiledExpression compileConjunction(LogicExpression expression)
+    {
+        List<Expression> operands = new ArrayList<>();
+        flatten(expression, "AND", operands);
+
+        List<CompiledExpression> compiled = new ArrayList<>(operands.size());
+        for (Expression operand : operands)
+        {
+            CompiledExpression compiledOperand = compileForTruth(operand);
+            if (compiledOperand.isConstant())
+            {
+                if (compiledOperand.evaluate(null) != Boolean.TRUE)
+                {
+                    return new Constant(Boolean.FALSE);
+                }
+            }
+            else
+            {
+                compiled.add(compiledOperand);
+            }
+        }
+
+        if (compiled.isEmpty())
+        {
+            return new Constant(Boolean.TRUE);
+        }
+        else if (compiled.size() == 1)
+        {
+            return compiled.get(0);
+        }
+        return new AllOf(compiled);
+    }
+
+    private static CompiledExpression compileDisjunction(LogicExpression expression)
+    {
+        List<Expression> operands = new ArrayList<>();
+        flatten(expression, "OR", operands);
+
+        List<CompiledExpression> compiled = new ArrayList<>(operands.size());
+        for (Expression operand : operands)
+        {
+            CompiledExpression compiledOperand = compileForTruth(operand);
+            if (compiledOperand.isConstant())
+            {
+                if (compiledOperand.evaluate(null) == Boolean.TRUE)
+                {
+                    return new Constant(Boolean.TRUE);
+                }
+            }
+            else
+            {
+                compiled.add(compiledOperand);
+            }
+        }
+
+        if (compiled.isEmpty())
+        {
+            return new Constant(Boolean.FALSE);
+        }
+        else if (compiled.size() == 1)
+        {
+            return compiled.get(0);
+        }
+        return new AnyOf(compiled);
+    }
+
+    private static void flatten(Expression expression, String symbol, List<Expression> operands)
+    {
+        if (expression instanceof LogicExpression
+            && symbol.equals(((LogicExpression) expression).getExpressionSymbol()))
+        {
+            flatten(((LogicExpression) expression).getLeft(), symbol, operands);
+            flatten(((LogicExpression) expression).getRight(), symbol, operands);
+        }
+        else
+        {
+            operands.add(expression);
+        }
+    }
+
+    private static CompiledExpression compileForValue(Expression expression)
+    {
+        CompiledExpression compiled;
+        if (expression instanceof ConstantExpression)
+        {
+            return new Constant(((ConstantExpression) expression).getValue());
+        }
+        else if (expression instanceof PropertyExpression)
+        {
+            return new Property((PropertyExpression) expression);
+        }
+        else if (expression instanceof LogicExpression)
+        {
+            LogicExpression logic = (LogicExpression) expression;
+            CompiledExpression left = compileForValue(logic.getLeft());
+            CompiledExpression right = compileForValue(logic.getRight());
+            if ("AND".equals(logic.getExpressionSymbol()))
+            {
+                compiled = new And(left, right);
+            }
+            else if ("OR".equals(logic.getExpressionSymbol()))
+            {
+                compiled = new Or(left, right);
+            }
+            else
+            {
+                return new Opaque(expression);
+            }
+        }
+        else if (expression instanceof ComparisonExpression)
+        {
+            ComparisonExpression comparison = (ComparisonExpression) expression;
+            compiled = new Comparison(comparison,
+                                      compileForValue(comparison.getLeft()),
+                                      compileForValue(comparison.getRight()));
+        }
+        else if (expression instanceof ArithmeticExpression)
+        {
+            ArithmeticExpression arithmetic = (ArithmeticExpression) expression;
+            compiled = new Arithmetic(arithmetic,
+                                      compileForValue(arithmetic.getLeft()),
+                                      compileForValue(arithmetic.getRight()));
+        }
+        else if (expression instanceof UnaryExpression.Applicable)
+        {
+            UnaryExpression.Applicable unary = (UnaryExpression.Applicable) expression;
+            compiled = new Unary(unary, compileForValue(unary.getRight()));
+        }
+        else
+        {
+            return new Opaque(expression);
+        }
+        return fold(compiled);
+    }
+
+    /**
+     * Replaces an expression whose operands are all constant by its value, unless evaluating it fails, in which case
+     * the failure is left to occur when a message is evaluated, as it would for the interpreted expression.
+     */
+    private static CompiledExpression fold(CompiledExpression expression)
+    {
+        for (CompiledExpression operand : expression.getOperands())
+        {
+            if (!operand.isConstant())
+            {
+                return expression;
+            }
+        }
+
+        try
+        {
+            return new Constant(expression.evaluate(null));
+        }
+        catch (RuntimeException e)
+        {
+            return expression;
+        }
+    }
+
+    private abstract static class CompiledExpression implements BooleanExpression
+    {
+        private static final CompiledExpression[] NO_OPERANDS = new CompiledExpression[0];
+
+        private final int _cost;
+
+        CompiledExpression(final int cost)
+        {
+            _cost = cost;
+        }
+
+        int getCost()
+        {
+            return _cost;
+        }
+
+        boolean isConstant()
+        {
+            return false;
+        }
+
+        CompiledExpression[] getOperands()
+        {
+            return NO_OPERANDS;
+        }
+
+        /**
+         * @return true if evaluating the expression may throw, as arithmetic on a non-numeric value does
+         */
+        boolean mayFail()
+        {
+            for (CompiledExpression operand : getOperands())
+            {
+                if (operand.mayFail())
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean matches(final FilterableMessage message)
+        {
+            return evaluate(message) == Boolean.TRUE;
+        }
+    }
+
+    private static final class Constant extends CompiledExpression
+    {
+        private final Object _value;
+
+        Constant(final Object value)
+        {
+            super(CONSTANT_COST);
+            _value = value;
+        }
+
+        @Override
+        boolean isConstant()
+        {
+            return true;
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            return _value;
+        }
+    }
+
+    private static final class Property extends CompiledExpression
+    {
+        private final PropertyExpression _property;
+
+        Property(final PropertyExpression property)
+        {
+            super(property.isJMSProperty() ? JMS_PROPERTY_COST : HEADER_COST);
+            _property = property;
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            return _property.evaluate(message);
+        }
+    }
+
+    private static final class Opaque extends CompiledExpression
+    {
+        private final Expression _expression;
+
+        Opaque(final Expression expression)
+        {
+            super(UNKNOWN_COST);
+            _expression = expression;
+        }
+
+        @Override
+        boolean mayFail()
+        {
+            return true;
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            return _expression.evaluate(message);
+        }
+    }
+
+    private static final class Unary extends CompiledExpression
+    {
+        private final UnaryExpression.Applicable _operator;
+        private final CompiledExpression _operand;
+
+        Unary(final UnaryExpression.Applicable operator, final CompiledExpression operand)
+        {
+            super(operand.getCost() + OPERATOR_COST + (operator instanceof ComparisonExpression.LikeExpression
+                                                       && ((ComparisonExpression.LikeExpression) operator).usesRegex()
+                    ? REGEX_COST
+                    : 0));
+            _operator = operator;
+            _operand = operand;
+        }
+
+        @Override
+        CompiledExpression[] getOperands()
+        {
+            return new CompiledExpression[] { _operand };
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            return _operator.apply(_operand.evaluate(message));
+        }
+    }
+
+    private abstract static class Binary extends CompiledExpression
+    {
+        final CompiledExpression _left;
+        final CompiledExpression _right;
+
+        Binary(final CompiledExpression left, final CompiledExpression right)
+        {
+            super(left.getCost() + right.getCost() + OPERATOR_COST);
+            _left = left;
+            _right = right;
+        }
+
+        @Override
+        CompiledExpression[] getOperands()
+        {
+            return new CompiledExpression[] { _left, _right };
+        }
+    }
+
+    private static final class Comparison extends Binary
+    {
+        private final ComparisonExpression _operator;
+        private final boolean _nullIfLeftNull;
+
+        Comparison(final ComparisonExpression operator, final CompiledExpression left, final CompiledExpression right)
+        {
+            super(left, right);
+            _operator = operator;
+            _nullIfLeftNull = operator.isNullIfLeftNull();
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            Object lv = _left.evaluate(message);
+            if (lv == null && _nullIfLeftNull)
+            {
+                return null;
+            }
+            return _operator.apply(lv, _right.evaluate(message));
+        }
+    }
+
+    private static final class Arithmetic extends Binary
+    {
+        private final ArithmeticExpression _operator;
+
+        Arithmetic(final ArithmeticExpression operator, final CompiledExpression left, final CompiledExpression right)
+        {
+            super(left, right);
+            _operator = operator;
+        }
+
+        @Override
+        boolean mayFail()
+        {
+            return true;
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            Object lvalue = _left.evaluate(message);
+            if (lvalue == null)
+            {
+                return null;
+            }
+
+            Object rvalue = _right.evaluate(message);
+            if (rvalue == null)
+            {
+                return null;
+            }
+
+            return _operator.evaluate(lvalue, rvalue);
+        }
+    }
+
+    /**
+     * Conjunction with the exact three-valued semantics of the interpreted expression, used where the value, and not
+     * only the truth, of the conjunction matters.
+     */
+    private static final class And extends Binary
+    {
+        And(final CompiledExpression left, final CompiledExpression right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            Boolean lv = (Boolean) _left.evaluate(message);
+            if (lv == null)
+            {
+                return null;
+            }
+            if (!lv.booleanValue())
+            {
+                return Boolean.FALSE;
+            }
+            return (Boolean) _right.evaluate(message);
+        }
+    }
+
+    /**
+     * Disjunction with the exact three-valued semantics of the interpreted expression.
+     */
+    private static final class Or extends Binary
+    {
+        Or(final CompiledExpression left, final CompiledExpression right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            Boolean lv = (Boolean) _left.evaluate(message);
+            if (lv != null && lv.booleanValue())
+            {
+                return Boolean.TRUE;
+            }
+            return (Boolean) _right.evaluate(message);
+        }
+    }
+
+    /**
+     * A conjunction or disjunction tested only for truth, whose value is decided by the first operand, as written,
+     * which has a decisive value or fails.  Operands are evaluated cheapest first, but evaluation only stops once no
+     * operand which precedes the deciding operand as written remains that may fail.
+     */
+    private abstract static class Junction extends CompiledExpression
+    {
+        private final CompiledExpression[] _operands;
+        /** The position, as written, of each operand, in order of evaluation */
+        private final int[] _writtenIndices;
+        private final boolean[] _fallible;
+        private final boolean _mayFail;
+        /** The least position, as written, of the operands evaluated after each operand */
+        private final int[] _firstAfter;
+        /** The least position, as written, of the operands which may fail and are evaluated after each operand */
+        private final int[] _firstFallibleAfter;
+
+        Junction(final List<CompiledExpression> operands)
+        {
+            super(totalCost(operands));
+            final int count = operands.size();
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++)
+            {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>()
+            {
+                @Override
+                public int compare(final Integer o1, final Integer o2)
+                {
+                    return Integer.compare(operands.get(o1).getCost(), operands.get(o2).getCost());
+                }
+            });
+
+            _operands = new CompiledExpression[count];
+            _writtenIndices = new int[count];
+            _fallible = new boolean[count];
+            _firstAfter = new int[count];
+            _firstFallibleAfter = new int[count];
+            int first = count;
+            int firstFallible = count;
+            for (int i = count - 1; i >= 0; i--)
+            {
+                _firstAfter[i] = first;
+                _firstFallibleAfter[i] = firstFallible;
+                _operands[i] = operands.get(order[i]);
+                _writtenIndices[i] = order[i];
+                _fallible[i] = _operands[i].mayFail();
+                first = Math.min(first, order[i]);
+                if (_fallible[i])
+                {
+                    firstFallible = Math.min(firstFallible, order[i]);
+                }
+            }
+            _mayFail = firstFallible < count;
+        }
+
+        @Override
+        boolean mayFail()
+        {
+            return _mayFail;
+        }
+
+        @Override
+        public Object evaluate(final FilterableMessage message)
+        {
+            int decidingIndex = _operands.length;
+            RuntimeException failure = null;
+            for (int i = 0; i < _operands.length; i++)
+            {
+                final boolean decidedByValue = decidingIndex < _operands.length && failure == null;
+                if (_writtenIndices[i] < decidingIndex && (!decidedByValue || _fallible[i]))
+                {
+                    final int writtenIndex = _writtenIndices[i];
+                    try
+                    {
+                        if (isDecisive(_operands[i].evaluate(message)))
+                        {
+                            decidingIndex = writtenIndex;
+                            failure = null;
+                        }
+                    }
+                    catch (RuntimeException e)
+                    {
+                        decidingIndex = writtenIndex;
+                        failure = e;
+                    }
+                }
+                // once decided, only an operand preceding the deciding one as written can change the outcome, and if
+                // the outcome is a value rather than a failure, only by failing
+                if (decidingIndex < _operands.length
+                    && (failure == null ? _firstFallibleAfter[i] : _firstAfter[i]) >= decidingIndex)
+                {
+                    break;
+                }
+            }
+
+            if (failure != null)
+            {
+                throw failure;
+            }
+            return decidingIndex < _operands.length ? getDecisiveValue() : getDefaultValue();
+        }
+
+        abstract boolean isDecisive(Object value);
+
+        abstract Boolean getDecisiveValue();
+
+        abstract Boolean getDefaultValue();
+    }
+
+    /**
+     * Conjunction tested only for truth: true if every operand is true.
+     */
+    private static final class AllOf extends Junction
+    {
+        AllOf(final List<CompiledExpression> operands)
+        {
+            super(operands);
+        }
+
+        @Override
+        boolean isDecisive(final Object value)
+        {
+            return value != Boolean.TRUE;
+        }
+
+        @Override
+        Boolean getDecisiveValue()
+        {
+            return Boolean.FALSE;
+        }
+
+        @Override
+        Boolean getDefaultValue()
+        {
+            return Boolean.TRUE;
+        }
+    }
+
+    /**
+     * Disjunction tested only for truth: true if any operand is true.
+     */
+    private static final class AnyOf extends Junction
+    {
+        AnyOf(final List<CompiledExpression> operands)
+        {
+            super(operands);
+        }
+
+        @Override
+        boolean isDecisive(final Object value)
+        {
+            return value == Boolean.TRUE;
+        }
+
+        @Override
+        Boolean getDecisiveValue()
+        {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        Boolean getDefaultValue()
+        {
+            return Boolean.FALSE;
+        }
+    }
+
+    private static int totalCost(final List<CompiledExpression> operands)
+    {
+        int cost = OPERATOR_COST;
+        for (CompiledExpression operand : operands)
+        {
+            cost += operand.getCost();
+        }
+        return cost;
+    }
+}
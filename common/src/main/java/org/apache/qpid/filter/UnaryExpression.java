@@ -177,7 +177,22 @@ public abstract class UnaryExpression implements Expression
      */
     public abstract String getExpressionSymbol();
 
-    private static class NegativeExpression extends UnaryExpression
+    /**
+     * A unary expression whose operator can be applied to an already evaluated operand, so that a compiled selector
+     * can reuse the operator without re-evaluating its operand.
+     */
+    interface Applicable extends Expression
+    {
+        Expression getRight();
+
+        /**
+         * @param rvalue the value of the operand
+         * @return the value of this expression
+         */
+        Object apply(Object rvalue);
+    }
+
+    static class NegativeExpression extends UnaryExpression implements Applicable
     {
         public NegativeExpression(final Expression left)
         {
@@ -186,7 +201,12 @@ public abstract class UnaryExpression implements Expression
 
         public Object evaluate(FilterableMessage message)
         {
-            Object rvalue = getRight().evaluate(message);
+            return apply(getRight().evaluate(message));
+        }
+
+        @Override
+        public Object apply(final Object rvalue)
+        {
             if (rvalue == null)
             {
                 return null;
@@ -206,7 +226,7 @@ public abstract class UnaryExpression implements Expression
         }
     }
 
-    private static class InExpression extends BooleanUnaryExpression
+    static class InExpression extends BooleanUnaryExpression implements Applicable
     {
         private final Collection _inList;
         private final boolean _not;
@@ -220,8 +240,12 @@ public abstract class UnaryExpression implements Expression
 
         public Object evaluate(FilterableMessage message)
         {
+            return apply(getRight().evaluate(message));
+        }
 
-            Object rvalue = getRight().evaluate(message);
+        @Override
+        public Object apply(final Object rvalue)
+        {
             if (rvalue == null)
             {
                 return null;
@@ -280,7 +304,7 @@ public abstract class UnaryExpression implements Expression
         }
     }
 
-    private static class NotExpression extends BooleanUnaryExpression
+    static class NotExpression extends BooleanUnaryExpression implements Applicable
     {
         public NotExpression(final BooleanExpression left)
         {
@@ -289,7 +313,13 @@ public abstract class UnaryExpression implements Expression
 
         public Object evaluate(FilterableMessage message)
         {
-            Boolean lvalue = (Boolean) getRight().evaluate(message);
+            return apply(getRight().evaluate(message));
+        }
+
+        @Override
+        public Object apply(final Object rvalue)
+        {
+            Boolean lvalue = (Boolean) rvalue;
             if (lvalue == null)
             {
                 return null;
@@ -304,7 +334,7 @@ public abstract class UnaryExpression implements Expression
         }
     }
 
-    private static class BooleanCastExpression extends BooleanUnaryExpression
+    static class BooleanCastExpression extends BooleanUnaryExpression implements Applicable
     {
         public BooleanCastExpression(final Expression left)
         {
@@ -313,7 +343,12 @@ public abstract class UnaryExpression implements Expression
 
         public Object evaluate(FilterableMessage message)
         {
-            Object rvalue = getRight().evaluate(message);
+            return apply(getRight().evaluate(message));
+        }
+
+        @Override
+        public Object apply(final Object rvalue)
+        {
             if (rvalue == null)
             {
                 return null;
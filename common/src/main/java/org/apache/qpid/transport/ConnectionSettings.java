@@ -20,6 +20,8 @@
  */
 package org.apache.qpid.transport;
 
+import static org.apache.qpid.configuration.ClientProperties.CONNECTION_OPTION_NON_BLOCKING_TRANSPORT;
+import static org.apache.qpid.configuration.ClientProperties.DEFAULT_CONNECTION_OPTION_NON_BLOCKING_TRANSPORT;
 import static org.apache.qpid.transport.LegacyClientProperties.AMQJ_HEARTBEAT_DELAY;
 import static org.apache.qpid.transport.LegacyClientProperties.AMQJ_HEARTBEAT_TIMEOUT_FACTOR;
 import static org.apache.qpid.transport.LegacyClientProperties.IDLE_TIMEOUT_PROP_NAME;
@@ -83,6 +85,7 @@ public class ConnectionSettings
     private String password;
     private int port = 5672;
     private boolean tcpNodelay = QpidProperty.booleanProperty(Boolean.TRUE, QPID_TCP_NODELAY_PROP_NAME, AMQJ_TCP_NODELAY_PROP_NAME).get();
+    private boolean nonBlocking = QpidProperty.booleanProperty(DEFAULT_CONNECTION_OPTION_NON_BLOCKING_TRANSPORT, CONNECTION_OPTION_NON_BLOCKING_TRANSPORT).get();
     private int maxChannelCount = 32767;
     private int maxFrameSize = 65535;
     private Integer hearbeatIntervalLegacyMs = QpidProperty.intProperty(null, IDLE_TIMEOUT_PROP_NAME).get();
@@ -141,6 +144,20 @@ public class ConnectionSettings
         this.tcpNodelay = tcpNodelay;
     }
 
+    /**
+     * @return true if the connection should be served by the shared selector threads of the non-blocking transport
+     * rather than by threads of its own
+     */
+    public boolean isNonBlocking()
+    {
+        return nonBlocking;
+    }
+
+    public void setNonBlocking(boolean nonBlocking)
+    {
+        this.nonBlocking = nonBlocking;
+    }
+
     /**
      * Gets the heartbeat interval (seconds) for 0-8/9/9-1 protocols.
      * 0 means heartbeating is disabled.
@@ -35,9 +35,10 @@ import org.apache.qpid.transport.ConnectionSettings;
 import org.apache.qpid.transport.ExceptionHandlingByteBufferReceiver;
 import org.apache.qpid.transport.TransportException;
 import org.apache.qpid.transport.network.NetworkConnection;
+import org.apache.qpid.transport.network.OutgoingNetworkTransport;
 import org.apache.qpid.transport.network.TransportActivity;
 
-public class IoNetworkTransport
+public class IoNetworkTransport implements OutgoingNetworkTransport
 {
 
 
@@ -59,6 +60,7 @@ public class IoNetworkTransport
                                 ticker);
     }
 
+    @Override
     public NetworkConnection connect(ConnectionSettings settings,
                                      ExceptionHandlingByteBufferReceiver delegate,
                                      TransportActivity transportActivity)
@@ -130,6 +132,7 @@ public class IoNetworkTransport
         return _connection;
     }
 
+    @Override
     public void close()
     {
         if(_connection != null)
@@ -143,6 +146,7 @@ public class IoNetworkTransport
         _registeredSockets.put(id, socket);
     }
 
+    @Override
     public NetworkConnection getConnection()
     {
         return _connection;
@@ -0,0 +1,572 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.transport.network.nio;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.security.Principal;
+import java.security.cert.Certificate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.thread.Threading;
+import org.apache.qpid.transport.ByteBufferSender;
+import org.apache.qpid.transport.ExceptionHandlingByteBufferReceiver;
+import org.apache.qpid.transport.SenderClosedException;
+import org.apache.qpid.transport.SenderException;
+import org.apache.qpid.transport.network.NetworkConnection;
+import org.apache.qpid.transport.network.Ticker;
+
+/**
+ * A connection over a non-blocking socket channel, read and written by a {@link NioSelectorThread}.
+ * <p>
+ * Data sent is copied into pooled direct buffers and queued until the connection is flushed, when as much as the socket
+ * will accept is written; anything left over is written by the selector thread once the socket becomes writable.  Senders block, as they do with the
+ * blocking transport, while more than the configured number of bytes are waiting to be written.
+ * <p>
+ * Data is read into a pooled direct buffer and handed to the receiver as slices of that buffer, each read filling the
+ * space after the last, until no more than half the buffer remains and it is replaced.
+ */
+public class NioNetworkConnection implements NetworkConnection, ByteBufferSender
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioNetworkConnection.class);
+    private static final int MAX_GATHERED_BUFFERS = 64;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel _socketChannel;
+    private final ExceptionHandlingByteBufferReceiver _receiver;
+    private final long _maxPendingBytes;
+    private final long _timeout;
+    private final Ticker _ticker;
+    private final NioSelectorThread _selectorThread;
+    private final SocketAddress _remoteAddress;
+    private final SocketAddress _localAddress;
+
+    private final Object _writeLock = new Object();
+    private final Deque<QpidByteBuffer> _pendingWrites = new ArrayDeque<>();
+    private long _pendingBytes;
+    private boolean _writeInterest;
+
+    private final AtomicBoolean _closed = new AtomicBoolean();
+    private final AtomicBoolean _channelClosed = new AtomicBoolean();
+    private volatile Throwable _writeException;
+    private volatile Throwable _readException;
+
+    /** Only accessed by the selector thread */
+    private SelectionKey _selectionKey;
+    /** Only accessed by the selector thread */
+    private QpidByteBuffer _readBuffer;
+
+    private volatile int _maxReadIdle;
+    private volatile int _maxWriteIdle;
+
+    public NioNetworkConnection(final SocketChannel socketChannel,
+                                final ExceptionHandlingByteBufferReceiver receiver,
+                                final long maxPendingBytes,
+                                final long timeout,
+                                final Ticker ticker,
+                                final NioSelectorThread selectorThread)
+    {
+        _socketChannel = socketChannel;
+        _receiver = receiver;
+        _maxPendingBytes = maxPendingBytes;
+        _timeout = timeout;
+        _ticker = ticker;
+        _selectorThread = selectorThread;
+        _remoteAddress = socketChannel.socket().getRemoteSocketAddress();
+        _localAddress = socketChannel.socket().getLocalSocketAddress();
+    }
+
+    @Override
+    public void start()
+    {
+        _selectorThread.addConnection(this);
+    }
+
+    @Override
+    public ByteBufferSender getSender()
+    {
+        return this;
+    }
+
+    @Override
+    public void send(final QpidByteBuffer msg)
+    {
+        checkNotAlreadyClosed();
+
+        final int size = msg.remaining();
+        if (size == 0)
+        {
+            return;
+        }
+
+        // callers reuse their buffers once send returns
+        QpidByteBuffer copy = QpidByteBuffer.allocateDirect(size);
+        copy.put(msg);
+        copy.flip();
+
+        synchronized (_writeLock)
+        {
+            try
+            {
+                checkNotAlreadyClosed();
+                awaitWriteSpace();
+            }
+            catch (RuntimeException e)
+            {
+                copy.dispose();
+                throw e;
+            }
+            _pendingWrites.add(copy);
+            _pendingBytes += size;
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        synchronized (_writeLock)
+        {
+            if (!_channelClosed.get())
+            {
+                writePending();
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (_closed.compareAndSet(false, true))
+        {
+            if (!_selectorThread.isCurrentThread())
+            {
+                awaitPendingWrites();
+            }
+            _selectorThread.closeConnection(this);
+
+            final Throwable exception = _writeException;
+            if (exception != null)
+            {
+                throw new SenderException(exception);
+            }
+        }
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress()
+    {
+        return _remoteAddress;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress()
+    {
+        return _localAddress;
+    }
+
+    @Override
+    public void setMaxWriteIdle(final int sec)
+    {
+        _maxWriteIdle = sec;
+        _selectorThread.rescheduleTicks();
+    }
+
+    @Override
+    public void setMaxReadIdle(final int sec)
+    {
+        _maxReadIdle = sec;
+        _selectorThread.rescheduleTicks();
+    }
+
+    /**
+     * @return null, as TLS is layered above the transport by the security layer rather than by the socket
+     */
+    @Override
+    public Principal getPeerPrincipal()
+    {
+        return null;
+    }
+
+    @Override
+    public Certificate getPeerCertificate()
+    {
+        return null;
+    }
+
+    @Override
+    public int getMaxReadIdle()
+    {
+        return _maxReadIdle;
+    }
+
+    @Override
+    public int getMaxWriteIdle()
+    {
+        return _maxWriteIdle;
+    }
+
+    /**
+     * Registers the channel with the selector, called by the selector thread.
+     *
+     * @return false if the channel has already been closed
+     */
+    boolean register(final Selector selector)
+    {
+        try
+        {
+            _selectionKey = _socketChannel.register(selector, SelectionKey.OP_READ, this);
+        }
+        catch (ClosedChannelException e)
+        {
+            return false;
+        }
+        updateInterestOps();
+        return true;
+    }
+
+    void updateInterestOps()
+    {
+        if (_selectionKey != null && _selectionKey.isValid())
+        {
+            final boolean writeInterest;
+            synchronized (_writeLock)
+            {
+                writeInterest = _writeInterest;
+            }
+            _selectionKey.interestOps(writeInterest ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    void writable()
+    {
+        synchronized (_writeLock)
+        {
+            _writeInterest = false;
+            if (!_channelClosed.get())
+            {
+                writePending();
+            }
+        }
+        updateInterestOps();
+    }
+
+    void readable()
+    {
+        try
+        {
+            int read;
+            do
+            {
+                if (_readBuffer == null || _readBuffer.remaining() <= _readBuffer.capacity() / 2)
+                {
+                    disposeReadBuffer();
+                    _readBuffer = QpidByteBuffer.allocateDirect(getReadBufferSize());
+                }
+
+                final int start = _readBuffer.position();
+                read = _readBuffer.read(_socketChannel);
+                if (read > 0)
+                {
+                    // the receiver may retain what it is given, so it is passed a slice of the data just read, and
+                    // the region is never read into again
+                    QpidByteBuffer data = _readBuffer.duplicate();
+                    data.limit(start + read);
+                    data.position(start);
+                    QpidByteBuffer slice = data.slice();
+                    data.dispose();
+                    _receiver.received(slice.asByteBuffer());
+                }
+            }
+            while (read > 0 && !_readBuffer.hasRemaining() && !_channelClosed.get());
+
+            if (read == -1)
+            {
+                requestClose();
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            if (!_closed.get())
+            {
+                _readException = e;
+            }
+            requestClose();
+        }
+    }
+
+    /**
+     * Checks the idle timeouts of the connection, called by the selector thread.
+     *
+     * @return the time at which the timeouts should next be checked
+     */
+    long tick(final long currentTime)
+    {
+        int timeToNextTick = _ticker.getTimeToNextTick(currentTime);
+        if (timeToNextTick <= 0)
+        {
+            timeToNextTick = _ticker.tick(currentTime);
+        }
+        return currentTime + Math.max(1, timeToNextTick);
+    }
+
+    /**
+     * Records that the selector thread serving this connection has failed, so that the receiver is notified.
+     */
+    void selectorFailed(final Throwable failure)
+    {
+        if (failure != null && _readException == null && !_closed.get())
+        {
+            _readException = failure;
+        }
+    }
+
+    /**
+     * Closes the channel, releases any unwritten data and notifies the receiver, called by the selector thread.
+     *
+     * @return true if the channel was closed by this call
+     */
+    boolean closeChannel()
+    {
+        if (!_channelClosed.compareAndSet(false, true))
+        {
+            return false;
+        }
+
+        _closed.set(true);
+        if (_selectionKey != null)
+        {
+            _selectionKey.cancel();
+        }
+        try
+        {
+            _socketChannel.close();
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Error closing socket for {}", _remoteAddress, e);
+        }
+
+        synchronized (_writeLock)
+        {
+            discardPendingWrites();
+            _writeLock.notifyAll();
+        }
+        disposeReadBuffer();
+
+        notifyReceiverClosed();
+        return true;
+    }
+
+    private void awaitWriteSpace()
+    {
+        if (_pendingBytes >= _maxPendingBytes && !_selectorThread.isCurrentThread())
+        {
+            writePending();
+
+            final long start = System.currentTimeMillis();
+            long elapsed = 0;
+            while (!_closed.get() && _pendingBytes >= _maxPendingBytes && elapsed < _timeout)
+            {
+                try
+                {
+                    _writeLock.wait(_timeout - elapsed);
+                }
+                catch (InterruptedException e)
+                {
+                    // pass
+                }
+                elapsed = System.currentTimeMillis() - start;
+            }
+
+            checkNotAlreadyClosed();
+
+            if (_pendingBytes >= _maxPendingBytes)
+            {
+                LOGGER.error("write timed out for socket {}: {} bytes pending", _remoteAddress, _pendingBytes);
+                requestClose();
+                throw new SenderException(String.format("write timed out for socket %s: %d bytes pending",
+                                                        _remoteAddress,
+                                                        _pendingBytes));
+            }
+        }
+    }
+
+    private void awaitPendingWrites()
+    {
+        synchronized (_writeLock)
+        {
+            if (_channelClosed.get())
+            {
+                return;
+            }
+            writePending();
+
+            final long start = System.currentTimeMillis();
+            long elapsed = 0;
+            while (!_pendingWrites.isEmpty() && !_channelClosed.get() && elapsed < _timeout)
+            {
+                try
+                {
+                    _writeLock.wait(_timeout - elapsed);
+                }
+                catch (InterruptedException e)
+                {
+                    // pass
+                }
+                elapsed = System.currentTimeMillis() - start;
+            }
+
+            if (!_pendingWrites.isEmpty() && !_channelClosed.get())
+            {
+                LOGGER.error("timed out writing {} bytes to socket {} before closing", _pendingBytes, _remoteAddress);
+            }
+        }
+    }
+
+    /**
+     * Writes as much pending data as the socket accepts without blocking, asking the selector thread to write the
+     * remainder when the socket becomes writable.  Called holding the write lock.
+     */
+    private void writePending()
+    {
+        try
+        {
+            while (!_pendingWrites.isEmpty())
+            {
+                long written = QpidByteBuffer.write(_socketChannel, _pendingWrites, MAX_GATHERED_BUFFERS);
+                _pendingBytes -= written;
+
+                QpidByteBuffer buf;
+                while ((buf = _pendingWrites.peek()) != null && !buf.hasRemaining())
+                {
+                    _pendingWrites.poll();
+                    buf.dispose();
+                }
+
+                if (written == 0L)
+                {
+                    break;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            LOGGER.info("Exception writing to socket {} : {}", _remoteAddress, e.getMessage());
+            _writeException = e;
+            discardPendingWrites();
+            requestClose();
+        }
+
+        if (!_pendingWrites.isEmpty() && !_writeInterest)
+        {
+            _writeInterest = true;
+            _selectorThread.updateInterest(this);
+        }
+        _writeLock.notifyAll();
+    }
+
+    private void discardPendingWrites()
+    {
+        QpidByteBuffer buf;
+        while ((buf = _pendingWrites.poll()) != null)
+        {
+            buf.dispose();
+        }
+        _pendingBytes = 0L;
+    }
+
+    private static int getReadBufferSize()
+    {
+        final int pooledBufferSize = QpidByteBuffer.getPooledBufferSize();
+        return pooledBufferSize > 0 ? pooledBufferSize : READ_BUFFER_SIZE;
+    }
+
+    private void disposeReadBuffer()
+    {
+        if (_readBuffer != null)
+        {
+            _readBuffer.dispose();
+            _readBuffer = null;
+        }
+    }
+
+    private void requestClose()
+    {
+        _closed.set(true);
+        _selectorThread.closeConnection(this);
+    }
+
+    private void checkNotAlreadyClosed()
+    {
+        if (_closed.get())
+        {
+            throw new SenderClosedException(String.format("sender for socket %s is closed", _remoteAddress),
+                                            _writeException);
+        }
+    }
+
+    private void notifyReceiverClosed()
+    {
+        final Throwable exception = _readException;
+        Runnable notifier = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    if (exception != null)
+                    {
+                        _receiver.exception(exception);
+                    }
+                }
+                finally
+                {
+                    _receiver.closed();
+                }
+            }
+        };
+
+        // the receiver may fail over, connecting anew, so must not be called on the selector thread
+        try
+        {
+            Thread thread = Threading.getThreadFactory().createThread(notifier);
+            thread.setDaemon(true);
+            thread.setName("NioClose-" + _remoteAddress);
+            thread.start();
+        }
+        catch (Exception e)
+        {
+            LOGGER.warn("Error creating thread to notify the closure of socket {}", _remoteAddress, e);
+            notifier.run();
+        }
+    }
+}
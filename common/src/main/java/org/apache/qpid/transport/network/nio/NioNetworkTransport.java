@@ -0,0 +1,205 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.transport.network.nio;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.configuration.ClientProperties;
+import org.apache.qpid.configuration.CommonProperties;
+import org.apache.qpid.transport.ConnectionSettings;
+import org.apache.qpid.transport.ExceptionHandlingByteBufferReceiver;
+import org.apache.qpid.transport.TransportException;
+import org.apache.qpid.transport.network.NetworkConnection;
+import org.apache.qpid.transport.network.OutgoingNetworkTransport;
+import org.apache.qpid.transport.network.TransportActivity;
+import org.apache.qpid.transport.network.io.IdleTimeoutTicker;
+
+/**
+ * Connects to a broker over a non-blocking socket channel, which is then served by one of a small pool of selector
+ * threads shared by every connection in the JVM, rather than by threads of its own.
+ * <p>
+ * Data read from the network is passed to the receiver on the selector thread, so receivers must not block waiting
+ * for further network activity; notifications that the connection has closed are made on a separate thread, since
+ * they may trigger failover.
+ */
+public class NioNetworkTransport implements OutgoingNetworkTransport
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioNetworkTransport.class);
+    private static final int TIMEOUT = Integer.getInteger(CommonProperties.IO_NETWORK_TRANSPORT_TIMEOUT_PROP_NAME,
+                                                          CommonProperties.IO_NETWORK_TRANSPORT_TIMEOUT_DEFAULT);
+    private static final int SELECTOR_THREADS =
+            Integer.getInteger(ClientProperties.SELECTOR_THREADS_PROP_NAME,
+                               Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static NioSelectorThread[] _selectorThreads;
+
+    private NetworkConnection _connection;
+
+    @Override
+    public NetworkConnection connect(final ConnectionSettings settings,
+                                     final ExceptionHandlingByteBufferReceiver delegate,
+                                     final TransportActivity transportActivity)
+    {
+        if (!"tcp".equalsIgnoreCase(settings.getProtocol()))
+        {
+            throw new TransportException("Unknown transport '" + settings.getProtocol() + "'");
+        }
+
+        final NioSelectorThread selectorThread = getSelectorThread();
+
+        final SocketChannel socketChannel;
+        try
+        {
+            socketChannel = SocketChannel.open();
+        }
+        catch (IOException e)
+        {
+            throw new TransportException("Error connecting to broker", e);
+        }
+
+        try
+        {
+            Socket socket = socketChannel.socket();
+            socket.setReuseAddress(true);
+            socket.setTcpNoDelay(settings.isTcpNodelay());
+            socket.setSendBufferSize(settings.getWriteBufferSize());
+            socket.setReceiveBufferSize(settings.getReadBufferSize());
+
+            if (LOGGER.isDebugEnabled())
+            {
+                LOGGER.debug("SO_RCVBUF : " + socket.getReceiveBufferSize());
+                LOGGER.debug("SO_SNDBUF : " + socket.getSendBufferSize());
+                LOGGER.debug("TCP_NODELAY : " + socket.getTcpNoDelay());
+            }
+
+            InetAddress address = InetAddress.getByName(settings.getHost());
+
+            // connect in blocking mode so that the connect timeout applies
+            socket.connect(new InetSocketAddress(address, settings.getPort()), settings.getConnectTimeout());
+            socketChannel.configureBlocking(false);
+        }
+        catch (IOException e)
+        {
+            closeSocketChannel(socketChannel);
+            throw new TransportException("Error connecting to broker", e);
+        }
+
+        try
+        {
+            IdleTimeoutTicker ticker = new IdleTimeoutTicker(transportActivity, TIMEOUT);
+            NioNetworkConnection connection = new NioNetworkConnection(socketChannel,
+                                                                       delegate,
+                                                                       2 * settings.getWriteBufferSize(),
+                                                                       TIMEOUT,
+                                                                       ticker,
+                                                                       selectorThread);
+            ticker.setConnection(connection);
+            _connection = connection;
+            connection.start();
+        }
+        catch (Exception e)
+        {
+            closeSocketChannel(socketChannel);
+            throw new TransportException("Error creating network connection", e);
+        }
+
+        return _connection;
+    }
+
+    @Override
+    public void close()
+    {
+        if (_connection != null)
+        {
+            _connection.close();
+        }
+    }
+
+    @Override
+    public NetworkConnection getConnection()
+    {
+        return _connection;
+    }
+
+    private void closeSocketChannel(final SocketChannel socketChannel)
+    {
+        try
+        {
+            socketChannel.close();
+        }
+        catch (IOException ioe)
+        {
+            //ignored, throw based on original exception
+        }
+    }
+
+    /**
+     * @return the live selector thread serving the fewest connections, starting the selector threads and initialising
+     * the buffer pool on first use
+     */
+    private static synchronized NioSelectorThread getSelectorThread()
+    {
+        if (_selectorThreads == null)
+        {
+            if (!QpidByteBuffer.isPoolInitialised())
+            {
+                QpidByteBuffer.initialisePool(Integer.getInteger(ClientProperties.DIRECT_BUFFER_SIZE_PROP_NAME,
+                                                                 ClientProperties.DEFAULT_DIRECT_BUFFER_SIZE),
+                                              Integer.getInteger(ClientProperties.DIRECT_BUFFER_POOL_SIZE_PROP_NAME,
+                                                                 ClientProperties.DEFAULT_DIRECT_BUFFER_POOL_SIZE));
+            }
+            _selectorThreads = new NioSelectorThread[Math.max(1, SELECTOR_THREADS)];
+        }
+
+        NioSelectorThread leastLoaded = null;
+        for (int i = 0; i < _selectorThreads.length; i++)
+        {
+            NioSelectorThread selectorThread = _selectorThreads[i];
+            if (selectorThread == null || !selectorThread.isAlive())
+            {
+                try
+                {
+                    selectorThread = new NioSelectorThread("NioSelector-" + i);
+                }
+                catch (IOException e)
+                {
+                    throw new TransportException("Error opening selector", e);
+                }
+                selectorThread.start();
+                _selectorThreads[i] = selectorThread;
+            }
+
+            if (leastLoaded == null || selectorThread.getConnectionCount() < leastLoaded.getConnectionCount())
+            {
+                leastLoaded = selectorThread;
+            }
+        }
+        return leastLoaded;
+    }
+}
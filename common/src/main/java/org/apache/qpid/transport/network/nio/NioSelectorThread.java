@@ -0,0 +1,269 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.transport.network.nio;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.thread.Threading;
+import org.apache.qpid.transport.TransportException;
+
+/**
+ * Performs the network reads and writes of the connections assigned to it.  Other threads hand work to the selector
+ * thread through queues and wake it, so that only the selector thread registers channels and changes interest sets.
+ */
+final class NioSelectorThread implements Runnable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioSelectorThread.class);
+
+    /** The longest the thread waits before checking idle timeouts, if no connection needs checking sooner */
+    private static final long MAXIMUM_SELECT_TIMEOUT = 60000L;
+
+    private final Selector _selector;
+    private final Thread _thread;
+
+    private final Queue<NioNetworkConnection> _newConnections = new ConcurrentLinkedQueue<>();
+    private final Queue<NioNetworkConnection> _interestChanges = new ConcurrentLinkedQueue<>();
+    private final Queue<NioNetworkConnection> _closingConnections = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger _connectionCount = new AtomicInteger();
+
+    /** The connections registered with the selector, only accessed by the selector thread */
+    private final Set<NioNetworkConnection> _connections = new HashSet<>();
+    private long _nextTickTime;
+    private volatile boolean _ticksChanged;
+
+    NioSelectorThread(final String name) throws IOException
+    {
+        _selector = Selector.open();
+        try
+        {
+            _thread = Threading.getThreadFactory().createThread(this);
+        }
+        catch (Exception e)
+        {
+            _selector.close();
+            throw new TransportException("Error creating selector thread", e);
+        }
+        _thread.setDaemon(true);
+        _thread.setName(name);
+    }
+
+    void start()
+    {
+        _thread.start();
+    }
+
+    boolean isAlive()
+    {
+        return _thread.isAlive();
+    }
+
+    boolean isCurrentThread()
+    {
+        return Thread.currentThread() == _thread;
+    }
+
+    /**
+     * @return the number of connections assigned to this thread and not yet closed
+     */
+    int getConnectionCount()
+    {
+        return _connectionCount.get();
+    }
+
+    void addConnection(final NioNetworkConnection connection)
+    {
+        _connectionCount.incrementAndGet();
+        _newConnections.add(connection);
+        _selector.wakeup();
+    }
+
+    void updateInterest(final NioNetworkConnection connection)
+    {
+        _interestChanges.add(connection);
+        _selector.wakeup();
+    }
+
+    void closeConnection(final NioNetworkConnection connection)
+    {
+        _closingConnections.add(connection);
+        _selector.wakeup();
+    }
+
+    /**
+     * Causes the idle timeouts of every connection to be recalculated, as they may now fall due sooner.
+     */
+    void rescheduleTicks()
+    {
+        _ticksChanged = true;
+        _selector.wakeup();
+    }
+
+    @Override
+    public void run()
+    {
+        IOException failure = null;
+        try
+        {
+            while (true)
+            {
+                long timeout = _nextTickTime - System.currentTimeMillis();
+                try
+                {
+                    if (timeout > 0L && !_ticksChanged)
+                    {
+                        _selector.select(timeout);
+                    }
+                    else
+                    {
+                        _selector.selectNow();
+                    }
+                }
+                catch (IOException e)
+                {
+                    LOGGER.error("Failed to select", e);
+                    failure = e;
+                    break;
+                }
+
+                registerNewConnections();
+                processSelectedKeys();
+                updateInterestOps();
+                closeConnections();
+                tickConnections();
+            }
+        }
+        finally
+        {
+            closeAllConnections(failure);
+            try
+            {
+                _selector.close();
+            }
+            catch (IOException e)
+            {
+                LOGGER.debug("Failed to close selector", e);
+            }
+        }
+    }
+
+    private void registerNewConnections()
+    {
+        NioNetworkConnection connection;
+        while ((connection = _newConnections.poll()) != null)
+        {
+            if (connection.register(_selector))
+            {
+                _connections.add(connection);
+                _ticksChanged = true;
+            }
+            else
+            {
+                closeConnection(connection);
+            }
+        }
+    }
+
+    private void processSelectedKeys()
+    {
+        Set<SelectionKey> selectionKeys = _selector.selectedKeys();
+        for (SelectionKey key : selectionKeys)
+        {
+            NioNetworkConnection connection = (NioNetworkConnection) key.attachment();
+            if (key.isValid() && key.isWritable())
+            {
+                connection.writable();
+            }
+            if (key.isValid() && key.isReadable())
+            {
+                connection.readable();
+            }
+        }
+        selectionKeys.clear();
+    }
+
+    private void updateInterestOps()
+    {
+        NioNetworkConnection connection;
+        while ((connection = _interestChanges.poll()) != null)
+        {
+            connection.updateInterestOps();
+        }
+    }
+
+    private void closeConnections()
+    {
+        NioNetworkConnection connection;
+        while ((connection = _closingConnections.poll()) != null)
+        {
+            _connections.remove(connection);
+            if (connection.closeChannel())
+            {
+                _connectionCount.decrementAndGet();
+            }
+        }
+    }
+
+    private void tickConnections()
+    {
+        long currentTime = System.currentTimeMillis();
+        if (_ticksChanged || currentTime >= _nextTickTime)
+        {
+            _ticksChanged = false;
+            long nextTickTime = currentTime + MAXIMUM_SELECT_TIMEOUT;
+            for (NioNetworkConnection connection : _connections)
+            {
+                nextTickTime = Math.min(nextTickTime, connection.tick(currentTime));
+            }
+            _nextTickTime = nextTickTime;
+        }
+    }
+
+    private void closeAllConnections(final IOException failure)
+    {
+        List<NioNetworkConnection> connections = new ArrayList<>(_connections);
+        _connections.clear();
+        NioNetworkConnection connection;
+        while ((connection = _newConnections.poll()) != null)
+        {
+            connections.add(connection);
+        }
+        for (NioNetworkConnection toClose : connections)
+        {
+            toClose.selectorFailed(failure);
+            if (toClose.closeChannel())
+            {
+                _connectionCount.decrementAndGet();
+            }
+        }
+    }
+}
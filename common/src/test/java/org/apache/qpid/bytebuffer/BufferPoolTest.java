@@ -0,0 +1,190 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.bytebuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class BufferPoolTest extends QpidTestCase
+{
+    public void testReturnedBufferIsReused()
+    {
+        BufferPool pool = new BufferPool(10, 4);
+        assertNull("Empty pool should not supply a buffer", pool.getBuffer());
+
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        pool.returnBuffer(buffer);
+        assertSame("Returned buffer not reused", buffer, pool.getBuffer());
+
+        assertEquals("Unexpected hits", 1L, pool.getHits());
+        assertEquals("Unexpected misses", 1L, pool.getMisses());
+        assertEquals("Unexpected outstanding buffers", 1L, pool.getOutstandingBuffers());
+    }
+
+    public void testFullMagazineSpillsToDepot()
+    {
+        BufferPool pool = new BufferPool(10, 4);
+        for (int i = 0; i < 5; i++)
+        {
+            pool.returnBuffer(ByteBuffer.allocate(1));
+        }
+        assertEquals("Half the magazine should have spilled to the depot", 2, pool.getDepotSize());
+    }
+
+    public void testDepotIsBounded()
+    {
+        BufferPool pool = new BufferPool(3, 0);
+        for (int i = 0; i < 5; i++)
+        {
+            pool.returnBuffer(ByteBuffer.allocate(1));
+        }
+        assertEquals("Depot should not exceed the maximum pool size", 3, pool.getDepotSize());
+
+        int reused = 0;
+        while (pool.getBuffer() != null)
+        {
+            reused++;
+        }
+        assertEquals("Unexpected number of buffers reused", 3, reused);
+        assertEquals("Unexpected depot size", 0, pool.getDepotSize());
+    }
+
+    public void testMagazinesAndDepotBoundedByMaximumSize()
+    {
+        BufferPool pool = new BufferPool(16, 4);
+        for (int i = 0; i < 20; i++)
+        {
+            pool.returnBuffer(ByteBuffer.allocate(1));
+        }
+        assertEquals("Depot should hold only what the magazines leave of the maximum pool size",
+                     8, pool.getDepotSize());
+
+        int reused = 0;
+        while (pool.getBuffer() != null)
+        {
+            reused++;
+        }
+        assertEquals("Unexpected number of buffers reused", 12, reused);
+    }
+
+    public void testBuffersReusedWhenThreadsOutnumberMagazines() throws Exception
+    {
+        final BufferPool pool = new BufferPool(8, 2);
+        final int threadCount = 6;
+        final CountDownLatch returned = new CountDownLatch(threadCount);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final List<ByteBuffer> buffers = Collections.synchronizedList(new ArrayList<ByteBuffer>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++)
+        {
+            Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    ByteBuffer buffer = ByteBuffer.allocate(1);
+                    buffers.add(buffer);
+                    pool.returnBuffer(buffer);
+                    returned.countDown();
+                    try
+                    {
+                        finish.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        try
+        {
+            assertTrue("Threads did not return their buffers", returned.await(10, TimeUnit.SECONDS));
+            assertEquals("Buffers returned by threads without a magazine should be held by the depot",
+                         4, pool.getDepotSize());
+
+            ByteBuffer buffer = pool.getBuffer();
+            assertNotNull("Buffer returned by a thread without a magazine should be reused", buffer);
+            assertTrue("Unexpected buffer", buffers.contains(buffer));
+        }
+        finally
+        {
+            finish.countDown();
+            for (Thread thread : threads)
+            {
+                thread.join();
+            }
+        }
+    }
+
+    public void testBuffersSharedBetweenThreads() throws Exception
+    {
+        final BufferPool pool = new BufferPool(100, 4);
+        final List<ByteBuffer> returned = new ArrayList<>();
+        Thread returner = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for (int i = 0; i < 20; i++)
+                {
+                    pool.getBuffer();
+                    returned.add(ByteBuffer.allocate(1));
+                }
+                for (ByteBuffer buffer : returned)
+                {
+                    pool.returnBuffer(buffer);
+                }
+            }
+        });
+        returner.start();
+        returner.join();
+
+        assertTrue("Buffers should have spilled to the depot", pool.getDepotSize() > 0);
+
+        ByteBuffer buffer = pool.getBuffer();
+        assertNotNull("Buffer returned by another thread should be reused", buffer);
+        assertTrue("Unexpected buffer", returned.contains(buffer));
+
+        assertEquals("Buffers in the dead thread's magazine should have moved to the depot, less those taken to"
+                     + " refill this thread's magazine", 17, pool.getDepotSize());
+        assertEquals("Unexpected outstanding buffers", 1L, pool.getOutstandingBuffers());
+        assertEquals("Unexpected misses", 20L, pool.getMisses());
+    }
+
+    public void testRemovedBufferNotOutstanding()
+    {
+        BufferPool pool = new BufferPool(10, 4);
+        assertNull(pool.getBuffer());
+        assertEquals("Unexpected outstanding buffers", 1L, pool.getOutstandingBuffers());
+        pool.removeBuffer();
+        assertEquals("Unexpected outstanding buffers", 0L, pool.getOutstandingBuffers());
+    }
+}
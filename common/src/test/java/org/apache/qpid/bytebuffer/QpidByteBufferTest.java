@@ -20,6 +20,18 @@
 
 package org.apache.qpid.bytebuffer;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mockito.ArgumentCaptor;
+
 import org.apache.qpid.test.utils.QpidTestCase;
 
 public class QpidByteBufferTest extends QpidTestCase
@@ -87,6 +99,43 @@ public class QpidByteBufferTest extends QpidTestCase
         }
     }
 
+    public void testPoolStatistics() throws Exception
+    {
+        QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.dispose();
+
+        long hits = QpidByteBuffer.getPooledBufferHits();
+        long outstanding = QpidByteBuffer.getOutstandingPooledMemory();
+
+        buffer = QpidByteBuffer.allocateDirect(BUFFER_SIZE);
+        assertEquals("Disposed buffer should have been reused", hits + 1, QpidByteBuffer.getPooledBufferHits());
+        assertEquals("Unexpected outstanding memory",
+                     outstanding + BUFFER_SIZE,
+                     QpidByteBuffer.getOutstandingPooledMemory());
+
+        buffer.dispose();
+        assertEquals("Unexpected outstanding memory", outstanding, QpidByteBuffer.getOutstandingPooledMemory());
+    }
+
+    public void testGatheringWriteIsBounded() throws Exception
+    {
+        List<QpidByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            buffers.add(QpidByteBuffer.wrap(new byte[]{(byte) i}));
+        }
+        GatheringByteChannel channel = mock(GatheringByteChannel.class);
+        when(channel.write(any(ByteBuffer[].class))).thenReturn(3L);
+
+        assertEquals("Unexpected number of bytes written", 3L, QpidByteBuffer.write(channel, buffers, 3));
+
+        ArgumentCaptor<ByteBuffer[]> captor = ArgumentCaptor.forClass(ByteBuffer[].class);
+        verify(channel).write(captor.capture());
+        ByteBuffer[] written = captor.getValue();
+        assertEquals("Gathering write should be limited to the maximum number of buffers", 3, written.length);
+        assertEquals("Unexpected first buffer", (byte) 0, written[0].get(0));
+    }
+
     public void testSettingUpPoolTwice() throws Exception
     {
         try
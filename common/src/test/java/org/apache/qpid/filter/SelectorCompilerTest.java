@@ -0,0 +1,236 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.qpid.filter.selector.SelectorParser;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class SelectorCompilerTest extends QpidTestCase
+{
+    private static final String[] SELECTORS = {
+            "colour = 'red'",
+            "colour = 'red' AND size > 3",
+            "colour = 'red' OR size > 3",
+            "NOT (colour = 'red' AND size > 3)",
+            "NOT (colour = 'red' OR size > 3)",
+            "NOT (missing = 'x' AND size > 3)",
+            "NOT (size > 3 AND missing = 'x')",
+            "missing IS NULL AND colour IS NOT NULL",
+            "colour LIKE 're%'",
+            "colour LIKE '%ed'",
+            "colour LIKE '%e%'",
+            "colour LIKE 'r_d'",
+            "colour LIKE '%'",
+            "colour NOT LIKE 'bl%'",
+            "colour LIKE 'r\\%' ESCAPE '\\'",
+            "colour IN ('red', 'green')",
+            "colour NOT IN ('red', 'green')",
+            "size BETWEEN 2 AND 5",
+            "size NOT BETWEEN 2 AND 5",
+            "size * 2 + 1 > 8",
+            "-size < -3",
+            "1 = 1 AND colour = 'red'",
+            "1 = 2 OR colour = 'red'",
+            "1 = 2 AND colour = 'red'",
+            "flag",
+            "NOT flag",
+            "flag = TRUE OR (colour = 'red' AND (size > 100 OR missing = 1))",
+            "JMSPriority > 3 AND colour <> 'blue'",
+            "(colour * 2) > 2 OR size > 3",
+            "size > 3 OR (colour * 2) > 2",
+            "(colour * 2) > 2 AND size > 3",
+            "(size > 3 AND (colour * 2) > 2) OR colour = 'red'",
+            "NOT (size > 3 AND (colour * 2) > 2) OR colour = 'red'"
+    };
+
+    public void testCompiledSelectorsMatchInterpretedSelectors() throws Exception
+    {
+        TestMessage[] messages = {
+                new TestMessage().with("colour", "red").with("size", 4).with("flag", true),
+                new TestMessage().with("colour", "red").with("size", 1).with("flag", false),
+                new TestMessage().with("colour", "blue").with("size", 6),
+                new TestMessage().with("colour", "rxd").with("size", 5),
+                new TestMessage().with("colour", "r%").with("size", 2),
+                new TestMessage().with("size", 3),
+                new TestMessage().with("colour", 7),
+                new TestMessage()
+        };
+
+        for (String selector : SELECTORS)
+        {
+            BooleanExpression interpreted = new SelectorParser().parse(selector);
+            BooleanExpression compiled = SelectorCompiler.compile(interpreted);
+            for (TestMessage message : messages)
+            {
+                assertEquals("Compiled selector " + selector + " disagreed for " + message,
+                             matches(interpreted, message),
+                             matches(compiled, message));
+            }
+        }
+    }
+
+    public void testConstantSelectorIsFolded() throws Exception
+    {
+        BooleanExpression compiled = SelectorCompiler.compile(new SelectorParser().parse("1 + 1 = 2 OR colour = 'red'"));
+        CountingMessage message = new CountingMessage();
+
+        assertTrue("Selector should match", compiled.matches(message));
+        assertEquals("Constant selector should not look up headers", 0, message.getLookups());
+    }
+
+    public void testCheapestOperandEvaluatedFirst() throws Exception
+    {
+        BooleanExpression compiled =
+                SelectorCompiler.compile(new SelectorParser().parse("colour LIKE 'r_d' AND JMSPriority > 5"));
+        CountingMessage message = new CountingMessage();
+
+        assertFalse("Selector should not match", compiled.matches(message));
+        assertEquals("JMS property test should have short-circuited the LIKE", 0, message.getLookups());
+    }
+
+    public void testOperandFailingBeforeDecidingOperandFailsDisjunction() throws Exception
+    {
+        BooleanExpression interpreted = new SelectorParser().parse("(colour * 2) > 2 OR colour = 'red'");
+        BooleanExpression compiled = SelectorCompiler.compile(interpreted);
+        TestMessage message = new TestMessage().with("colour", "red");
+
+        assertFalse("Interpreted selector should fail on the arithmetic", matches(interpreted, message));
+        assertFalse("Compiled selector should fail on the arithmetic although a cheaper operand matches",
+                    matches(compiled, message));
+
+        BooleanExpression reversed = SelectorCompiler.compile(new SelectorParser().parse(
+                "colour = 'red' OR (colour * 2) > 2"));
+        assertTrue("Operand matching before the failing operand should decide the selector",
+                   matches(reversed, message));
+    }
+
+    /**
+     * Evaluates the selector as consumers do, treating a failure to evaluate it as not matching.
+     */
+    private static boolean matches(BooleanExpression selector, FilterableMessage message)
+    {
+        try
+        {
+            return selector.matches(message);
+        }
+        catch (SelectorParsingException e)
+        {
+            return false;
+        }
+    }
+
+    private static class TestMessage implements FilterableMessage
+    {
+        private final Map<String, Object> _headers = new HashMap<>();
+
+        TestMessage with(String name, Object value)
+        {
+            _headers.put(name, value);
+            return this;
+        }
+
+        @Override
+        public boolean isPersistent()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isRedelivered()
+        {
+            return false;
+        }
+
+        @Override
+        public Object getHeader(final String name)
+        {
+            return _headers.get(name);
+        }
+
+        @Override
+        public String getReplyTo()
+        {
+            return null;
+        }
+
+        @Override
+        public String getType()
+        {
+            return null;
+        }
+
+        @Override
+        public byte getPriority()
+        {
+            return 4;
+        }
+
+        @Override
+        public String getMessageId()
+        {
+            return null;
+        }
+
+        @Override
+        public long getTimestamp()
+        {
+            return 0L;
+        }
+
+        @Override
+        public String getCorrelationId()
+        {
+            return null;
+        }
+
+        @Override
+        public long getExpiration()
+        {
+            return 0L;
+        }
+
+        @Override
+        public String toString()
+        {
+            return _headers.toString();
+        }
+    }
+
+    private static class CountingMessage extends TestMessage
+    {
+        private int _lookups;
+
+        @Override
+        public Object getHeader(final String name)
+        {
+            _lookups++;
+            return super.getHeader(name);
+        }
+
+        int getLookups()
+        {
+            return _lookups;
+        }
+    }
+}